@@ -19,8 +19,10 @@ import randoop.main.RandoopBug;
  * covered. Does the following instrumentation of each class:
  *
  * <ol>
- *   <li>Adds a static boolean flag to the class. Initially set to false.
- *   <li>Adds a statement at the beginning of each method and constructor that sets the flag.
+ *   <li>Assigns the class an index in {@link CoveredClassFlags}, and adds a static final field
+ *       that holds the index.
+ *   <li>Adds a statement at the beginning of each method and constructor that sets the class's
+ *       flag in {@link CoveredClassFlags}.
  *   <li>Adds a static method that polls and resets the value of the flag.
  * </ol>
  *
@@ -126,26 +128,29 @@ public class CoveredClassTransformer implements ClassFileTransformer {
 
   /**
    * Instruments the bytecode of the given class object to track constructor and method calls for
-   * the class. Modifies each method and constructor to set an inserted private field that keeps
-   * track. Adds a public method {@code boolean randoop_checkAndReset()}
+   * the class. Modifies each method and constructor to set the class's flag in {@link
+   * CoveredClassFlags}. Adds a field {@code static final int randoop_classIndex} that holds the
+   * index of the flag, and a public method {@code boolean randoop_checkAndReset()}.
    *
    * @param cc the {@code javassist.CtClass} object
    * @see #transform(ClassLoader, String, Class, ProtectionDomain, byte[])
    */
   private void modifyClass(CtClass cc) {
-    // add static field
-    String flagFieldName = "randoop_classUsedFlag";
+    int classIndex = CoveredClassFlags.register();
+
+    // add static field that holds the index, so that CoveredClassVisitor can find the flag
+    String indexFieldName = "randoop_classIndex";
     try {
-      CtField flagField = new CtField(CtClass.booleanType, flagFieldName, cc);
-      flagField.setModifiers(Modifier.STATIC);
-      cc.addField(flagField, "false");
+      CtField indexField = new CtField(CtClass.intType, indexFieldName, cc);
+      indexField.setModifiers(Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL);
+      cc.addField(indexField, CtField.Initializer.constant(classIndex));
     } catch (CannotCompileException e) {
       throw new Error("error adding instrumentation field: " + e);
     }
-    String flagFieldAccess = cc.getName() + "#" + flagFieldName;
 
     // add code to entry of each method to indicate that called
-    String statementToSetFlag = flagFieldAccess + " = true" + ";";
+    String flagsClassName = CoveredClassFlags.class.getName();
+    String statementToSetFlag = flagsClassName + ".set(" + classIndex + ");";
 
     // instrument methods *before* adding polling method
     try {
@@ -172,17 +177,7 @@ public class CoveredClassTransformer implements ClassFileTransformer {
     try {
       String methodName = "randoop_checkAndReset";
       CtMethod pollMethod = new CtMethod(CtClass.booleanType, methodName, new CtClass[0], cc);
-      pollMethod.setBody(
-          "{"
-              + "boolean state = "
-              + flagFieldAccess
-              + "; "
-              + flagFieldAccess
-              + " = false"
-              + ";"
-              + "return state"
-              + ";"
-              + "}");
+      pollMethod.setBody("{ return " + flagsClassName + ".checkAndReset(" + classIndex + "); }");
       pollMethod.setModifiers(Modifier.STATIC | Modifier.PUBLIC);
       cc.addMethod(pollMethod);
     } catch (CannotCompileException e) {
@@ -9,6 +9,7 @@ import java.nio.file.Path;
 import java.security.ProtectionDomain;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import org.apache.bcel.Const;
@@ -55,9 +56,18 @@ public class CallReplacementTransformer extends InstructionListUtils
   /** Map from a method to its replacement. */
   private final Map<MethodSignature, MethodSignature> replacementMap;
 
+  /**
+   * The keys, as computed by {@link ConstantPoolScanner#methodKey}, of the methods in {@link
+   * #replacementMap}. A class that calls none of these methods is not transformed.
+   */
+  private final Set<String> replacedMethodKeys;
+
   /** The list of package prefixes (package name + ".") to exclude from transformation. */
   private final Set<String> excludedPackagePrefixes;
 
+  /** The previously transformed classes, or null if transformed classes are not cached. */
+  private final TransformedClassCache cache;
+
   /**
    * Create a {@link CallReplacementTransformer} that transforms method calls in classes other than
    * those named in the given exclusion set.
@@ -65,11 +75,20 @@ public class CallReplacementTransformer extends InstructionListUtils
    * @param replacementMap the hash map with method replacements
    * @param excludedPackagePrefixes the period-terminated prefixes for packages from which classes
    *     should not be transformed
+   * @param cache the previously transformed classes, or null to always transform classes
    */
   CallReplacementTransformer(
-      Map<MethodSignature, MethodSignature> replacementMap, Set<String> excludedPackagePrefixes) {
+      Map<MethodSignature, MethodSignature> replacementMap,
+      Set<String> excludedPackagePrefixes,
+      TransformedClassCache cache) {
     this.replacementMap = replacementMap;
+    this.replacedMethodKeys = new HashSet<>(replacementMap.size());
+    for (MethodSignature original : replacementMap.keySet()) {
+      replacedMethodKeys.add(
+          ConstantPoolScanner.methodKey(original.getClassname(), original.getName()));
+    }
     this.excludedPackagePrefixes = excludedPackagePrefixes;
+    this.cache = cache;
     // debugInstrument.enabled = ReplaceCallAgent.debug;
   }
 
@@ -112,6 +131,20 @@ public class CallReplacementTransformer extends InstructionListUtils
       return null;
     }
 
+    // Most classes call no replaced method. Skip them without parsing the whole class.
+    if (!ConstantPoolScanner.refersToAny(classfileBuffer, replacedMethodKeys)) {
+      debug_transform.log("transform: %s calls no replaced method%n", className);
+      return null;
+    }
+
+    if (cache != null) {
+      byte[] cached = cache.lookup(classfileBuffer);
+      if (cached != null) {
+        debug_transform.log("transform: %s found in transformed-class cache%n", className);
+        return cached.length == 0 ? null : cached;
+      }
+    }
+
     debug_transform.log("%ntransform class: ENTER %s%n", className);
 
     // Parse the bytes of the classfile
@@ -137,10 +170,17 @@ public class CallReplacementTransformer extends InstructionListUtils
           javaClass.dump(filepath.toFile());
         }
         debug_transform.log("transform class: EXIT %s transformed%n", className);
-        return javaClass.getBytes();
+        byte[] transformed = javaClass.getBytes();
+        if (cache != null) {
+          cache.store(classfileBuffer, transformed);
+        }
+        return transformed;
       } else {
         debug_transform.log(
             "transform class: EXIT %s not transformed (nothing to replace)%n", className);
+        if (cache != null) {
+          cache.store(classfileBuffer, TransformedClassCache.NOT_TRANSFORMED);
+        }
         return null;
       }
     } catch (
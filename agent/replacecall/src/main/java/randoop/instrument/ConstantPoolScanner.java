@@ -0,0 +1,224 @@
+package randoop.instrument;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Reads the constant pool of a class file, without parsing the rest of the class, to determine
+ * whether the class calls any of a given set of methods. {@link CallReplacementTransformer} uses it
+ * to skip, before running BCEL, the classes that cannot contain a call to replace. Every call
+ * instruction refers to a {@code Methodref} or {@code InterfaceMethodref} entry of the pool, so a
+ * class whose pool refers to none of the methods has nothing to replace.
+ */
+final class ConstantPoolScanner {
+
+  /** Constant pool tag for a {@code Utf8} entry. */
+  private static final int CONSTANT_Utf8 = 1;
+
+  /** Constant pool tag for an {@code Integer} entry. */
+  private static final int CONSTANT_Integer = 3;
+
+  /** Constant pool tag for a {@code Float} entry. */
+  private static final int CONSTANT_Float = 4;
+
+  /** Constant pool tag for a {@code Long} entry. */
+  private static final int CONSTANT_Long = 5;
+
+  /** Constant pool tag for a {@code Double} entry. */
+  private static final int CONSTANT_Double = 6;
+
+  /** Constant pool tag for a {@code Class} entry. */
+  private static final int CONSTANT_Class = 7;
+
+  /** Constant pool tag for a {@code String} entry. */
+  private static final int CONSTANT_String = 8;
+
+  /** Constant pool tag for a {@code Fieldref} entry. */
+  private static final int CONSTANT_Fieldref = 9;
+
+  /** Constant pool tag for a {@code Methodref} entry. */
+  private static final int CONSTANT_Methodref = 10;
+
+  /** Constant pool tag for an {@code InterfaceMethodref} entry. */
+  private static final int CONSTANT_InterfaceMethodref = 11;
+
+  /** Constant pool tag for a {@code NameAndType} entry. */
+  private static final int CONSTANT_NameAndType = 12;
+
+  /** Constant pool tag for a {@code MethodHandle} entry. */
+  private static final int CONSTANT_MethodHandle = 15;
+
+  /** Constant pool tag for a {@code MethodType} entry. */
+  private static final int CONSTANT_MethodType = 16;
+
+  /** Constant pool tag for a {@code Dynamic} entry. */
+  private static final int CONSTANT_Dynamic = 17;
+
+  /** Constant pool tag for an {@code InvokeDynamic} entry. */
+  private static final int CONSTANT_InvokeDynamic = 18;
+
+  /** Constant pool tag for a {@code Module} entry. */
+  private static final int CONSTANT_Module = 19;
+
+  /** Constant pool tag for a {@code Package} entry. */
+  private static final int CONSTANT_Package = 20;
+
+  /** Prevents instantiation. */
+  private ConstantPoolScanner() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Returns the key that {@link #refersToAny} uses for a method.
+   *
+   * @param classname the fully-qualified binary name of the class of the method, such as {@code
+   *     java.util.Map$Entry}
+   * @param methodName the name of the method, {@code <init>} for a constructor
+   * @return the key for the method
+   */
+  static String methodKey(String classname, String methodName) {
+    return classname.replace('.', '/') + "." + methodName;
+  }
+
+  /**
+   * Returns true if the constant pool of the class file refers to a method whose key is in the
+   * given set, or if the class file cannot be scanned.
+   *
+   * @param classfile the bytes of a class file
+   * @param methodKeys keys, as returned by {@link #methodKey}, of methods
+   * @return true if the class may call one of the methods, false if it definitely does not
+   */
+  static boolean refersToAny(byte[] classfile, Set<String> methodKeys) {
+    if (methodKeys.isEmpty()) {
+      return false;
+    }
+    try {
+      return scan(classfile, methodKeys);
+    } catch (IOException | RuntimeException e) {
+      // Let BCEL examine the class and report the problem, if there is one.
+      return true;
+    }
+  }
+
+  /**
+   * Scans the constant pool of the class file for a reference to one of the given methods.
+   *
+   * @param classfile the bytes of a class file
+   * @param methodKeys keys, as returned by {@link #methodKey}, of methods
+   * @return true if the class refers to one of the methods
+   * @throws IOException if the class file is malformed
+   */
+  private static boolean scan(byte[] classfile, Set<String> methodKeys) throws IOException {
+    if (readInt(classfile, 0) != 0xCAFEBABE) {
+      throw new IOException("Not a class file");
+    }
+    int count = readUnsignedShort(classfile, 8);
+    // The offset of the tag of each entry; 0 for the unusable entry after an 8-byte constant.
+    int[] offsets = new int[count];
+    boolean hasMethodref = false;
+    int offset = 10;
+    for (int i = 1; i < count; i++) {
+      int tag = classfile[offset];
+      offsets[i] = offset;
+      switch (tag) {
+        case CONSTANT_Utf8:
+          offset += 3 + readUnsignedShort(classfile, offset + 1);
+          break;
+        case CONSTANT_Methodref:
+        case CONSTANT_InterfaceMethodref:
+          hasMethodref = true;
+          offset += 5;
+          break;
+        case CONSTANT_Integer:
+        case CONSTANT_Float:
+        case CONSTANT_Fieldref:
+        case CONSTANT_NameAndType:
+        case CONSTANT_Dynamic:
+        case CONSTANT_InvokeDynamic:
+          offset += 5;
+          break;
+        case CONSTANT_Long:
+        case CONSTANT_Double:
+          // An 8-byte constant occupies two entries of the pool.
+          offset += 9;
+          i++;
+          break;
+        case CONSTANT_Class:
+        case CONSTANT_String:
+        case CONSTANT_MethodType:
+        case CONSTANT_Module:
+        case CONSTANT_Package:
+          offset += 3;
+          break;
+        case CONSTANT_MethodHandle:
+          offset += 4;
+          break;
+        default:
+          throw new IOException("Unknown constant pool tag " + tag);
+      }
+    }
+    if (!hasMethodref) {
+      return false;
+    }
+
+    for (int i = 1; i < count; i++) {
+      int entry = offsets[i];
+      int tag = classfile[entry];
+      if (tag != CONSTANT_Methodref && tag != CONSTANT_InterfaceMethodref) {
+        continue;
+      }
+      int classEntry = offsets[readUnsignedShort(classfile, entry + 1)];
+      int nameAndTypeEntry = offsets[readUnsignedShort(classfile, entry + 3)];
+      String classname = readUtf8(classfile, offsets[readUnsignedShort(classfile, classEntry + 1)]);
+      String methodName =
+          readUtf8(classfile, offsets[readUnsignedShort(classfile, nameAndTypeEntry + 1)]);
+      if (methodKeys.contains(classname + "." + methodName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reads a big-endian unsigned 16-bit value.
+   *
+   * @param bytes the bytes to read from
+   * @param offset the index of the first byte of the value
+   * @return the value
+   */
+  private static int readUnsignedShort(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+  }
+
+  /**
+   * Reads a big-endian 32-bit value.
+   *
+   * @param bytes the bytes to read from
+   * @param offset the index of the first byte of the value
+   * @return the value
+   */
+  private static int readInt(byte[] bytes, int offset) {
+    return (readUnsignedShort(bytes, offset) << 16) | readUnsignedShort(bytes, offset + 2);
+  }
+
+  /**
+   * Decodes the (modified UTF-8) string of a {@code Utf8} constant pool entry.
+   *
+   * @param bytes the bytes of the class file
+   * @param entry the offset of the tag of the entry
+   * @return the string of the entry
+   * @throws IOException if the entry is not a well-formed {@code Utf8} entry
+   */
+  private static String readUtf8(byte[] bytes, int entry) throws IOException {
+    if (bytes[entry] != CONSTANT_Utf8) {
+      throw new IOException("Expected a Utf8 constant pool entry at offset " + entry);
+    }
+    int length = readUnsignedShort(bytes, entry + 1);
+    try (DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(bytes, entry + 1, length + 2))) {
+      return in.readUTF();
+    }
+  }
+}
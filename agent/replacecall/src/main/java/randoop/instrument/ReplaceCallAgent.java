@@ -73,6 +73,15 @@ public class ReplaceCallAgent {
   @Option("file listing packages whose classes should not be transformed")
   public static Path dont_transform = null;
 
+  /**
+   * The directory in which to save transformed classes, so that later JVMs that use the same
+   * replacements, such as the JVMs that run the generated tests, reuse them instead of transforming
+   * the classes again. If null, transformed classes are not saved.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Option("directory in which to cache transformed classes")
+  public static Path transform_cache = null;
+
   /**
    * Entry point of the replacecall Java agent. Initializes the {@link CallReplacementTransformer}
    * so that when classes are loaded they are transformed to replace calls to methods as specified
@@ -185,7 +194,8 @@ public class ReplaceCallAgent {
        * argument string is rebuilt.
        */
       MethodReplacements.setAgentPath(getAgentPath());
-      MethodReplacements.setAgentArgs(createAgentArgs(replacementFilePath, exclusionFilePath));
+      MethodReplacements.setAgentArgs(
+          createAgentArgs(replacementFilePath, exclusionFilePath, transform_cache));
 
       if (debug) {
         if (false) {
@@ -202,9 +212,21 @@ public class ReplaceCallAgent {
           CollectionsPlume.mapList(MethodSignature::toString, replacementMap.keySet());
       MethodReplacements.setReplacedMethods(signatureList);
 
+      TransformedClassCache cache = null;
+      if (transform_cache != null) {
+        try {
+          cache = new TransformedClassCache(transform_cache, replacementMap);
+        } catch (IOException e) {
+          System.err.format(
+              "Error creating transform cache directory %s:%n %s%n",
+              transform_cache, e.getMessage());
+          System.exit(1); // Exit on user input error. (Throwing exception would halt JVM.)
+        }
+      }
+
       // Create the transformer and add to the class loader instrumentation
       CallReplacementTransformer transformer =
-          new CallReplacementTransformer(replacementMap, excludedPackagePrefixes);
+          new CallReplacementTransformer(replacementMap, excludedPackagePrefixes, cache);
       transformer.addMapFileShutdownHook();
       instrumentation.addTransformer(transformer);
 
@@ -293,16 +315,20 @@ public class ReplaceCallAgent {
   }
 
   /**
-   * Creates an argument string using absolute paths for the replacement and exclusion file.
+   * Creates an argument string using absolute paths for the replacement and exclusion file, and for
+   * the transform cache directory.
    *
    * <p>This is necessary because the flaky filter in Randoop needs to call the agent using the same
-   * files used in the original use of the agent.
+   * files used in the original use of the agent. Passing the cache directory lets those runs reuse
+   * the classes transformed by this run.
    *
    * @param replacementFilePath the {@code Path} for the replacement file
    * @param exclusionFilePath the {@code Path} for the replacement file
+   * @param transformCachePath the {@code Path} for the transform cache directory, or null
    * @return the argument string for the current run using absolute paths
    */
-  private static String createAgentArgs(Path replacementFilePath, Path exclusionFilePath) {
+  private static String createAgentArgs(
+      Path replacementFilePath, Path exclusionFilePath, Path transformCachePath) {
     StringJoiner result = new StringJoiner(",");
     if (replacementFilePath != null) {
       result.add("--replacement-file=" + replacementFilePath.toAbsolutePath());
@@ -310,6 +336,9 @@ public class ReplaceCallAgent {
     if (exclusionFilePath != null) {
       result.add("--dont-transform=" + exclusionFilePath.toAbsolutePath());
     }
+    if (transformCachePath != null) {
+      result.add("--transform-cache=" + transformCachePath.toAbsolutePath());
+    }
     return result.toString();
   }
 
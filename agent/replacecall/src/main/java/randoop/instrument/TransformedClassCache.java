@@ -0,0 +1,140 @@
+package randoop.instrument;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A directory of class files that {@link CallReplacementTransformer} has already transformed, so
+ * that other JVMs that load the same class with the same replacements (such as the JVMs that run
+ * the generated tests, and the flaky-test filter) do not transform it again.
+ *
+ * <p>A cached class is named by a hash of its original bytes and of the replacements. A class that
+ * needed no transformation is recorded by an empty file. Several JVMs may use the directory at
+ * once: each file is written under a temporary name and then renamed, so a reader never sees a
+ * partially-written file.
+ */
+final class TransformedClassCache {
+
+  /** The result of {@link #lookup} for a class that does not need to be transformed. */
+  static final byte[] NOT_TRANSFORMED = new byte[0];
+
+  /** The directory that contains the cached class files. */
+  private final Path directory;
+
+  /** A hash of the replacements, which distinguishes this cache's entries from other caches'. */
+  private final byte[] replacementsHash;
+
+  /**
+   * Creates a cache that stores its entries in the given directory, creating the directory if it
+   * does not exist.
+   *
+   * @param directory the directory for the cached class files
+   * @param replacementMap the replacements that the transformer applies
+   * @throws IOException if the directory cannot be created
+   */
+  TransformedClassCache(Path directory, Map<MethodSignature, MethodSignature> replacementMap)
+      throws IOException {
+    this.directory = Files.createDirectories(directory);
+    List<String> lines = new ArrayList<>(replacementMap.size());
+    for (Map.Entry<MethodSignature, MethodSignature> entry : replacementMap.entrySet()) {
+      lines.add(entry.getKey() + " " + entry.getValue());
+    }
+    Collections.sort(lines);
+    MessageDigest digest = newDigest();
+    for (String line : lines) {
+      digest.update(line.getBytes(UTF_8));
+      digest.update((byte) '\n');
+    }
+    this.replacementsHash = digest.digest();
+  }
+
+  /**
+   * Returns the cached result of transforming the given class.
+   *
+   * @param classfile the original bytes of a class
+   * @return the transformed bytes of the class, {@link #NOT_TRANSFORMED} if the class needs no
+   *     transformation, or null if the class is not in the cache
+   */
+  byte[] lookup(byte[] classfile) {
+    try {
+      return Files.readAllBytes(entryPath(classfile));
+    } catch (IOException e) {
+      // The class is not in the cache, or its entry is unreadable; transform it again.
+      return null;
+    }
+  }
+
+  /**
+   * Records the result of transforming the given class. Failures to write are ignored, since the
+   * cache only saves work.
+   *
+   * @param classfile the original bytes of a class
+   * @param transformed the transformed bytes of the class, or {@link #NOT_TRANSFORMED} if the
+   *     class needs no transformation
+   */
+  void store(byte[] classfile, byte[] transformed) {
+    Path entry = entryPath(classfile);
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+      Files.write(temp, transformed);
+      try {
+        Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e2) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the path of the cache entry for the given class.
+   *
+   * @param classfile the original bytes of a class
+   * @return the path of the file that holds the transformed class
+   */
+  private Path entryPath(byte[] classfile) {
+    MessageDigest digest = newDigest();
+    digest.update(replacementsHash);
+    digest.update(classfile);
+    byte[] hash = digest.digest();
+    StringBuilder name = new StringBuilder(2 * hash.length + ".class".length());
+    for (byte b : hash) {
+      name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    name.append(".class");
+    return directory.resolve(name.toString());
+  }
+
+  /**
+   * Returns a new SHA-256 message digest.
+   *
+   * @return a new SHA-256 message digest
+   */
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new Error("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+import org.junit.Test;
+
+/** Tests for {@link ConstantPoolScanner}. */
+public class ConstantPoolScannerTest {
+
+  /** A class whose constant pool refers to {@code System.currentTimeMillis}. */
+  private static class Caller {
+    long now() {
+      return System.currentTimeMillis() + 1L;
+    }
+  }
+
+  @Test
+  public void testReferencedMethod() throws IOException {
+    byte[] classfile = readClassfile(Caller.class);
+    String currentTimeMillis =
+        ConstantPoolScanner.methodKey("java.lang.System", "currentTimeMillis");
+    assertTrue(ConstantPoolScanner.refersToAny(classfile, keys(currentTimeMillis)));
+    assertTrue(
+        ConstantPoolScanner.refersToAny(
+            classfile, keys(ConstantPoolScanner.methodKey("java.lang.Object", "<init>"))));
+  }
+
+  @Test
+  public void testUnreferencedMethod() throws IOException {
+    byte[] classfile = readClassfile(Caller.class);
+    assertFalse(
+        ConstantPoolScanner.refersToAny(
+            classfile, keys(ConstantPoolScanner.methodKey("java.lang.System", "exit"))));
+    assertFalse(ConstantPoolScanner.refersToAny(classfile, Collections.emptySet()));
+  }
+
+  @Test
+  public void testMalformedClassfile() {
+    byte[] classfile = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0};
+    assertTrue(
+        ConstantPoolScanner.refersToAny(
+            classfile, keys(ConstantPoolScanner.methodKey("java.lang.System", "exit"))));
+  }
+
+  /**
+   * Returns a set containing one method key.
+   *
+   * @param key the key
+   * @return a set containing the key
+   */
+  private static Set<String> keys(String key) {
+    return Collections.singleton(key);
+  }
+
+  /**
+   * Reads the class file of the given class.
+   *
+   * @param c a class
+   * @return the bytes of the class file of {@code c}
+   * @throws IOException if the class file cannot be read
+   */
+  private static byte[] readClassfile(Class<?> c) throws IOException {
+    String resource = c.getName().substring(c.getName().lastIndexOf('.') + 1) + ".class";
+    try (InputStream in = c.getResourceAsStream(resource)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package randoop.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import randoop.DummyVisitor;
+import randoop.sequence.ExecutableSequence;
+import randoop.test.DummyCheckGenerator;
+import randoop.test.RegressionCaptureGenerator;
+import randoop.test.TestChecks;
+
+/**
+ * Benchmarks {@link ExecutableSequence#execute}, alone and together with the check generators that
+ * Randoop uses for regression tests, including {@link
+ * RegressionCaptureGenerator#generateTestChecks}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutionBenchmark {
+
+  /** The index of the next test to execute; cycles through the tests. */
+  private int next = 0;
+
+  /**
+   * Returns a fresh, unexecuted copy of the next generated test.
+   *
+   * @param pool the generated sequences
+   * @return an executable sequence
+   */
+  private ExecutableSequence nextTest(GeneratedPool pool) {
+    ExecutableSequence result = new ExecutableSequence(pool.tests.get(next).sequence);
+    next = (next + 1) % pool.tests.size();
+    return result;
+  }
+
+  /**
+   * Executes a test without generating checks.
+   *
+   * @param pool the generated sequences
+   * @return the executed test
+   */
+  @Benchmark
+  public ExecutableSequence execute(GeneratedPool pool) {
+    ExecutableSequence eseq = nextTest(pool);
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+    return eseq;
+  }
+
+  /**
+   * Executes a test and generates its regression checks.
+   *
+   * @param pool the generated sequences
+   * @return the checks of the executed test
+   */
+  @Benchmark
+  public TestChecks<?> executeAndGenerateChecks(GeneratedPool pool) {
+    ExecutableSequence eseq = nextTest(pool);
+    eseq.execute(new DummyVisitor(), pool.checkGenerator);
+    return eseq.getChecks();
+  }
+}
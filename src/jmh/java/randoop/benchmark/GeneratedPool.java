@@ -0,0 +1,140 @@
+package randoop.benchmark;
+
+import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import randoop.DummyVisitor;
+import randoop.generation.ComponentManager;
+import randoop.generation.ForwardGenerator;
+import randoop.generation.SeedSequences;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenTests;
+import randoop.main.ThrowClassNameError;
+import randoop.reflection.DefaultReflectionPredicate;
+import randoop.reflection.OperationModel;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceCollection;
+import randoop.test.TestCheckGenerator;
+import randoop.types.Type;
+import randoop.util.MultiMap;
+import randoop.util.Randomness;
+import randoop.util.predicate.AlwaysTrue;
+
+/**
+ * A component pool and a set of regression tests, generated once per benchmark trial from classes
+ * in the testInput source set. The benchmarks measure Randoop's hot paths on these realistic
+ * sequences rather than on hand-built ones.
+ */
+@State(Scope.Benchmark)
+public class GeneratedPool {
+
+  /** The classes under test: a subset of {@code java7.util7} or of {@code components}. */
+  @Param({"java7", "components"})
+  public String input;
+
+  /** The number of sequences to generate. */
+  @Param({"2000"})
+  public int generatedLimit;
+
+  /** The generated component sequences. */
+  public List<Sequence> components;
+
+  /** The component sequences, indexed by type as in Randoop's pool. */
+  public SequenceCollection pool;
+
+  /** The input types of the operations under test, which generation queries the pool for. */
+  public List<Type> inputTypes;
+
+  /** The generated regression tests, executed and with their checks. */
+  public List<ExecutableSequence> tests;
+
+  /** The check generator that Randoop uses for regression tests. */
+  public TestCheckGenerator checkGenerator;
+
+  /**
+   * Generates the pool and the tests.
+   *
+   * @throws Exception if the classes under test cannot be loaded
+   */
+  @Setup(Level.Trial)
+  public void generate() throws Exception {
+    GenInputsAbstract.progressdisplay = false;
+    Randomness.setSeed(0);
+
+    Set<String> classnames = new LinkedHashSet<>(Arrays.asList(classesFor(input)));
+    OperationModel model =
+        OperationModel.createModel(
+            IS_PUBLIC,
+            new DefaultReflectionPredicate(new HashSet<>()),
+            GenInputsAbstract.omit_methods,
+            classnames,
+            new HashSet<>(),
+            new ThrowClassNameError(),
+            new ArrayList<String>());
+
+    checkGenerator =
+        GenTests.createTestCheckGenerator(
+            IS_PUBLIC,
+            model.getContracts(),
+            new MultiMap<>(),
+            model.getOmitMethodsPredicate());
+    ForwardGenerator generator =
+        new ForwardGenerator(
+            model.getOperations(),
+            new LinkedHashSet<>(),
+            new GenInputsAbstract.Limits(60, Integer.MAX_VALUE, generatedLimit, generatedLimit),
+            new ComponentManager(SeedSequences.defaultSeeds()),
+            /* stopper= */ null,
+            model.getClassTypes());
+    generator.setTestPredicate(new AlwaysTrue<>());
+    generator.setTestCheckGenerator(checkGenerator);
+    generator.setExecutionVisitor(new DummyVisitor());
+    generator.createAndClassifySequences();
+
+    components = new ArrayList<>(generator.getAllSequences());
+    pool = new SequenceCollection(components);
+    inputTypes = new ArrayList<>(model.getInputTypes());
+    tests = new ArrayList<>(generator.getRegressionSequences());
+    if (components.isEmpty() || inputTypes.isEmpty() || tests.isEmpty()) {
+      throw new IllegalStateException("Generation produced no sequences for " + input);
+    }
+  }
+
+  /**
+   * Returns the classes under test for the given input.
+   *
+   * @param input the name of an input: "java7" or "components"
+   * @return the names of the classes under test
+   */
+  private static String[] classesFor(String input) {
+    switch (input) {
+      case "java7":
+        return new String[] {
+          "java7.util7.ArrayList",
+          "java7.util7.LinkedList",
+          "java7.util7.TreeMap",
+          "java7.util7.HashSet"
+        };
+      case "components":
+        return new String[] {
+          "components.Person",
+          "components.Unit",
+          "components.ConverterRangeModel",
+          "components.FollowerRangeModel"
+        };
+      default:
+        throw new IllegalArgumentException("Unknown input: " + input);
+    }
+  }
+}
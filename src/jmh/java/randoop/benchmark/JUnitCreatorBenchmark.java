@@ -0,0 +1,31 @@
+package randoop.benchmark;
+
+import com.github.javaparser.ast.CompilationUnit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import randoop.output.JUnitCreator;
+import randoop.output.NameGenerator;
+
+/** Benchmarks {@link JUnitCreator#createTestClass} on all the generated regression tests. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JUnitCreatorBenchmark {
+
+  /**
+   * Creates a test class that contains every generated regression test.
+   *
+   * @param pool the generated sequences
+   * @return the test class
+   */
+  @Benchmark
+  public CompilationUnit createTestClass(GeneratedPool pool) {
+    JUnitCreator creator = JUnitCreator.getTestCreator("bench", null, null, null, null);
+    return creator.createTestClass("RegressionTest0", new NameGenerator("test"), pool.tests);
+  }
+}
@@ -0,0 +1,103 @@
+package randoop.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import randoop.operation.TypedOperation;
+import randoop.sequence.Sequence;
+import randoop.sequence.Statement;
+import randoop.types.JavaTypes;
+
+/**
+ * Benchmarks access to the statements of long sequences, as built by repeated {@link
+ * Sequence#extend}. The time per operation should grow linearly with {@link #length}; compare the
+ * scores for different lengths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LongSequenceBenchmark {
+
+  /** An operation with no inputs. */
+  private static final TypedOperation INT_INITIALIZATION =
+      TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, 1);
+
+  /** An operation with one input. */
+  private static final TypedOperation INT_CAST =
+      TypedOperation.createCast(JavaTypes.INT_TYPE, JavaTypes.INT_TYPE);
+
+  /** The number of statements in the sequence. */
+  @Param({"25", "100", "400"})
+  public int length;
+
+  /** A sequence of {@link #length} statements, whose statements have been accessed already. */
+  private Sequence sequence;
+
+  /** A sequence equal to {@link #sequence} that does not share its statement list. */
+  private Sequence copy;
+
+  /** Builds {@link #sequence} and {@link #copy}. */
+  @Setup(Level.Trial)
+  public void setup() {
+    sequence = build(length);
+    copy = build(length);
+    sequence.toCodeString();
+  }
+
+  /**
+   * Returns a sequence of the given length, built one statement at a time.
+   *
+   * @param length the number of statements
+   * @return a sequence of the given length
+   */
+  private static Sequence build(int length) {
+    Sequence result = new Sequence().extend(INT_INITIALIZATION);
+    while (result.size() < length) {
+      result = result.extend(INT_CAST, result.getLastVariable());
+    }
+    return result;
+  }
+
+  /**
+   * Builds a sequence and then reads each statement and its inputs, as execution does.
+   *
+   * @return a value computed from the statements
+   */
+  @Benchmark
+  public int buildAndTraverse() {
+    Sequence fresh = build(length);
+    int result = 0;
+    for (int i = 0; i < fresh.size(); i++) {
+      Statement statement = fresh.getStatement(i);
+      result += statement.getOutputType().hashCode() + fresh.getInputs(i).size();
+    }
+    return result;
+  }
+
+  /**
+   * Compares two equal sequences.
+   *
+   * @return true
+   */
+  @Benchmark
+  public boolean equalsCopy() {
+    return sequence.equals(copy);
+  }
+
+  /**
+   * Converts a sequence to source code.
+   *
+   * @return the source code
+   */
+  @Benchmark
+  public String toCodeString() {
+    return sequence.toCodeString();
+  }
+}
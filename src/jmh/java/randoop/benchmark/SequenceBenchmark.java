@@ -0,0 +1,72 @@
+package randoop.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import randoop.operation.TypedOperation;
+import randoop.sequence.Sequence;
+import randoop.types.JavaTypes;
+
+/** Benchmarks {@link Sequence#extend} and {@link Sequence#concatenate}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SequenceBenchmark {
+
+  /** An operation with no inputs. */
+  private static final TypedOperation INT_INITIALIZATION =
+      TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, 1);
+
+  /** An operation with one input. */
+  private static final TypedOperation INT_CAST =
+      TypedOperation.createCast(JavaTypes.INT_TYPE, JavaTypes.INT_TYPE);
+
+  /** The index of the next component to use; cycles through the components. */
+  private int next = 0;
+
+  /**
+   * Returns the next generated component.
+   *
+   * @param pool the generated sequences
+   * @return a component sequence
+   */
+  private Sequence nextComponent(GeneratedPool pool) {
+    Sequence result = pool.components.get(next);
+    next = (next + 1) % pool.components.size();
+    return result;
+  }
+
+  /**
+   * Concatenates three components, as generation does to build the inputs of a new statement.
+   *
+   * @param pool the generated sequences
+   * @return the concatenation
+   */
+  @Benchmark
+  public Sequence concatenate(GeneratedPool pool) {
+    List<Sequence> sequences = new ArrayList<>(3);
+    for (int i = 0; i < 3; i++) {
+      sequences.add(nextComponent(pool));
+    }
+    return Sequence.concatenate(sequences);
+  }
+
+  /**
+   * Extends a component with a statement that has no inputs and then with a statement that uses
+   * the new variable.
+   *
+   * @param pool the generated sequences
+   * @return the extended sequence
+   */
+  @Benchmark
+  public Sequence extend(GeneratedPool pool) {
+    Sequence sequence = nextComponent(pool).extend(INT_INITIALIZATION);
+    return sequence.extend(INT_CAST, sequence.getLastVariable());
+  }
+}
@@ -0,0 +1,39 @@
+package randoop.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import randoop.sequence.Sequence;
+import randoop.sequence.SequenceCollection;
+import randoop.types.Type;
+import randoop.util.SimpleList;
+
+/**
+ * Benchmarks {@link SequenceCollection#getSequencesForType}, which generation calls for every input
+ * of every new statement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SequenceCollectionBenchmark {
+
+  /** The index of the next type to query; cycles through the input types. */
+  private int next = 0;
+
+  /**
+   * Queries the pool for the sequences that produce the next input type.
+   *
+   * @param pool the generated sequences
+   * @return the sequences that produce the type
+   */
+  @Benchmark
+  public SimpleList<Sequence> getSequencesForType(GeneratedPool pool) {
+    Type type = pool.inputTypes.get(next);
+    next = (next + 1) % pool.inputTypes.size();
+    return pool.pool.getSequencesForType(type, false, false, false);
+  }
+}
@@ -1,28 +1,71 @@
 package randoop;
 
-import java.util.Collections;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.types.NonParameterizedType;
+import randoop.types.PrimitiveType;
 import randoop.types.Type;
-import randoop.util.CheckpointingMultiMap;
 import randoop.util.CheckpointingSet;
-import randoop.util.IMultiMap;
-import randoop.util.MultiMap;
 
 /**
  * A set of classes. This data structure additionally allows for efficient answers to queries about
  * can-be-used-as relationships.
+ *
+ * <p>Each member has an integer id, its position in insertion order, and each query type maps to
+ * the {@link BitSet} of the ids of the members that can be used as it. Most members and queries
+ * are non-generic class types, for which assignability is membership in the supertype closure of
+ * the member's class: adding such a member sets its bit for the queries in its closure, and a new
+ * query of such a type copies the bits of the members whose closure contains it. Other members and
+ * queries, such as arrays, type variables, and parameterized types, are compared with {@link
+ * Type#isAssignableFrom(Type)}.
  */
 public class SubTypeSet {
 
   /** The members of the set. */
   public Set<Type> types;
 
+  /** The members of the set, indexed by id. */
+  private final List<Type> members = new ArrayList<>();
+
+  /** The id of each member. */
+  private final Map<Type, Integer> memberIds = new HashMap<>();
+
+  /**
+   * Maps each query type to the ids of the members that can be used as it. If the bit set is
+   * empty, then the set contains no subtypes of the given type.
+   */
+  private final Map<Type, BitSet> matches = new LinkedHashMap<>();
+
   /**
-   * Maps a type to all its proper subtypes that are in the set. If the mapped-to list is empty,
-   * then the set contains no subtypes of the given type.
+   * Maps the class of each query that is answered by supertype closures to its entry in {@link
+   * #matches}.
    */
-  private IMultiMap<Type, Type> subTypes;
+  private final Map<Class<?>, BitSet> closureQueries = new HashMap<>();
+
+  /** The query types that are compared with each new member using {@link Type#isAssignableFrom}. */
+  private final List<Type> otherQueries = new ArrayList<>();
+
+  /** Maps each class to the ids of the members whose supertype closure contains it. */
+  private final Map<Class<?>, BitSet> membersBySupertype = new HashMap<>();
+
+  /** The ids of the members that have no supertype closure. */
+  private final BitSet otherMembers = new BitSet();
+
+  /** Memoized results of {@link #supertypeClosure(Class)}. */
+  private final Map<Class<?>, Set<Class<?>>> supertypeClosures = new HashMap<>();
+
+  /** The number of members at each mark, most recent last. */
+  private final List<Integer> marks = new ArrayList<>();
 
   /** If true, then {@link #mark} and {@link #undoLastStep()} are supported. */
   private boolean supportsCheckpoints;
@@ -30,11 +73,9 @@ public class SubTypeSet {
   public SubTypeSet(boolean supportsCheckpoints) {
     if (supportsCheckpoints) {
       this.supportsCheckpoints = true;
-      this.subTypes = new CheckpointingMultiMap<>();
       this.types = new CheckpointingSet<>();
     } else {
       this.supportsCheckpoints = false;
-      this.subTypes = new MultiMap<>();
       this.types = new LinkedHashSet<>();
     }
   }
@@ -44,7 +85,7 @@ public class SubTypeSet {
     if (!supportsCheckpoints) {
       throw new RuntimeException("Operation not supported.");
     }
-    ((CheckpointingMultiMap<Type, Type>) subTypes).mark();
+    marks.add(members.size());
     ((CheckpointingSet<Type>) types).mark();
   }
 
@@ -53,8 +94,20 @@ public class SubTypeSet {
     if (!supportsCheckpoints) {
       throw new RuntimeException("Operation not supported.");
     }
-    ((CheckpointingMultiMap<Type, Type>) subTypes).undoToLastMark();
     ((CheckpointingSet<Type>) types).undoToLastMark();
+    int size = marks.remove(marks.size() - 1);
+    int oldSize = members.size();
+    for (int id = size; id < oldSize; id++) {
+      memberIds.remove(members.get(id));
+    }
+    members.subList(size, oldSize).clear();
+    for (BitSet ids : matches.values()) {
+      ids.clear(size, oldSize);
+    }
+    for (BitSet ids : membersBySupertype.values()) {
+      ids.clear(size, oldSize);
+    }
+    otherMembers.clear(size, oldSize);
   }
 
   /**
@@ -68,33 +121,120 @@ public class SubTypeSet {
       return;
     }
     types.add(c);
+    int id = members.size();
+    members.add(c);
+    memberIds.put(c, id);
 
     // Update existing entries.
-    for (Type cls : subTypes.keySet()) {
-      if (cls.isAssignableFrom(c)) {
-        if (!subTypes.getValues(cls).contains(c)) {
-          subTypes.add(cls, c);
+    Class<?> closureClass = closureClass(c);
+    if (closureClass == null) {
+      otherMembers.set(id);
+      for (Map.Entry<Type, BitSet> entry : matches.entrySet()) {
+        if (entry.getKey().isAssignableFrom(c)) {
+          entry.getValue().set(id);
         }
       }
+      return;
+    }
+    for (Class<?> supertype : supertypeClosure(closureClass)) {
+      membersBySupertype.computeIfAbsent(supertype, k -> new BitSet()).set(id);
+      BitSet ids = closureQueries.get(supertype);
+      if (ids != null) {
+        ids.set(id);
+      }
+    }
+    for (Type query : otherQueries) {
+      if (query.isAssignableFrom(c)) {
+        matches.get(query).set(id);
+      }
     }
   }
 
   private void addQueryType(Type type) {
     if (type == null) throw new IllegalArgumentException("c cannot be null.");
-    Set<Type> keySet = subTypes.keySet();
-    if (keySet.contains(type)) {
+    if (matches.containsKey(type)) {
       return;
     }
 
-    Set<Type> compatibleTypes = new LinkedHashSet<>();
-    for (Type t : types) {
-      if (type.isAssignableFrom(t)) {
-        compatibleTypes.add(t);
+    BitSet ids = new BitSet();
+    if (isClosureQuery(type)) {
+      BitSet closureIds = membersBySupertype.get(type.getRuntimeClass());
+      if (closureIds != null) {
+        ids.or(closureIds);
+      }
+      for (int id = otherMembers.nextSetBit(0); id >= 0; id = otherMembers.nextSetBit(id + 1)) {
+        if (type.isAssignableFrom(members.get(id))) {
+          ids.set(id);
+        }
+      }
+      closureQueries.put(type.getRuntimeClass(), ids);
+    } else {
+      for (int id = 0; id < members.size(); id++) {
+        if (type.isAssignableFrom(members.get(id))) {
+          ids.set(id);
+        }
       }
+      otherQueries.add(type);
     }
-    for (Type cls : compatibleTypes) {
-      subTypes.add(type, cls);
+    matches.put(type, ids);
+  }
+
+  /**
+   * Returns true if the members that can be used as the given query type are exactly the members
+   * whose supertype closure contains its class. This holds for a class or interface type that has
+   * no type parameters.
+   *
+   * @param type a query type
+   * @return true if the query can be answered from supertype closures
+   */
+  private static boolean isClosureQuery(Type type) {
+    return type instanceof NonParameterizedType
+        && type.getRuntimeClass().getTypeParameters().length == 0;
+  }
+
+  /**
+   * Returns the class whose supertype closure contains the classes of exactly the closure queries
+   * (see {@link #isClosureQuery}) that the given member can be used as, or null if there is no such
+   * class. For a primitive type, that is its boxed class, since a primitive is assignable to a
+   * class type only by boxing.
+   *
+   * @param type a member type
+   * @return the class whose supertype closure to use for {@code type}, or null
+   */
+  private static @Nullable Class<?> closureClass(Type type) {
+    if (type.isPrimitive()) {
+      return type.isVoid() ? null : ((PrimitiveType) type).toBoxedPrimitive().getRuntimeClass();
+    }
+    if (type.isClassOrInterfaceType() && !type.isGeneric() && !type.hasCaptureVariable()) {
+      return type.getRuntimeClass();
     }
+    return null;
+  }
+
+  /**
+   * Returns the given class, its superclasses, the interfaces that it implements, and {@code
+   * Object}.
+   *
+   * @param c a class or interface
+   * @return the supertype closure of {@code c}
+   */
+  private Set<Class<?>> supertypeClosure(Class<?> c) {
+    Set<Class<?>> closure = supertypeClosures.get(c);
+    if (closure != null) {
+      return closure;
+    }
+    closure = new LinkedHashSet<>();
+    closure.add(c);
+    Class<?> superclass = c.getSuperclass();
+    if (superclass != null) {
+      closure.addAll(supertypeClosure(superclass));
+    }
+    for (Class<?> iface : c.getInterfaces()) {
+      closure.addAll(supertypeClosure(iface));
+    }
+    closure.add(Object.class);
+    supertypeClosures.put(c, closure);
+    return closure;
   }
 
   // TODO: I think that the set does not contain {@code c} itself.  Check and document.
@@ -106,10 +246,10 @@ public class SubTypeSet {
    * @return the set of types that can be used in place of the query type
    */
   public Set<Type> getMatches(Type type) {
-    if (!subTypes.keySet().contains(type)) {
+    if (!matches.containsKey(type)) {
       addQueryType(type);
     }
-    return Collections.unmodifiableSet(subTypes.getValues(type));
+    return new Matches(matches.get(type));
   }
 
   /**
@@ -120,4 +260,59 @@ public class SubTypeSet {
   public int size() {
     return types.size();
   }
+
+  /** An unmodifiable view of the members whose ids are in a bit set, in insertion order. */
+  private class Matches extends AbstractSet<Type> {
+
+    /** The ids of the members in this set. */
+    private final BitSet ids;
+
+    /**
+     * Creates a view of the members with the given ids.
+     *
+     * @param ids the ids of the members in the set
+     */
+    Matches(BitSet ids) {
+      this.ids = ids;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      Integer id = memberIds.get(o);
+      return id != null && ids.get(id);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return ids.isEmpty();
+    }
+
+    @Override
+    public int size() {
+      return ids.cardinality();
+    }
+
+    @Override
+    public Iterator<Type> iterator() {
+      return new Iterator<Type>() {
+        /** The id of the next member, or -1 if there is none. */
+        private int next = ids.nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public Type next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          Type result = members.get(next);
+          next = ids.nextSetBit(next + 1);
+          return result;
+        }
+      };
+    }
+  }
 }
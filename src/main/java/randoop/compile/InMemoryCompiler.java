@@ -0,0 +1,111 @@
+package randoop.compile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.mustcall.qual.MustCall;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.plumelib.reflection.ReflectionPlume;
+import randoop.Globals;
+import randoop.main.RandoopUsageError;
+
+/**
+ * Compiles a Java class given as a {@code String}, and returns the class files in memory rather
+ * than writing them to disk. Unlike {@link SequenceCompiler}, several compilations can be in
+ * progress at once, provided that each thread uses its own {@code InMemoryCompiler}.
+ */
+@MustCall("close") public class InMemoryCompiler implements Closeable {
+
+  /** The options to the compiler. */
+  private final List<String> compilerOptions;
+
+  /** The Java compiler. */
+  private final JavaCompiler compiler;
+
+  /** The {@code FileManager} for this compiler. */
+  private final JavaFileManager fileManager;
+
+  /**
+   * Creates an {@link InMemoryCompiler}.
+   *
+   * @param compilerOptions the compiler options, such as the classpath
+   */
+  public InMemoryCompiler(List<String> compilerOptions) {
+    this.compilerOptions = new ArrayList<>(compilerOptions.size() + 1);
+    this.compilerOptions.addAll(compilerOptions);
+    this.compilerOptions.add("-XDuseUnsharedTable");
+    this.compiler = ToolProvider.getSystemJavaCompiler();
+
+    if (this.compiler == null) {
+      throw new RandoopUsageError(
+          "Cannot find the Java compiler. Check that classpath includes tools.jar."
+              + Globals.lineSep
+              + "Classpath:"
+              + Globals.lineSep
+              + ReflectionPlume.classpathToString());
+    }
+
+    this.fileManager = compiler.getStandardFileManager(null, null, null);
+  }
+
+  /** Releases any system resources associated with this. */
+  @Override
+  public void close() throws IOException {
+    fileManager.close();
+  }
+
+  /**
+   * Compiles the given class.
+   *
+   * @param classname the simple name of the class
+   * @param javaSource the source text of the class
+   * @return a map from the binary name of each class that the compiler produced (including classes
+   *     compiled because the given class uses them) to its class file, or null if compilation
+   *     failed
+   */
+  public @Nullable Map<String, byte[]> compile(String classname, String javaSource) {
+    List<JavaFileObject> sources =
+        Collections.singletonList(new SequenceJavaFileObject(classname + ".java", javaSource));
+    Map<String, SequenceJavaFileObject> outputs = new HashMap<>();
+    JavaFileManager outputManager =
+        new ForwardingJavaFileManager<JavaFileManager>(fileManager) {
+          @Override
+          public JavaFileObject getJavaFileForOutput(
+              Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            SequenceJavaFileObject output =
+                new SequenceJavaFileObject(className.replace('.', '/') + kind.extension, kind);
+            outputs.put(className, output);
+            return output;
+          }
+        };
+    JavaCompiler.CompilationTask task =
+        compiler.getTask(
+            null,
+            outputManager,
+            new DiagnosticCollector<>(),
+            new ArrayList<>(compilerOptions),
+            null,
+            sources);
+    Boolean succeeded = task.call();
+    if (succeeded == null || !succeeded) {
+      return null;
+    }
+
+    Map<String, byte[]> result = new HashMap<>(outputs.size());
+    for (Map.Entry<String, SequenceJavaFileObject> output : outputs.entrySet()) {
+      result.put(output.getKey(), output.getValue().getByteCode());
+    }
+    return result;
+  }
+}
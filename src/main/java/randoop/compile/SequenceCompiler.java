@@ -101,7 +101,24 @@ import randoop.util.Log;
    */
   public boolean isCompilable(
       final String packageName, final String classname, final String javaSource) {
-    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    return isCompilable(packageName, classname, javaSource, new DiagnosticCollector<>());
+  }
+
+  /**
+   * Indicates whether the given class is compilable, and records the compiler's diagnostics.
+   *
+   * @param packageName the package name for the class, null if default package
+   * @param classname the simple name of the class
+   * @param javaSource the source text of the class
+   * @param diagnostics the {@code DiagnosticsCollector} to which the compiler reports. Always use a
+   *     new diagnostics collector for each compilation to avoid accumulating errors.
+   * @return true if class source was successfully compiled, false otherwise
+   */
+  public boolean isCompilable(
+      final String packageName,
+      final String classname,
+      final String javaSource,
+      DiagnosticCollector<JavaFileObject> diagnostics) {
     boolean result = compile(packageName, classname, javaSource, diagnostics);
 
     // Compilation can create multiple .class files; this only deletes the main one.
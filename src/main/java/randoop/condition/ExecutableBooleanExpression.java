@@ -32,10 +32,10 @@ public class ExecutableBooleanExpression {
       new NameGenerator("RandoopExpressionClass");
 
   /**
-   * The {@code java.lang.reflect.Method} to test this expression. The method is static (it does not
-   * take a receiver argument).
+   * The method to test this expression. The method is static (it does not take a receiver
+   * argument).
    */
-  private final Method expressionMethod;
+  private final ExpressionMethod expressionMethod;
 
   /** The comment describing this expression. */
   private final String comment;
@@ -55,11 +55,49 @@ public class ExecutableBooleanExpression {
    *     format details)
    */
   ExecutableBooleanExpression(Method expressionMethod, String comment, String contractSource) {
+    this(new ExpressionMethod(expressionMethod), comment, contractSource);
+  }
+
+  /**
+   * Creates a {@link ExecutableBooleanExpression} that calls the method to evaluate the expression.
+   *
+   * @param expressionMethod the method for the expression, which may not yet be compiled
+   * @param comment a comment describing this expression
+   * @param contractSource the source code for this expression (see {@link #getContractSource()} for
+   *     format details)
+   */
+  ExecutableBooleanExpression(
+      ExpressionMethod expressionMethod, String comment, String contractSource) {
     this.expressionMethod = expressionMethod;
     this.comment = comment;
     this.contractSource = contractSource;
   }
 
+  /**
+   * Creates a {@link ExecutableBooleanExpression} for evaluating an expression of a specification,
+   * whose method is compiled when {@code compiler} next compiles its batch.
+   *
+   * @param signature the signature for the expression method to be created. The class name of the
+   *     expression method signature is ignored.
+   * @param declarations the parameter declaration string for the expression method to be created,
+   *     including parameter names and wrapped in parentheses
+   * @param expressionSource the source code for a Java expression to be used as the body of the
+   *     expression method
+   * @param contractSource a Java expression that is the source code for the expression, in the
+   *     format of {@link #getContractSource()}
+   * @param comment the comment describing the expression
+   * @param compiler the compiler that compiles the expression method in a batch
+   */
+  ExecutableBooleanExpression(
+      RawSignature signature,
+      String declarations,
+      String expressionSource,
+      String contractSource,
+      String comment,
+      ExpressionMethodCompiler compiler) {
+    this(compiler.add(signature, declarations, expressionSource), comment, contractSource);
+  }
+
   /**
    * Creates a {@link ExecutableBooleanExpression} for evaluating an expression (see {@link
    * randoop.condition.specification.Guard}) of a specification.
@@ -141,9 +179,7 @@ public class ExecutableBooleanExpression {
    */
   public boolean check(Object[] values) {
     try {
-      return (boolean) expressionMethod.invoke(null, values);
-    } catch (IllegalAccessException e) {
-      throw new RandoopSpecificationError("Failure executing expression method", e);
+      return expressionMethod.invoke(values);
     } catch (InvocationTargetException e) {
       // Evaluation of the expression threw an exception.
       String messageDetails =
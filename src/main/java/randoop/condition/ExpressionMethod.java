@@ -0,0 +1,156 @@
+package randoop.condition;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import randoop.main.RandoopBug;
+
+/**
+ * The compiled method that evaluates an {@link ExecutableBooleanExpression}. The method is static,
+ * public, and returns {@code boolean}.
+ *
+ * <p>An expression method that is compiled by an {@link ExpressionMethodCompiler} is created before
+ * it is compiled, and is bound to its {@code Method} once its batch has been compiled.
+ */
+final class ExpressionMethod {
+
+  /** The type of {@link #handle}. */
+  private static final MethodType CHECK_TYPE = MethodType.methodType(boolean.class, Object[].class);
+
+  /** A method handle for {@link #wrap}. */
+  private static final MethodHandle WRAP;
+
+  static {
+    try {
+      WRAP =
+          MethodHandles.lookup()
+              .findStatic(
+                  ExpressionMethod.class,
+                  "wrap",
+                  MethodType.methodType(boolean.class, Throwable.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new RandoopBug(e);
+    }
+  }
+
+  /** The method, or null if it has not yet been compiled. */
+  private @MonotonicNonNull Method method;
+
+  /**
+   * A method handle that invokes {@link #method} on an array of arguments, or null if the method
+   * has not yet been compiled.
+   */
+  private @MonotonicNonNull MethodHandle handle;
+
+  /** Creates an expression method that is not yet compiled. */
+  ExpressionMethod() {}
+
+  /**
+   * Creates an expression method for the given compiled method.
+   *
+   * @param method the compiled method
+   */
+  ExpressionMethod(Method method) {
+    bind(method);
+  }
+
+  /**
+   * Binds this to its compiled method.
+   *
+   * @param method the compiled method
+   */
+  void bind(Method method) {
+    try {
+      MethodHandle target = MethodHandles.publicLookup().unreflect(method);
+      // Only what the method itself throws is wrapped, not a failure to convert the arguments.
+      MethodHandle handler = MethodHandles.dropArguments(WRAP, 1, method.getParameterTypes());
+      this.handle =
+          MethodHandles.catchException(target, Throwable.class, handler)
+              .asSpreader(Object[].class, method.getParameterCount())
+              .asType(CHECK_TYPE);
+    } catch (IllegalAccessException e) {
+      throw new RandoopSpecificationError("Failure accessing expression method " + method, e);
+    }
+    this.method = method;
+  }
+
+  /**
+   * Returns true if this has been bound to its compiled method.
+   *
+   * @return true if this has been compiled
+   */
+  boolean isBound() {
+    return method != null;
+  }
+
+  /**
+   * Returns the compiled method.
+   *
+   * @return the compiled method
+   */
+  Method getMethod() {
+    if (method == null) {
+      throw new RandoopBug("Expression method has not been compiled");
+    }
+    return method;
+  }
+
+  /**
+   * Invokes the compiled method.
+   *
+   * @param values the arguments to the method
+   * @return the result of the method
+   * @throws InvocationTargetException if the method throws an exception
+   */
+  boolean invoke(Object[] values) throws InvocationTargetException {
+    if (handle == null) {
+      throw new RandoopBug("Expression method has not been compiled");
+    }
+    try {
+      return (boolean) handle.invokeExact(values);
+    } catch (InvocationTargetException | RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      // Every checked exception of the method is wrapped by #wrap.
+      throw new RandoopBug("Unexpected exception from expression method " + method, e);
+    }
+  }
+
+  /**
+   * Wraps an exception that the expression method threw, to distinguish it from one that the
+   * method handle threw because the arguments have the wrong types.
+   *
+   * @param t the exception that the expression method threw
+   * @return never returns
+   * @throws InvocationTargetException always, with {@code t} as its cause
+   */
+  @SuppressWarnings("UnusedMethod") // invoked through WRAP
+  private static boolean wrap(Throwable t) throws InvocationTargetException {
+    throw new InvocationTargetException(t);
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof ExpressionMethod)) {
+      return false;
+    }
+    ExpressionMethod other = (ExpressionMethod) object;
+    return method != null && method.equals(other.method);
+  }
+
+  @Override
+  public int hashCode() {
+    return method == null ? System.identityHashCode(this) : method.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return method == null ? "<not compiled>" : method.toString();
+  }
+}
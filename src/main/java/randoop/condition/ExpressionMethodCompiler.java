@@ -0,0 +1,300 @@
+package randoop.condition;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.mustcall.qual.MustCall;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.Globals;
+import randoop.compile.InMemoryCompiler;
+import randoop.main.RandoopBug;
+import randoop.reflection.RawSignature;
+import randoop.util.CacheFiles;
+
+/**
+ * Compiles the methods of many {@link ExecutableBooleanExpression}s together. Methods are added to
+ * a batch by {@link #add}, and {@link #compile} compiles the batch with one compilation unit per
+ * package, instead of one compilation unit per expression.
+ *
+ * <p>If a cache directory is given, the class files of each compilation unit are saved in it, keyed
+ * by a hash of the source code of the unit and of the Java version, and later runs load them
+ * instead of compiling the unit again.
+ */
+@MustCall("close") final class ExpressionMethodCompiler implements Closeable {
+
+  /** The prefix of the names of the generated classes. */
+  private static final String CLASS_NAME_PREFIX = "RandoopExpressionClass";
+
+  /** The directory in which to cache class files, or null if class files are not cached. */
+  private final @Nullable Path cacheDirectory;
+
+  /** The methods to compile, grouped by package name. The key null is the default package. */
+  private final Map<@Nullable String, List<PendingMethod>> pendingMethods = new LinkedHashMap<>();
+
+  /** The compiler, or null if it has not yet been needed. */
+  private @Nullable InMemoryCompiler compiler = null;
+
+  /**
+   * Creates an {@link ExpressionMethodCompiler}.
+   *
+   * @param cacheDirectory the directory in which to cache class files, or null to not cache them
+   */
+  ExpressionMethodCompiler(@Nullable Path cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  /** Releases any system resources associated with this. */
+  @Override
+  public void close() throws IOException {
+    if (compiler != null) {
+      compiler.close();
+    }
+  }
+
+  /**
+   * Adds an expression method to the current batch. The returned method can be invoked once {@link
+   * #compile} has compiled the batch.
+   *
+   * @param signature the signature for the expression method. The class name of the signature is
+   *     ignored.
+   * @param parameterDeclaration the parameter declaration string, including parameter names and
+   *     wrapped in parentheses
+   * @param expressionSource the source code for a Java expression to be used as the body of the
+   *     expression method
+   * @return the expression method, which is not yet compiled
+   */
+  ExpressionMethod add(
+      RawSignature signature, String parameterDeclaration, String expressionSource) {
+    List<PendingMethod> methods =
+        pendingMethods.computeIfAbsent(signature.getPackageName(), p -> new ArrayList<>());
+    // The same signature is used by the several expressions of an operation.
+    String methodName = signature.getName() + "_" + methods.size();
+    String source =
+        String.join(
+            Globals.lineSep,
+            "  public static boolean " + methodName + parameterDeclaration + " throws Throwable {",
+            "    return " + expressionSource + ";",
+            "  }");
+    ExpressionMethod result = new ExpressionMethod();
+    methods.add(new PendingMethod(methodName, signature.getParameterTypes(), source, result));
+    return result;
+  }
+
+  /**
+   * Compiles the methods that have been added since the last call, and binds each {@link
+   * ExpressionMethod} that {@link #add} returned to its compiled method. If any method fails to
+   * compile, none of the methods of the batch are bound.
+   *
+   * @return true if all the methods were compiled, false if some method did not compile
+   */
+  boolean compile() {
+    Map<@Nullable String, List<PendingMethod>> batch = new LinkedHashMap<>(pendingMethods);
+    pendingMethods.clear();
+    Map<PendingMethod, Class<?>> compiledClasses = new HashMap<>();
+    for (Map.Entry<@Nullable String, List<PendingMethod>> entry : batch.entrySet()) {
+      String packageName = entry.getKey();
+      List<PendingMethod> methods = entry.getValue();
+      StringBuilder body = new StringBuilder();
+      for (PendingMethod method : methods) {
+        body.append(method.source).append(Globals.lineSep);
+      }
+      // The name of the class is determined by its contents, so that the source code, and thus
+      // the cache key, is the same in every run.
+      String classname =
+          CLASS_NAME_PREFIX + "_" + CacheFiles.sha256Hex(body.toString()).substring(0, 16);
+      String packageDeclaration =
+          packageName == null ? "" : "package " + packageName + ";" + Globals.lineSep;
+      String classText =
+          packageDeclaration
+              + "public class "
+              + classname
+              + " {"
+              + Globals.lineSep
+              + body
+              + "}"
+              + Globals.lineSep;
+      String binaryName = packageName == null ? classname : packageName + "." + classname;
+
+      Class<?> expressionClass = loadClass(binaryName, classname, classText);
+      if (expressionClass == null) {
+        return false;
+      }
+      for (PendingMethod method : methods) {
+        compiledClasses.put(method, expressionClass);
+      }
+    }
+
+    for (Map.Entry<PendingMethod, Class<?>> entry : compiledClasses.entrySet()) {
+      PendingMethod method = entry.getKey();
+      try {
+        method.expressionMethod.bind(
+            entry.getValue().getMethod(method.methodName, method.parameterTypes));
+      } catch (NoSuchMethodException e) {
+        throw new RandoopBug("Condition class does not contain expression method", e);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compiles, or reads from the cache, and loads the given expression class.
+   *
+   * @param binaryName the binary name of the class
+   * @param classname the simple name of the class
+   * @param classText the source code of the class
+   * @return the loaded class, or null if it does not compile
+   */
+  private @Nullable Class<?> loadClass(String binaryName, String classname, String classText) {
+    Path cacheFile = null;
+    Map<String, byte[]> classFiles = null;
+    if (cacheDirectory != null) {
+      String key = System.getProperty("java.version") + Globals.lineSep + classText;
+      cacheFile = cacheDirectory.resolve(CacheFiles.sha256Hex(key) + ".bin");
+      classFiles = readCacheFile(cacheFile);
+    }
+    if (classFiles == null) {
+      if (compiler == null) {
+        compiler = new InMemoryCompiler(Collections.singletonList("-proc:none"));
+      }
+      classFiles = compiler.compile(classname, classText);
+      if (classFiles == null) {
+        return null;
+      }
+      if (cacheFile != null) {
+        writeCacheFile(cacheFile, classFiles);
+      }
+    }
+    try {
+      return new ExpressionClassLoader(classFiles).loadClass(binaryName);
+    } catch (ClassNotFoundException | LinkageError e) {
+      throw new RandoopBug("Cannot load expression class " + binaryName, e);
+    }
+  }
+
+  /**
+   * Reads the class files of a compilation unit from the cache.
+   *
+   * @param cacheFile the cache file for the compilation unit
+   * @return the map from binary name to class file, or null if the cache does not contain the
+   *     compilation unit
+   */
+  private static @Nullable Map<String, byte[]> readCacheFile(Path cacheFile) {
+    byte[] contents;
+    try {
+      contents = Files.readAllBytes(cacheFile);
+    } catch (IOException e) {
+      // The unit is not in the cache, or its entry is unreadable; compile it again.
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(contents))) {
+      int count = in.readInt();
+      Map<String, byte[]> result = new HashMap<>();
+      for (int i = 0; i < count; i++) {
+        String name = in.readUTF();
+        byte[] classFile = new byte[in.readInt()];
+        in.readFully(classFile);
+        result.put(name, classFile);
+      }
+      return result;
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Writes the class files of a compilation unit to the cache. Failures to write are ignored,
+   * since the cache only saves work.
+   *
+   * @param cacheFile the cache file for the compilation unit
+   * @param classFiles the map from binary name to class file
+   */
+  private static void writeCacheFile(Path cacheFile, Map<String, byte[]> classFiles) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(classFiles.size());
+      for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+        out.writeUTF(classFile.getKey());
+        out.writeInt(classFile.getValue().length);
+        out.write(classFile.getValue());
+      }
+    } catch (IOException e) {
+      throw new RandoopBug(e);
+    }
+    CacheFiles.writeAtomically(cacheFile, bytes.toByteArray());
+  }
+
+  /** A method that has been added to the current batch and not yet compiled. */
+  private static final class PendingMethod {
+
+    /** The name of the method. */
+    final String methodName;
+
+    /** The parameter types of the method. */
+    final Class<?>[] parameterTypes;
+
+    /** The source code of the method declaration. */
+    final String source;
+
+    /** The expression method to bind once the method is compiled. */
+    final ExpressionMethod expressionMethod;
+
+    /**
+     * Creates a {@link PendingMethod}.
+     *
+     * @param methodName the name of the method
+     * @param parameterTypes the parameter types of the method
+     * @param source the source code of the method declaration
+     * @param expressionMethod the expression method to bind once the method is compiled
+     */
+    PendingMethod(
+        String methodName,
+        Class<?>[] parameterTypes,
+        String source,
+        ExpressionMethod expressionMethod) {
+      this.methodName = methodName;
+      this.parameterTypes = parameterTypes;
+      this.source = source;
+      this.expressionMethod = expressionMethod;
+    }
+  }
+
+  /**
+   * Loads the classes of a compiled expression class from memory. Other classes are loaded by the
+   * system class loader, as for classes compiled by {@link randoop.compile.SequenceCompiler}.
+   */
+  private static final class ExpressionClassLoader extends ClassLoader {
+
+    /** The class files of the expression class, by binary name. */
+    private final Map<String, byte[]> classFiles;
+
+    /**
+     * Creates a class loader.
+     *
+     * @param classFiles the class files of the expression class, by binary name
+     */
+    ExpressionClassLoader(Map<String, byte[]> classFiles) {
+      super(ClassLoader.getSystemClassLoader());
+      this.classFiles = classFiles;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      byte[] bytes = classFiles.get(name);
+      if (bytes != null) {
+        return defineClass(name, bytes, 0, bytes.length);
+      }
+      return super.findClass(name);
+    }
+  }
+}
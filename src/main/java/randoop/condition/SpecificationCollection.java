@@ -36,6 +36,7 @@ import org.checkerframework.checker.signature.qual.ClassGetName;
 import randoop.compile.SequenceCompiler;
 import randoop.condition.specification.OperationSignature;
 import randoop.condition.specification.OperationSpecification;
+import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
 import randoop.operation.TypedOperation;
 import randoop.reflection.TypeNames;
@@ -73,9 +74,19 @@ import randoop.util.Util;
   /** Map from reflection object to all the methods it overrides (that have a specification). */
   private final Map<AccessibleObject, Set<Method>> overridden;
 
-  /** Compiler for creating conditionMethods. */
+  /** Compiler for creating conditionMethods one at a time. */
   private final @Owning SequenceCompiler compiler;
 
+  /** Compiler for creating the conditionMethods of all the specifications of a class together. */
+  private final @Owning ExpressionMethodCompiler expressionCompiler;
+
+  /** The classes whose specifications are in {@link #translatedSpecifications}. */
+  private final Set<Class<?>> translatedClasses = new HashSet<>();
+
+  /** Map from method or constructor to its translated specification, without overriding. */
+  private final Map<Executable, ExecutableSpecification> translatedSpecifications =
+      new HashMap<>();
+
   /**
    * Creates a {@link SpecificationCollection} for the given specification map.
    *
@@ -96,6 +107,7 @@ import randoop.util.Util;
     this.overridden = overridden;
     this.getExecutableSpecificationCache = new HashMap<>();
     this.compiler = new SequenceCompiler();
+    this.expressionCompiler = new ExpressionMethodCompiler(GenInputsAbstract.specification_cache);
   }
 
   /**
@@ -119,11 +131,14 @@ import randoop.util.Util;
   }
 
   /** Releases any system resources used by this. */
-  @EnsuresCalledMethods(value = "compiler", methods = "close")
+  @EnsuresCalledMethods(
+      value = {"compiler", "expressionCompiler"},
+      methods = "close")
   @Override
   public void close() {
     try {
       compiler.close();
+      expressionCompiler.close();
     } catch (IOException e) {
       throw new RandoopBug(e);
     }
@@ -384,9 +399,13 @@ import randoop.util.Util;
     if (specification == null) {
       execSpec = new ExecutableSpecification();
     } else {
-      execSpec =
-          SpecificationTranslator.createExecutableSpecification(
-              executable, specification, compiler);
+      translateSpecifications(executable.getDeclaringClass());
+      execSpec = translatedSpecifications.get(executable);
+      if (execSpec == null) {
+        execSpec =
+            SpecificationTranslator.createExecutableSpecification(
+                executable, specification, compiler);
+      }
     }
 
     if (executable instanceof Method) {
@@ -414,4 +433,34 @@ import randoop.util.Util;
     getExecutableSpecificationCache.put(executable, execSpec);
     return execSpec;
   }
+
+  /**
+   * Translates the specifications of all the methods and constructors of the given class, if they
+   * have not already been translated, and stores them in {@link #translatedSpecifications}. The
+   * condition methods of the class are compiled together. If they do not compile together, nothing
+   * is stored, and {@link #getExecutableSpecification} translates each method or constructor of
+   * the class by itself when it is first looked up, so that the uncompilable conditions are
+   * reported or discarded as usual.
+   *
+   * @param c a class
+   */
+  private void translateSpecifications(Class<?> c) {
+    if (!translatedClasses.add(c)) {
+      return;
+    }
+    Map<Executable, ExecutableSpecification> result = new HashMap<>();
+    for (Map.Entry<AccessibleObject, OperationSpecification> entry : specificationMap.entrySet()) {
+      if (entry.getKey() instanceof Executable
+          && ((Executable) entry.getKey()).getDeclaringClass() == c) {
+        Executable executable = (Executable) entry.getKey();
+        result.put(
+            executable,
+            SpecificationTranslator.createExecutableSpecification(
+                executable, entry.getValue(), compiler, expressionCompiler));
+      }
+    }
+    if (expressionCompiler.compile()) {
+      translatedSpecifications.putAll(result);
+    }
+  }
 }
@@ -55,9 +55,15 @@ public class SpecificationTranslator {
   /** The map of expression identifiers to dummy variables. */
   private final Map<String, String> replacementMap;
 
-  /** The {@link SequenceCompiler} for compiling expression methods. */
+  /** The {@link SequenceCompiler} for compiling expression methods one at a time. */
   private final SequenceCompiler compiler;
 
+  /**
+   * The compiler for compiling expression methods in a batch, or null to compile each expression
+   * method immediately using {@link #compiler}.
+   */
+  private final @Nullable ExpressionMethodCompiler expressionCompiler;
+
   /**
    * Creates a {@link SpecificationTranslator} object in the given package with the signature
    * strings and variable replacementMap.
@@ -70,6 +76,8 @@ public class SpecificationTranslator {
    *     poststate expression method
    * @param replacementMap the map of expression identifiers to dummy variables
    * @param compiler the {@link SequenceCompiler} for creating expression methods
+   * @param expressionCompiler the compiler for creating expression methods in a batch, or null to
+   *     create each expression method immediately
    */
   private SpecificationTranslator(
       RawSignature prestateExpressionSignature,
@@ -77,13 +85,15 @@ public class SpecificationTranslator {
       RawSignature poststateExpressionSignature,
       String poststateExpressionDeclaration,
       Map<String, String> replacementMap,
-      SequenceCompiler compiler) {
+      SequenceCompiler compiler,
+      @Nullable ExpressionMethodCompiler expressionCompiler) {
     this.prestateExpressionSignature = prestateExpressionSignature;
     this.prestateExpressionDeclaration = prestateExpressionDeclaration;
     this.poststateExpressionSignature = poststateExpressionSignature;
     this.poststateExpressionDeclarations = poststateExpressionDeclaration;
     this.replacementMap = replacementMap;
     this.compiler = compiler;
+    this.expressionCompiler = expressionCompiler;
   }
 
   /**
@@ -98,6 +108,26 @@ public class SpecificationTranslator {
    */
   static SpecificationTranslator createTranslator(
       Executable executable, OperationSpecification specification, SequenceCompiler compiler) {
+    return createTranslator(executable, specification, compiler, null);
+  }
+
+  /**
+   * Creates a {@link SpecificationTranslator} object to translate the {@link
+   * OperationSpecification} of {@code executable}.
+   *
+   * @param executable the {@code java.lang.reflect.AccessibleObject} for the operation with {@link
+   *     OperationSpecification} to translate
+   * @param specification the specification to be translated
+   * @param compiler the sequence compiler to use to create expression methods
+   * @param expressionCompiler the compiler to use to create expression methods in a batch, or null
+   *     to create each expression method immediately using {@code compiler}
+   * @return the translator object to convert the specifications for {@code executable}
+   */
+  private static SpecificationTranslator createTranslator(
+      Executable executable,
+      OperationSpecification specification,
+      SequenceCompiler compiler,
+      @Nullable ExpressionMethodCompiler expressionCompiler) {
     Identifiers identifiers = specification.getIdentifiers();
 
     // Get expression method signatures.
@@ -127,7 +157,8 @@ public class SpecificationTranslator {
         poststateExpressionSignature,
         poststateExpressionDeclarations,
         replacementMap,
-        compiler);
+        compiler,
+        expressionCompiler);
   }
 
   /**
@@ -255,7 +286,42 @@ public class SpecificationTranslator {
    */
   public static ExecutableSpecification createExecutableSpecification(
       Executable executable, OperationSpecification specification, SequenceCompiler compiler) {
-    SpecificationTranslator st = createTranslator(executable, specification, compiler);
+    return createExecutableSpecification(
+        createTranslator(executable, specification, compiler), specification);
+  }
+
+  /**
+   * Create the {@link ExecutableSpecification} object for the given {@link OperationSpecification},
+   * whose expression methods are compiled when {@code expressionCompiler} next compiles its batch.
+   * Compilation errors are therefore not detected by this method; if the batch does not compile,
+   * the client should translate the specification again using {@link
+   * #createExecutableSpecification(Executable, OperationSpecification, SequenceCompiler)}.
+   *
+   * @param executable the {@code java.lang.reflect.AccessibleObject} for the operation to translate
+   * @param specification the specification to translate
+   * @param compiler the sequence compiler
+   * @param expressionCompiler the compiler that compiles the expression methods in a batch
+   * @return the {@link ExecutableSpecification} for the given specification
+   */
+  static ExecutableSpecification createExecutableSpecification(
+      Executable executable,
+      OperationSpecification specification,
+      SequenceCompiler compiler,
+      ExpressionMethodCompiler expressionCompiler) {
+    return createExecutableSpecification(
+        createTranslator(executable, specification, compiler, expressionCompiler), specification);
+  }
+
+  /**
+   * Create the {@link ExecutableSpecification} object for the given {@link OperationSpecification}
+   * using the given {@link SpecificationTranslator}.
+   *
+   * @param st the translator for the operation
+   * @param specification the specification to translate
+   * @return the {@link ExecutableSpecification} for the given specification
+   */
+  private static ExecutableSpecification createExecutableSpecification(
+      SpecificationTranslator st, OperationSpecification specification) {
     return new ExecutableSpecification(
         st.getGuardExpressions(specification.getPreconditions()),
         st.getReturnConditions(specification.getPostconditions()),
@@ -373,6 +439,15 @@ public class SpecificationTranslator {
    */
   private ExecutableBooleanExpression create(Guard expression) {
     String contractText = Util.replaceWords(expression.getConditionSource(), replacementMap);
+    if (expressionCompiler != null) {
+      return new ExecutableBooleanExpression(
+          prestateExpressionSignature,
+          prestateExpressionDeclaration,
+          expression.getConditionSource(),
+          contractText,
+          expression.getDescription(),
+          expressionCompiler);
+    }
     return new ExecutableBooleanExpression(
         prestateExpressionSignature,
         prestateExpressionDeclaration,
@@ -393,6 +468,15 @@ public class SpecificationTranslator {
    */
   public ExecutableBooleanExpression create(Property expression) {
     String contractText = Util.replaceWords(expression.getConditionSource(), replacementMap);
+    if (expressionCompiler != null) {
+      return new ExecutableBooleanExpression(
+          poststateExpressionSignature,
+          poststateExpressionDeclarations,
+          expression.getConditionSource(),
+          contractText,
+          expression.getDescription(),
+          expressionCompiler);
+    }
     return new ExecutableBooleanExpression(
         poststateExpressionSignature,
         poststateExpressionDeclarations,
@@ -0,0 +1,108 @@
+package randoop.execution;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import randoop.main.RandoopUsageError;
+
+/**
+ * Loads a test class, and all other classes except the JDK and JUnit, itself rather than from its
+ * parent. Each run of a test uses a new {@code IsolatedClassLoader}, so runs do not share the
+ * static state of the classes under test.
+ *
+ * <p>Classes on the boot classpath, such as those of the replacecall agent, are still loaded by the
+ * boot class loader.
+ */
+public final class IsolatedClassLoader extends URLClassLoader {
+
+  /** Loads the JDK and JUnit classes for every {@code IsolatedClassLoader}. */
+  private static final ClassLoader JUNIT_LOADER = new JUnitClassLoader();
+
+  /** Class files, by binary name, that are loaded from memory instead of from the classpath. */
+  private final Map<String, byte[]> classes;
+
+  /**
+   * Creates a class loader.
+   *
+   * @param classpath the classpath for classes that are not in {@code classes}
+   * @param classes class files, by binary name, to load from memory
+   */
+  public IsolatedClassLoader(URL[] classpath, Map<String, byte[]> classes) {
+    super(classpath, JUNIT_LOADER);
+    this.classes = classes;
+  }
+
+  @Override
+  protected Class<?> findClass(String name) throws ClassNotFoundException {
+    byte[] bytes = classes.get(name);
+    if (bytes != null) {
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+    return super.findClass(name);
+  }
+
+  /**
+   * Converts classpath elements to URLs. An element ending in {@code *} stands for the jar files
+   * in a directory, as for the {@code java} command.
+   *
+   * @param classpathElements the classpath elements
+   * @return the URLs of the classpath elements
+   */
+  public static URL[] toUrls(List<String> classpathElements) {
+    List<URL> result = new ArrayList<>(classpathElements.size());
+    try {
+      for (String element : classpathElements) {
+        if (element.isEmpty()) {
+          continue;
+        }
+        if (element.endsWith("*")) {
+          File[] jars =
+              Paths.get(element.substring(0, element.length() - 1))
+                  .toFile()
+                  .listFiles((dir, name) -> name.endsWith(".jar") || name.endsWith(".JAR"));
+          if (jars != null) {
+            for (File jar : jars) {
+              result.add(jar.toURI().toURL());
+            }
+          }
+        } else {
+          result.add(Paths.get(element).toAbsolutePath().toUri().toURL());
+        }
+      }
+    } catch (MalformedURLException e) {
+      throw new RandoopUsageError("Bad classpath: " + classpathElements, e);
+    }
+    return result.toArray(new URL[0]);
+  }
+
+  /**
+   * Loads JUnit from Randoop's class loader, so that Randoop and the tests share it, and the JDK
+   * from the platform class loader.
+   */
+  private static final class JUnitClassLoader extends ClassLoader {
+
+    /** Creates a class loader. */
+    JUnitClassLoader() {
+      super(ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (name.startsWith("org.junit.")
+          || name.startsWith("junit.")
+          || name.startsWith("org.hamcrest.")) {
+        try {
+          return IsolatedClassLoader.class.getClassLoader().loadClass(name);
+        } catch (ClassNotFoundException e) {
+          // Load it from the test's classpath instead.
+        }
+      }
+      return super.loadClass(name, resolve);
+    }
+  }
+}
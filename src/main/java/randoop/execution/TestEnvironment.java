@@ -2,15 +2,28 @@ package randoop.execution;
 
 import static randoop.execution.RunCommand.CommandException;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.main.GenInputsAbstract;
+import randoop.util.Log;
 
-/** Provides the environment for running JUnit tests. */
-public class TestEnvironment {
+/**
+ * Provides the environment for running JUnit tests.
+ *
+ * <p>A test class can be run in a new JVM ({@link #runTest}) or in a long-lived JVM that runs many
+ * test classes ({@link #runTestInRunner}). The long-lived JVMs are started on demand, one for each
+ * thread that runs tests concurrently, and are stopped by {@link #close}.
+ */
+public class TestEnvironment implements Closeable {
 
   /** The process timeout in milliseconds. Defaults to 20 minutes. */
   private long timeoutMillis = 20 * 60 * 1000;
@@ -27,6 +40,15 @@ public class TestEnvironment {
   /** The argument string for the replacecall agent. */
   private String replaceCallAgentArgs;
 
+  /** The long-lived JVMs that are not currently running a test class. */
+  private final Deque<TestRunnerProcess> idleRunners = new ArrayDeque<>();
+
+  /**
+   * True if long-lived JVMs cannot be used: for example, because one exited before answering its
+   * first request.
+   */
+  private volatile boolean runnersUnavailable = false;
+
   /**
    * Creates a test environment with the given classpath and an empty agent map.
    *
@@ -80,15 +102,75 @@ public class TestEnvironment {
   public RunCommand.Status runTest(String testClassName, Path workingDirectory)
       throws CommandException {
     List<String> command = commandPrefix();
+    command.add("org.junit.runner.JUnitCore");
     command.add(testClassName);
     return RunCommand.run(command, workingDirectory, timeoutMillis);
   }
 
   /**
-   * Constructs the command to run JUnit tests in this environment, minus the name of the test
-   * class. Adding the test class name is sufficient to build a runnable command.
+   * Runs the tests of the named JUnit test class in a long-lived JVM. The test class and the
+   * classes under test are loaded by a new class loader (see {@link IsolatedClassLoader}), so their
+   * static state does not persist from run to run.
+   *
+   * @param testClassName the fully-qualified JUnit test class name
+   * @param classesDirectory the directory that contains the compiled test class
+   * @param methodNames the names of the test methods to run, or null to run all of them
+   * @return the result of running the tests, or null if they could not be run in a long-lived JVM,
+   *     in which case the caller should use {@link #runTest}
+   */
+  public @Nullable TestRunResult runTestInRunner(
+      String testClassName, Path classesDirectory, @Nullable Collection<String> methodNames) {
+    if (runnersUnavailable) {
+      return null;
+    }
+    TestRunnerProcess runner;
+    synchronized (idleRunners) {
+      runner = idleRunners.pollFirst();
+    }
+    try {
+      if (runner == null) {
+        List<String> command = commandPrefix();
+        command.add(TestRunnerServer.class.getName());
+        runner = new TestRunnerProcess(command);
+      }
+      TestRunResult result =
+          runner.run(testClassName, classesDirectory, methodNames, timeoutMillis);
+      if (result != null && result.timedOut) {
+        runner.close();
+      } else {
+        synchronized (idleRunners) {
+          idleRunners.addFirst(runner);
+        }
+      }
+      return result;
+    } catch (IOException e) {
+      Log.logPrintf("Long-lived test JVM failed: %s%n", e.getMessage());
+      if (runner != null) {
+        if (!runner.hasAnswered()) {
+          runnersUnavailable = true;
+        }
+        runner.close();
+      }
+      return null;
+    }
+  }
+
+  /** Stops the long-lived JVMs. */
+  @Override
+  public void close() {
+    synchronized (idleRunners) {
+      for (TestRunnerProcess runner : idleRunners) {
+        runner.close();
+      }
+      idleRunners.clear();
+    }
+  }
+
+  /**
+   * Constructs the command to run a JVM in this environment, minus the main class and its
+   * arguments.
    *
-   * @return the base command to run JUnit tests in this environment, without a test class name
+   * @return the base command to run a JVM in this environment, without a main class
    */
   private List<String> commandPrefix() {
     List<String> command = new ArrayList<>(agentMap.size() + 9);
@@ -109,7 +191,6 @@ public class TestEnvironment {
 
     command.add("-classpath");
     command.add("." + java.io.File.pathSeparator + testClasspath);
-    command.add("org.junit.runner.JUnitCore");
 
     return command;
   }
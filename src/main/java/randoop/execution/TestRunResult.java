@@ -0,0 +1,81 @@
+package randoop.execution;
+
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/** The outcome of running the tests of a JUnit test class, one entry per failing test method. */
+public final class TestRunResult {
+
+  /** The failures, in the order that JUnit reported them. */
+  public final List<Failure> failures;
+
+  /** True if every test method of the class was run, false if only some were. */
+  public final boolean ranAllMethods;
+
+  /** True if the run did not finish within the timeout. Then {@link #failures} is empty. */
+  public final boolean timedOut;
+
+  /**
+   * Creates a result.
+   *
+   * @param failures the failures, in the order that JUnit reported them
+   * @param ranAllMethods true if every test method of the class was run
+   * @param timedOut true if the run did not finish within the timeout
+   */
+  public TestRunResult(List<Failure> failures, boolean ranAllMethods, boolean timedOut) {
+    this.failures = Collections.unmodifiableList(failures);
+    this.ranAllMethods = ranAllMethods;
+    this.timedOut = timedOut;
+  }
+
+  /** A failing test method. */
+  public static final class Failure {
+
+    /** The name of the test method. */
+    public final String methodName;
+
+    /**
+     * The 1-based line of the test class, within the test method, at which the failure occurred,
+     * or -1 if the failure did not occur within the test method.
+     */
+    public final int lineNumber;
+
+    /** The description of the failure that JUnit's text output uses, such as "1) test05(C)". */
+    public final String header;
+
+    /** The stack trace of the failure, as JUnit reports it, or null if it is not known. */
+    public final @Nullable String trace;
+
+    /**
+     * Creates a failure whose stack trace is not known.
+     *
+     * @param methodName the name of the test method
+     * @param lineNumber the line at which the failure occurred, or -1
+     * @param header the description of the failure that JUnit's text output uses
+     */
+    public Failure(String methodName, int lineNumber, String header) {
+      this(methodName, lineNumber, header, null);
+    }
+
+    /**
+     * Creates a failure.
+     *
+     * @param methodName the name of the test method
+     * @param lineNumber the line at which the failure occurred, or -1
+     * @param header the description of the failure that JUnit's text output uses
+     * @param trace the stack trace of the failure, or null if it is not known
+     */
+    public Failure(String methodName, int lineNumber, String header, @Nullable String trace) {
+      this.methodName = methodName;
+      this.lineNumber = lineNumber;
+      this.header = header;
+      this.trace = trace;
+    }
+
+    @Override
+    public String toString() {
+      return header + " at line " + lineNumber;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package randoop.execution;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.plumelib.util.FilesPlume;
+import randoop.util.Log;
+
+/**
+ * A long-lived JVM, running {@link TestRunnerServer}, that runs JUnit test classes. It is used by
+ * one thread at a time.
+ */
+final class TestRunnerProcess implements Closeable {
+
+  /** Kills runners whose request exceeds the timeout. */
+  private static final ScheduledExecutorService watchdog =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "randoop.execution.TestRunnerProcess-watchdog");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** The process. */
+  private final Process process;
+
+  /** The standard input of the process. */
+  private final Writer requests;
+
+  /** The standard output of the process. */
+  private final BufferedReader responses;
+
+  /** The working directory of the process, in which the tests run. */
+  private final Path workingDirectory;
+
+  /** The file to which the process writes its standard error, including the tests' output. */
+  private final Path errorLog;
+
+  /** True if the process has answered at least one request. */
+  private boolean answered = false;
+
+  /** True if the process exited unexpectedly; then {@link #errorLog} is kept. */
+  private boolean failed = false;
+
+  /**
+   * Starts a runner.
+   *
+   * @param command the command that starts a JVM whose main class is {@link TestRunnerServer}
+   * @throws IOException if the process cannot be started
+   */
+  TestRunnerProcess(List<String> command) throws IOException {
+    this.workingDirectory = Files.createTempDirectory("randoop-test-runner");
+    this.errorLog = Files.createTempFile("randoop-test-runner", ".log");
+    Log.logPrintf("TestRunnerProcess: cd %s; %s%n", workingDirectory, String.join(" ", command));
+    this.process =
+        new ProcessBuilder(command)
+            .directory(workingDirectory.toFile())
+            .redirectError(errorLog.toFile())
+            .start();
+    this.requests = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+    this.responses =
+        new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns true if this runner has answered at least one request. A runner that fails before
+   * answering any request probably cannot be started in this environment at all.
+   *
+   * @return true if this runner has answered a request
+   */
+  boolean hasAnswered() {
+    return answered;
+  }
+
+  /**
+   * Runs a test class.
+   *
+   * @param testClassName the fully-qualified name of the test class
+   * @param classesDirectory the directory that contains the compiled test class
+   * @param methodNames the test methods to run, or null to run all of them
+   * @param timeoutMillis the time after which the run is abandoned
+   * @return the result of the run, or null if the runner could not run the class. If the run timed
+   *     out, the runner has been killed and must be closed.
+   * @throws IOException if the runner died; then this runner must be closed
+   */
+  @Nullable TestRunResult run(
+      String testClassName,
+      Path classesDirectory,
+      @Nullable Collection<String> methodNames,
+      long timeoutMillis)
+      throws IOException {
+    String methods = (methodNames == null) ? "" : String.join(",", methodNames);
+    requests.write(
+        "RUN\t"
+            + TestRunnerServer.escape(classesDirectory.toAbsolutePath().toString())
+            + "\t"
+            + TestRunnerServer.escape(testClassName)
+            + "\t"
+            + TestRunnerServer.escape(methods)
+            + "\n");
+    requests.flush();
+
+    AtomicBoolean killed = new AtomicBoolean(false);
+    ScheduledFuture<?> kill =
+        watchdog.schedule(
+            () -> {
+              killed.set(true);
+              process.destroyForcibly();
+            },
+            timeoutMillis,
+            TimeUnit.MILLISECONDS);
+    try {
+      List<TestRunResult.Failure> failures = new ArrayList<>();
+      while (true) {
+        String line = responses.readLine();
+        if (line == null) {
+          if (killed.get()) {
+            return new TestRunResult(new ArrayList<>(), methodNames == null, true);
+          }
+          failed = true;
+          throw new IOException("Test runner exited; see " + errorLog);
+        }
+        String[] fields = line.split("\t", -1);
+        switch (fields[0]) {
+          case "FAILURE":
+            failures.add(
+                new TestRunResult.Failure(
+                    TestRunnerServer.unescape(fields[1]),
+                    Integer.parseInt(fields[2]),
+                    TestRunnerServer.unescape(fields[3]),
+                    TestRunnerServer.unescape(fields[4])));
+            break;
+          case "DONE":
+            answered = true;
+            return new TestRunResult(failures, methodNames == null, false);
+          case "ERROR":
+            answered = true;
+            Log.logPrintf(
+                "TestRunnerProcess could not run %s: %s%n",
+                testClassName, TestRunnerServer.unescape(fields[1]));
+            return null;
+          default:
+            throw new IOException("Unexpected response from test runner: " + line);
+        }
+      }
+    } finally {
+      kill.cancel(false);
+    }
+  }
+
+  /** Stops the process and deletes its files. */
+  @Override
+  public void close() {
+    try {
+      requests.close();
+    } catch (IOException e) {
+      // The process is being stopped anyway.
+    }
+    process.destroyForcibly();
+    try {
+      process.waitFor(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    FilesPlume.deleteDir(workingDirectory.toFile());
+    if (!failed) {
+      try {
+        Files.deleteIfExists(errorLog);
+      } catch (IOException e) {
+        // Leave the log behind.
+      }
+    }
+  }
+}
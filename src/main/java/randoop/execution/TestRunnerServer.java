@@ -0,0 +1,241 @@
+package randoop.execution;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.checker.signature.qual.ClassGetName;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.Failure;
+
+/**
+ * The main class of a long-lived JVM that runs JUnit test classes on behalf of {@link
+ * TestRunnerProcess}. Running many test classes in one JVM avoids the cost of starting a JVM (and
+ * of instrumenting classes with Java agents) for each run.
+ *
+ * <p>Each request is one line on standard input, and each response is one or more lines on
+ * standard output. The fields of a line are separated by tabs and are escaped by {@link #escape}. A
+ * request has the form
+ *
+ * <pre>RUN  classesDirectory  className  methodName,methodName,...</pre>
+ *
+ * where an empty list of method names means all methods. The class is loaded from the given
+ * directory by a new {@link IsolatedClassLoader}, which also loads the classes under test from the
+ * classpath of this JVM. Each run therefore sees fresh versions of the test class and of the
+ * classes under test, with their static state newly initialized, as in a new JVM. The response
+ * is a line
+ *
+ * <pre>FAILURE  methodName  lineNumber  header  trace</pre>
+ *
+ * for each failing test, where {@code lineNumber} is the line of the test class in the test method
+ * at which the failure occurred (or -1 if there is none), {@code header} is the description that
+ * JUnit's text output uses for the failure, and {@code trace} is its stack trace. The response ends
+ * with a line
+ *
+ * <pre>DONE  runCount</pre>
+ *
+ * or, if the class could not be run at all, consists of a single line {@code ERROR message}.
+ *
+ * <p>Output that the tests write to standard output is redirected to standard error, so that it
+ * does not interfere with the responses. The JVM exits when its standard input is closed.
+ */
+public final class TestRunnerServer {
+
+  /** The classpath of this JVM, from which each run loads the classes under test anew. */
+  private static final String CLASSPATH = System.getProperty("java.class.path");
+
+  /** Do not instantiate. */
+  private TestRunnerServer() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Serves requests until standard input is closed.
+   *
+   * @param args ignored
+   * @throws IOException if there is an error reading requests or writing responses
+   */
+  public static void main(String[] args) throws IOException {
+    PrintWriter responses =
+        new PrintWriter(
+            new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8));
+    System.setOut(System.err);
+    BufferedReader requests =
+        new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+    String request;
+    while ((request = requests.readLine()) != null) {
+      String[] fields = request.split("\t", -1);
+      if (fields.length != 4 || !fields[0].equals("RUN")) {
+        responses.println("ERROR\t" + escape("Malformed request: " + request));
+      } else {
+        run(unescape(fields[1]), unescape(fields[2]), unescape(fields[3]), responses);
+      }
+      responses.flush();
+    }
+  }
+
+  /**
+   * Runs the given test class and writes the response.
+   *
+   * @param classesDirectory the directory that contains the compiled test class
+   * @param className the fully-qualified name of the test class
+   * @param methodNames the comma-separated names of the methods to run, or the empty string to run
+   *     all methods
+   * @param responses where to write the response
+   */
+  private static void run(
+      String classesDirectory, String className, String methodNames, PrintWriter responses) {
+    List<String> classpathElements = new ArrayList<>();
+    classpathElements.add(classesDirectory);
+    classpathElements.addAll(Arrays.asList(CLASSPATH.split(File.pathSeparator)));
+    Thread thread = Thread.currentThread();
+    ClassLoader contextClassLoader = thread.getContextClassLoader();
+    try (IsolatedClassLoader loader =
+        new IsolatedClassLoader(
+            IsolatedClassLoader.toUrls(classpathElements), Collections.emptyMap())) {
+      thread.setContextClassLoader(loader);
+      @SuppressWarnings("signature") // a test class is a top-level class, named by its binary name
+      @ClassGetName String testClassName = className;
+      Class<?> testClass = Class.forName(testClassName, false, loader);
+      Request request = Request.aClass(testClass);
+      if (!methodNames.isEmpty()) {
+        request = request.filterWith(new MethodFilter(methodNames.split(",")));
+      }
+      Result result = new JUnitCore().run(request);
+      int failureNumber = 0;
+      for (Failure failure : result.getFailures()) {
+        failureNumber++;
+        String methodName = failure.getDescription().getMethodName();
+        responses.println(
+            "FAILURE\t"
+                + escape(methodName == null ? "" : methodName)
+                + "\t"
+                + failureLine(failure, className, methodName)
+                + "\t"
+                + escape(failureNumber + ") " + failure.getTestHeader())
+                + "\t"
+                + escape(failure.getTrace()));
+      }
+      responses.println("DONE\t" + result.getRunCount());
+    } catch (Throwable e) {
+      responses.println("ERROR\t" + escape(e.toString()));
+    } finally {
+      thread.setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  /**
+   * Returns the line of the test method at which the failure occurred.
+   *
+   * @param failure a failure
+   * @param className the fully-qualified name of the test class
+   * @param methodName the name of the test method, or null
+   * @return the line number in the test class, or -1 if the stack trace does not contain the test
+   *     method
+   */
+  private static int failureLine(Failure failure, String className, String methodName) {
+    for (StackTraceElement element : failure.getException().getStackTrace()) {
+      if (element.getClassName().equals(className) && element.getMethodName().equals(methodName)) {
+        return element.getLineNumber();
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Escapes backslashes, tabs, and line terminators so that a value fits in one field of a line.
+   *
+   * @param value a value
+   * @return the escaped value
+   */
+  static String escape(String value) {
+    return value
+        .replace("\\", "\\\\")
+        .replace("\t", "\\t")
+        .replace("\n", "\\n")
+        .replace("\r", "\\r");
+  }
+
+  /**
+   * Reverses {@link #escape}.
+   *
+   * @param field an escaped value
+   * @return the original value
+   */
+  static String unescape(String field) {
+    StringBuilder result = new StringBuilder(field.length());
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c == '\\' && i + 1 < field.length()) {
+        char next = field.charAt(++i);
+        switch (next) {
+          case 't':
+            result.append('\t');
+            break;
+          case 'n':
+            result.append('\n');
+            break;
+          case 'r':
+            result.append('\r');
+            break;
+          default:
+            result.append(next);
+        }
+      } else {
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+  /** Selects the test methods with the given names. */
+  private static class MethodFilter extends Filter {
+
+    /** The names of the methods to run. */
+    private final Set<String> methodNames;
+
+    /**
+     * Creates a filter that selects the given methods.
+     *
+     * @param methodNames the names of the methods to run
+     */
+    MethodFilter(String[] methodNames) {
+      this.methodNames = new HashSet<>(Arrays.asList(methodNames));
+    }
+
+    @Override
+    public boolean shouldRun(Description description) {
+      if (description.isTest()) {
+        return methodNames.contains(description.getMethodName());
+      }
+      for (Description child : description.getChildren()) {
+        if (shouldRun(child)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public String describe() {
+      return "methods " + methodNames;
+    }
+  }
+}
@@ -3,12 +3,14 @@ package randoop.field;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.main.RandoopBug;
 import randoop.reflection.ReflectionPredicate;
 import randoop.sequence.SequenceExecutionException;
 import randoop.sequence.Variable;
 import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
+import randoop.util.DirectInvoker;
 
 /**
  * AccessibleField represents an accessible field of a class object, which can be an instance field,
@@ -23,6 +25,12 @@ public class AccessibleField {
   private boolean isFinal;
   private boolean isStatic;
 
+  /** Reads {@link #field} without reflection; created by the first read. */
+  private volatile @Nullable DirectInvoker getter = null;
+
+  /** Writes {@link #field} without reflection; created by the first write. */
+  private volatile @Nullable DirectInvoker setter = null;
+
   /**
    * Create the public field object for the given {@code Field}.
    *
@@ -108,6 +116,14 @@ public class AccessibleField {
    *     IllegalAccessException}.
    */
   public Object getValue(Object object) {
+    DirectInvoker getter = this.getter;
+    if (getter == null) {
+      getter = DirectInvoker.forGetter(field);
+      this.getter = getter;
+    }
+    if (getter.accepts(object, DirectInvoker.NO_ARGUMENTS)) {
+      return invoke(getter, object, DirectInvoker.NO_ARGUMENTS);
+    }
     Object ret;
     try {
       ret = field.get(object);
@@ -130,6 +146,16 @@ public class AccessibleField {
    */
   public void setValue(Object object, Object value) {
     assert !isFinal : "cannot set a final field";
+    DirectInvoker setter = this.setter;
+    if (setter == null) {
+      setter = DirectInvoker.forSetter(field);
+      this.setter = setter;
+    }
+    Object[] arguments = new Object[] {value};
+    if (setter.accepts(object, arguments)) {
+      invoke(setter, object, arguments);
+      return;
+    }
     try {
       field.set(object, value);
     } catch (IllegalArgumentException e) {
@@ -139,6 +165,24 @@ public class AccessibleField {
     }
   }
 
+  /**
+   * Reads or writes the field without reflection.
+   *
+   * @param invoker the getter or setter
+   * @param object instance to which field belongs, or null if static
+   * @param arguments the arguments of {@code invoker}
+   * @return the value of the field, or null for a write
+   */
+  private Object invoke(DirectInvoker invoker, Object object, Object[] arguments) {
+    try {
+      return invoker.invoke(object, arguments);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new RandoopBug("Unexpected exception accessing field: " + field.getName(), e);
+    }
+  }
+
   /**
    * isStatic returns the default that a field is not static.
    *
@@ -5,6 +5,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.options.Option;
 import org.plumelib.options.OptionGroup;
@@ -20,6 +21,8 @@ import randoop.operation.TypedOperation;
 import randoop.sequence.ExecutableSequence;
 import randoop.sequence.Sequence;
 import randoop.test.TestCheckGenerator;
+import randoop.util.GenerationMetrics;
+import randoop.util.GenerationMetrics.Phase;
 import randoop.util.Log;
 import randoop.util.ProgressDisplay;
 import randoop.util.ReflectionExecutor;
@@ -111,7 +114,7 @@ public abstract class AbstractGenerator {
    * that Randoop appears to hang, this sequence is printed out to console to help the user debug
    * the cause of the hanging behavior.
    */
-  public static Sequence currSeq = null;
+  public static volatile Sequence currSeq = null;
 
   /**
    * The list of error test sequences to be output as JUnit tests. May include subsequences of other
@@ -125,12 +128,36 @@ public abstract class AbstractGenerator {
    */
   public List<ExecutableSequence> outRegressionSeqs;
 
+  /**
+   * If non-null, receives each output sequence as soon as it is classified, instead of {@link
+   * #outErrorSeqs} and {@link #outRegressionSeqs}.
+   */
+  private @Nullable OutputSequenceSink outputSink = null;
+
+  /** The number of error-revealing sequences that were passed to {@link #outputSink}. */
+  private int numSunkErrorSeqs = 0;
+
+  /** The number of regression sequences that were passed to {@link #outputSink}. */
+  private int numSunkRegressionSeqs = 0;
+
   /**
    * A filter to determine whether a sequence should be added to the output sequence lists. Returns
    * true if the sequence should be output.
    */
   public Predicate<ExecutableSequence> outputTest;
 
+  /**
+   * If non-null, checks the sequences that pass {@link #outputTest} in batches before they are
+   * output. Returns the sequences to keep among the given ones, in order.
+   */
+  private @Nullable UnaryOperator<List<ExecutableSequence>> outputBatchFilter = null;
+
+  /** The maximum number of sequences that {@link #outputBatchFilter} checks together. */
+  private int outputBatchSize = 1;
+
+  /** The sequences that passed {@link #outputTest} and await {@link #outputBatchFilter}. */
+  private final List<ExecutableSequence> pendingOutputSeqs = new ArrayList<>();
+
   /** Visitor to generate checks for a sequence. */
   protected TestCheckGenerator checkGenerator;
 
@@ -184,6 +211,20 @@ public abstract class AbstractGenerator {
     this.outputTest = outputTest;
   }
 
+  /**
+   * Registers a sink that receives each output sequence as soon as it is classified. The sequences
+   * that the sink receives are not kept by this generator, so {@link #getRegressionSequences} and
+   * {@link #getErrorTestSequences} do not return them.
+   *
+   * @param outputSink the sink for output sequences
+   */
+  public void setOutputSequenceSink(OutputSequenceSink outputSink) {
+    if (outputSink == null) {
+      throw new IllegalArgumentException("outputSink must be non-null");
+    }
+    this.outputSink = outputSink;
+  }
+
   /**
    * Registers a visitor with this object for use while executing each generated sequence.
    *
@@ -219,6 +260,26 @@ public abstract class AbstractGenerator {
     this.checkGenerator = checkGenerator;
   }
 
+  /**
+   * Registers a check of the output sequences that is run on many sequences at once, such as the
+   * check of {@link GenInputsAbstract#check_compilable_batch_size}. A sequence that passes the test
+   * predicate waits until {@code batchSize} sequences are waiting, or until the waiting sequences
+   * could reach the output limit, and then the filter checks the waiting sequences together. Only
+   * the sequences that the filter keeps are output and count toward the output limit, so the output
+   * is the same as if the check were part of the test predicate.
+   *
+   * @param batchSize the maximum number of sequences that the filter checks together; must be
+   *     positive
+   * @param filter returns the sequences to keep among the given ones, in order
+   */
+  public void setOutputBatchFilter(int batchSize, UnaryOperator<List<ExecutableSequence>> filter) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+    }
+    this.outputBatchSize = batchSize;
+    this.outputBatchFilter = filter;
+  }
+
   /**
    * Tests stopping criteria.
    *
@@ -233,6 +294,20 @@ public abstract class AbstractGenerator {
         || (stopper != null && stopper.shouldStop());
   }
 
+  /**
+   * Adds a stopping criterion to this generator. Generation stops when any criterion is met.
+   *
+   * @param additionalStopper the stopping criterion to add
+   */
+  void addStopper(IStopper additionalStopper) {
+    IStopper previousStopper = stopper;
+    if (previousStopper == null) {
+      stopper = additionalStopper;
+    } else {
+      stopper = () -> previousStopper.shouldStop() || additionalStopper.shouldStop();
+    }
+  }
+
   /**
    * Attempt to generate a test (a sequence).
    *
@@ -262,7 +337,7 @@ public abstract class AbstractGenerator {
    * @return the sum of the number of error and regression test sequences for output
    */
   public int numOutputSequences() {
-    return outErrorSeqs.size() + outRegressionSeqs.size();
+    return outputSequenceCount();
   }
 
   /**
@@ -271,7 +346,7 @@ public abstract class AbstractGenerator {
    * @return the number of error test sequences
    */
   private int numErrorSequences() {
-    return outErrorSeqs.size();
+    return outErrorSeqs.size() + numSunkErrorSeqs;
   }
 
   /**
@@ -281,28 +356,65 @@ public abstract class AbstractGenerator {
    * @see AbstractGenerator#step()
    */
   public void createAndClassifySequences() {
-    if (checkGenerator == null) {
-      throw new Error("Generator not properly initialized - must have a TestCheckGenerator");
+    if (GenInputsAbstract.progressdisplay) {
+      progressDisplay = new ProgressDisplay(this, ProgressDisplay.Mode.MULTILINE);
+      progressDisplay.start();
     }
 
-    startTime = System.currentTimeMillis();
+    generateSequences();
+
+    if (GenInputsAbstract.progressdisplay && progressDisplay != null) {
+      progressDisplay.display(!GenInputsAbstract.deterministic);
+      progressDisplay.shouldStop = true;
+    }
 
     if (GenInputsAbstract.progressdisplay) {
-      progressDisplay = new ProgressDisplay(this, ProgressDisplay.Mode.MULTILINE);
-      progressDisplay.start();
+      System.out.println();
+      System.out.println("Normal method executions: " + ReflectionExecutor.normalExecs());
+      System.out.println("Exceptional method executions: " + ReflectionExecutor.excepExecs());
+      if (!GenInputsAbstract.deterministic) {
+        System.out.println();
+        System.out.println(
+            "Average method execution time (normal termination):      "
+                + String.format("%.3g", ReflectionExecutor.normalExecAvgMillis()));
+        System.out.println(
+            "Average method execution time (exceptional termination): "
+                + String.format("%.3g", ReflectionExecutor.excepExecAvgMillis()));
+        System.out.println(
+            "Approximate memory usage "
+                + StringsPlume.abbreviateNumber(SystemPlume.usedMemory(false)));
+      }
+      System.out.println("Explorer = " + this);
+    }
+  }
+
+  /**
+   * The main generation loop of {@link #createAndClassifySequences()}: creates and executes new
+   * sequences until stopping criteria is met. Unlike {@link #createAndClassifySequences()}, does
+   * not start a progress display or print statistics.
+   *
+   * @see AbstractGenerator#shouldStop()
+   * @see AbstractGenerator#step()
+   */
+  protected void generateSequences() {
+    if (checkGenerator == null) {
+      throw new Error("Generator not properly initialized - must have a TestCheckGenerator");
     }
 
+    startTime = System.currentTimeMillis();
+
     while (!shouldStop()) {
 
       num_steps++;
 
       ExecutableSequence eSeq = step();
+      GenerationMetrics.step();
 
       if (dump_sequences) {
         Log.logPrintf("%nseq before run:%n%s%n", eSeq);
       }
 
-      if (GenInputsAbstract.progressdisplay
+      if (progressDisplay != null
           && GenInputsAbstract.progressintervalsteps != -1
           && num_steps % GenInputsAbstract.progressintervalsteps == 0) {
         progressDisplay.display(!GenInputsAbstract.deterministic);
@@ -316,27 +428,30 @@ public abstract class AbstractGenerator {
       num_sequences_generated++;
 
       boolean test;
+      long outputTestStart = GenerationMetrics.start(Phase.OUTPUT_PREDICATE);
       try {
         test = outputTest.test(eSeq);
       } catch (Throwable t) {
         System.out.printf(
             "%nProblem with sequence:%n%s%n%s%n", eSeq, UtilPlume.stackTraceToString(t));
         throw t;
+      } finally {
+        GenerationMetrics.stop(Phase.OUTPUT_PREDICATE, outputTestStart);
       }
-      if (test) {
-        // Classify the sequence
-        if (eSeq.hasInvalidBehavior()) {
-          invalidSequenceCount++;
-        } else if (eSeq.hasFailure()) {
-          operationHistory.add(eSeq.getOperation(), OperationOutcome.ERROR_SEQUENCE);
-          num_failing_sequences++;
-          outErrorSeqs.add(eSeq);
-        } else {
-          outRegressionSeqs.add(eSeq);
-          newRegressionTestHook(eSeq.sequence);
-        }
-      } else {
+      if (!test) {
         num_failed_output_test++;
+      } else if (outputBatchFilter == null || eSeq.hasInvalidBehavior()) {
+        // An invalid sequence is never output, so it does not need the batch check.
+        classifyOutputSequence(eSeq);
+      } else {
+        pendingOutputSeqs.add(eSeq);
+        // Check the batch before the waiting sequences could exceed the output limit, and before an
+        // error sequence could stop generation.
+        if (pendingOutputSeqs.size() >= outputBatchSize
+            || numOutputSequences() + pendingOutputSeqs.size() >= limits.output_limit
+            || (GenInputsAbstract.stop_on_error_test && eSeq.hasFailure())) {
+          checkPendingOutputSequences();
+        }
       }
 
       if (dump_sequences) {
@@ -345,29 +460,52 @@ public abstract class AbstractGenerator {
         // componentManager.log();
       }
     }
+    checkPendingOutputSequences();
+  }
 
-    if (GenInputsAbstract.progressdisplay && progressDisplay != null) {
-      progressDisplay.display(!GenInputsAbstract.deterministic);
-      progressDisplay.shouldStop = true;
+  /**
+   * Applies {@link #outputBatchFilter} to the sequences that await it, and classifies the sequences
+   * that it keeps. Each sequence that it discards is counted as having failed the output test.
+   */
+  private void checkPendingOutputSequences() {
+    if (pendingOutputSeqs.isEmpty()) {
+      return;
+    }
+    List<ExecutableSequence> batch = new ArrayList<>(pendingOutputSeqs);
+    pendingOutputSeqs.clear();
+    List<ExecutableSequence> kept = outputBatchFilter.apply(batch);
+    num_failed_output_test += batch.size() - kept.size();
+    for (ExecutableSequence eSeq : kept) {
+      classifyOutputSequence(eSeq);
     }
+  }
 
-    if (GenInputsAbstract.progressdisplay) {
-      System.out.println();
-      System.out.println("Normal method executions: " + ReflectionExecutor.normalExecs());
-      System.out.println("Exceptional method executions: " + ReflectionExecutor.excepExecs());
-      if (!GenInputsAbstract.deterministic) {
-        System.out.println();
-        System.out.println(
-            "Average method execution time (normal termination):      "
-                + String.format("%.3g", ReflectionExecutor.normalExecAvgMillis()));
-        System.out.println(
-            "Average method execution time (exceptional termination): "
-                + String.format("%.3g", ReflectionExecutor.excepExecAvgMillis()));
-        System.out.println(
-            "Approximate memory usage "
-                + StringsPlume.abbreviateNumber(SystemPlume.usedMemory(false)));
+  /**
+   * Classifies a sequence that passed the output test, and outputs it if it is an error-revealing
+   * or regression sequence.
+   *
+   * @param eSeq a sequence that passed the output test
+   */
+  private void classifyOutputSequence(ExecutableSequence eSeq) {
+    if (eSeq.hasInvalidBehavior()) {
+      invalidSequenceCount++;
+    } else if (eSeq.hasFailure()) {
+      operationHistory.add(eSeq.getOperation(), OperationOutcome.ERROR_SEQUENCE);
+      num_failing_sequences++;
+      if (outputSink != null) {
+        outputSink.addErrorSequence(eSeq);
+        numSunkErrorSeqs++;
+      } else {
+        outErrorSeqs.add(eSeq);
       }
-      System.out.println("Explorer = " + this);
+    } else {
+      if (outputSink != null) {
+        outputSink.addRegressionSequence(eSeq);
+        numSunkRegressionSeqs++;
+      } else {
+        outRegressionSeqs.add(eSeq);
+      }
+      newRegressionTestHook(eSeq.sequence);
     }
   }
 
@@ -417,7 +555,10 @@ public abstract class AbstractGenerator {
    * @return the total number of test sequences saved for output
    */
   public int outputSequenceCount() {
-    return outRegressionSeqs.size() + outErrorSeqs.size();
+    return outRegressionSeqs.size()
+        + outErrorSeqs.size()
+        + numSunkRegressionSeqs
+        + numSunkErrorSeqs;
   }
 
   /**
@@ -1,8 +1,12 @@
 package randoop.generation;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.main.RandoopBug;
@@ -38,8 +42,8 @@ import randoop.util.SimpleList;
  * <p>SEED SEQUENCES. Seed sequences are the initial sequences provided to the generation process.
  * They include (1) sequences passed via the constructor, (2) class literals, and (3) package
  * literals. The only different treatment of seed sequences is during calls to the
- * clearGeneratedSequences() method, which removes only general, non-seed components from the
- * collection.
+ * clearGeneratedSequences() and evictGeneratedSequences() methods, which remove only general,
+ * non-seed components from the collection.
  */
 public class ComponentManager {
 
@@ -77,6 +81,24 @@ public class ComponentManager {
    */
   private @Nullable PackageLiterals packageLiterals = null;
 
+  /**
+   * Chooses which generated sequences {@link #evictGeneratedSequences} removes. Null if the pool is
+   * only ever cleared completely.
+   */
+  private @Nullable PoolEvictionPolicy evictionPolicy = null;
+
+  /** Is notified of the sequences that are removed from the pool. Null if there is none. */
+  private @Nullable InputSequenceSelector inputSequenceSelector = null;
+
+  /**
+   * The constructors and methods that demand-driven input creation calls. Null if none was set, in
+   * which case {@link #gralComponents} creates one from the user-specified classes.
+   */
+  private @Nullable ProducerGraph producerGraph = null;
+
+  /** For each type, the number of sequences producing it that have been evicted from the pool. */
+  private final Map<Type, Integer> evictionsPerType = new LinkedHashMap<>();
+
   /** Create an empty component manager, with an empty seed sequence set. */
   public ComponentManager() {
     gralComponents = new SequenceCollection();
@@ -142,13 +164,110 @@ public class ComponentManager {
    */
   public void addGeneratedSequence(Sequence sequence) {
     gralComponents.add(sequence);
+    if (evictionPolicy != null) {
+      evictionPolicy.added(sequence);
+    }
+  }
+
+  /**
+   * Sets the policy that chooses which generated sequences {@link #evictGeneratedSequences}
+   * removes.
+   *
+   * @param evictionPolicy the eviction policy
+   */
+  void setEvictionPolicy(PoolEvictionPolicy evictionPolicy) {
+    this.evictionPolicy = evictionPolicy;
+  }
+
+  /**
+   * Sets the input selector that is notified of the sequences that are removed from the pool.
+   *
+   * @param inputSequenceSelector the input selector
+   */
+  void setInputSequenceSelector(InputSequenceSelector inputSequenceSelector) {
+    this.inputSequenceSelector = inputSequenceSelector;
+  }
+
+  /**
+   * Sets the producer graph that demand-driven input creation uses. Component managers that are
+   * given the same graph share its cached producers.
+   *
+   * @param producerGraph the constructors and methods that can create values of each type
+   */
+  public void setProducerGraph(ProducerGraph producerGraph) {
+    this.producerGraph = producerGraph;
+    gralComponents.setProducerGraph(producerGraph);
+  }
+
+  /**
+   * Notes that the given sequence was selected as input for creating a new sequence.
+   *
+   * @param sequence the selected sequence
+   */
+  void recordSelection(Sequence sequence) {
+    if (evictionPolicy != null) {
+      evictionPolicy.selected(sequence);
+    }
+  }
+
+  /**
+   * Removes generated sequences, as chosen by the eviction policy, until only the given fraction of
+   * them remain. Seed sequences are preserved. Requires that an eviction policy has been set.
+   *
+   * @param retainFraction the fraction of generated sequences to keep, in [0, 1)
+   */
+  void evictGeneratedSequences(double retainFraction) {
+    if (evictionPolicy == null) {
+      throw new RandoopBug("evictGeneratedSequences called without an eviction policy");
+    }
+    List<Sequence> generated = new ArrayList<>();
+    for (Sequence sequence : gralComponents.getAllSequences()) {
+      if (!gralSeeds.contains(sequence)) {
+        generated.add(sequence);
+      }
+    }
+    int numToEvict = generated.size() - (int) (generated.size() * retainFraction);
+    Set<Sequence> evicted = evictionPolicy.chooseEvictions(generated, numToEvict);
+    Map<Type, Integer> removedPerType = gralComponents.removeAll(evicted);
+    for (Sequence sequence : evicted) {
+      evictionPolicy.removed(sequence);
+      if (inputSequenceSelector != null) {
+        inputSequenceSelector.removedSequence(sequence);
+      }
+    }
+    for (Map.Entry<Type, Integer> entry : removedPerType.entrySet()) {
+      evictionsPerType.merge(entry.getKey(), entry.getValue(), Integer::sum);
+    }
+    Log.logPrintf(
+        "Evicted %d of %d generated sequences; per type: %s%n",
+        evicted.size(), generated.size(), removedPerType);
+  }
+
+  /**
+   * Returns, for each type, the number of sequences producing it that have been evicted from the
+   * pool by {@link #evictGeneratedSequences}.
+   *
+   * @return the number of evicted sequences per type
+   */
+  public Map<Type, Integer> getEvictionsPerType() {
+    return Collections.unmodifiableMap(evictionsPerType);
   }
 
   /**
    * Removes any components sequences added so far, except for seed sequences, which are preserved.
    */
   void clearGeneratedSequences() {
+    if (inputSequenceSelector != null) {
+      for (Sequence sequence : gralComponents.getAllSequences()) {
+        if (!gralSeeds.contains(sequence)) {
+          inputSequenceSelector.removedSequence(sequence);
+        }
+      }
+    }
     gralComponents = new SequenceCollection(this.gralSeeds);
+    if (producerGraph != null) {
+      gralComponents.setProducerGraph(producerGraph);
+    }
   }
 
   /**
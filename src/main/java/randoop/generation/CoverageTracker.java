@@ -3,12 +3,20 @@ package randoop.generation;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.apache.commons.io.IOUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.BinaryName;
 import org.checkerframework.checker.signature.qual.InternalForm;
 import org.jacoco.agent.rt.RT;
@@ -35,7 +43,7 @@ import randoop.types.ClassOrInterfaceType;
 public class CoverageTracker {
   /**
    * A local copy of Jacoco's in-memory store of the coverage information for all classes under
-   * test.
+   * test. Used only for classes whose probes cannot be read directly.
    */
   private final ExecutionDataStore executionData = new ExecutionDataStore();
 
@@ -49,6 +57,15 @@ public class CoverageTracker {
   /** Names of all the classes under test. */
   protected final Set<@BinaryName String> classesUnderTest = new HashSet<>();
 
+  /** All the classes under test. */
+  private final Set<Class<?>> classObjectsUnderTest = new LinkedHashSet<>();
+
+  /**
+   * The coverage state of each class under test, or null if the classes have not been analyzed
+   * yet.
+   */
+  private @Nullable List<ClassCoverage> classCoverages = null;
+
   /**
    * Initialize the coverage tracker.
    *
@@ -62,6 +79,7 @@ public class CoverageTracker {
         System.out.println("classUnderTest: " + bn);
       }
       classesUnderTest.add(bn);
+      classObjectsUnderTest.add(classOrInterfaceType.getRuntimeClass());
     }
   }
 
@@ -112,32 +130,103 @@ public class CoverageTracker {
    * already generated coverage data while Randoop has been constructing and executing its test
    * sequences. Coverage data is now collected and the {@code branchCoverageMap} field is updated to
    * contain the updated coverage information of each method branch.
+   *
+   * <p>Only the classes whose Jacoco probes changed since the previous update are analyzed again.
    */
   public void updateBranchCoverageMap() {
-    // Collect coverage information. This updates the executionData object and gives us updated
-    // coverage information for all of the classes under test.
-    collectCoverageInformation();
+    if (classCoverages == null) {
+      classCoverages = createClassCoverages();
+    }
 
-    CoverageBuilder coverageBuilder = new CoverageBuilder();
-    Analyzer analyzer = new Analyzer(executionData, coverageBuilder);
+    // Whether executionData has been refreshed from the Jacoco agent during this update.
+    boolean collected = false;
+    for (ClassCoverage classCoverage : classCoverages) {
+      boolean[] probes = classCoverage.readProbes();
+      if (probes == null) {
+        // The probes cannot be read directly, so fall back to Jacoco's serialized execution data.
+        // This updates the executionData object and gives us updated coverage information for all
+        // of the classes under test.
+        if (!collected) {
+          collectCoverageInformation();
+          collected = true;
+        }
+        ExecutionData data = executionData.get(classCoverage.classId);
+        if (data == null) {
+          continue;
+        }
+        probes = data.getProbes();
+      }
+      if (Arrays.equals(probes, classCoverage.probes)) {
+        continue;
+      }
+      classCoverage.probes = probes.clone();
+      ExecutionDataStore classExecutionData = new ExecutionDataStore();
+      classExecutionData.put(
+          new ExecutionData(
+              classCoverage.classId,
+              classCoverage.className.replace('.', '/'),
+              classCoverage.probes));
+      analyze(classCoverage, classExecutionData);
+    }
 
-    // For each class that is under test, summarize the branch coverage information
-    // produced by Jacoco and store it in the coverageBuilder local variable.
-    for (@BinaryName String className : classesUnderTest) {
+    if (GenInputsAbstract.bloodhound_logging) {
+      // Sorting is to make diagnostic output deterministic.
+      List<String> methodNames = new ArrayList<>(branchCoverageMap.keySet());
+      Collections.sort(methodNames);
+      for (String methodName : methodNames) {
+        System.out.println(methodName + " - " + branchCoverageMap.get(methodName));
+      }
+      System.out.println("---------------------------");
+    }
+  }
+
+  /**
+   * Reads and analyzes each class under test, recording in {@code branchCoverageMap} that none of
+   * its branches has been covered yet.
+   *
+   * @return the coverage state of each class under test
+   */
+  private List<ClassCoverage> createClassCoverages() {
+    List<ClassCoverage> result = new ArrayList<>(classesUnderTest.size());
+    for (Class<?> classUnderTest : classObjectsUnderTest) {
+      @SuppressWarnings("signature") // class is non-array, so getName() returns @BinaryName
+      @BinaryName String className = classUnderTest.getName();
       String resource = getResourceFromClassName(className);
+      byte[] classfile;
       try (InputStream original = getClass().getResourceAsStream(resource)) {
-        analyzer.analyzeClass(original, className);
+        classfile = IOUtils.toByteArray(original);
       } catch (IOException e) {
         throw new Error(e);
       }
+      ClassCoverage classCoverage = new ClassCoverage(classUnderTest, className, classfile);
+      // Analyzing the class without execution data determines its Jacoco class id.
+      classCoverage.classId = analyze(classCoverage, new ExecutionDataStore());
+      result.add(classCoverage);
+    }
+    return result;
+  }
+
+  /**
+   * Summarizes the branch coverage of the methods of a class under test, and copies the branch
+   * coverage of each method to {@code branchCoverageMap}.
+   *
+   * @param classCoverage the class to analyze
+   * @param classExecutionData the execution data of the class
+   * @return the Jacoco class id of the class
+   */
+  private long analyze(ClassCoverage classCoverage, ExecutionDataStore classExecutionData) {
+    CoverageBuilder coverageBuilder = new CoverageBuilder();
+    Analyzer analyzer = new Analyzer(classExecutionData, coverageBuilder);
+    try {
+      analyzer.analyzeClass(classCoverage.classfile, classCoverage.className);
+    } catch (IOException e) {
+      throw new Error(e);
     }
 
-    // For each method under test, copy its branch coverage information from the coverageBuilder to
-    // branchCoverageMap.
-    // Sorting is to make diagnostic output deterministic.
-    ArrayList<IClassCoverage> classes = new ArrayList<>(coverageBuilder.getClasses());
-    classes.sort(Comparator.comparing(IClassCoverage::toString));
-    for (final IClassCoverage cc : classes) {
+    long classId = classCoverage.classId;
+    for (final IClassCoverage cc : coverageBuilder.getClasses()) {
+      classId = cc.getId();
+      // Sorting makes the choice among overloaded methods, which share a name, deterministic.
       ArrayList<IMethodCoverage> methods = new ArrayList<>(cc.getMethods());
       methods.sort(Comparator.comparing(IMethodCoverage::toString));
       for (final IMethodCoverage cm : methods) {
@@ -148,10 +237,6 @@ public class CoverageTracker {
         String fqMethodName =
             Signatures.internalFormToFullyQualified(ifClassName) + "." + cm.getName();
 
-        if (GenInputsAbstract.bloodhound_logging) {
-          System.out.println(fqMethodName + " - " + cm.getBranchCounter().getMissedRatio());
-        }
-
         // In cases where a method's total branches is zero, the Jacoco missed ratio is NaN,
         // but use zero as the uncovRatio instead.
         double uncovRatio = cm.getBranchCounter().getMissedRatio();
@@ -159,10 +244,7 @@ public class CoverageTracker {
         branchCoverageMap.put(fqMethodName, uncovRatio);
       }
     }
-
-    if (GenInputsAbstract.bloodhound_logging) {
-      System.out.println("---------------------------");
-    }
+    return classId;
   }
 
   /**
@@ -185,6 +267,98 @@ public class CoverageTracker {
     return this.branchCoverageMap.get(methodName);
   }
 
+  /**
+   * A class under test, with the information needed to recompute its branch coverage: its bytes and
+   * Jacoco class id, which never change, and the probes that its coverage was last computed from.
+   */
+  private static class ClassCoverage {
+
+    /** The name of the method that Jacoco adds to each instrumented class to get its probes. */
+    private static final String PROBES_METHOD_NAME = "$jacocoInit";
+
+    /** The class. */
+    final Class<?> classUnderTest;
+
+    /** The name of the class. */
+    final @BinaryName String className;
+
+    /** The class file of the class. */
+    final byte[] classfile;
+
+    /** The Jacoco class id of the class, which is derived from {@link #classfile}. */
+    long classId;
+
+    /** The probes from which the branch coverage of the class was last computed, or null. */
+    boolean @Nullable [] probes = null;
+
+    /**
+     * The method of the class that returns the class's probes, or null if it is not found yet. See
+     * {@link #readProbes}.
+     */
+    private @Nullable Method probesMethod = null;
+
+    /** True if the probes of the class cannot be read directly. */
+    private boolean probesUnreadable = false;
+
+    /**
+     * Creates a {@code ClassCoverage}.
+     *
+     * @param classUnderTest the class
+     * @param className the name of the class
+     * @param classfile the class file of the class
+     */
+    ClassCoverage(Class<?> classUnderTest, @BinaryName String className, byte[] classfile) {
+      this.classUnderTest = classUnderTest;
+      this.className = className;
+      this.classfile = classfile;
+    }
+
+    /**
+     * Returns the live probe array of the class, without serializing Jacoco's execution data.
+     *
+     * <p>Jacoco adds a static method {@code $jacocoInit} to each instrumented class. It returns the
+     * probe array that the Jacoco agent updates as the class executes. Depending on the class file
+     * version, the method takes no arguments or is a bootstrap method whose arguments are ignored.
+     *
+     * @return the probes of the class, or null if they cannot be read directly
+     */
+    boolean @Nullable [] readProbes() {
+      if (probesUnreadable) {
+        return null;
+      }
+      try {
+        if (probesMethod == null) {
+          probesMethod = findProbesMethod();
+        }
+        Object result = probesMethod.invoke(null, new Object[probesMethod.getParameterCount()]);
+        if (result instanceof boolean[]) {
+          return (boolean[]) result;
+        }
+      } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+        // Fall through.
+      }
+      probesUnreadable = true;
+      return null;
+    }
+
+    /**
+     * Returns the class's {@code $jacocoInit} method, made accessible.
+     *
+     * @return the class's {@code $jacocoInit} method
+     * @throws NoSuchMethodException if the class has no {@code $jacocoInit} method
+     */
+    private Method findProbesMethod() throws NoSuchMethodException {
+      for (Method method : classUnderTest.getDeclaredMethods()) {
+        if (method.getName().equals(PROBES_METHOD_NAME)
+            && Modifier.isStatic(method.getModifiers())) {
+          method.setAccessible(true);
+          return method;
+        }
+      }
+      throw new NoSuchMethodException(className + "." + PROBES_METHOD_NAME);
+    }
+  }
+
   /** An {@link ISessionInfoVisitor} that does nothing. */
   private static class DummySessionInfoVisitor implements ISessionInfoVisitor {
     /** Singleton instance of this class. */
@@ -1,35 +1,20 @@
 package randoop.generation;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Executable;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.DummyVisitor;
 import randoop.ExecutionOutcome;
 import randoop.NormalExecution;
-import randoop.main.RandoopUsageError;
-import randoop.operation.CallableOperation;
-import randoop.operation.ConstructorCall;
-import randoop.operation.MethodCall;
-import randoop.operation.TypedClassOperation;
 import randoop.operation.TypedOperation;
 import randoop.sequence.ExecutableSequence;
 import randoop.sequence.Sequence;
 import randoop.sequence.SequenceCollection;
 import randoop.test.DummyCheckGenerator;
-import randoop.types.ArrayType;
-import randoop.types.NonParameterizedType;
 import randoop.types.Type;
 import randoop.types.TypeTuple;
 import randoop.util.EquivalenceChecker;
@@ -57,6 +42,9 @@ public class DemandDrivenInputCreator {
    */
   private final SequenceCollection sequenceCollection;
 
+  /** The constructors and methods that can create values of each type. */
+  private final ProducerGraph producerGraph;
+
   /**
    * If true, {@link #createInputForType(Type)} returns only sequences that declare values of the
    * exact type that was requested.
@@ -75,10 +63,21 @@ public class DemandDrivenInputCreator {
   // the search space for the missing types. Consider implementing this feature and test whether
   // it improves the performance.
 
-  /** Constructs a new {@code DemandDrivenInputCreation} object. */
+  /**
+   * Constructs a new {@code DemandDrivenInputCreation} object.
+   *
+   * @param sequenceCollection the sequences to use as inputs, to which new sequences are added
+   * @param producerGraph the constructors and methods that can create values of each type
+   * @param exactTypeMatch if true, return only sequences that declare values of the exact type
+   * @param onlyReceivers if true, return only sequences that create method call receivers
+   */
   public DemandDrivenInputCreator(
-      SequenceCollection sequenceCollection, boolean exactTypeMatch, boolean onlyReceivers) {
+      SequenceCollection sequenceCollection,
+      ProducerGraph producerGraph,
+      boolean exactTypeMatch,
+      boolean onlyReceivers) {
     this.sequenceCollection = sequenceCollection;
+    this.producerGraph = producerGraph;
     this.exactTypeMatch = exactTypeMatch;
     this.onlyReceivers = onlyReceivers;
   }
@@ -181,130 +180,7 @@ public class DemandDrivenInputCreator {
    *     target type {@code targetType}. May return an empty set.
    */
   public Set<TypedOperation> getProducers(Type targetType) {
-    Set<TypedOperation> producerMethods = new LinkedHashSet<>();
-
-    // Include user-specified types (types specified by the user via command-line options)
-    Set<Type> userSpecifiedTypes = new LinkedHashSet<>();
-
-    // TODO: Considering all user-specified types may do unnecessary work.
-    // Not all types are needed to construct the target type. It may be possible to optimize this.
-    for (String className : UnspecifiedClassTracker.getSpecifiedClasses()) {
-      try {
-        Class<?> cls = Class.forName(className);
-        userSpecifiedTypes.add(new NonParameterizedType(cls));
-      } catch (ClassNotFoundException e) {
-        throw new RandoopUsageError("Class not found: " + className);
-      }
-    }
-    userSpecifiedTypes.add(targetType);
-
-    // Search for constructors/methods that can produce the target type.
-    producerMethods.addAll(getProducers(targetType, userSpecifiedTypes));
-
-    return producerMethods;
-  }
-
-  /**
-   * Returns constructors and methods that return objects of the target type.
-   *
-   * <p>Starting from {@code startingTypes}, examine all visible constructors and methods that
-   * return a type compatible with the target type {@code targetType}. It recursively processes the
-   * inputs needed to execute these constructors and methods.
-   *
-   * @param targetType the return type of the resulting methods
-   * @param startingTypes the types to start the search from
-   * @return a set of {@code TypedOperations} (constructors and methods) that return the target type
-   *     {@code targetType}
-   */
-  private static Set<TypedOperation> getProducers(Type targetType, Set<Type> startingTypes) {
-    Set<TypedOperation> result = new LinkedHashSet<>();
-    Set<Type> processed = new HashSet<>();
-    Queue<Type> workList = new ArrayDeque<>(startingTypes);
-
-    while (!workList.isEmpty()) {
-      Type currentType = workList.remove();
-
-      // Skip if already processed or if it's a non-receiver type
-      if (processed.contains(currentType) || currentType.isNonreceiverType()) {
-        continue;
-      }
-      processed.add(currentType);
-
-      // For logging purposes
-      checkAndAddUnspecifiedType(currentType);
-
-      Class<?> currentClass = currentType.getRuntimeClass();
-
-      // Get all constructors and methods of the current class
-      List<Executable> constructorsAndMethods = new ArrayList<>();
-      Collections.addAll(constructorsAndMethods, currentClass.getConstructors());
-      for (Method method : currentClass.getMethods()) {
-        Type returnType = Type.forClass(method.getReturnType());
-
-        // A method is considered only if it returns a type that is:
-        // 1. Assignable to the target type `targetType`, OR
-        // 2. Returns the current class and is static
-        boolean isStaticAndReturnsCurrentClass =
-            returnType.equals(new NonParameterizedType(currentClass))
-                && Modifier.isStatic(method.getModifiers());
-
-        if (targetType.isAssignableFrom(returnType) || isStaticAndReturnsCurrentClass) {
-          constructorsAndMethods.add(method);
-        }
-      }
-
-      // Process each constructor/method
-      for (Executable executable : constructorsAndMethods) {
-        Type returnType;
-        if (executable instanceof Constructor) {
-          returnType = new NonParameterizedType(currentClass);
-        } else if (executable instanceof Method) {
-          Method method = (Method) executable;
-          returnType = Type.forClass(method.getReturnType());
-
-          // A method is considered only if it returns a type that is:
-          // 1. Assignable to the target type `targetType`, OR
-          // 2. Returns the current class and is static
-          boolean isStaticAndReturnsCurrentClass =
-              returnType.equals(new NonParameterizedType(currentClass))
-                  && Modifier.isStatic(method.getModifiers());
-
-          if (!(targetType.isAssignableFrom(returnType) || isStaticAndReturnsCurrentClass)) {
-            continue;
-          }
-        } else {
-          continue; // Skip other types of executables
-        }
-
-        // Obtain the input types of the constructor/method
-        TypeTuple inputTypes;
-        if (executable instanceof Constructor) {
-          inputTypes = TypedOperation.forConstructor((Constructor<?>) executable).getInputTypes();
-        } else {
-          inputTypes = TypedOperation.forMethod((Method) executable).getInputTypes();
-        }
-
-        CallableOperation callableOperation =
-            (executable instanceof Constructor)
-                ? new ConstructorCall((Constructor<?>) executable)
-                : new MethodCall((Method) executable);
-        NonParameterizedType declaringType = new NonParameterizedType(currentClass);
-        TypedOperation typedClassOperation =
-            new TypedClassOperation(callableOperation, declaringType, inputTypes, returnType);
-
-        // Add the method call to the result.
-        result.add(typedClassOperation);
-
-        // Add parameter types to the workList for further processing
-        for (Type paramType : inputTypes) {
-          if (!paramType.isPrimitive() && !processed.contains(paramType)) {
-            workList.add(paramType);
-          }
-        }
-      }
-    }
-
-    return result;
+    return producerGraph.getProducers(targetType);
   }
 
   /**
@@ -424,23 +300,4 @@ public class DemandDrivenInputCreator {
       }
     }
   }
-
-  /**
-   * Checks if the type was specified by the user. If not, adds the class as an unspecified class.
-   *
-   * @param type the type to check
-   */
-  private static void checkAndAddUnspecifiedType(Type type) {
-    String className;
-    if (type.isArray()) {
-      className = ((ArrayType) type).getElementType().getRuntimeClass().getName();
-    } else {
-      className = type.getRuntimeClass().getName();
-    }
-
-    // Add the class to the unspecified classes if it is not user-specified.
-    if (!UnspecifiedClassTracker.getSpecifiedClasses().contains(className)) {
-      UnspecifiedClassTracker.addClass(type.getRuntimeClass());
-    }
-  }
 }
@@ -2,8 +2,10 @@ package randoop.generation;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -14,6 +16,7 @@ import randoop.DummyVisitor;
 import randoop.Globals;
 import randoop.NormalExecution;
 import randoop.SubTypeSet;
+import randoop.condition.ExecutableSpecification;
 import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
 import randoop.operation.NonreceiverTerm;
@@ -23,6 +26,7 @@ import randoop.operation.TypedOperation;
 import randoop.reflection.RandoopInstantiationError;
 import randoop.reflection.TypeInstantiator;
 import randoop.sequence.ExecutableSequence;
+import randoop.sequence.ExecutionSnapshotCache;
 import randoop.sequence.ReferenceValue;
 import randoop.sequence.Sequence;
 import randoop.sequence.SequenceExceptionError;
@@ -36,6 +40,8 @@ import randoop.types.JDKTypes;
 import randoop.types.JavaTypes;
 import randoop.types.Type;
 import randoop.types.TypeTuple;
+import randoop.util.GenerationMetrics;
+import randoop.util.GenerationMetrics.Phase;
 import randoop.util.ListOfLists;
 import randoop.util.Log;
 import randoop.util.MultiMap;
@@ -73,6 +79,13 @@ public class ForwardGenerator extends AbstractGenerator {
 
   private final TypeInstantiator instantiator;
 
+  /**
+   * The first instance of each instantiation of a generic operation. Each instantiation creates a
+   * new operation, so without this map every sequence that calls a generic operation would hold
+   * its own copy of the same operation and of its types.
+   */
+  private final Map<TypedOperation, TypedOperation> instantiatedOperations = new HashMap<>();
+
   /** How to select sequences as input for creating new sequences. */
   private final InputSequenceSelector inputSequenceSelector;
 
@@ -87,6 +100,19 @@ public class ForwardGenerator extends AbstractGenerator {
    */
   private Set<Object> runtimePrimitivesSeen = new LinkedHashSet<>();
 
+  /**
+   * The run-time outcomes of component sequences, reused when executing new sequences. Null unless
+   * {@link GenInputsAbstract#prefix_execution_cache} is true.
+   */
+  private final @Nullable ExecutionSnapshotCache executionSnapshotCache;
+
+  /**
+   * The size of the pool when {@code --clear-memory} last shrank it with an eviction policy, or -1.
+   * The pool is not shrunk again for memory until it has grown past this size. Otherwise, while
+   * memory use stays above the limit, every step would evict a fraction of what remains.
+   */
+  private int poolSizeAtMemoryClear = -1;
+
   /**
    * Create a forward generator.
    *
@@ -132,6 +158,10 @@ public class ForwardGenerator extends AbstractGenerator {
 
     this.sideEffectFreeMethods = sideEffectFreeMethods;
     this.instantiator = componentManager.getTypeInstantiator();
+    this.executionSnapshotCache =
+        GenInputsAbstract.prefix_execution_cache
+            ? new ExecutionSnapshotCache(GenInputsAbstract.prefix_execution_cache_size)
+            : null;
 
     initializeRuntimePrimitivesSeen();
 
@@ -160,6 +190,24 @@ public class ForwardGenerator extends AbstractGenerator {
       default:
         throw new Error("Unhandled --input-selection: " + GenInputsAbstract.input_selection);
     }
+    componentManager.setInputSequenceSelector(inputSequenceSelector);
+
+    switch (GenInputsAbstract.clear_policy) {
+      case ALL:
+        break;
+      case LRU:
+        componentManager.setEvictionPolicy(new LruPoolEviction());
+        break;
+      case LOW_WEIGHT:
+        componentManager.setEvictionPolicy(
+            new WeightPoolEviction((OrienteeringSelection) inputSequenceSelector));
+        break;
+      case TYPE_QUOTA:
+        componentManager.setEvictionPolicy(new TypeQuotaPoolEviction());
+        break;
+      default:
+        throw new Error("Unhandled --clear-policy: " + GenInputsAbstract.clear_policy);
+    }
   }
 
   /**
@@ -199,11 +247,15 @@ public class ForwardGenerator extends AbstractGenerator {
     long startTimeNanos = System.nanoTime();
 
     if (componentManager.numGeneratedSequences() % GenInputsAbstract.clear == 0) {
-      componentManager.clearGeneratedSequences();
+      clearGeneratedSequences();
     }
-    if (SystemPlume.usedMemory(false) > GenInputsAbstract.clear_memory
+    if (componentManager.numGeneratedSequences() > poolSizeAtMemoryClear
+        && SystemPlume.usedMemory(false) > GenInputsAbstract.clear_memory
         && SystemPlume.usedMemory(true) > GenInputsAbstract.clear_memory) {
-      componentManager.clearGeneratedSequences();
+      if (GenInputsAbstract.clear_policy != GenInputsAbstract.ClearPolicy.ALL) {
+        poolSizeAtMemoryClear = componentManager.numGeneratedSequences();
+      }
+      clearGeneratedSequences();
     }
 
     ExecutableSequence eSeq = createNewUniqueSequence();
@@ -234,7 +286,7 @@ public class ForwardGenerator extends AbstractGenerator {
     // Useful for debugging non-terminating sequences.
     // System.out.printf("step() is considering: %n%s%n%n", eSeq.sequence);
 
-    eSeq.execute(executionVisitor, checkGenerator);
+    eSeq.execute(executionVisitor, checkGenerator, executionSnapshotCache);
 
     // Dynamic type casting helps in creating input objects that can't be instantiated using static
     // type information alone.
@@ -253,6 +305,9 @@ public class ForwardGenerator extends AbstractGenerator {
 
     if (eSeq.sequence.hasActiveFlags()) {
       componentManager.addGeneratedSequence(eSeq.sequence);
+      if (executionSnapshotCache != null) {
+        executionSnapshotCache.add(eSeq);
+      }
     }
 
     long gentimeNanos2 = System.nanoTime() - startTimeNanos;
@@ -275,6 +330,22 @@ public class ForwardGenerator extends AbstractGenerator {
     return eSeq;
   }
 
+  /**
+   * Removes generated sequences from the component manager. With {@code --clear-policy=ALL}, all
+   * of them are removed, along with their cached execution outcomes; otherwise, the eviction policy
+   * removes all but {@code --clear-retain} of them.
+   */
+  private void clearGeneratedSequences() {
+    if (GenInputsAbstract.clear_policy != GenInputsAbstract.ClearPolicy.ALL) {
+      componentManager.evictGeneratedSequences(GenInputsAbstract.clear_retain);
+      return;
+    }
+    componentManager.clearGeneratedSequences();
+    if (executionSnapshotCache != null) {
+      executionSnapshotCache.clear();
+    }
+  }
+
   @Override
   public Set<Sequence> getAllSequences() {
     return this.allSequences;
@@ -471,10 +542,13 @@ public class ForwardGenerator extends AbstractGenerator {
     }
 
     // Select the next operation to use in constructing a new sequence.
+    long selectionStart = GenerationMetrics.start(Phase.OPERATION_SELECTION);
     TypedOperation operation = operationSelector.selectOperation();
+    GenerationMetrics.stop(Phase.OPERATION_SELECTION, selectionStart);
     Log.logPrintf("Selected operation: %s%n", operation);
 
     if (operation.isGeneric() || operation.hasWildcardTypes()) {
+      long instantiationStart = GenerationMetrics.start(Phase.TYPE_INSTANTIATION);
       try {
         operation = instantiator.instantiate((TypedClassOperation) operation);
       } catch (Throwable e) {
@@ -490,15 +564,19 @@ public class ForwardGenerator extends AbstractGenerator {
           System.out.printf("Instantiation error for operation%n %s%n", operation);
           return null;
         }
+      } finally {
+        GenerationMetrics.stop(Phase.TYPE_INSTANTIATION, instantiationStart);
       }
       if (operation == null) { // failed to instantiate generic
         Log.logPrintf("Failed to instantiate generic operation%n", operation);
         return null;
       }
+      operation = canonicalInstantiation(operation);
     }
 
     // add flags here
     InputsAndSuccessFlag inputs;
+    long inputSelectionStart = GenerationMetrics.start(Phase.INPUT_SELECTION);
     try {
       inputs = selectInputs(operation);
     } catch (Throwable e) {
@@ -512,6 +590,8 @@ public class ForwardGenerator extends AbstractGenerator {
         e.printStackTrace(System.out);
         return null;
       }
+    } finally {
+      GenerationMetrics.stop(Phase.INPUT_SELECTION, inputSelectionStart);
     }
 
     if (!inputs.success) {
@@ -575,6 +655,39 @@ public class ForwardGenerator extends AbstractGenerator {
     return result;
   }
 
+  /**
+   * Returns the first instance of the given instantiation of a generic operation, so that the
+   * sequences that call it share one operation. The specification is not part of operation
+   * equality, so an equal operation is not replaced unless both have the same specification or
+   * neither has a non-empty one.
+   *
+   * @param operation an operation obtained by instantiating a generic operation
+   * @return an operation equal to {@code operation}, with an equivalent executable specification
+   */
+  private TypedOperation canonicalInstantiation(TypedOperation operation) {
+    TypedOperation canonical = instantiatedOperations.putIfAbsent(operation, operation);
+    if (canonical == null
+        || !isEmptyOrSame(
+            canonical.getExecutableSpecification(), operation.getExecutableSpecification())) {
+      return operation;
+    }
+    return canonical;
+  }
+
+  /**
+   * Returns true if the given specifications are the same object, or neither has any condition.
+   *
+   * @param spec1 a specification, or null
+   * @param spec2 a specification, or null
+   * @return true if the specifications are the same object or are both null or empty
+   */
+  @SuppressWarnings("ReferenceEquality")
+  private static boolean isEmptyOrSame(
+      @Nullable ExecutableSpecification spec1, @Nullable ExecutableSpecification spec2) {
+    return spec1 == spec2
+        || ((spec1 == null || spec1.isEmpty()) && (spec2 == null || spec2.isEmpty()));
+  }
+
   /**
    * Adds the given operation to a new {@code Sequence} with the statements of this object as a
    * prefix, repeating the operation the given number of times. Used during generation.
@@ -907,6 +1020,7 @@ public class ForwardGenerator extends AbstractGenerator {
       // }
 
       Sequence chosenSeq = inputSequenceSelector.selectInputSequence(candidates);
+      componentManager.recordSelection(chosenSeq);
       Log.logPrintf("chosenSeq: %s%n", chosenSeq);
 
       // TODO: the last statement might not be active -- it might not create a usable variable of
@@ -972,6 +1086,15 @@ public class ForwardGenerator extends AbstractGenerator {
     return allSequences.size();
   }
 
+  /**
+   * Returns the outcomes of previously-executed component sequences that this generator reuses.
+   *
+   * @return the cache, or null if {@link GenInputsAbstract#prefix_execution_cache} is false
+   */
+  @Nullable ExecutionSnapshotCache getExecutionSnapshotCache() {
+    return executionSnapshotCache;
+  }
+
   @Override
   public String toString() {
     return "ForwardGenerator("
@@ -999,6 +1122,14 @@ public class ForwardGenerator extends AbstractGenerator {
                 ", ",
                 "sideEffectFreeMethods: " + sideEffectFreeMethods.size(),
                 "runtimePrimitivesSeen: " + runtimePrimitivesSeen.size()))
+        + (executionSnapshotCache == null
+            ? ""
+            : String.format(
+                ";%n    execution snapshots: %d, hits: %d, misses: %d, mutated values: %d",
+                executionSnapshotCache.size(),
+                executionSnapshotCache.getHits(),
+                executionSnapshotCache.getMisses(),
+                executionSnapshotCache.getInvalidations()))
         + ")";
   }
 }
@@ -22,4 +22,14 @@ public abstract class InputSequenceSelector {
    * @param eSeq the recently executed sequence which is new and unique, and has just been executed
    */
   public void createdExecutableSequence(ExecutableSequence eSeq) {}
+
+  /**
+   * A hook that is called after a sequence has been removed from the pool of candidates.
+   *
+   * <p>The default implementation does nothing. Subclasses may override it to discard what they
+   * recorded about the sequence.
+   *
+   * @param sequence the sequence that was removed
+   */
+  public void removedSequence(Sequence sequence) {}
 }
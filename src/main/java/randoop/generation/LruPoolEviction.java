@@ -0,0 +1,52 @@
+package randoop.generation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import randoop.sequence.Sequence;
+
+/**
+ * Removes the sequences that were least recently selected as inputs. A sequence that has never
+ * been selected counts as used when it was added to the pool.
+ */
+public class LruPoolEviction extends PoolEvictionPolicy {
+
+  /** Counts additions and selections; the current time of the policy. */
+  private long clock = 0;
+
+  /** Map from a generated sequence to the last time it was added or selected. */
+  private final Map<Sequence, Long> lastUse = new HashMap<>();
+
+  /** Creates a policy that removes the least recently used sequences. */
+  public LruPoolEviction() {}
+
+  @Override
+  public Set<Sequence> chooseEvictions(List<Sequence> generated, int numToEvict) {
+    List<Sequence> byLastUse = new ArrayList<>(generated);
+    // The sort is stable, so among sequences that were never used, earlier ones are removed first.
+    byLastUse.sort(Comparator.comparingLong((Sequence s) -> lastUse.getOrDefault(s, 0L)));
+    return new LinkedHashSet<>(byLastUse.subList(0, numToEvict));
+  }
+
+  @Override
+  public void added(Sequence sequence) {
+    lastUse.put(sequence, ++clock);
+  }
+
+  @Override
+  public void selected(Sequence sequence) {
+    // Seeds and literals are never removed, so they are not tracked.
+    if (lastUse.containsKey(sequence)) {
+      lastUse.put(sequence, ++clock);
+    }
+  }
+
+  @Override
+  public void removed(Sequence sequence) {
+    lastUse.remove(sequence);
+  }
+}
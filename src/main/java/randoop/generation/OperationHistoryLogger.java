@@ -37,7 +37,7 @@ public class OperationHistoryLogger implements OperationHistoryLogInterface {
   }
 
   @Override
-  public void add(TypedOperation operation, OperationOutcome outcome) {
+  public synchronized void add(TypedOperation operation, OperationOutcome outcome) {
     EnumMap<OperationOutcome, Integer> outcomeMap =
         operationMap.computeIfAbsent(operation, __ -> new EnumMap<>(OperationOutcome.class));
     int count = outcomeMap.getOrDefault(outcome, 0);
@@ -46,7 +46,7 @@ public class OperationHistoryLogger implements OperationHistoryLogInterface {
   }
 
   @Override
-  public void outputTable() {
+  public synchronized void outputTable() {
     writer.format("%nOperation History:%n");
     int maxNameLength = 0;
     for (TypedOperation operation : operationMap.keySet()) {
@@ -1,12 +1,22 @@
 package randoop.generation;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.main.RandoopBug;
 import randoop.sequence.ExecutableSequence;
 import randoop.sequence.Sequence;
+import randoop.util.ListOfLists;
 import randoop.util.Randomness;
+import randoop.util.SimpleArrayList;
 import randoop.util.SimpleList;
+import randoop.util.WeightedIndex;
 
 /**
  * Implements the Orienteering component, as described by the paper "GRT: Program-Analysis-Guided
@@ -30,17 +40,35 @@ import randoop.util.SimpleList;
  * <p>The GRT paper also does not describe how to handle input sequences that have not yet been
  * selected. We start ecah input sequences with a selection count of 1 to prevent division by zero
  * when computing weights.
+ *
+ * <p>A list of candidates is usually a {@link ListOfLists} whose components are the long-lived,
+ * append-only per-type lists of a {@link randoop.sequence.SequenceCollection}. For each such list
+ * that is large, this class keeps a {@link WeightedIndex} of the weights of its elements, which is
+ * extended when the list grows. Selecting from an indexed list takes logarithmic rather than linear
+ * time. Selecting a sequence lowers its weight, but the sequence may also appear in other indexed
+ * lists whose recorded weight for it is then too high. When such a stale weight is drawn, it is
+ * corrected and the draw is accepted with probability (actual weight / recorded weight), and
+ * otherwise repeated. This rejection sampling yields exactly the distribution that the weights
+ * define.
  */
 public class OrienteeringSelection extends InputSequenceSelector {
+
+  /** Lists with fewer elements than this are not indexed, but are summed on every selection. */
+  private static final int MIN_INDEXED_SIZE = 64;
+
   /** Map from a sequence to its details used for computing its weight. */
   private final Map<Sequence, SequenceDetails> sequenceDetailsMap = new HashMap<>();
 
   /**
-   * Map from a sequence to its weight. For every sequence s, {@code weightMap.get(s) ==
-   * sequenceDetailsMap.get(s).getWeight()}. This is needed because {@code
-   * Randomneess#randomMemberWeighted} takes a {@code Map<T, Double>} as an argument.
+   * The weights of the elements of large candidate lists, as of when each weight was last recorded
+   * or corrected. A recorded weight is never less than the current weight of the sequence, unless
+   * the sequence was re-executed. The lists are weakly referenced, so that an index is discarded
+   * along with its list.
    */
-  private final Map<Sequence, Double> weightMap = new HashMap<>();
+  private final Map<ListKey, WeightedIndex> indexes = new HashMap<>();
+
+  /** The keys of {@link #indexes} whose lists have been garbage-collected. */
+  private final ReferenceQueue<SimpleArrayList<Sequence>> collectedLists = new ReferenceQueue<>();
 
   /** Information used by Orienteering to compute a weight for a sequence. */
   private static class SequenceDetails {
@@ -137,44 +165,209 @@ public class OrienteeringSelection extends InputSequenceSelector {
    */
   @Override
   public Sequence selectInputSequence(SimpleList<Sequence> candidates) {
-    // One could imagine caching the total weight to avoid this iteration over the list.  However,
-    // this candidate list is provided by the client, there are many such lists, and we don't want
-    // to inject code into all the places that the list may be computed.  Also, there might be
-    // issues with floating-point precision from repeatedly updating a running total for each list.
-    double totalWeight = computeTotalWeightForCandidates(candidates);
+    if (candidates.isEmpty()) {
+      throw new IllegalArgumentException("Empty list");
+    }
+    expungeCollectedLists();
+
+    List<SimpleList<Sequence>> parts = new ArrayList<>();
+    addParts(candidates, parts);
+    int numParts = parts.size();
+    @Nullable WeightedIndex[] partIndexes = new WeightedIndex[numParts];
+    double[] partWeights = new double[numParts];
+    double totalWeight = 0;
+    for (int p = 0; p < numParts; p++) {
+      SimpleList<Sequence> part = parts.get(p);
+      WeightedIndex index = getIndex(part);
+      partIndexes[p] = index;
+      partWeights[p] = (index != null) ? index.total() : computeTotalWeight(part);
+      totalWeight += partWeights[p];
+    }
 
-    Sequence selectedSequence = Randomness.randomMemberWeighted(candidates, weightMap, totalWeight);
+    while (true) {
+      double point = Randomness.nextRandomDouble(totalWeight);
+      int p = findPart(partWeights, point);
+      for (int q = 0; q < p; q++) {
+        point -= partWeights[q];
+      }
+      SimpleList<Sequence> part = parts.get(p);
+      WeightedIndex index = partIndexes[p];
+      if (index == null) {
+        return select(part.get(findInPart(part, point)), null, -1);
+      }
 
+      int position = index.find(point);
+      Sequence candidate = part.get(position);
+      double recorded = index.get(position);
+      double actual = getDetails(candidate).getWeight();
+      if (recorded == actual) {
+        return select(candidate, index, position);
+      }
+      // The recorded weight is stale because the candidate was selected via another list.
+      index.set(position, actual);
+      totalWeight -= partWeights[p];
+      partWeights[p] = index.total();
+      totalWeight += partWeights[p];
+      if (actual < recorded && Randomness.weightedCoinFlip(actual / recorded)) {
+        return select(candidate, index, position);
+      }
+    }
+  }
+
+  /**
+   * Records that the given sequence was selected, which lowers its weight.
+   *
+   * @param selectedSequence the selected sequence
+   * @param index the index of the list from which it was selected, or null if that list is not
+   *     indexed
+   * @param position the position of the sequence in that list, if {@code index} is non-null
+   * @return {@code selectedSequence}
+   */
+  private Sequence select(Sequence selectedSequence, @Nullable WeightedIndex index, int position) {
     // Compute and update the weight of the selected sequence which will be affected by its
     // increased selection count.
     SequenceDetails sequenceDetails = sequenceDetailsMap.get(selectedSequence);
     sequenceDetails.incrementSelectionCount();
-    weightMap.put(selectedSequence, sequenceDetails.getWeight());
-
+    if (index != null) {
+      index.set(position, sequenceDetails.getWeight());
+    }
     return selectedSequence;
   }
 
+  /**
+   * Adds the components of the given list to {@code parts}, flattening nested {@link ListOfLists}.
+   *
+   * @param list a list of candidates
+   * @param parts the lists whose concatenation is {@code list}, in order
+   */
+  private static void addParts(SimpleList<Sequence> list, List<SimpleList<Sequence>> parts) {
+    if (list instanceof ListOfLists) {
+      for (SimpleList<Sequence> component : ((ListOfLists<Sequence>) list).lists) {
+        addParts(component, parts);
+      }
+    } else if (!list.isEmpty()) {
+      parts.add(list);
+    }
+  }
+
+  /**
+   * Returns the index of the given list, creating or extending it as necessary, or null if the
+   * list is too small or of the wrong kind to be indexed.
+   *
+   * @param part a list of candidates
+   * @return the weights of the elements of the list, or null
+   */
+  private @Nullable WeightedIndex getIndex(SimpleList<Sequence> part) {
+    if (!(part instanceof SimpleArrayList) || part.size() < MIN_INDEXED_SIZE) {
+      return null;
+    }
+    SimpleArrayList<Sequence> list = (SimpleArrayList<Sequence>) part;
+    WeightedIndex index = indexes.get(new ListKey(list, null));
+    if (index == null || index.size() > list.size()) {
+      // A list that shrank has been rebuilt; its recorded weights are meaningless.
+      index = new WeightedIndex();
+      indexes.put(new ListKey(list, collectedLists), index);
+    }
+    for (int i = index.size(); i < part.size(); i++) {
+      index.add(getDetails(part.get(i)).getWeight());
+    }
+    return index;
+  }
+
+  /** Removes the indexes of lists that have been garbage-collected. */
+  private void expungeCollectedLists() {
+    Reference<?> collected;
+    while ((collected = collectedLists.poll()) != null) {
+      indexes.remove((ListKey) collected);
+    }
+  }
+
+  /**
+   * Returns the part that contains the given point, when the weights of the parts are laid end to
+   * end starting at 0. If round-off error puts the point past the last part, returns the last part
+   * that has a positive weight.
+   *
+   * @param partWeights the total weights of the parts
+   * @param point a number in [0, sum of {@code partWeights})
+   * @return the part that contains the point
+   */
+  private static int findPart(double[] partWeights, double point) {
+    double currentPoint = 0;
+    for (int p = 0; p < partWeights.length; p++) {
+      currentPoint += partWeights[p];
+      if (currentPoint > point) {
+        return p;
+      }
+    }
+    for (int p = partWeights.length - 1; p >= 0; p--) {
+      if (partWeights[p] > 0) {
+        return p;
+      }
+    }
+    throw new RandoopBug("Unable to select random member");
+  }
+
+  /**
+   * Returns the position in the given unindexed list that contains the given point.
+   *
+   * @param part a list of candidates
+   * @param point a number in [0, total weight of {@code part})
+   * @return the position that contains the point
+   */
+  private int findInPart(SimpleList<Sequence> part, double point) {
+    double currentPoint = 0;
+    for (int i = 0; i < part.size(); i++) {
+      currentPoint += sequenceDetailsMap.get(part.get(i)).getWeight();
+      if (currentPoint > point) {
+        return i;
+      }
+    }
+    // Round-off error; all weights are positive.
+    return part.size() - 1;
+  }
+
   /**
    * Compute the total weight of the list of candidate {@link Sequence}s.
    *
    * @param candidates list of candidate sequences
    * @return the total weight of the input candidate list
    */
-  private double computeTotalWeightForCandidates(SimpleList<Sequence> candidates) {
+  private double computeTotalWeight(SimpleList<Sequence> candidates) {
     double totalWeight = 0;
     for (int i = 0; i < candidates.size(); i++) {
-      Sequence candidate = candidates.get(i);
-      SequenceDetails details = sequenceDetailsMap.get(candidate);
-      if (details == null) {
-        // This might be a literal that was created by ComponentManager.getSequencesForType().
-        createdExecutableSequence(new ExecutableSequence(candidate));
-        details = sequenceDetailsMap.get(candidate);
-      }
-      totalWeight += details.getWeight();
+      totalWeight += getDetails(candidates.get(i)).getWeight();
     }
     return totalWeight;
   }
 
+  /**
+   * Returns the details of the given candidate, creating them if necessary.
+   *
+   * @param candidate a candidate sequence
+   * @return the details of the candidate
+   */
+  private SequenceDetails getDetails(Sequence candidate) {
+    SequenceDetails details = sequenceDetailsMap.get(candidate);
+    if (details == null) {
+      // This might be a literal that was created by ComponentManager.getSequencesForType().
+      createdExecutableSequence(new ExecutableSequence(candidate));
+      details = sequenceDetailsMap.get(candidate);
+    }
+    return details;
+  }
+
+  /**
+   * Returns the current weight of the given sequence, or 0 if the sequence has never been executed
+   * or selected.
+   *
+   * @param sequence a sequence
+   * @return the weight of the sequence
+   */
+  public double getWeight(Sequence sequence) {
+    SequenceDetails details = sequenceDetailsMap.get(sequence);
+    return (details == null) ? 0.0 : details.getWeight();
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -193,6 +386,18 @@ public class OrienteeringSelection extends InputSequenceSelector {
     createSequenceDetailsWithExecutionTime(eSeq.sequence, eSeq.exectime);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation discards the {@link SequenceDetails} of the sequence.
+   *
+   * @param sequence the sequence that was removed
+   */
+  @Override
+  public void removedSequence(Sequence sequence) {
+    sequenceDetailsMap.remove(sequence);
+  }
+
   /**
    * Creates and stores a {@link SequenceDetails} for the given {@link Sequence} with the
    * corresponding execution time.
@@ -204,7 +409,6 @@ public class OrienteeringSelection extends InputSequenceSelector {
     SequenceDetails sequenceDetails = new SequenceDetails(sequence, executionTimeNanos);
 
     sequenceDetailsMap.put(sequence, sequenceDetails);
-    weightMap.put(sequence, sequenceDetails.getWeight());
   }
 
   /**
@@ -223,4 +427,45 @@ public class OrienteeringSelection extends InputSequenceSelector {
       return Math.sqrt(methodSize);
     }
   }
+
+  /**
+   * A weak reference to a candidate list, which compares by the identity of the list. (The {@code
+   * equals} and {@code hashCode} methods of a list compare its contents, in linear time.)
+   */
+  private static final class ListKey extends WeakReference<SimpleArrayList<Sequence>> {
+
+    /** The identity hash code of the list. */
+    private final int hash;
+
+    /**
+     * Creates a key for the given list.
+     *
+     * @param list a candidate list
+     * @param queue the queue on which the key is enqueued when the list is garbage-collected, or
+     *     null for a key that is only used for lookup
+     */
+    ListKey(
+        SimpleArrayList<Sequence> list,
+        @Nullable ReferenceQueue<SimpleArrayList<Sequence>> queue) {
+      super(list, queue);
+      this.hash = System.identityHashCode(list);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof ListKey)) {
+        return false;
+      }
+      Object list = get();
+      return list != null && list == ((ListKey) other).get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
 }
@@ -0,0 +1,26 @@
+package randoop.generation;
+
+import randoop.sequence.ExecutableSequence;
+
+/**
+ * Receives the sequences that a generator classifies for output, as soon as each one is classified.
+ * A generator that has a sink passes its output sequences to the sink instead of keeping them; see
+ * {@link AbstractGenerator#setOutputSequenceSink}.
+ */
+public interface OutputSequenceSink {
+
+  /**
+   * Receives a sequence that reveals an error.
+   *
+   * @param eSeq an error-revealing sequence, which has been executed and has its checks
+   */
+  void addErrorSequence(ExecutableSequence eSeq);
+
+  /**
+   * Receives a regression sequence. The sequence may be a component of a regression sequence that
+   * is received later.
+   *
+   * @param eSeq a regression sequence, which has been executed and has its checks
+   */
+  void addRegressionSequence(ExecutableSequence eSeq);
+}
@@ -0,0 +1,286 @@
+package randoop.generation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.Globals;
+import randoop.main.GenInputsAbstract;
+import randoop.main.RandoopBug;
+import randoop.operation.TypedOperation;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.util.Log;
+import randoop.util.Randomness;
+
+/**
+ * A generator that runs several generators concurrently, each on its own thread, and merges the
+ * sequences that they output. This implements {@code --workers}.
+ *
+ * <p>Each worker is a complete generator with its own component pool, check generator, and output
+ * predicate. Worker <i>i</i> (counting from 0) seeds its thread's random generator with {@code
+ * randomseed}+<i>i</i>. The sequences that a worker generates depend only on its seed and its
+ * limits, not on how the threads are scheduled.
+ *
+ * <p>The workers do not share a component pool, so a worker never extends a sequence that another
+ * worker created. Sharing one would need a thread-safe {@link ComponentManager} and would make the
+ * output depend on scheduling.
+ *
+ * <p>When the workers are done, their outputs are merged in worker order. A sequence that an
+ * earlier worker already output is dropped.
+ */
+public class ParallelGenerator extends AbstractGenerator {
+
+  /** How often the counts of the workers are summed, in milliseconds. */
+  private static final long POLL_INTERVAL_MILLIS = 100;
+
+  /** The generators that run concurrently. */
+  private final List<AbstractGenerator> workers;
+
+  /** The random seed of the first worker. Worker i uses {@code randomseed + i}. */
+  private final long randomseed;
+
+  /** Set to true to make all workers stop. */
+  private volatile boolean stopRequested = false;
+
+  /** The index of the worker that takes the next call to {@link #step}. */
+  private int nextStepWorker = 0;
+
+  /**
+   * Creates a generator that runs the given generators concurrently.
+   *
+   * @param operations the operations used by the workers
+   * @param limits maximum time and number of sequences to generate/output, summed over the workers.
+   *     Each worker should have been created with its share of these limits; see {@link
+   *     #workerLimits}.
+   * @param workers the generators to run concurrently; must be non-empty. Each must be fully
+   *     configured, and no two may share a component manager, visitor, check generator, or output
+   *     predicate.
+   * @param randomseed the random seed of the first worker
+   */
+  public ParallelGenerator(
+      List<TypedOperation> operations,
+      GenInputsAbstract.Limits limits,
+      List<? extends AbstractGenerator> workers,
+      long randomseed) {
+    super(operations, limits, workers.get(0).componentManager, null);
+    this.workers = new ArrayList<>(workers);
+    this.randomseed = randomseed;
+  }
+
+  /**
+   * Returns worker {@code worker}'s share of the given limits. The count limits are divided as
+   * evenly as possible; the time limit applies to every worker.
+   *
+   * @param limits the limits for all workers together
+   * @param worker the index of a worker, counting from 0
+   * @param numWorkers the number of workers
+   * @return the limits for the given worker
+   */
+  public static GenInputsAbstract.Limits workerLimits(
+      GenInputsAbstract.Limits limits, int worker, int numWorkers) {
+    GenInputsAbstract.Limits result = new GenInputsAbstract.Limits();
+    result.time_limit_millis = limits.time_limit_millis;
+    result.attempted_limit = share(limits.attempted_limit, worker, numWorkers);
+    result.generated_limit = share(limits.generated_limit, worker, numWorkers);
+    result.output_limit = share(limits.output_limit, worker, numWorkers);
+    return result;
+  }
+
+  /**
+   * Returns one worker's share of a count limit.
+   *
+   * @param limit the limit for all workers together
+   * @param worker the index of a worker, counting from 0
+   * @param numWorkers the number of workers
+   * @return the limit for the given worker
+   */
+  private static int share(int limit, int worker, int numWorkers) {
+    return limit / numWorkers + (worker < limit % numWorkers ? 1 : 0);
+  }
+
+  /**
+   * Runs the workers until they all stop, then merges their outputs into {@link #outErrorSeqs} and
+   * {@link #outRegressionSeqs}. If a worker throws an exception, the other workers are stopped and
+   * the exception is rethrown.
+   */
+  @Override
+  protected void generateSequences() {
+    List<Thread> threads = new ArrayList<>(workers.size());
+    Throwable[] failures = new Throwable[workers.size()];
+    for (int i = 0; i < workers.size(); i++) {
+      int workerIndex = i;
+      AbstractGenerator worker = workers.get(i);
+      worker.addStopper(() -> stopRequested);
+      Thread thread =
+          new Thread(
+              () -> {
+                Randomness.setSeed(randomseed + workerIndex);
+                try {
+                  worker.generateSequences();
+                } catch (Throwable t) {
+                  failures[workerIndex] = t;
+                  stopRequested = true;
+                }
+              },
+              "randoop-worker-" + i);
+      threads.add(thread);
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      while (thread.isAlive()) {
+        try {
+          thread.join(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+          stopRequested = true;
+        }
+        sumWorkerCounts();
+        if (GenInputsAbstract.stop_on_error_test && num_failing_sequences > 0) {
+          stopRequested = true;
+        }
+      }
+    }
+    sumWorkerCounts();
+
+    for (Throwable failure : failures) {
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      } else if (failure instanceof Error) {
+        throw (Error) failure;
+      } else if (failure != null) {
+        throw new RandoopBug("Test generation worker failed", failure);
+      }
+    }
+
+    mergeWorkerOutputs();
+  }
+
+  /**
+   * Sets the counts of this generator to the sums of the counts of the workers. While the workers
+   * are running the sums are approximate, but they suffice for progress display.
+   */
+  private void sumWorkerCounts() {
+    int steps = 0;
+    int nullSteps = 0;
+    int generated = 0;
+    int failing = 0;
+    int invalid = 0;
+    int failedOutputTest = 0;
+    for (AbstractGenerator worker : workers) {
+      steps += worker.num_steps;
+      nullSteps += worker.null_steps;
+      generated += worker.num_sequences_generated;
+      failing += worker.num_failing_sequences;
+      invalid += worker.invalidSequenceCount;
+      failedOutputTest += worker.num_failed_output_test;
+    }
+    num_steps = steps;
+    null_steps = nullSteps;
+    num_sequences_generated = generated;
+    num_failing_sequences = failing;
+    invalidSequenceCount = invalid;
+    num_failed_output_test = failedOutputTest;
+  }
+
+  /** Appends the output sequences of the workers, in worker order, dropping duplicates. */
+  private void mergeWorkerOutputs() {
+    Set<Sequence> seenErrorSeqs = new LinkedHashSet<>();
+    Set<Sequence> seenRegressionSeqs = new LinkedHashSet<>();
+    int duplicates = 0;
+    for (AbstractGenerator worker : workers) {
+      for (ExecutableSequence eseq : worker.outErrorSeqs) {
+        if (seenErrorSeqs.add(eseq.sequence)) {
+          outErrorSeqs.add(eseq);
+        } else {
+          duplicates++;
+        }
+      }
+      for (ExecutableSequence eseq : worker.outRegressionSeqs) {
+        if (seenRegressionSeqs.add(eseq.sequence)) {
+          outRegressionSeqs.add(eseq);
+        } else {
+          duplicates++;
+        }
+      }
+    }
+    Log.logPrintf("ParallelGenerator dropped %d duplicate output sequences%n", duplicates);
+  }
+
+  /**
+   * Takes a step of the next worker, on the calling thread. Successive calls go to the workers in
+   * turn. {@link #createAndClassifySequences} does not call this method, but runs the workers
+   * concurrently, each on its own thread and with its own random seed.
+   *
+   * @return the test sequence that the worker generated, may be null
+   */
+  @Override
+  public @Nullable ExecutableSequence step() {
+    AbstractGenerator worker = workers.get(nextStepWorker);
+    nextStepWorker = (nextStepWorker + 1) % workers.size();
+    return worker.step();
+  }
+
+  @Override
+  public int numGeneratedSequences() {
+    int result = 0;
+    for (AbstractGenerator worker : workers) {
+      result += worker.numGeneratedSequences();
+    }
+    return result;
+  }
+
+  @Override
+  public Set<Sequence> getAllSequences() {
+    Set<Sequence> result = new LinkedHashSet<>();
+    for (AbstractGenerator worker : workers) {
+      result.addAll(worker.getAllSequences());
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Does nothing: each worker handles its own regression tests as it generates them.
+   *
+   * @param sequence the new test sequence that was classified as a regression test
+   */
+  @Override
+  public void newRegressionTestHook(Sequence sequence) {}
+
+  /**
+   * Sets the operation history logger for this generator and all of its workers. The logger must
+   * be thread-safe.
+   *
+   * @param logger the operation history logger to use
+   */
+  @Override
+  public void setOperationHistoryLogger(OperationHistoryLogInterface logger) {
+    super.setOperationHistoryLogger(logger);
+    for (AbstractGenerator worker : workers) {
+      worker.setOperationHistoryLogger(logger);
+    }
+  }
+
+  /**
+   * Returns the workers of this generator.
+   *
+   * @return the workers of this generator
+   */
+  public List<AbstractGenerator> getWorkers() {
+    return Collections.unmodifiableList(workers);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("ParallelGenerator(workers: " + workers.size());
+    for (int i = 0; i < workers.size(); i++) {
+      sb.append(";").append(Globals.lineSep).append("    worker ").append(i).append(": ");
+      sb.append(workers.get(i));
+    }
+    return sb.append(")").toString();
+  }
+}
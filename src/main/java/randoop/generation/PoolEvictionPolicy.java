@@ -0,0 +1,52 @@
+package randoop.generation;
+
+import java.util.List;
+import java.util.Set;
+import randoop.sequence.Sequence;
+
+/**
+ * Chooses which generated sequences to remove from the component pool when it is cleared, so that
+ * the pool shrinks to a target size rather than losing all of its generated sequences. This
+ * implements {@code --clear-policy}.
+ *
+ * <p>A {@link ComponentManager} notifies its policy of each sequence that is added to the pool, that
+ * is selected as an input, and that is removed from the pool.
+ */
+public abstract class PoolEvictionPolicy {
+
+  /**
+   * Chooses the sequences to remove from the pool.
+   *
+   * @param generated the generated (non-seed) sequences in the pool, without duplicates
+   * @param numToEvict the number of sequences to remove; at most {@code generated.size()}
+   * @return {@code numToEvict} of the sequences in {@code generated}
+   */
+  public abstract Set<Sequence> chooseEvictions(List<Sequence> generated, int numToEvict);
+
+  /**
+   * A hook that is called after a generated sequence has been added to the pool.
+   *
+   * <p>The default implementation does nothing. Subclasses may override it to add behavior.
+   *
+   * @param sequence the sequence that was added
+   */
+  public void added(Sequence sequence) {}
+
+  /**
+   * A hook that is called after a sequence has been selected as input for creating a new sequence.
+   *
+   * <p>The default implementation does nothing. Subclasses may override it to add behavior.
+   *
+   * @param sequence the sequence that was selected
+   */
+  public void selected(Sequence sequence) {}
+
+  /**
+   * A hook that is called after a sequence has been removed from the pool.
+   *
+   * <p>The default implementation does nothing. Subclasses may override it to add behavior.
+   *
+   * @param sequence the sequence that was removed
+   */
+  public void removed(Sequence sequence) {}
+}
@@ -0,0 +1,290 @@
+package randoop.generation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.signature.qual.ClassGetName;
+import randoop.main.RandoopUsageError;
+import randoop.operation.CallableOperation;
+import randoop.operation.ConstructorCall;
+import randoop.operation.MethodCall;
+import randoop.operation.TypedClassOperation;
+import randoop.operation.TypedOperation;
+import randoop.types.ArrayType;
+import randoop.types.NonParameterizedType;
+import randoop.types.Type;
+import randoop.types.TypeTuple;
+
+/**
+ * The constructors and methods that {@link DemandDrivenInputCreator} can call to create values of
+ * a type. A graph is built from the classes under test, and is shared by the {@code
+ * DemandDrivenInputCreator}s of the component managers that it is given to. It is extended as types
+ * are demanded: each class is reflected over at most once, and the producers of each demanded type
+ * are computed at most once, even if there are none.
+ */
+public final class ProducerGraph {
+
+  /** The types of the classes under test, where the search for producers starts. */
+  private final Set<Type> specifiedTypes;
+
+  /**
+   * The names of the classes that the user specified. A class that the search visits is recorded
+   * by {@link UnspecifiedClassTracker} unless it is one of these.
+   */
+  private final Set<@ClassGetName String> specifiedClassNames =
+      UnspecifiedClassTracker.getSpecifiedClasses();
+
+  /**
+   * The constructors and public methods of each class that has been visited, in the order that
+   * reflection returns them.
+   */
+  private final Map<Class<?>, List<Candidate>> candidatesByClass = new ConcurrentHashMap<>();
+
+  /**
+   * The producers of each type that has been demanded. A type whose set is empty has no producers
+   * and is also recorded by {@link UninstantiableTypeTracker}.
+   */
+  private final Map<Type, Set<TypedOperation>> producersByType = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a producer graph whose search for producers starts from the given types, as well as
+   * from the demanded type.
+   *
+   * @param specifiedTypes the types of the classes under test
+   */
+  public ProducerGraph(Collection<? extends Type> specifiedTypes) {
+    this.specifiedTypes = Collections.unmodifiableSet(new LinkedHashSet<>(specifiedTypes));
+  }
+
+  /**
+   * Creates a producer graph for the classes that the user specified via command-line options. It
+   * is used by a {@link randoop.sequence.SequenceCollection} that was not given a graph.
+   *
+   * @return a producer graph for the user-specified classes
+   */
+  public static ProducerGraph forSpecifiedClasses() {
+    // TODO: Considering all user-specified types may do unnecessary work.
+    // Not all types are needed to construct the target type. It may be possible to optimize this.
+    Set<Type> types = new LinkedHashSet<>();
+    for (String className : UnspecifiedClassTracker.getSpecifiedClasses()) {
+      try {
+        Class<?> cls = Class.forName(className);
+        types.add(new NonParameterizedType(cls));
+      } catch (ClassNotFoundException e) {
+        throw new RandoopUsageError("Class not found: " + className);
+      }
+    }
+    return new ProducerGraph(types);
+  }
+
+  /**
+   * Returns the constructors and methods that return objects of the target type, and,
+   * transitively, the ones that create their inputs.
+   *
+   * @param targetType the return type of the resulting methods
+   * @return an unmodifiable set of {@code TypedOperations} (constructors and methods) that return
+   *     objects of the target type. May return an empty set.
+   * @see DemandDrivenInputCreator#getProducers(Type)
+   */
+  public Set<TypedOperation> getProducers(Type targetType) {
+    // A capture variable is equal only to itself, so such a type would never be demanded again.
+    if (targetType.hasCaptureVariable()) {
+      return computeProducers(targetType);
+    }
+    Set<TypedOperation> producers = producersByType.get(targetType);
+    if (producers == null) {
+      producers = computeProducers(targetType);
+      Set<TypedOperation> previous = producersByType.putIfAbsent(targetType, producers);
+      if (previous != null) {
+        producers = previous;
+      }
+    }
+    return producers;
+  }
+
+  /**
+   * Returns constructors and methods that return objects of the target type.
+   *
+   * <p>Starting from the target type and the user-specified types, examines all visible
+   * constructors and methods that return a type compatible with the target type. It recursively
+   * processes the inputs needed to execute these constructors and methods.
+   *
+   * @param targetType the return type of the resulting methods
+   * @return an unmodifiable set of {@code TypedOperations} (constructors and methods) that return
+   *     the target type {@code targetType}
+   */
+  private Set<TypedOperation> computeProducers(Type targetType) {
+    Set<TypedOperation> result = new LinkedHashSet<>();
+    Set<Type> processed = new HashSet<>();
+    Queue<Type> workList = new ArrayDeque<>(specifiedTypes);
+    workList.add(targetType);
+
+    while (!workList.isEmpty()) {
+      Type currentType = workList.remove();
+
+      // Skip if already processed or if it's a non-receiver type
+      if (processed.contains(currentType) || currentType.isNonreceiverType()) {
+        continue;
+      }
+      processed.add(currentType);
+
+      // For logging purposes
+      checkAndAddUnspecifiedType(currentType);
+
+      for (Candidate candidate : getCandidates(currentType.getRuntimeClass())) {
+        // A method is considered only if it returns a type that is:
+        // 1. Assignable to the target type `targetType`, OR
+        // 2. Returns the current class and is static
+        if (!candidate.isConstructor
+            && !(targetType.isAssignableFrom(candidate.returnType)
+                || candidate.isStaticAndReturnsDeclaringClass)) {
+          continue;
+        }
+        TypedClassOperation operation = candidate.getOperation();
+
+        // Add the method call to the result.
+        result.add(operation);
+
+        // Add parameter types to the workList for further processing
+        for (Type paramType : operation.getInputTypes()) {
+          if (!paramType.isPrimitive() && !processed.contains(paramType)) {
+            workList.add(paramType);
+          }
+        }
+      }
+    }
+
+    return Collections.unmodifiableSet(result);
+  }
+
+  /**
+   * Returns the constructors and public methods of the given class, reflecting over the class the
+   * first time it is visited.
+   *
+   * @param currentClass a class
+   * @return the constructors and public methods of the class
+   */
+  private List<Candidate> getCandidates(Class<?> currentClass) {
+    List<Candidate> candidates = candidatesByClass.get(currentClass);
+    if (candidates == null) {
+      NonParameterizedType declaringType = new NonParameterizedType(currentClass);
+      Constructor<?>[] constructors = currentClass.getConstructors();
+      Method[] methods = currentClass.getMethods();
+      candidates = new ArrayList<>(constructors.length + methods.length);
+      for (Constructor<?> constructor : constructors) {
+        candidates.add(new Candidate(constructor, declaringType, declaringType));
+      }
+      for (Method method : methods) {
+        candidates.add(
+            new Candidate(method, declaringType, Type.forClass(method.getReturnType())));
+      }
+      candidates = Collections.unmodifiableList(candidates);
+      List<Candidate> previous = candidatesByClass.putIfAbsent(currentClass, candidates);
+      if (previous != null) {
+        candidates = previous;
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Checks if the type was specified by the user. If not, adds the class as an unspecified class.
+   *
+   * @param type the type to check
+   */
+  private void checkAndAddUnspecifiedType(Type type) {
+    String className;
+    if (type.isArray()) {
+      className = ((ArrayType) type).getElementType().getRuntimeClass().getName();
+    } else {
+      className = type.getRuntimeClass().getName();
+    }
+
+    // Add the class to the unspecified classes if it is not user-specified.
+    if (!specifiedClassNames.contains(className)) {
+      UnspecifiedClassTracker.addClass(type.getRuntimeClass());
+    }
+  }
+
+  /**
+   * A constructor or public method of a class. Its operation is created the first time that it is
+   * chosen as a producer.
+   */
+  private static final class Candidate {
+
+    /** The constructor or method. */
+    private final Executable executable;
+
+    /** The type of the class whose constructors and methods include {@link #executable}. */
+    private final NonParameterizedType declaringType;
+
+    /** The (erased) type of the values that {@link #executable} creates. */
+    final Type returnType;
+
+    /** True if {@link #executable} is a constructor. */
+    final boolean isConstructor;
+
+    /** True if {@link #executable} is a static method that returns {@link #declaringType}. */
+    final boolean isStaticAndReturnsDeclaringClass;
+
+    /** The operation for {@link #executable}, or null if it has not been created yet. */
+    private volatile @Nullable TypedClassOperation operation = null;
+
+    /**
+     * Creates a candidate.
+     *
+     * @param executable the constructor or method
+     * @param declaringType the type of the class whose constructors and methods include it
+     * @param returnType the type of the values that it creates
+     */
+    Candidate(Executable executable, NonParameterizedType declaringType, Type returnType) {
+      this.executable = executable;
+      this.declaringType = declaringType;
+      this.returnType = returnType;
+      this.isConstructor = executable instanceof Constructor;
+      this.isStaticAndReturnsDeclaringClass =
+          !isConstructor
+              && Modifier.isStatic(executable.getModifiers())
+              && returnType.equals(declaringType);
+    }
+
+    /**
+     * Returns the operation that calls this constructor or method.
+     *
+     * @return the operation for this candidate
+     */
+    TypedClassOperation getOperation() {
+      TypedClassOperation result = operation;
+      if (result == null) {
+        TypeTuple inputTypes;
+        CallableOperation callableOperation;
+        if (isConstructor) {
+          Constructor<?> constructor = (Constructor<?>) executable;
+          inputTypes = TypedOperation.forConstructor(constructor).getInputTypes();
+          callableOperation = new ConstructorCall(constructor);
+        } else {
+          Method method = (Method) executable;
+          inputTypes = TypedOperation.forMethod(method).getInputTypes();
+          callableOperation = new MethodCall(method);
+        }
+        result =
+            new TypedClassOperation(callableOperation, declaringType, inputTypes, returnType);
+        operation = result;
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package randoop.generation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import randoop.sequence.Sequence;
+import randoop.types.Type;
+
+/**
+ * Gives every type the same quota of sequences in the pool. A sequence's type is the type of the
+ * value its last statement produces. The policy keeps sequences type by type, in round-robin order,
+ * taking the most recently added sequences of each type first, until it has kept as many as allowed;
+ * it removes the rest. Thus a type with few sequences keeps all of them, and the types with the
+ * most sequences lose the most.
+ */
+public class TypeQuotaPoolEviction extends PoolEvictionPolicy {
+
+  /** Creates a policy that gives every type the same quota. */
+  public TypeQuotaPoolEviction() {}
+
+  @Override
+  public Set<Sequence> chooseEvictions(List<Sequence> generated, int numToEvict) {
+    // For each type, its sequences with the most recently added first.
+    Map<Type, Deque<Sequence>> byType = new LinkedHashMap<>();
+    for (Sequence sequence : generated) {
+      Type type = sequence.getStatement(sequence.size() - 1).getOutputType();
+      byType.computeIfAbsent(type, __ -> new ArrayDeque<>()).addFirst(sequence);
+    }
+
+    int numToKeep = generated.size() - numToEvict;
+    Set<Sequence> kept = new HashSet<>(numToKeep);
+    List<Deque<Sequence>> remaining = new ArrayList<>(byType.values());
+    while (kept.size() < numToKeep) {
+      for (Deque<Sequence> sequences : remaining) {
+        if (kept.size() == numToKeep) {
+          break;
+        }
+        Sequence next = sequences.pollFirst();
+        if (next != null) {
+          kept.add(next);
+        }
+      }
+    }
+
+    Set<Sequence> result = new LinkedHashSet<>();
+    for (Sequence sequence : generated) {
+      if (!kept.contains(sequence)) {
+        result.add(sequence);
+      }
+    }
+    return result;
+  }
+}
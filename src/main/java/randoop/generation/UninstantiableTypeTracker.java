@@ -18,7 +18,7 @@ public class UninstantiableTypeTracker {
    *
    * @param type the type to add
    */
-  public static void addType(Type type) {
+  public static synchronized void addType(Type type) {
     uninstantiableTypes.add(type);
   }
 
@@ -28,7 +28,7 @@ public class UninstantiableTypeTracker {
    * @param type the type to check
    * @return true if the type is uninstantiable, false otherwise
    */
-  public static boolean contains(Type type) {
+  public static synchronized boolean contains(Type type) {
     return uninstantiableTypes.contains(type);
   }
 
@@ -37,7 +37,7 @@ public class UninstantiableTypeTracker {
    *
    * @return an unmodifiable set of uninstantiable types
    */
-  public static Set<Type> getUninstantiableTypes() {
-    return Collections.unmodifiableSet(uninstantiableTypes);
+  public static synchronized Set<Type> getUninstantiableTypes() {
+    return Collections.unmodifiableSet(new HashSet<>(uninstantiableTypes));
   }
 }
@@ -0,0 +1,34 @@
+package randoop.generation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import randoop.sequence.Sequence;
+
+/**
+ * Removes the sequences with the lowest Orienteering weight, that is, those that are most expensive
+ * to execute and that have been selected most often. See {@link OrienteeringSelection}.
+ */
+public class WeightPoolEviction extends PoolEvictionPolicy {
+
+  /** The input selector whose weights rank the sequences. */
+  private final OrienteeringSelection orienteering;
+
+  /**
+   * Creates a policy that removes the sequences with the lowest weight.
+   *
+   * @param orienteering the input selector whose weights rank the sequences
+   */
+  public WeightPoolEviction(OrienteeringSelection orienteering) {
+    this.orienteering = orienteering;
+  }
+
+  @Override
+  public Set<Sequence> chooseEvictions(List<Sequence> generated, int numToEvict) {
+    List<Sequence> byWeight = new ArrayList<>(generated);
+    byWeight.sort(Comparator.comparingDouble(orienteering::getWeight));
+    return new LinkedHashSet<>(byWeight.subList(0, numToEvict));
+  }
+}
@@ -0,0 +1,69 @@
+package randoop.instrument;
+
+/**
+ * The coverage flags of all classes that the covered-class agent has instrumented, in one shared
+ * array. The agent gives each instrumented class a stable index, and the instrumentation sets the
+ * class's flag on entry to each method and constructor. {@link CoveredClassVisitor} reads and
+ * clears the flags of the goal classes after each sequence, without any reflection.
+ *
+ * <p>Each flag occupies a byte rather than a bit, so that setting a flag is a single store that
+ * cannot overwrite a flag that another thread set concurrently.
+ *
+ * <p>This class must not be instrumented. The agent does not instrument classes in package {@code
+ * randoop}.
+ *
+ * @see CoveredClassVisitor
+ */
+public final class CoveredClassFlags {
+
+  /** The flags, indexed by class index. Replaced by a larger copy when it fills up. */
+  private static volatile byte[] flags = new byte[1024];
+
+  /** The number of indices that have been assigned. */
+  private static int classCount = 0;
+
+  /** Prevents instantiation. */
+  private CoveredClassFlags() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Assigns an index to a class that is being instrumented. Called by the agent.
+   *
+   * @return the index of the class's flag
+   */
+  public static synchronized int register() {
+    int index = classCount++;
+    if (index == flags.length) {
+      byte[] newFlags = new byte[2 * flags.length];
+      System.arraycopy(flags, 0, newFlags, 0, flags.length);
+      flags = newFlags;
+    }
+    return index;
+  }
+
+  /**
+   * Records that the class with the given index was used. Called by instrumented code.
+   *
+   * @param index the index of a class
+   */
+  public static void set(int index) {
+    flags[index] = 1;
+  }
+
+  /**
+   * Returns whether the class with the given index was used since the last call, and clears its
+   * flag.
+   *
+   * @param index the index of a class
+   * @return true if the class was used since the last call for the class
+   */
+  public static boolean checkAndReset(int index) {
+    byte[] currentFlags = flags;
+    if (currentFlags[index] == 0) {
+      return false;
+    }
+    currentFlags[index] = 0;
+    return true;
+  }
+}
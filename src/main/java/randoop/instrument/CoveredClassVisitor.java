@@ -1,7 +1,5 @@
 package randoop.instrument;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Set;
 import randoop.ExecutionVisitor;
 import randoop.sequence.ExecutableSequence;
@@ -9,11 +7,18 @@ import randoop.sequence.ExecutableSequence;
 /**
  * A {@link ExecutionVisitor} that polls a set of coverage instrumented classes and adds each
  * covered class to an {@link ExecutableSequence} after it is executed.
+ *
+ * <p>The flags of the classes are in {@link CoveredClassFlags}. The index of each class's flag is
+ * looked up once, when this visitor is created, so polling is a read and a clear of an array
+ * element per class.
  */
 public class CoveredClassVisitor implements ExecutionVisitor {
 
   /** The classes to be polled. */
-  private Set<Class<?>> classes;
+  private final Class<?>[] classes;
+
+  /** The index in {@link CoveredClassFlags} of each class in {@link #classes}. */
+  private final int[] classIndices;
 
   /**
    * Creates a visitor to poll the given classes for coverage by sequence executions.
@@ -21,7 +26,13 @@ public class CoveredClassVisitor implements ExecutionVisitor {
    * @param classes the set of classes to poll for coverage by a sequence
    */
   public CoveredClassVisitor(Set<Class<?>> classes) {
-    this.classes = classes;
+    this.classes = classes.toArray(new Class<?>[0]);
+    this.classIndices = new int[this.classes.length];
+    for (int i = 0; i < this.classes.length; i++) {
+      classIndices[i] = getClassIndex(this.classes[i]);
+      // Reading the field initializes the class, which is not coverage by a sequence.
+      CoveredClassFlags.checkAndReset(classIndices[i]);
+    }
   }
 
   /**
@@ -31,34 +42,31 @@ public class CoveredClassVisitor implements ExecutionVisitor {
    */
   @Override
   public void visitAfterSequence(ExecutableSequence eseq) {
-    for (Class<?> c : classes) {
-      if (checkAndReset(c)) {
-        eseq.addCoveredClass(c);
+    for (int i = 0; i < classes.length; i++) {
+      if (CoveredClassFlags.checkAndReset(classIndices[i])) {
+        eseq.addCoveredClass(classes[i]);
       }
     }
   }
 
   /**
-   * Calls the coverage instrumentation method.
+   * Returns the index of the flag of the given class in {@link CoveredClassFlags}, which the
+   * instrumentation stores in a field of the class.
    *
-   * @param c the class for which method is to be called
-   * @return true if the instrumentation method is true, false otherwise
+   * @param c the class
+   * @return the index of the class's coverage flag
    */
-  private boolean checkAndReset(Class<?> c) {
+  private static int getClassIndex(Class<?> c) {
     try {
-      Method m = c.getMethod("randoop_checkAndReset");
-      m.setAccessible(true);
-      return (boolean) m.invoke(null);
-    } catch (NoSuchMethodException e) {
-      throw new Error("Cannot find instrumentation method: " + e);
+      return c.getField("randoop_classIndex").getInt(null);
+    } catch (NoSuchFieldException e) {
+      throw new Error("Cannot find instrumentation field: " + e);
     } catch (SecurityException e) {
-      throw new Error("Security error when accessing instrumentation method: " + e);
+      throw new Error("Security error when accessing instrumentation field: " + e);
     } catch (IllegalAccessException e) {
-      throw new Error("Cannot access instrumentation method: " + e);
+      throw new Error("Cannot access instrumentation field: " + e);
     } catch (IllegalArgumentException e) {
-      throw new Error("Bad argument to instrumentation method: " + e);
-    } catch (InvocationTargetException e) {
-      throw new Error("Bad invocation of instrumentation method: " + e);
+      throw new Error("Bad instrumentation field: " + e);
     }
   }
 
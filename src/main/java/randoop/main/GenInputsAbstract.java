@@ -285,6 +285,22 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Number of suspected nondeterministic methods to print")
   public static int nondeterministic_methods_to_output = 10;
 
+  /**
+   * How many long-lived JVMs run regression tests while flaky tests are being removed; this is also
+   * the number of test classes that are checked concurrently. Each JVM runs many test classes, each
+   * run loading the test class and the classes under test in a new class loader, and after failing
+   * assertions are commented out it reruns only the test methods that failed. If 0, each run of a
+   * test class uses a new JVM, as in earlier versions of Randoop.
+   *
+   * <p>A long-lived JVM does not isolate JDK state between runs: system properties, the default
+   * locale and time zone, {@code System.out}, static state of JDK classes, and threads that a test
+   * leaves running are shared by all the test classes that the JVM runs. A test that depends on
+   * such state may pass or fail differently than in a new JVM, and so a different set of assertions
+   * may be commented out.
+   */
+  @Option("Number of JVMs that run tests while removing flaky tests; 0 for a new JVM per run")
+  public static int flaky_test_jvms = 0;
+
   /**
    * Whether to output error-revealing tests. Disables all output when used with {@code
    * --no-regression-tests}. Restricting output can result in long runs if the default values of
@@ -322,6 +338,18 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Whether to check if test sequences are compilable")
   public static boolean check_compilable = true;
 
+  /**
+   * If positive, the {@code --check-compilable} check compiles up to this many sequences together,
+   * in one run of the compiler. The sequences that would be output wait until a batch is full, or
+   * until they could reach the {@code --output-limit}, and then they are compiled. A batch that
+   * does not compile is narrowed down to the sequences that cause the errors, so each sequence is
+   * kept or discarded just as it would be if it were compiled by itself, and only the compilable
+   * sequences count toward the {@code --output-limit}. Checking in batches is much faster. Zero
+   * means that each sequence is compiled as soon as it is generated.
+   */
+  @Option("Number of sequences to compile together; 0 means one at a time")
+  public static int check_compilable_batch_size = 0;
+
   /**
    * Classes that must occur in a test. Randoop will only output tests whose source code has at
    * least one use of a member of a class whose name matches the regular expression.
@@ -479,6 +507,15 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Terminate Randoop if specification condition throws an exception")
   public static boolean ignore_condition_exception_quiet = false;
 
+  /**
+   * A directory in which to cache the compiled condition methods of specifications, so that later
+   * runs with the same specifications and the same version of Java do not compile them again. If
+   * null, condition methods are not cached. Clear the directory if a class that a specification
+   * refers to changes incompatibly.
+   */
+  @Option("Directory in which to cache compiled specification conditions")
+  public static Path specification_cache = null;
+
   /**
    * File containing side-effect-free methods (also known as "pure methods"), each given as a <a
    * href="https://randoop.github.io/randoop/manual/#fully-qualified-signature">fully-qualified
@@ -652,6 +689,18 @@ public abstract class GenInputsAbstract extends CommandHandler {
     ALL
   }
 
+  /**
+   * A directory in which to cache the literals read from the classes under test when {@code
+   * --literals-file=CLASSES} is given, so that later runs do not parse the class files again. A
+   * class's entry is keyed by the contents of its class file, so entries for classes that change
+   * are not reused. If null, literals are not cached.
+   *
+   * <p>Only the literals are cached. The rest of the model of the classes under test, such as their
+   * operations and side-effect-free methods, is still built from scratch in every run.
+   */
+  @Option("Directory in which to cache literals read from class files")
+  public static Path literals_cache = null;
+
   /**
    * Randoop generates new tests by choosing from a set of methods under test. This controls how the
    * next method is chosen, from among all methods under test.
@@ -787,12 +836,76 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Clear the component set when Randoop uses this much memory")
   public static long clear_memory = 4000000000L; // default: 4G
 
+  /** Which generated components to remove when the component set is cleared. */
+  public enum ClearPolicy {
+    /** Remove all generated components. */
+    ALL,
+    /** Remove the components that were least recently selected as inputs. */
+    LRU,
+    /** Remove the components with the lowest Orienteering weight. */
+    LOW_WEIGHT,
+    /** Keep the same number of components for every type, favoring recently added ones. */
+    TYPE_QUOTA,
+  }
+
+  /**
+   * Which generated components to remove when the component set is cleared because of {@code
+   * --clear} or {@code --clear-memory}. With any policy other than {@code ALL}, the component set
+   * shrinks to {@code --clear-retain} of its generated components, so Randoop keeps building on
+   * the components that the policy considers most useful. After such a policy shrinks the
+   * component set because of {@code --clear-memory}, the set is not shrunk again for memory until
+   * it has regrown to its former size. {@code LOW_WEIGHT} requires {@code
+   * --input-selection=ORIENTEERING}.
+   */
+  @Option("Which components to remove when the component set is cleared")
+  public static ClearPolicy clear_policy = ClearPolicy.ALL;
+
+  /**
+   * The fraction of generated components that remain after the component set is cleared, when
+   * {@code --clear-policy} is not {@code ALL}. Must be at least 0 and less than 1.
+   */
+  @Option("Fraction of generated components kept by --clear-policy")
+  public static double clear_retain = 0.5;
+
+  /**
+   * Reuse the run-time values of previously-executed component sequences, rather than re-executing
+   * every statement of a new test. The state of each reused object is recorded, by reading its
+   * fields, and checked before and after each reuse; a sequence whose objects were mutated, or are
+   * shared with another part of the new test, is executed from scratch. Sequences whose objects'
+   * fields cannot be read, such as most JDK collections under the module system, are always
+   * executed from scratch. This speeds up generation when many tests are built from such sequences.
+   */
+  @Option("Reuse run-time values of component sequences instead of re-executing them")
+  public static boolean prefix_execution_cache = false;
+
+  /**
+   * Maximum number of statement outcomes that {@code --prefix-execution-cache} keeps. When this
+   * limit is reached, the least recently used sequences are discarded from the cache.
+   */
+  @Option("Maximum number of statement outcomes kept by --prefix-execution-cache")
+  public static int prefix_execution_cache_size = 1000000;
+
   /** Maximum number of tests to write to each JUnit file. */
   // ///////////////////////////////////////////////////////////////////
   @OptionGroup("Outputting the JUnit tests")
   @Option("Maximum number of tests to write to each JUnit file")
   public static int testsperfile = 500;
 
+  /**
+   * Write test classes while tests are being generated, instead of after generation ends. Randoop
+   * then does not hold every generated test in memory, and if it is interrupted, the test classes
+   * that it has already written remain usable (though the test suite or driver class is written
+   * only at the end).
+   *
+   * <p>Each class of {@code --testsperfile} tests is written as soon as enough tests have been
+   * generated for it. Regression tests are held back for a while before they are written, so that a
+   * test can be dropped if a longer test that contains it is generated. Unlike in the default mode,
+   * a test that has already been written is not dropped when a longer test that contains it is
+   * generated later. This option cannot be used with {@code --workers} greater than 1.
+   */
+  @Option("Write test classes during generation rather than at the end")
+  public static boolean stream_tests = false;
+
   /** Base name (no ".java" suffix) of the JUnit file containing error-revealing tests */
   @Option("Base name of the JUnit file(s) containing error-revealing tests")
   public static String error_test_basename = "ErrorTest";
@@ -900,6 +1013,24 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("Store all output to stdout and stderr in the ExecutionOutcome.")
   public static boolean capture_output = false;
 
+  /**
+   * The number of threads that generate tests. Each worker thread runs its own generator, with its
+   * own pool of component sequences, and the tests that the workers generate are merged before they
+   * are output. Worker <i>i</i> (counting from 0) uses random seed {@code randomseed}+<i>i</i>, so
+   * a run with a fixed number of workers is reproducible. The {@code --attempted-limit}, {@code
+   * --generated-limit}, and {@code --output-limit} command-line arguments are divided among the
+   * workers; each worker observes the {@code --time-limit}.
+   *
+   * <p>The workers do not share their pools: a sequence that one worker creates is never an input
+   * to the sequences of another worker. So <i>n</i> workers are like <i>n</i> independent runs of
+   * Randoop, each with a share of the limits, rather than one run that is <i>n</i> times as fast.
+   *
+   * <p>The workers run in one JVM. Code under test that is not thread-safe, or that mutates global
+   * state, may behave differently than it does when Randoop uses a single worker.
+   */
+  @Option("Number of threads that generate tests")
+  public static int workers = 1;
+
   /**
    * The random seed to use in the generation process. You do not need to provide this option to
    * make Randoop deterministic, because Randoop is deterministic by default. It is recommended to
@@ -971,6 +1102,25 @@ public abstract class GenInputsAbstract extends CommandHandler {
   @Option("<filename> Write operation usage counts to this file")
   public static FileWriterWithName operation_history_log = null;
 
+  /**
+   * A file to which to write timing and allocation metrics for each phase of test generation
+   * (operation selection, input selection, type instantiation, execution, check generation, the
+   * output predicate, and the compilability check). If the file name ends in {@code .csv}, the
+   * format is CSV; otherwise it is JSON. The metrics are written when generation ends, and also
+   * every {@code --metrics-interval-steps} steps if that is positive. If not specified, no metrics
+   * are collected.
+   */
+  @Option("<filename> Write per-phase timing and allocation metrics to this file")
+  public static Path metrics_file = null;
+
+  /**
+   * If positive, rewrite the {@code --metrics-file} every this many generation steps, so that a
+   * long run can be monitored while it is in progress. If 0, the file is written only when
+   * generation ends.
+   */
+  @Option("Rewrite the metrics file every N generation steps")
+  public static int metrics_interval_steps = 0;
+
   /**
    * True if Randoop should print generated tests that do not compile, which indicate Randoop bugs.
    */
@@ -1023,6 +1173,64 @@ public abstract class GenInputsAbstract extends CommandHandler {
           "Maximum sequence size --maxsize must be greater than zero but was " + maxsize);
     }
 
+    if (prefix_execution_cache_size <= 0) {
+      throw new RandoopUsageError(
+          "--prefix-execution-cache-size must be greater than zero but was "
+              + prefix_execution_cache_size);
+    }
+
+    if (clear_retain < 0 || clear_retain >= 1) {
+      throw new RandoopUsageError(
+          "--clear-retain must be at least 0 and less than 1 but was " + clear_retain);
+    }
+
+    if (clear_policy == ClearPolicy.LOW_WEIGHT
+        && input_selection != InputSelectionMode.ORIENTEERING) {
+      throw new RandoopUsageError(
+          "--clear-policy=LOW_WEIGHT requires --input-selection=ORIENTEERING");
+    }
+
+    if (metrics_interval_steps < 0) {
+      throw new RandoopUsageError(
+          "--metrics-interval-steps must be non-negative but was " + metrics_interval_steps);
+    }
+
+    if (check_compilable_batch_size < 0) {
+      throw new RandoopUsageError(
+          "--check-compilable-batch-size must be non-negative but was "
+              + check_compilable_batch_size);
+    }
+
+    if (workers <= 0) {
+      throw new RandoopUsageError("--workers must be greater than zero but was " + workers);
+    }
+
+    if (workers > 1) {
+      if (capture_output) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --workers greater than 1 with --capture-output");
+      }
+      if (require_covered_classes != null) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --workers greater than 1 with"
+                + " --require-covered-classes");
+      }
+      if (method_selection == MethodSelectionMode.BLOODHOUND) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --workers greater than 1 with"
+                + " --method-selection=BLOODHOUND");
+      }
+      if (stream_tests) {
+        throw new RandoopUsageError(
+            "Invalid parameter combination: --workers greater than 1 with --stream-tests");
+      }
+    }
+
+    if (flaky_test_jvms < 0) {
+      throw new RandoopUsageError(
+          "--flaky-test-jvms must be non-negative, but is " + flaky_test_jvms);
+    }
+
     if (!literals_file.isEmpty() && literals_level == ClassLiteralsMode.NONE) {
       throw new RandoopUsageError(
           "Invalid parameter combination:"
@@ -3,7 +3,6 @@ package randoop.main;
 import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
 
 import com.github.javaparser.ParseException;
-import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.stmt.BlockStmt;
 import java.io.File;
 import java.io.IOException;
@@ -11,6 +10,7 @@ import java.io.InputStream;
 import java.io.PrintWriter;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.DirectoryStream;
@@ -33,7 +33,12 @@ import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import org.checkerframework.checker.nullness.qual.PolyNull;
@@ -58,6 +63,8 @@ import randoop.generation.AbstractGenerator;
 import randoop.generation.ComponentManager;
 import randoop.generation.ForwardGenerator;
 import randoop.generation.OperationHistoryLogger;
+import randoop.generation.ParallelGenerator;
+import randoop.generation.ProducerGraph;
 import randoop.generation.RandoopGenerationError;
 import randoop.generation.SeedSequences;
 import randoop.generation.UninstantiableTypeTracker;
@@ -107,6 +114,7 @@ import randoop.test.ValueSizePredicate;
 import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
 import randoop.util.DemandDrivenLog;
+import randoop.util.GenerationMetrics;
 import randoop.util.Log;
 import randoop.util.MultiMap;
 import randoop.util.Randomness;
@@ -449,16 +457,39 @@ public class GenTests extends GenInputsAbstract {
     operationModel.log();
 
     /*
-     * Create the generator for this session.
+     * Create the generator for this session.  With --workers, each worker has its own generator
+     * with its own component manager.
      */
-    AbstractGenerator explorer =
-        new ForwardGenerator(
-            operations,
-            sideEffectFreeMethods,
-            new GenInputsAbstract.Limits(),
-            componentMgr,
-            /* stopper= */ null,
-            classesUnderTest);
+    GenInputsAbstract.Limits limits = new GenInputsAbstract.Limits();
+    // The workers share the producers that demand-driven input creation finds.
+    ProducerGraph producerGraph = new ProducerGraph(classesUnderTest);
+    componentMgr.setProducerGraph(producerGraph);
+    List<ForwardGenerator> generators = new ArrayList<>(GenInputsAbstract.workers);
+    for (int i = 0; i < GenInputsAbstract.workers; i++) {
+      ComponentManager workerComponentMgr;
+      if (i == 0) {
+        workerComponentMgr = componentMgr;
+      } else {
+        workerComponentMgr = new ComponentManager(components);
+        operationModel.addClassLiterals(
+            workerComponentMgr, GenInputsAbstract.literals_file, GenInputsAbstract.literals_level);
+        workerComponentMgr.setProducerGraph(producerGraph);
+      }
+      generators.add(
+          new ForwardGenerator(
+              operations,
+              sideEffectFreeMethods,
+              ParallelGenerator.workerLimits(limits, i, GenInputsAbstract.workers),
+              workerComponentMgr,
+              /* stopper= */ null,
+              classesUnderTest));
+    }
+    AbstractGenerator explorer;
+    if (generators.size() == 1) {
+      explorer = generators.get(0);
+    } else {
+      explorer = new ParallelGenerator(operations, limits, generators, randomseed);
+    }
 
     // log setup.
     if (GenInputsAbstract.all_logs) {
@@ -499,13 +530,15 @@ public class GenTests extends GenInputsAbstract {
      * Create the test check generator for the contracts and side-effect-free methods
      */
     ContractSet contracts = operationModel.getContracts();
-    TestCheckGenerator testGen =
-        createTestCheckGenerator(
-            accessibility,
-            contracts,
-            sideEffectFreeMethodsByType,
-            operationModel.getOmitMethodsPredicate());
-    explorer.setTestCheckGenerator(testGen);
+    for (ForwardGenerator generator : generators) {
+      TestCheckGenerator testGen =
+          createTestCheckGenerator(
+              accessibility,
+              contracts,
+              sideEffectFreeMethodsByType,
+              operationModel.getOmitMethodsPredicate());
+      generator.setTestCheckGenerator(testGen);
+    }
 
     /*
      * Setup for test predicate
@@ -524,36 +557,36 @@ public class GenTests extends GenInputsAbstract {
 
     // Define test predicate to decide which test sequences will be output.
     // It returns true if the sequence should be output.
-    Predicate<ExecutableSequence> isOutputTest =
-        createTestOutputPredicate(
-            excludeSet,
-            operationModel.getCoveredClassesGoal(),
-            GenInputsAbstract.require_classname_in_test);
-
-    explorer.setTestPredicate(isOutputTest);
+    for (ForwardGenerator generator : generators) {
+      Predicate<ExecutableSequence> isOutputTest =
+          createTestOutputPredicate(
+              excludeSet,
+              operationModel.getCoveredClassesGoal(),
+              GenInputsAbstract.require_classname_in_test);
+      generator.setTestPredicate(isOutputTest);
+    }
+
+    // With --check-compilable-batch-size, each generator compiles its output sequences in batches
+    // during generation.
+    List<CompilableTestPredicate> compilableBatchFilters = new ArrayList<>();
+    if (GenInputsAbstract.check_compilable
+        && GenInputsAbstract.check_compilable_batch_size > 0) {
+      for (ForwardGenerator generator : generators) {
+        CompilableTestPredicate compilableFilter =
+            new CompilableTestPredicate(
+                createJUnitCreator(), this, GenInputsAbstract.check_compilable_batch_size);
+        compilableBatchFilters.add(compilableFilter);
+        generator.setOutputBatchFilter(
+            GenInputsAbstract.check_compilable_batch_size, compilableFilter::filterCompilable);
+      }
+    }
 
     /*
      * Setup visitors
      */
-    List<ExecutionVisitor> visitors = new ArrayList<>();
-    // instrumentation visitor
-    if (GenInputsAbstract.require_covered_classes != null) {
-      visitors.add(new CoveredClassVisitor(operationModel.getCoveredClassesGoal()));
+    for (ForwardGenerator generator : generators) {
+      generator.setExecutionVisitor(createExecutionVisitors(operationModel));
     }
-    // Install any user-specified visitors.
-    if (!GenInputsAbstract.visitor.isEmpty()) {
-      for (String visitorClsName : GenInputsAbstract.visitor) {
-        try {
-          @SuppressWarnings("unchecked")
-          Class<ExecutionVisitor> cls = (Class<ExecutionVisitor>) Class.forName(visitorClsName);
-          ExecutionVisitor vis = cls.getDeclaredConstructor().newInstance();
-          visitors.add(vis);
-        } catch (Exception e) {
-          throw new RandoopBug("Error while loading visitor class " + visitorClsName, e);
-        }
-      }
-    }
-    explorer.setExecutionVisitor(visitors);
 
     // Diagnostic output
     if (GenInputsAbstract.progressdisplay) {
@@ -567,6 +600,47 @@ public class GenTests extends GenInputsAbstract {
       componentMgr.log();
     }
 
+    if (GenInputsAbstract.metrics_file != null) {
+      GenerationMetrics.enable(
+          GenInputsAbstract.metrics_file, GenInputsAbstract.metrics_interval_steps);
+    }
+
+    // With --stream-tests, tests are written during generation.
+    StreamingTestWriter streamingWriter = null;
+    TestEnvironment streamingTestEnvironment = null;
+    MultiMap<Type, TypedClassOperation> assertableSideEffectFreeMethods = null;
+    Map<TypedClassOperation, Integer> testOccurrences = new HashMap<>();
+    if (GenInputsAbstract.stream_tests && !GenInputsAbstract.dont_output_tests) {
+      JUnitCreator junitCreator = createJUnitCreator();
+      JavaFileWriter javaFileWriter = new JavaFileWriter(junit_output_dir);
+      CodeWriter errorWriter = null;
+      if (!GenInputsAbstract.no_error_revealing_tests) {
+        errorWriter = createErrorTestWriter(javaFileWriter);
+      }
+      FailingAssertionCommentWriter regressionWriter = null;
+      if (!GenInputsAbstract.no_regression_tests) {
+        streamingTestEnvironment = createTestEnvironment(classpath);
+        regressionWriter =
+            new FailingAssertionCommentWriter(streamingTestEnvironment, javaFileWriter);
+      }
+      MultiMap<Type, TypedClassOperation> assertable =
+          assertableSideEffectFreeMethods(
+              sideEffectFreeMethodsByType, operationModel.getOmitMethodsPredicate(), accessibility);
+      assertableSideEffectFreeMethods = assertable;
+      streamingWriter =
+          new StreamingTestWriter(
+              junitCreator,
+              errorWriter,
+              regressionWriter,
+              limits.output_limit,
+              explorer.getOperationHistory(),
+              UnaryOperator.identity(),
+              classSeqs ->
+                  countSequencesPerOperation(classSeqs, assertable)
+                      .forEach((op, count) -> testOccurrences.merge(op, count, Integer::sum)));
+      explorer.setOutputSequenceSink(streamingWriter);
+    }
+
     // Generate tests
     try {
       explorer.createAndClassifySequences();
@@ -585,78 +659,49 @@ public class GenTests extends GenInputsAbstract {
       System.out.printf(
           "createAndClassifySequences threw an exception%n%s%n", UtilPlume.stackTraceToString(e));
       throw e;
+    } finally {
+      for (CompilableTestPredicate compilableFilter : compilableBatchFilters) {
+        try {
+          compilableFilter.close();
+        } catch (IOException e) {
+          throw new RandoopBug(e);
+        }
+      }
     }
 
     // post generation
     if (GenInputsAbstract.dont_output_tests) {
+      GenerationMetrics.write();
       return true;
     }
 
-    JUnitCreator junitCreator =
-        JUnitCreator.getTestCreator(
-            junit_package_name,
-            beforeAllFixtureBody,
-            afterAllFixtureBody,
-            beforeEachFixtureBody,
-            afterEachFixtureBody);
-
-    JavaFileWriter javaFileWriter = new JavaFileWriter(junit_output_dir);
-
-    if (!GenInputsAbstract.no_error_revealing_tests) {
-      CodeWriter codeWriter = javaFileWriter;
-      if (GenInputsAbstract.minimize_error_test || GenInputsAbstract.stop_on_error_test) {
-        codeWriter = new MinimizerWriter(javaFileWriter);
-      }
-      writeTestFiles(
-          junitCreator,
-          explorer.getErrorTestSequences(),
-          codeWriter,
-          GenInputsAbstract.error_test_basename,
-          "Error-revealing");
-    }
-
-    if (!GenInputsAbstract.no_regression_tests) {
-      final TestEnvironment testEnvironment =
-          new TestEnvironment(convertClasspathToAbsolute(classpath));
-      String agentPathString = MethodReplacements.getAgentPath();
-      String agentArgs = MethodReplacements.getAgentArgs();
-      if (agentPathString != null && !agentPathString.isEmpty()) {
-        Path agentPath = Paths.get(agentPathString);
-        testEnvironment.setReplaceCallAgent(agentPath, agentArgs);
-      }
-
-      List<ExecutableSequence> regressionSequences = explorer.getRegressionSequences();
-
-      if (GenInputsAbstract.progressdisplay) {
-        System.out.printf(
-            "%nAbout to look for failing assertions in %d regression sequences.%n",
-            regressionSequences.size());
-      }
-      FailingAssertionCommentWriter codeWriter =
-          new FailingAssertionCommentWriter(testEnvironment, javaFileWriter);
-      writeTestFiles(
-          junitCreator,
-          regressionSequences,
-          codeWriter,
-          GenInputsAbstract.regression_test_basename,
-          "Regression");
-
-      // TODO: We don't rerun Error Test Sequences, so we do not know whether they are flaky.
-      if (GenInputsAbstract.progressdisplay) {
-        System.out.printf("About to look for flaky methods.%n");
-        System.out.flush();
+    if (streamingWriter != null) {
+      try {
+        streamingWriter.finish();
+      } finally {
+        if (streamingTestEnvironment != null) {
+          streamingTestEnvironment.close();
+        }
       }
-      processAndOutputFlakyMethods(
-          testNamesToSequences(codeWriter.getFlakyTestNames(), regressionSequences),
-          regressionSequences,
-          sideEffectFreeMethodsByType,
-          operationModel.getOmitMethodsPredicate(),
-          accessibility);
-      if (GenInputsAbstract.progressdisplay) {
-        System.out.printf("Done looking for flaky methods.%n");
-        System.out.flush();
+      if (!GenInputsAbstract.no_regression_tests) {
+        if (GenInputsAbstract.progressdisplay) {
+          System.out.printf("About to look for flaky methods.%n");
+          System.out.flush();
+        }
+        List<ExecutableSequence> flakySequences = streamingWriter.getFlakySequences();
+        if (!flakySequences.isEmpty()) {
+          processAndOutputFlakyMethods(
+              flakySequences, testOccurrences, assertableSideEffectFreeMethods);
+        }
+        if (GenInputsAbstract.progressdisplay) {
+          System.out.printf("Done looking for flaky methods.%n");
+          System.out.flush();
+        }
       }
-    } // if (!GenInputsAbstract.no_regression_tests)
+    } else {
+      writeTestFilesAfterGeneration(
+          explorer, sideEffectFreeMethodsByType, operationModel, accessibility, classpath);
+    }
 
     if (GenInputsAbstract.progressdisplay) {
       if (GenInputsAbstract.demand_driven) {
@@ -746,6 +791,7 @@ public class GenTests extends GenInputsAbstract {
             "Error closing " + GenInputsAbstract.operation_history_log.getFileName(), e);
       }
     }
+    GenerationMetrics.write();
 
     return true;
   }
@@ -816,6 +862,127 @@ public class GenTests extends GenInputsAbstract {
     return false;
   }
 
+  /**
+   * Writes the error-revealing and regression tests that the generator kept until the end of
+   * generation. Removes subsumed sequences first, and reports flaky methods.
+   *
+   * @param explorer the generator, which has finished generating tests
+   * @param sideEffectFreeMethodsByType side-effect-free methods to use in assertions
+   * @param operationModel the operation model
+   * @param accessibility the accessibility predicate
+   * @param classpath the classpath for running the regression tests
+   */
+  private void writeTestFilesAfterGeneration(
+      AbstractGenerator explorer,
+      MultiMap<Type, TypedClassOperation> sideEffectFreeMethodsByType,
+      OperationModel operationModel,
+      AccessibilityPredicate accessibility,
+      String classpath) {
+    JUnitCreator junitCreator = createJUnitCreator();
+
+    JavaFileWriter javaFileWriter = new JavaFileWriter(junit_output_dir);
+
+    if (!GenInputsAbstract.no_error_revealing_tests) {
+      writeTestFiles(
+          junitCreator,
+          explorer.getErrorTestSequences(),
+          createErrorTestWriter(javaFileWriter),
+          GenInputsAbstract.error_test_basename,
+          "Error-revealing");
+    }
+
+    if (!GenInputsAbstract.no_regression_tests) {
+      final TestEnvironment testEnvironment = createTestEnvironment(classpath);
+
+      List<ExecutableSequence> regressionSequences = explorer.getRegressionSequences();
+
+      if (GenInputsAbstract.progressdisplay) {
+        System.out.printf(
+            "%nAbout to look for failing assertions in %d regression sequences.%n",
+            regressionSequences.size());
+      }
+      FailingAssertionCommentWriter codeWriter =
+          new FailingAssertionCommentWriter(testEnvironment, javaFileWriter);
+      try {
+        writeTestFiles(
+            junitCreator,
+            regressionSequences,
+            codeWriter,
+            GenInputsAbstract.regression_test_basename,
+            "Regression");
+      } finally {
+        testEnvironment.close();
+      }
+
+      // TODO: We don't rerun Error Test Sequences, so we do not know whether they are flaky.
+      if (GenInputsAbstract.progressdisplay) {
+        System.out.printf("About to look for flaky methods.%n");
+        System.out.flush();
+      }
+      List<ExecutableSequence> flakySequences =
+          testNamesToSequences(codeWriter.getFlakyTestNames(), regressionSequences);
+      if (!flakySequences.isEmpty()) {
+        MultiMap<Type, TypedClassOperation> assertableSideEffectFreeMethods =
+            assertableSideEffectFreeMethods(
+                sideEffectFreeMethodsByType,
+                operationModel.getOmitMethodsPredicate(),
+                accessibility);
+        processAndOutputFlakyMethods(
+            flakySequences,
+            countSequencesPerOperation(regressionSequences, assertableSideEffectFreeMethods),
+            assertableSideEffectFreeMethods);
+      }
+      if (GenInputsAbstract.progressdisplay) {
+        System.out.printf("Done looking for flaky methods.%n");
+        System.out.flush();
+      }
+    }
+  }
+
+  /**
+   * Creates the {@link JUnitCreator} for the test classes, with the user's fixtures.
+   *
+   * @return a new {@link JUnitCreator}
+   */
+  private JUnitCreator createJUnitCreator() {
+    return JUnitCreator.getTestCreator(
+        junit_package_name,
+        beforeAllFixtureBody,
+        afterAllFixtureBody,
+        beforeEachFixtureBody,
+        afterEachFixtureBody);
+  }
+
+  /**
+   * Returns the writer for error-revealing test classes, which minimizes the tests if requested.
+   *
+   * @param javaFileWriter the writer of Java files
+   * @return the writer for error-revealing test classes
+   */
+  private CodeWriter createErrorTestWriter(JavaFileWriter javaFileWriter) {
+    if (GenInputsAbstract.minimize_error_test || GenInputsAbstract.stop_on_error_test) {
+      return new MinimizerWriter(javaFileWriter);
+    }
+    return javaFileWriter;
+  }
+
+  /**
+   * Creates the environment in which regression tests are run to find failing assertions.
+   *
+   * @param classpath the classpath for running the tests
+   * @return the environment for running regression tests
+   */
+  private TestEnvironment createTestEnvironment(String classpath) {
+    TestEnvironment testEnvironment = new TestEnvironment(convertClasspathToAbsolute(classpath));
+    String agentPathString = MethodReplacements.getAgentPath();
+    String agentArgs = MethodReplacements.getAgentArgs();
+    if (agentPathString != null && !agentPathString.isEmpty()) {
+      Path agentPath = Paths.get(agentPathString);
+      testEnvironment.setReplaceCallAgent(agentPath, agentArgs);
+    }
+    return testEnvironment;
+  }
+
   /**
    * Outputs names of suspected flaky methods by using the tf-idf metric (Term Frequency - Inverse
    * Document Frequency), which is:
@@ -823,49 +990,27 @@ public class GenTests extends GenInputsAbstract {
    * <pre>(number of flaky tests M occurs in) / (number of total tests M occurs in)</pre>
    *
    * @param flakySequences the flaky test sequences
-   * @param sequences all the sequences (flaky and non-flaky)
-   * @param sideEffectFreeMethodsByType side-effect-free methods to use in assertions
-   * @param omitMethodsPredicate the user-supplied predicate for which methods should not be used
-   *     during test generation
-   * @param accessibilityPredicate accessibility predicate for side-effect-free methods
+   * @param testOccurrences how many sequences (flaky and non-flaky) each operation occurs in, as
+   *     computed by {@link #countSequencesPerOperation}
+   * @param assertableSideEffectFreeMethods the side-effect-free methods that can be used in
+   *     assertions, as computed by {@link #assertableSideEffectFreeMethods}
    */
   private void processAndOutputFlakyMethods(
       List<ExecutableSequence> flakySequences,
-      List<ExecutableSequence> sequences,
-      MultiMap<Type, TypedClassOperation> sideEffectFreeMethodsByType,
-      OmitMethodsPredicate omitMethodsPredicate,
-      AccessibilityPredicate accessibilityPredicate) {
+      Map<TypedClassOperation, Integer> testOccurrences,
+      MultiMap<Type, TypedClassOperation> assertableSideEffectFreeMethods) {
 
     if (flakySequences.isEmpty()) {
       return;
     }
 
-    // Exclude methods that were omitted during test generation.
-    MultiMap<Type, TypedClassOperation> assertableSideEffectFreeMethods = new MultiMap<>();
-    for (Type t : sideEffectFreeMethodsByType.keySet()) {
-      Set<TypedClassOperation> typeOperations = sideEffectFreeMethodsByType.getValues(t);
-      for (TypedClassOperation tco : typeOperations) {
-        if (!RegressionCaptureGenerator.isAssertableMethod(
-            tco, omitMethodsPredicate, accessibilityPredicate)) {
-          continue;
-        }
-
-        assertableSideEffectFreeMethods.add(t, tco);
-      }
-    }
-
     System.out.println();
     System.out.println("Flaky tests were generated. This means that your program contains");
     System.out.println("methods that are nondeterministic or depend on non-local state.");
 
     if (GenInputsAbstract.nondeterministic_methods_to_output > 0) {
       // How many flaky tests an operation occurs in (regardless of how many times it appears in
-      // that test).
-      Map<TypedClassOperation, Integer> testOccurrences =
-          countSequencesPerOperation(sequences, assertableSideEffectFreeMethods);
-
-      // How many tests an operation occurs in (regardless of how many times it appears in that
-      // flaky test).
+      // that flaky test).  testOccurrences is how many tests it occurs in.
       Map<TypedClassOperation, Integer> flakyOccurrences =
           countSequencesPerOperation(flakySequences, assertableSideEffectFreeMethods);
 
@@ -900,6 +1045,36 @@ public class GenTests extends GenInputsAbstract {
     System.out.println();
   }
 
+  /**
+   * Returns the side-effect-free methods that can be used in assertions: those that were not
+   * omitted during test generation.
+   *
+   * @param sideEffectFreeMethodsByType side-effect-free methods to use in assertions
+   * @param omitMethodsPredicate the user-supplied predicate for which methods should not be used
+   *     during test generation
+   * @param accessibilityPredicate accessibility predicate for side-effect-free methods
+   * @return a map from a type to its side-effect-free methods that can be used in assertions
+   */
+  private static MultiMap<Type, TypedClassOperation> assertableSideEffectFreeMethods(
+      MultiMap<Type, TypedClassOperation> sideEffectFreeMethodsByType,
+      OmitMethodsPredicate omitMethodsPredicate,
+      AccessibilityPredicate accessibilityPredicate) {
+    // Exclude methods that were omitted during test generation.
+    MultiMap<Type, TypedClassOperation> assertableSideEffectFreeMethods = new MultiMap<>();
+    for (Type t : sideEffectFreeMethodsByType.keySet()) {
+      Set<TypedClassOperation> typeOperations = sideEffectFreeMethodsByType.getValues(t);
+      for (TypedClassOperation tco : typeOperations) {
+        if (!RegressionCaptureGenerator.isAssertableMethod(
+            tco, omitMethodsPredicate, accessibilityPredicate)) {
+          continue;
+        }
+
+        assertableSideEffectFreeMethods.add(t, tco);
+      }
+    }
+    return assertableSideEffectFreeMethods;
+  }
+
   /**
    * Given a collection of test names of the form "test005", returns the corresponding elements from
    * the given list.
@@ -1040,19 +1215,67 @@ public class GenTests extends GenInputsAbstract {
 
       NameGenerator methodNameGenerator = new NameGenerator(TEST_METHOD_NAME_PREFIX, 1, numTests);
 
-      for (int i = 0; i < numFiles; i++) {
-        List<ExecutableSequence> partition =
-            testSequences.subList(i * testsperfile, Math.min((i + 1) * testsperfile, numTests));
-        String testClassName = classNamePrefix + i;
-        testClasses.add(testClassName);
-        CompilationUnit classAST =
-            junitCreator.createTestClass(testClassName, methodNameGenerator, partition);
-        String classSource = classAST.toString();
-        Path testFile =
-            codeWriter.writeClassCode(
-                GenInputsAbstract.junit_package_name, testClassName, classSource);
-        if (GenInputsAbstract.progressdisplay) {
-          System.out.printf("Created file %s%n", testFile.toAbsolutePath());
+      // Flaky-test filtering of different classes is independent, and can run concurrently.
+      ExecutorService executor = null;
+      if (codeWriter instanceof FailingAssertionCommentWriter
+          && GenInputsAbstract.flaky_test_jvms > 1
+          && numFiles > 1) {
+        executor =
+            Executors.newFixedThreadPool(Math.min(GenInputsAbstract.flaky_test_jvms, numFiles));
+      }
+      // Creating the source code of different classes is independent, and can run concurrently.
+      ExecutorService renderExecutor =
+          Executors.newFixedThreadPool(
+              Math.min(Runtime.getRuntime().availableProcessors(), numFiles));
+      try {
+        List<Future<String>> classSources = new ArrayList<>(numFiles);
+        for (int i = 0; i < numFiles; i++) {
+          List<ExecutableSequence> partition =
+              testSequences.subList(i * testsperfile, Math.min((i + 1) * testsperfile, numTests));
+          String testClassName = classNamePrefix + i;
+          testClasses.add(testClassName);
+          classSources.add(
+              renderExecutor.submit(
+                  junitCreator.prepareTestClassSource(
+                      testClassName, methodNameGenerator, partition)::get));
+        }
+        List<Future<Path>> testFiles = new ArrayList<>();
+        for (int i = 0; i < numFiles; i++) {
+          String testClassName = testClasses.get(i);
+          String classSource = getClassSource(classSources.get(i));
+          // Let the source code be garbage-collected once it is written.
+          classSources.set(i, null);
+          if (executor == null) {
+            Path testFile =
+                codeWriter.writeClassCode(
+                    GenInputsAbstract.junit_package_name, testClassName, classSource);
+            if (GenInputsAbstract.progressdisplay) {
+              System.out.printf("Created file %s%n", testFile.toAbsolutePath());
+            }
+          } else {
+            testFiles.add(
+                executor.submit(
+                    () -> {
+                      try {
+                        return codeWriter.writeClassCode(
+                            GenInputsAbstract.junit_package_name, testClassName, classSource);
+                      } catch (RandoopOutputException e) {
+                        // A Callable cannot throw a Throwable that is not an Exception.
+                        throw new UndeclaredThrowableException(e);
+                      }
+                    }));
+          }
+        }
+        for (Future<Path> testFile : testFiles) {
+          Path file = getTestFile(testFile);
+          if (GenInputsAbstract.progressdisplay) {
+            System.out.printf("Created file %s%n", file.toAbsolutePath());
+          }
+        }
+      } finally {
+        renderExecutor.shutdownNow();
+        if (executor != null) {
+          executor.shutdownNow();
         }
       }
 
@@ -1087,6 +1310,58 @@ public class GenTests extends GenInputsAbstract {
     }
   }
 
+  /**
+   * Waits for the source code of a test class that is being created on another thread.
+   *
+   * @param classSource the result of creating the source code
+   * @return the source code of the test class
+   */
+  private static String getClassSource(Future<String> classSource) {
+    try {
+      return classSource.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RandoopBug("Interrupted while creating test classes", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RandoopBug("Error creating test classes", cause);
+    }
+  }
+
+  /**
+   * Waits for a test class that is being written on another thread.
+   *
+   * @param testFile the result of writing the test class
+   * @return the file that was written
+   * @throws RandoopOutputException if the class could not be written
+   */
+  private static Path getTestFile(Future<Path> testFile) throws RandoopOutputException {
+    try {
+      return testFile.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RandoopBug("Interrupted while writing test classes", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UndeclaredThrowableException) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof RandoopOutputException) {
+        throw (RandoopOutputException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new RandoopBug("Error writing test classes", cause);
+    }
+  }
+
   /**
    * Create fixture code from {@link GenInputsAbstract#junit_after_all}, {@link
    * GenInputsAbstract#junit_after_each}, {@link GenInputsAbstract#junit_before_all}, and {@link
@@ -1311,6 +1586,36 @@ public class GenTests extends GenInputsAbstract {
     }
   }
 
+  /**
+   * Creates the visitors to use while executing each generated sequence: the instrumentation
+   * visitor, if classes must be covered, and any user-specified visitors. Each generator needs its
+   * own visitors, because visitors may have state.
+   *
+   * @param operationModel the model of the classes under test
+   * @return the visitors
+   */
+  private List<ExecutionVisitor> createExecutionVisitors(OperationModel operationModel) {
+    List<ExecutionVisitor> visitors = new ArrayList<>();
+    // instrumentation visitor
+    if (GenInputsAbstract.require_covered_classes != null) {
+      visitors.add(new CoveredClassVisitor(operationModel.getCoveredClassesGoal()));
+    }
+    // Install any user-specified visitors.
+    if (!GenInputsAbstract.visitor.isEmpty()) {
+      for (String visitorClsName : GenInputsAbstract.visitor) {
+        try {
+          @SuppressWarnings("unchecked")
+          Class<ExecutionVisitor> cls = (Class<ExecutionVisitor>) Class.forName(visitorClsName);
+          ExecutionVisitor vis = cls.getDeclaredConstructor().newInstance();
+          visitors.add(vis);
+        } catch (Exception e) {
+          throw new RandoopBug("Error while loading visitor class " + visitorClsName, e);
+        }
+      }
+    }
+    return visitors;
+  }
+
   /**
    * Builds the test predicate that determines whether a particular sequence will be included in the
    * output based on command-line arguments. A true result means the test is a candidate for output.
@@ -1352,7 +1657,8 @@ public class GenTests extends GenInputsAbstract {
 
     Predicate<ExecutableSequence> isOutputTest = baseTest.and(checkTest);
 
-    if (GenInputsAbstract.check_compilable) {
+    if (GenInputsAbstract.check_compilable
+        && GenInputsAbstract.check_compilable_batch_size == 0) {
       JUnitCreator junitCreator =
           JUnitCreator.getTestCreator(
               junit_package_name,
@@ -1511,7 +1817,7 @@ public class GenTests extends GenInputsAbstract {
   }
 
   /** Increments the count of sequence compilation failures. */
-  public void incrementSequenceCompileFailureCount() {
+  public synchronized void incrementSequenceCompileFailureCount() {
     this.sequenceCompileFailureCount++;
   }
 }
@@ -53,6 +53,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -72,6 +73,7 @@ import org.apache.commons.exec.ExecuteWatchdog;
 import org.apache.commons.exec.PumpStreamHandler;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.options.Option;
 import org.plumelib.options.OptionGroup;
 import org.plumelib.options.Options;
@@ -104,6 +106,20 @@ import randoop.output.PrimitiveAndWrappedTypeVarNameCollector;
  * suite, the algorithm tries a different replacement. If no replacement allows the output test
  * suite to fail in the same way as the original test suite, the algorithm adds back the original
  * version of the current statement and continues.
+ *
+ * <p>Unless {@link #minimizethreads} is 0, the test methods are minimized concurrently by {@link
+ * MinimizerEngine}, which first removes chunks of statements at once (see {@link
+ * #removeStatementChunks}), and which compiles only the test method being minimized in memory and
+ * runs it in a long-lived JVM. If the result fails differently when the whole test suite is run, or
+ * if a test calls {@code System.exit}, times out, or cannot be run in a long-lived JVM, the
+ * minimization is redone by compiling and running the whole test suite in new processes for every
+ * candidate.
+ *
+ * <p>A candidate is kept if it fails in the same way, which means with the same failure output
+ * once line numbers are removed. Removing chunks of statements can therefore keep a candidate that
+ * reaches the same failure through different values than the original test: for example, an
+ * assertion {@code assertTrue(list.size() == 2)} fails in the same way whether the list has 3
+ * elements or none.
  */
 public class Minimize extends CommandHandler {
 
@@ -136,6 +152,17 @@ public class Minimize extends CommandHandler {
   @Option("Verbose, flag for verbose output")
   public static boolean verboseminimizer = false;
 
+  /**
+   * The number of test methods to minimize concurrently. Each test method is minimized by removing
+   * chunks of statements at once, and each candidate is compiled in memory and run, alone, in a
+   * long-lived JVM. If 0, each candidate of the whole test suite is compiled by {@code javac} and
+   * run by JUnit in new processes, and statements are removed one at a time. New processes are also
+   * used if a test calls {@code System.exit}, times out, or cannot be run in a long-lived JVM.
+   */
+  @SuppressWarnings("WeakerAccess")
+  @Option("Number of test methods to minimize concurrently; 0 to use javac and JUnit processes")
+  public static int minimizethreads = Runtime.getRuntime().availableProcessors();
+
   /** An instance of a Java parser. */
   private static final JavaParser javaParser = new JavaParser();
 
@@ -213,6 +240,13 @@ public class Minimize extends CommandHandler {
           "Minimizer timout must be positive, was given as " + Minimize.minimizetimeout + ".");
     }
 
+    if (Minimize.minimizethreads < 0) {
+      throw new RandoopCommandError(
+          "Number of minimizer threads must be non-negative, was given as "
+              + Minimize.minimizethreads
+              + ".");
+    }
+
     // File object pointing to the file to be minimized.
     final Path originalFile = Paths.get(suitepath);
 
@@ -339,20 +373,35 @@ public class Minimize extends CommandHandler {
     String runResult = runJavaFile(minimizedFile, classPath, packageName, timeoutLimit);
     Map<String, String> expectedOutput = normalizeJUnitOutput(runResult);
 
-    // Minimize the Java test suite.
-    minimizeTestSuite(
-        compilationUnit, packageName, minimizedFile, classPath, expectedOutput, timeoutLimit);
-
-    // Cleanup: simplify type names and sort the import statements.
-    compilationUnit =
-        simplifyTypeNames(
-            compilationUnit,
-            packageName,
-            minimizedFile,
-            classPath,
-            expectedOutput,
-            timeoutLimit,
-            verboseOutput);
+    CompilationUnit minimized = null;
+    if (minimizethreads > 0) {
+      minimized =
+          minimizeInProcess(
+              compilationUnit,
+              packageName,
+              newClassName,
+              minimizedFile,
+              classPath,
+              expectedOutput,
+              timeoutLimit,
+              verboseOutput);
+    }
+
+    if (minimized == null) {
+      FailureOracle oracle =
+          cu -> {
+            writeToFile(cu, minimizedFile);
+            return checkCorrectlyMinimized(
+                minimizedFile, classPath, packageName, expectedOutput, timeoutLimit);
+          };
+
+      // Minimize the Java test suite.
+      minimizeTestSuite(compilationUnit, oracle);
+
+      // Cleanup: simplify type names and sort the import statements.
+      minimized = simplifyTypeNames(compilationUnit, oracle, verboseOutput);
+    }
+    compilationUnit = minimized;
 
     writeToFile(compilationUnit, minimizedFile);
 
@@ -366,23 +415,72 @@ public class Minimize extends CommandHandler {
   }
 
   /**
-   * Visit and minimize every JUnit test method within a compilation unit.
+   * Minimizes the test suite with {@link MinimizerEngine}, and checks that the result fails in the
+   * same way as the original test suite when it is compiled by {@code javac} and run by JUnit.
    *
-   * @param compilationUnit the compilation unit to minimize; is modified by side effect
+   * @param compilationUnit the compilation unit to minimize; is not modified
    * @param packageName the package that the Java file is in
+   * @param className the simple name of the class in the Java file
    * @param file the Java file that is being minimized; is modified by side effect
    * @param classpath classpath used to compile and run the Java file
    * @param expectedOutput expected JUnit output when the Java file is compiled and run
    * @param timeoutLimit number of seconds allowed for the whole test suite to run
+   * @param verboseOutput whether to produce verbose output
+   * @return the minimized compilation unit, or null if it does not fail in the same way as the
+   *     original one, or if the tests cannot be run in a long-lived JVM
    * @throws IOException thrown if minimized method can't be written to file
    */
-  private static void minimizeTestSuite(
+  private static @Nullable CompilationUnit minimizeInProcess(
       CompilationUnit compilationUnit,
       String packageName,
+      String className,
       Path file,
       String classpath,
       Map<String, String> expectedOutput,
-      int timeoutLimit)
+      int timeoutLimit,
+      boolean verboseOutput)
+      throws IOException {
+    Path sourceRoot = getExecutionDirectory(file, packageName);
+    if (sourceRoot == null) {
+      sourceRoot = file.toAbsolutePath().getParent();
+    }
+    try (MinimizerEngine engine =
+        new MinimizerEngine(
+            packageName, className, sourceRoot, classpath, timeoutLimit, minimizethreads)) {
+      CompilationUnit result = engine.minimizeTestSuite(compilationUnit);
+      if (result == null) {
+        System.out.println(
+            "A test called System.exit, timed out, or could not be run in a test JVM."
+                + " Running the whole test suite in a new JVM for each candidate.");
+        return null;
+      }
+      try {
+        result = simplifyTypeNames(result, engine::failsAsExpected, verboseOutput);
+      } catch (MinimizerEngine.StoppedRunningException e) {
+        System.out.println(
+            e.getMessage() + ". Running the whole test suite in a new JVM for each candidate.");
+        return null;
+      }
+
+      writeToFile(result, file);
+      if (checkCorrectlyMinimized(file, classpath, packageName, expectedOutput, timeoutLimit)) {
+        return result;
+      }
+    }
+    System.out.println(
+        "The minimized test suite fails differently when run as a whole."
+            + " Minimizing again, running the whole test suite for each candidate.");
+    return null;
+  }
+
+  /**
+   * Visit and minimize every JUnit test method within a compilation unit.
+   *
+   * @param compilationUnit the compilation unit to minimize; is modified by side effect
+   * @param oracle determines whether a candidate fails in the same way as the original test suite
+   * @throws IOException thrown if minimized method can't be written to file
+   */
+  private static void minimizeTestSuite(CompilationUnit compilationUnit, FailureOracle oracle)
       throws IOException {
     System.out.println("Minimizing test suite.");
 
@@ -396,14 +494,7 @@ public class Minimize extends CommandHandler {
 
           // Minimize the method only if it is a JUnit test method.
           if (isTestMethod(method)) {
-            minimizeMethod(
-                method,
-                compilationUnit,
-                packageName,
-                file,
-                classpath,
-                expectedOutput,
-                timeoutLimit);
+            minimizeMethod(method, compilationUnit, oracle, false);
             printProgress(++numberOfMinimizedTests, numberOfTestMethods, method.getName());
           }
         }
@@ -417,7 +508,7 @@ public class Minimize extends CommandHandler {
    * @param methodDeclaration the method declaration to check
    * @return true if the method is a JUnit test method
    */
-  private static boolean isTestMethod(MethodDeclaration methodDeclaration) {
+  static boolean isTestMethod(MethodDeclaration methodDeclaration) {
     // Iterate through the method's annotations and check for the test
     // annotation.
     for (AnnotationExpr annotationExpr : methodDeclaration.getAnnotations()) {
@@ -435,21 +526,16 @@ public class Minimize extends CommandHandler {
    * @param method the method to minimize; is modified by side effect
    * @param compilationUnit compilation unit for the Java file that we are minimizing; is modified
    *     by side effect
-   * @param packageName the package that the Java file is in
-   * @param file the Java file that is being minimized; is modified by side effect
-   * @param classpath classpath needed to compile and run the Java file
-   * @param expectedOutput expected output from running the JUnit test suite
-   * @param timeoutLimit number of seconds allowed for the whole test suite to run
+   * @param oracle determines whether a candidate fails in the same way as the original test suite
+   * @param removeChunks if true, first remove chunks of statements, by {@link
+   *     #removeStatementChunks}
    * @throws IOException thrown if write to file fails
    */
-  private static void minimizeMethod(
+  static void minimizeMethod(
       MethodDeclaration method,
       CompilationUnit compilationUnit,
-      String packageName,
-      Path file,
-      String classpath,
-      Map<String, String> expectedOutput,
-      int timeoutLimit)
+      FailureOracle oracle,
+      boolean removeChunks)
       throws IOException {
     Optional<BlockStmt> oBlockStmt = method.getBody();
     if (!oBlockStmt.isPresent()) {
@@ -466,6 +552,11 @@ public class Minimize extends CommandHandler {
     Set<String> primitiveAndWrappedTypes = new HashSet<>();
     new PrimitiveAndWrappedTypeVarNameCollector().visit(compilationUnit, primitiveAndWrappedTypes);
 
+    if (removeChunks) {
+      removeStatementChunks(
+          body, compilationUnit, oracle, primitiveValues, primitiveAndWrappedTypes);
+    }
+
     // Iterate through the list of statements, from last to first.
     for (int i = statements.size() - 1; i >= 0; i--) {
       Statement currStmt = statements.get(i);
@@ -488,9 +579,8 @@ public class Minimize extends CommandHandler {
           statements.add(i, stmt);
         }
 
-        // Write, compile, and run the new Java file.
-        writeToFile(compilationUnit, file);
-        if (checkCorrectlyMinimized(file, classpath, packageName, expectedOutput, timeoutLimit)) {
+        // Compile and run the new Java file.
+        if (oracle.failsAsExpected(compilationUnit)) {
           // No compilation or runtime issues, obtained output is the same as the expected output.
           // Use simplification of this statement and continue with next statement.
           replacementFound = true;
@@ -520,6 +610,90 @@ public class Minimize extends CommandHandler {
     }
   }
 
+  /**
+   * Removes statements from a method body by delta debugging. Splits the statements into n chunks,
+   * starting with n = 2, and tries to remove each chunk, last chunk first. When no chunk can be
+   * removed, doubles n, until each chunk is a single statement. Removing many statements at once
+   * needs far fewer compilations and runs than removing statements one at a time.
+   *
+   * @param body the method body to minimize; is modified by side effect
+   * @param compilationUnit compilation unit for the Java file that we are minimizing
+   * @param oracle determines whether a candidate fails in the same way as the original test suite
+   * @param primitiveValues a map of variable names to variable values; modified for each removed
+   *     passing assertion, as by {@link #storeValueFromAssertion}
+   * @param primitiveAndWrappedTypeVars set containing the names of all primitive and wrapped type
+   *     variables
+   * @throws IOException thrown if write to file fails
+   */
+  static void removeStatementChunks(
+      BlockStmt body,
+      CompilationUnit compilationUnit,
+      FailureOracle oracle,
+      Map<String, String> primitiveValues,
+      Set<String> primitiveAndWrappedTypeVars)
+      throws IOException {
+    NodeList<Statement> statements = body.getStatements();
+    List<Statement> original = new ArrayList<>(statements);
+
+    // Orphan comments are found by position, so find them before removing any statement.
+    Map<Statement, List<Comment>> orphanComments = new IdentityHashMap<>();
+    for (Statement stmt : original) {
+      List<Comment> comments = new ArrayList<>(1);
+      getOrphanCommentsBeforeThisChildNode(stmt, comments);
+      orphanComments.put(stmt, comments);
+    }
+
+    List<Statement> current = original;
+    int numChunks = 2;
+    while (!current.isEmpty()) {
+      numChunks = Math.min(numChunks, current.size());
+      boolean removed = false;
+      for (int i = numChunks - 1; i >= 0 && !removed; i--) {
+        int from = i * current.size() / numChunks;
+        int to = (i + 1) * current.size() / numChunks;
+        List<Statement> candidate = new ArrayList<>(current.subList(0, from));
+        candidate.addAll(current.subList(to, current.size()));
+        setStatements(statements, candidate);
+        if (oracle.failsAsExpected(compilationUnit)) {
+          current = candidate;
+          numChunks = Math.max(numChunks - 1, 2);
+          removed = true;
+        }
+      }
+      if (!removed) {
+        if (numChunks >= current.size()) {
+          break;
+        }
+        numChunks = Math.min(numChunks * 2, current.size());
+      }
+    }
+    setStatements(statements, current);
+
+    // Handle the removed statements from last to first, as minimizeMethod does.
+    Set<Statement> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+    kept.addAll(current);
+    for (int i = original.size() - 1; i >= 0; i--) {
+      Statement stmt = original.get(i);
+      if (!kept.contains(stmt)) {
+        storeValueFromAssertion(stmt, primitiveValues, primitiveAndWrappedTypeVars);
+        for (Comment oc : orphanComments.get(stmt)) {
+          body.removeOrphanComment(oc);
+        }
+      }
+    }
+  }
+
+  /**
+   * Replaces the statements in a list.
+   *
+   * @param statements the list of statements; is modified by side effect
+   * @param replacement the new statements
+   */
+  private static void setStatements(NodeList<Statement> statements, List<Statement> replacement) {
+    statements.clear();
+    statements.addAll(replacement);
+  }
+
   /**
    * If {@code currStmt} is an assertion about a primitive value, store the value associated with
    * the variable in the {@code primitiveValues} map.
@@ -881,23 +1055,13 @@ public class Minimize extends CommandHandler {
    *
    * @param compilationUnit compilation unit containing an AST for a Java file, the compilation unit
    *     will be modified if a correct minimization of the method is found
-   * @param packageName the package that the Java file is in
-   * @param file the Java file to simplify; is modified by side effect
-   * @param classpath classpath needed to compile and run the Java file
-   * @param expectedOutput expected standard output from running the JUnit test suite
-   * @param timeoutLimit number of seconds allowed for the whole test suite to run
+   * @param oracle determines whether a candidate fails in the same way as the original test suite
    * @param verboseOutput whether or not to output information about minimization status
    * @return {@code CompilationUnit} with fully-qualified type names simplified to simple type names
    * @throws IOException thrown if write to file fails
    */
   private static CompilationUnit simplifyTypeNames(
-      CompilationUnit compilationUnit,
-      String packageName,
-      Path file,
-      String classpath,
-      Map<String, String> expectedOutput,
-      int timeoutLimit,
-      boolean verboseOutput)
+      CompilationUnit compilationUnit, FailureOracle oracle, boolean verboseOutput)
       throws IOException {
     if (verboseOutput) {
       System.out.println("Adding imports and simplifying type names.");
@@ -929,8 +1093,7 @@ public class Minimize extends CommandHandler {
       new FieldAccessTypeNameSimplifyVisitor().visit(compUnitWithSimpleTypeNames, type);
 
       // Check that the simplification is correct.
-      writeToFile(compUnitWithSimpleTypeNames, file);
-      if (checkCorrectlyMinimized(file, classpath, packageName, expectedOutput, timeoutLimit)) {
+      if (oracle.failsAsExpected(compUnitWithSimpleTypeNames)) {
         result = compUnitWithSimpleTypeNames;
       }
     }
@@ -1292,6 +1455,19 @@ public class Minimize extends CommandHandler {
     compilationUnit.setImports(imports);
   }
 
+  /** Determines whether a candidate test suite fails in the same way as the original test suite. */
+  @FunctionalInterface
+  interface FailureOracle {
+    /**
+     * Returns true if the test suite compiles and fails in the same way as the original test suite.
+     *
+     * @param compilationUnit the candidate test suite
+     * @return true if the test suite compiles and fails in the same way as the original
+     * @throws IOException if the test suite cannot be written to a file
+     */
+    boolean failsAsExpected(CompilationUnit compilationUnit) throws IOException;
+  }
+
   /**
    * Contains the command line, exit status, standard output, and standard error from running a
    * process.
@@ -1455,7 +1631,7 @@ public class Minimize extends CommandHandler {
    * @param totalTests the total number of tests in the input test suite
    * @param testName the current test method being minimized
    */
-  private static void printProgress(int currentTestIndex, int totalTests, SimpleName testName) {
+  static void printProgress(int currentTestIndex, int totalTests, SimpleName testName) {
     System.out.println(
         currentTestIndex + "/" + totalTests + " tests minimized, Minimized method: " + testName);
   }
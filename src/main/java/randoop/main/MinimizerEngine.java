@@ -0,0 +1,432 @@
+package randoop.main;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.plumelib.util.FilesPlume;
+import randoop.Globals;
+import randoop.compile.InMemoryCompiler;
+import randoop.execution.TestEnvironment;
+import randoop.execution.TestRunResult;
+
+/**
+ * Minimizes the test methods of a JUnit test suite concurrently, compiling candidates in memory.
+ *
+ * <p>Each test method is minimized in its own copy of the test class, from which the other test
+ * methods have been removed. A candidate is compiled in memory, and only the test method being
+ * minimized is run. It runs in a long-lived JVM (see {@link TestEnvironment#runTestInRunner}) that
+ * loads the test class and the classes under test in a new class loader for every run, so that
+ * runs do not share the static state of the classes under test. A candidate is correct if the test
+ * method fails in the same way as it did when run the same way before minimization.
+ *
+ * <p>Running a test method alone can differ from running the whole test suite, for example if the
+ * test method depends on static state set by another test method. {@link Minimize} therefore
+ * checks the result of this engine by running the whole test suite in a new JVM.
+ *
+ * <p>If a test calls {@code System.exit}, does not finish within the time limit, or cannot be run
+ * in a long-lived JVM, that JVM is stopped and the engine stops running tests: {@link
+ * #minimizeTestSuite} returns null, and {@link Minimize} runs each candidate in a new JVM instead.
+ */
+final class MinimizerEngine implements AutoCloseable {
+
+  /** The outcome of a run in which the test method passed. */
+  private static final String PASSED = "";
+
+  /** The simple name of the test class. */
+  private final String className;
+
+  /** The fully-qualified name of the test class. */
+  private final String qualifiedClassName;
+
+  /** The options with which the test class is compiled. */
+  private final List<String> compilerOptions;
+
+  /** The long-lived JVMs that run the tests. */
+  private final TestEnvironment testEnvironment;
+
+  /** The directory in which the class files of each candidate are written for a run. */
+  private final Path classesRoot;
+
+  /** The threads that minimize test methods. */
+  private final ExecutorService executor;
+
+  /** The compiler of each thread. A compiler can run only one compilation at a time. */
+  private final ThreadLocal<InMemoryCompiler> compiler;
+
+  /** All the compilers that have been created, so that they can be closed. */
+  private final List<InMemoryCompiler> compilers = Collections.synchronizedList(new ArrayList<>());
+
+  /**
+   * The outcome of running each test method before minimization: {@link #PASSED} or a normalized
+   * description of its failure.
+   */
+  private final Map<String, String> expectedOutcomes = new ConcurrentHashMap<>();
+
+  /**
+   * True if a test called {@code System.exit}, timed out, or could not be run. Then no more tests
+   * are run, because the results of this engine would not match those of running the tests in a
+   * new JVM.
+   */
+  private volatile boolean stoppedRunning = false;
+
+  /**
+   * Creates an engine for the given test class.
+   *
+   * @param packageName the package of the test class, or null for the default package
+   * @param className the simple name of the test class
+   * @param sourceRoot the directory that contains the source file of the test class, or the
+   *     directory for its outermost package if the test class is in a package
+   * @param userClasspath the classpath needed to compile and run the test class, or null
+   * @param timeoutLimit number of seconds allowed for a test method to run
+   * @param threads the number of test methods to minimize concurrently
+   * @throws IOException if the directory for class files cannot be created
+   */
+  MinimizerEngine(
+      @Nullable String packageName,
+      String className,
+      Path sourceRoot,
+      @Nullable String userClasspath,
+      int timeoutLimit,
+      int threads)
+      throws IOException {
+    this.className = className;
+    this.qualifiedClassName = packageName == null ? className : packageName + "." + className;
+
+    List<String> classpathElements = new ArrayList<>();
+    classpathElements.add(".");
+    classpathElements.add(sourceRoot.toString());
+    if (userClasspath != null) {
+      classpathElements.addAll(Arrays.asList(userClasspath.split(File.pathSeparator)));
+    }
+    this.compilerOptions =
+        Arrays.asList("-classpath", String.join(File.pathSeparator, classpathElements));
+
+    // The long-lived JVMs run in other directories, so their classpath is absolute. Randoop's
+    // classpath provides the server that runs the tests, and JUnit if the user's classpath does
+    // not.
+    List<String> runClasspath = new ArrayList<>(classpathElements.size() + 1);
+    for (String element : classpathElements) {
+      runClasspath.add(
+          element.isEmpty() ? element : Paths.get(element).toAbsolutePath().toString());
+    }
+    runClasspath.add(System.getProperty("java.class.path"));
+    this.testEnvironment = new TestEnvironment(String.join(File.pathSeparator, runClasspath));
+    this.testEnvironment.setTimeoutMillis(timeoutLimit * 1000L);
+    this.classesRoot = Files.createTempDirectory("randoop-minimizer");
+
+    this.executor = Executors.newFixedThreadPool(threads);
+    this.compiler =
+        ThreadLocal.withInitial(
+            () -> {
+              InMemoryCompiler result = new InMemoryCompiler(compilerOptions);
+              compilers.add(result);
+              return result;
+            });
+  }
+
+  /**
+   * Minimizes every test method of a test suite.
+   *
+   * @param compilationUnit the test suite; is not modified
+   * @return a copy of the test suite in which each test method has been minimized, or null if a
+   *     test called {@code System.exit}, timed out, or could not be run
+   * @throws IOException if a test method cannot be minimized
+   */
+  @Nullable CompilationUnit minimizeTestSuite(CompilationUnit compilationUnit) throws IOException {
+    System.out.println("Minimizing test suite.");
+
+    String source = compilationUnit.toString();
+    CompilationUnit result = parse(source);
+    List<MethodDeclaration> testMethods = getTestMethods(result);
+
+    List<Future<Optional<BlockStmt>>> minimizedBodies = new ArrayList<>(testMethods.size());
+    for (MethodDeclaration testMethod : testMethods) {
+      String methodName = testMethod.getNameAsString();
+      minimizedBodies.add(executor.submit(() -> minimizeTestMethod(source, methodName)));
+    }
+
+    for (int i = 0; i < testMethods.size(); i++) {
+      MethodDeclaration testMethod = testMethods.get(i);
+      Optional<BlockStmt> body;
+      try {
+        body = minimizedBodies.get(i).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while minimizing " + testMethod.getName(), e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof StoppedRunningException) {
+          return null;
+        } else if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        } else if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RandoopBug("Error minimizing " + testMethod.getName(), e.getCause());
+      }
+      if (body.isPresent()) {
+        testMethod.setBody(body.get());
+      }
+      Minimize.printProgress(i + 1, testMethods.size(), testMethod.getName());
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if every test method of the test suite fails in the same way as it did before
+   * minimization. Each test method runs alone, as during minimization.
+   *
+   * @param compilationUnit the test suite
+   * @return true if the test suite compiles and its test methods fail as before
+   * @throws StoppedRunningException if a test called {@code System.exit}, timed out, or could not
+   *     be run
+   */
+  boolean failsAsExpected(CompilationUnit compilationUnit) {
+    Map<String, byte[]> classes = compile(compilationUnit);
+    if (classes == null) {
+      return false;
+    }
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (MethodDeclaration testMethod : getTestMethods(compilationUnit)) {
+      String methodName = testMethod.getNameAsString();
+      String expected = expectedOutcomes.get(methodName);
+      if (expected != null) {
+        results.add(executor.submit(() -> expected.equals(runTestMethod(classes, methodName))));
+      }
+    }
+    try {
+      for (Future<Boolean> result : results) {
+        if (!result.get()) {
+          return false;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof StoppedRunningException) {
+        throw (StoppedRunningException) e.getCause();
+      }
+      throw new RandoopBug("Error running minimized test suite", e.getCause());
+    }
+    return true;
+  }
+
+  /**
+   * Minimizes one test method. Runs on a thread of {@link #executor}.
+   *
+   * @param source the source code of the test suite
+   * @param methodName the name of the test method to minimize
+   * @return the minimized body of the test method, or empty if the test method cannot be minimized
+   *     by running it alone
+   * @throws IOException if the test method cannot be minimized
+   * @throws StoppedRunningException if a test called {@code System.exit}, timed out, or could not
+   *     be run
+   */
+  private Optional<BlockStmt> minimizeTestMethod(String source, String methodName)
+      throws IOException {
+    CompilationUnit compilationUnit = parse(source);
+    MethodDeclaration method = null;
+    for (MethodDeclaration testMethod : getTestMethods(compilationUnit)) {
+      if (testMethod.getNameAsString().equals(methodName)) {
+        method = testMethod;
+      } else {
+        testMethod.remove();
+      }
+    }
+    if (method == null) {
+      throw new RandoopBug("Test method " + methodName + " not found");
+    }
+
+    String expected = run(compilationUnit, methodName);
+    if (expected == null) {
+      return Optional.empty();
+    }
+    expectedOutcomes.put(methodName, expected);
+
+    Minimize.minimizeMethod(
+        method, compilationUnit, cu -> expected.equals(run(cu, methodName)), true);
+    return method.getBody();
+  }
+
+  /**
+   * Compiles a test suite and runs one of its test methods.
+   *
+   * @param compilationUnit the test suite
+   * @param methodName the test method to run
+   * @return the outcome of the run, or null if the test suite does not compile
+   */
+  private @Nullable String run(CompilationUnit compilationUnit, String methodName) {
+    Map<String, byte[]> classes = compile(compilationUnit);
+    if (classes == null) {
+      return null;
+    }
+    return runTestMethod(classes, methodName);
+  }
+
+  /**
+   * Compiles a test suite in memory.
+   *
+   * @param compilationUnit the test suite
+   * @return the class files of the test suite, or null if it does not compile
+   */
+  private @Nullable Map<String, byte[]> compile(CompilationUnit compilationUnit) {
+    return compiler.get().compile(className, compilationUnit.toString());
+  }
+
+  /**
+   * Runs a test method in a long-lived JVM.
+   *
+   * @param classes the class files of the test suite
+   * @param methodName the test method to run
+   * @return {@link #PASSED}, or a description of the failure, without line numbers and without the
+   *     stack frames below the test method
+   * @throws StoppedRunningException if this or an earlier test called {@code System.exit}, timed
+   *     out, or could not be run
+   */
+  private String runTestMethod(Map<String, byte[]> classes, String methodName) {
+    if (stoppedRunning) {
+      throw new StoppedRunningException();
+    }
+    Path classesDirectory = null;
+    try {
+      classesDirectory = Files.createTempDirectory(classesRoot, methodName);
+      for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+        Path classFile = classesDirectory.resolve(entry.getKey().replace('.', '/') + ".class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, entry.getValue());
+      }
+      // A null result means that the JVM exited, for example because the test called
+      // System.exit, or that the test class could not be run.
+      TestRunResult result =
+          testEnvironment.runTestInRunner(
+              qualifiedClassName, classesDirectory, Collections.singletonList(methodName));
+      if (result == null || result.timedOut) {
+        stoppedRunning = true;
+        throw new StoppedRunningException();
+      }
+      return normalizeFailures(result.failures, methodName);
+    } catch (IOException e) {
+      stoppedRunning = true;
+      throw new StoppedRunningException();
+    } finally {
+      if (classesDirectory != null) {
+        FilesPlume.deleteDir(classesDirectory.toFile());
+      }
+    }
+  }
+
+  /**
+   * Describes the failures of a test method, in the way that {@link Minimize} normalizes the
+   * output of JUnit: line numbers are removed. The stack frames below the test method, which
+   * belong to the test runner, are also removed.
+   *
+   * @param failures the failures of a run of a test method
+   * @param methodName the test method
+   * @return {@link #PASSED} if there are no failures, otherwise a description of the failures
+   */
+  private String normalizeFailures(List<TestRunResult.Failure> failures, String methodName) {
+    if (failures.isEmpty()) {
+      return PASSED;
+    }
+    String testMethodFrame = "at " + qualifiedClassName + "." + methodName + "(";
+    StringBuilder result = new StringBuilder();
+    for (TestRunResult.Failure failure : failures) {
+      String trace = failure.trace == null ? failure.header : failure.trace;
+      for (String line : trace.split("\\R")) {
+        int lParenIndex = line.indexOf('(');
+        result.append(lParenIndex >= 0 ? line.substring(0, lParenIndex) : line);
+        result.append(Globals.lineSep);
+        if (line.trim().startsWith(testMethodFrame)) {
+          break;
+        }
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Parses a test suite.
+   *
+   * @param source the source code of the test suite
+   * @return the parsed test suite
+   */
+  private static CompilationUnit parse(String source) {
+    // A JavaParser must not be used by several threads at once.
+    ParseResult<CompilationUnit> parseResult = new JavaParser().parse(source);
+    if (!parseResult.isSuccessful() || !parseResult.getResult().isPresent()) {
+      throw new RandoopBug("Cannot parse test suite: " + parseResult.getProblems());
+    }
+    return parseResult.getResult().get();
+  }
+
+  /**
+   * Returns the test methods of a test suite.
+   *
+   * @param compilationUnit the test suite
+   * @return the test methods, in order
+   */
+  private static List<MethodDeclaration> getTestMethods(CompilationUnit compilationUnit) {
+    List<MethodDeclaration> result = new ArrayList<>();
+    for (TypeDeclaration<?> type : compilationUnit.getTypes()) {
+      for (BodyDeclaration<?> member : type.getMembers()) {
+        if (member instanceof MethodDeclaration
+            && Minimize.isTestMethod((MethodDeclaration) member)) {
+          result.add((MethodDeclaration) member);
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Stops the threads, the long-lived JVMs, and the compilers, and deletes the class files. */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    testEnvironment.close();
+    synchronized (compilers) {
+      for (InMemoryCompiler c : compilers) {
+        try {
+          c.close();
+        } catch (IOException e) {
+          // Nothing to do.
+        }
+      }
+    }
+    FilesPlume.deleteDir(classesRoot.toFile());
+  }
+
+  /**
+   * Thrown when a test calls {@code System.exit}, times out, or cannot be run, so that no more
+   * tests are run.
+   */
+  static final class StoppedRunningException extends RuntimeException {
+
+    private static final long serialVersionUID = 20261015;
+
+    /** Creates a {@code StoppedRunningException}. */
+    StoppedRunningException() {
+      super("A test called System.exit, timed out, or could not be run in a test JVM");
+    }
+  }
+}
@@ -0,0 +1,393 @@
+package randoop.main;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.generation.OperationHistoryLogInterface;
+import randoop.generation.OperationOutcome;
+import randoop.generation.OutputSequenceSink;
+import randoop.output.CodeWriter;
+import randoop.output.FailingAssertionCommentWriter;
+import randoop.output.JUnitCreator;
+import randoop.output.NameGenerator;
+import randoop.output.RandoopOutputException;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+
+/**
+ * Writes test classes while tests are being generated. This implements {@link
+ * GenInputsAbstract#stream_tests}.
+ *
+ * <p>The generator passes each output sequence to this writer as soon as it is classified. When
+ * enough sequences have accumulated for a class of {@link GenInputsAbstract#testsperfile} tests,
+ * the class is rendered to source code on the generator's thread, and is then written by a
+ * background thread. Writing a regression test class with a {@link FailingAssertionCommentWriter}
+ * compiles and runs the class, so the background thread lets that work overlap with generation. At
+ * most {@link #MAX_PENDING_WRITES} classes wait to be written; beyond that, generation waits.
+ *
+ * <p>A regression sequence that is a component of a later regression sequence is subsumed by it and
+ * is not output. To catch most subsumed sequences, regression sequences are held in a window of up
+ * to twice {@code testsperfile} sequences, and a sequence is dropped from the window when a
+ * sequence that subsumes it arrives. When the window is full, its oldest {@code testsperfile}
+ * sequences are written. A sequence that has already been written is never dropped.
+ *
+ * <p>Error-revealing sequences are not subject to subsumption, so they are written as soon as there
+ * are enough of them for a class.
+ */
+final class StreamingTestWriter implements OutputSequenceSink {
+
+  /** The maximum number of rendered classes that may wait for the background thread. */
+  private static final int MAX_PENDING_WRITES = 2;
+
+  /** Creates the source code of the test classes. Used only on the generator's thread. */
+  private final JUnitCreator junitCreator;
+
+  /** The error-revealing tests, or null if they are not output. */
+  private final @Nullable TestFiles errorTests;
+
+  /** The regression tests, or null if they are not output. */
+  private final @Nullable TestFiles regressionTests;
+
+  /**
+   * The writer of the regression tests, which detects flaky tests; null if regression tests are not
+   * output.
+   */
+  private final @Nullable FailingAssertionCommentWriter regressionWriter;
+
+  /** Records which sequences were output and which were subsumed. */
+  private final OperationHistoryLogInterface operationHistory;
+
+  /**
+   * Returns the sequences to keep among the given ones, in order. Applied to each class's worth of
+   * sequences before it is rendered; for example, it can discard sequences that do not compile.
+   */
+  private final UnaryOperator<List<ExecutableSequence>> filter;
+
+  /** Called, on the generator's thread, with each class's worth of regression sequences. */
+  private final Consumer<List<ExecutableSequence>> regressionClassListener;
+
+  /**
+   * Regression sequences that have not been written yet, in the order that they were generated.
+   * Each is the value of its own underlying {@link Sequence}.
+   */
+  private final LinkedHashMap<Sequence, ExecutableSequence> pendingRegressionSeqs =
+      new LinkedHashMap<>();
+
+  /** Error-revealing sequences that have not been written yet. */
+  private final List<ExecutableSequence> pendingErrorSeqs = new ArrayList<>();
+
+  /** The regression sequences whose tests were found to be flaky. Accessed only under its lock. */
+  private final List<ExecutableSequence> flakySequences = new ArrayList<>();
+
+  /** The background thread that writes the test classes. */
+  private final ExecutorService writerThread =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "randoop.main.StreamingTestWriter");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** The writes that have been submitted to {@link #writerThread}, oldest first. */
+  private final Deque<Future<?>> pendingWrites = new ArrayDeque<>();
+
+  /**
+   * Creates a writer.
+   *
+   * @param junitCreator creates the source code of the test classes
+   * @param errorWriter writes the error-revealing test classes, or null if they are not output
+   * @param regressionWriter writes the regression test classes, or null if they are not output
+   * @param maxTests the maximum number of tests of either kind; test method names are zero-padded
+   *     to the width of this number, so that they sort in the order of generation
+   * @param operationHistory records which sequences were output and which were subsumed
+   * @param filter returns the sequences to keep among the given ones, in order
+   * @param regressionClassListener called with each class's worth of regression sequences
+   */
+  StreamingTestWriter(
+      JUnitCreator junitCreator,
+      @Nullable CodeWriter errorWriter,
+      @Nullable FailingAssertionCommentWriter regressionWriter,
+      int maxTests,
+      OperationHistoryLogInterface operationHistory,
+      UnaryOperator<List<ExecutableSequence>> filter,
+      Consumer<List<ExecutableSequence>> regressionClassListener) {
+    this.junitCreator = junitCreator;
+    this.errorTests =
+        (errorWriter == null)
+            ? null
+            : new TestFiles(
+                GenInputsAbstract.error_test_basename, "Error-revealing", errorWriter, maxTests);
+    this.regressionTests =
+        (regressionWriter == null)
+            ? null
+            : new TestFiles(
+                GenInputsAbstract.regression_test_basename,
+                "Regression",
+                regressionWriter,
+                maxTests);
+    this.regressionWriter = regressionWriter;
+    this.operationHistory = operationHistory;
+    this.filter = filter;
+    this.regressionClassListener = regressionClassListener;
+  }
+
+  @Override
+  public void addErrorSequence(ExecutableSequence eSeq) {
+    if (errorTests == null) {
+      return;
+    }
+    pendingErrorSeqs.add(eSeq);
+    if (pendingErrorSeqs.size() >= GenInputsAbstract.testsperfile) {
+      List<ExecutableSequence> classSeqs = new ArrayList<>(pendingErrorSeqs);
+      pendingErrorSeqs.clear();
+      writeClass(errorTests, classSeqs);
+    }
+  }
+
+  @Override
+  public void addRegressionSequence(ExecutableSequence eSeq) {
+    if (regressionTests == null) {
+      return;
+    }
+    for (Sequence component : eSeq.componentSequences) {
+      ExecutableSequence subsumed = pendingRegressionSeqs.remove(component);
+      if (subsumed != null) {
+        operationHistory.add(subsumed.getOperation(), OperationOutcome.SUBSUMED);
+      }
+    }
+    pendingRegressionSeqs.put(eSeq.sequence, eSeq);
+    if (pendingRegressionSeqs.size() >= 2 * GenInputsAbstract.testsperfile) {
+      writePendingRegressionSequences(GenInputsAbstract.testsperfile);
+    }
+  }
+
+  /**
+   * Writes the oldest pending regression sequences as one class.
+   *
+   * @param count how many sequences to write
+   */
+  private void writePendingRegressionSequences(int count) {
+    List<ExecutableSequence> classSeqs = new ArrayList<>(count);
+    Iterator<ExecutableSequence> iterator = pendingRegressionSeqs.values().iterator();
+    while (classSeqs.size() < count && iterator.hasNext()) {
+      classSeqs.add(iterator.next());
+      iterator.remove();
+    }
+    writeClass(regressionTests, classSeqs);
+  }
+
+  /**
+   * Renders one class of tests and submits it to the background thread.
+   *
+   * @param files the kind of tests
+   * @param sequences the sequences for the class
+   */
+  private void writeClass(TestFiles files, List<ExecutableSequence> sequences) {
+    List<ExecutableSequence> classSeqs = filter.apply(sequences);
+    if (classSeqs.isEmpty()) {
+      return;
+    }
+    if (files == regressionTests) {
+      for (ExecutableSequence eSeq : classSeqs) {
+        operationHistory.add(eSeq.getOperation(), OperationOutcome.REGRESSION_SEQUENCE);
+      }
+      regressionClassListener.accept(classSeqs);
+    }
+
+    int firstTestNumber = files.numTests + 1;
+    String className = files.classNamePrefix + files.testClasses.size();
+    String classSource =
+        junitCreator.createTestClassSource(className, files.methodNameGenerator, classSeqs);
+    files.testClasses.add(className);
+    files.numTests += classSeqs.size();
+
+    awaitWrites(MAX_PENDING_WRITES - 1);
+    pendingWrites.add(
+        writerThread.submit(
+            () -> {
+              Path testFile;
+              try {
+                testFile =
+                    files.codeWriter.writeClassCode(
+                        GenInputsAbstract.junit_package_name, className, classSource);
+              } catch (RandoopOutputException e) {
+                System.out.printf(
+                    "%nError writing %s tests%n", files.testKind.toLowerCase(Locale.getDefault()));
+                e.printStackTrace(System.out);
+                System.exit(1);
+                throw new Error("This can't happen");
+              }
+              if (GenInputsAbstract.progressdisplay) {
+                System.out.printf("Created file %s%n", testFile.toAbsolutePath());
+              }
+              if (files == regressionTests) {
+                recordFlakySequences(classSeqs, firstTestNumber);
+              }
+              return null;
+            }));
+  }
+
+  /**
+   * Records the sequences of the given class whose tests were found to be flaky. Called on the
+   * background thread, after the class has been written.
+   *
+   * @param classSeqs the sequences of the class
+   * @param firstTestNumber the number of the test method for the first sequence
+   */
+  private void recordFlakySequences(List<ExecutableSequence> classSeqs, int firstTestNumber) {
+    for (String testName : regressionWriter.getFlakyTestNames()) {
+      int testNum =
+          Integer.parseInt(testName.substring(GenTests.TEST_METHOD_NAME_PREFIX.length()));
+      int index = testNum - firstTestNumber;
+      if (index >= 0 && index < classSeqs.size()) {
+        synchronized (flakySequences) {
+          flakySequences.add(classSeqs.get(index));
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits until at most the given number of writes are pending. A write that cannot write its
+   * file exits, on the background thread.
+   *
+   * @param maxPending the number of writes that may remain pending
+   */
+  private void awaitWrites(int maxPending) {
+    while (pendingWrites.size() > maxPending) {
+      Future<?> write = pendingWrites.remove();
+      try {
+        write.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RandoopBug("Interrupted while writing tests", e);
+      } catch (ExecutionException e) {
+        throw new RandoopBug("Error writing tests", e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Writes the remaining tests, waits for all classes to be written, and writes the test suite or
+   * driver class of each kind of tests.
+   */
+  void finish() {
+    if (errorTests != null && !pendingErrorSeqs.isEmpty()) {
+      List<ExecutableSequence> classSeqs = new ArrayList<>(pendingErrorSeqs);
+      pendingErrorSeqs.clear();
+      writeClass(errorTests, classSeqs);
+    }
+    while (!pendingRegressionSeqs.isEmpty()) {
+      writePendingRegressionSequences(GenInputsAbstract.testsperfile);
+    }
+    awaitWrites(0);
+    writerThread.shutdown();
+
+    if (errorTests != null) {
+      errorTests.writeSuite();
+    }
+    if (regressionTests != null) {
+      regressionTests.writeSuite();
+    }
+  }
+
+  /**
+   * Returns the regression sequences whose tests were found to be flaky. Call only after {@link
+   * #finish}.
+   *
+   * @return the flaky regression sequences
+   */
+  List<ExecutableSequence> getFlakySequences() {
+    synchronized (flakySequences) {
+      return new ArrayList<>(flakySequences);
+    }
+  }
+
+  /** The test classes of one kind (error-revealing or regression). */
+  private final class TestFiles {
+
+    /** The prefix of the class names; a class name is this prefix followed by a number. */
+    final String classNamePrefix;
+
+    /** The kind of tests, for diagnostic messages. */
+    final String testKind;
+
+    /** Writes the test classes. Used only on the background thread, until {@link #finish}. */
+    final CodeWriter codeWriter;
+
+    /** Generates the names of the test methods, which are numbered across all classes. */
+    final NameGenerator methodNameGenerator;
+
+    /** The width to which test method numbers are padded. */
+    final int maxTests;
+
+    /** The names of the classes that have been rendered. */
+    final List<String> testClasses = new ArrayList<>();
+
+    /** The number of tests that have been rendered. */
+    int numTests = 0;
+
+    /**
+     * Creates the test classes of one kind.
+     *
+     * @param classNamePrefix the prefix of the class names
+     * @param testKind the kind of tests, for diagnostic messages
+     * @param codeWriter writes the test classes
+     * @param maxTests the maximum number of tests, which determines the width of test numbers
+     */
+    TestFiles(String classNamePrefix, String testKind, CodeWriter codeWriter, int maxTests) {
+      this.classNamePrefix = classNamePrefix;
+      this.testKind = testKind;
+      this.codeWriter = codeWriter;
+      this.maxTests = maxTests;
+      this.methodNameGenerator =
+          new NameGenerator(GenTests.TEST_METHOD_NAME_PREFIX, 1, maxTests);
+    }
+
+    /** Writes the test suite or driver class, after all test classes have been written. */
+    void writeSuite() {
+      String kind = testKind.toLowerCase(Locale.getDefault());
+      if (numTests == 0) {
+        if (GenInputsAbstract.progressdisplay) {
+          System.out.printf("%nNo " + kind + " tests to output.%n");
+        }
+        return;
+      }
+      String driverName;
+      String classSource;
+      if (GenInputsAbstract.junit_reflection_allowed) {
+        driverName = classNamePrefix;
+        classSource = junitCreator.createTestSuite(driverName, testClasses);
+      } else {
+        driverName = classNamePrefix + "Driver";
+        classSource = junitCreator.createTestDriver(driverName, testClasses, maxTests);
+      }
+      try {
+        Path suiteFile =
+            codeWriter.writeUnmodifiedClassCode(
+                GenInputsAbstract.junit_package_name, driverName, classSource);
+        if (GenInputsAbstract.progressdisplay) {
+          System.out.printf("%s test count: %d%n", testKind, numTests);
+          System.out.printf("Created file %s%n", suiteFile.toAbsolutePath());
+        }
+      } catch (RandoopOutputException e) {
+        System.out.printf("%nError writing %s tests%n", kind);
+        e.printStackTrace(System.out);
+        System.exit(1);
+      }
+    }
+  }
+}
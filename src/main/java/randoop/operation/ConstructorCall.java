@@ -5,6 +5,7 @@ import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
 import java.util.StringJoiner;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
 import randoop.reflection.ReflectionPredicate;
@@ -13,6 +14,7 @@ import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
 import randoop.types.TypeTuple;
 import randoop.util.ConstructorReflectionCode;
+import randoop.util.DirectInvoker;
 import randoop.util.ReflectionExecutor;
 import randoop.util.Util;
 
@@ -28,6 +30,9 @@ public final class ConstructorCall extends CallableOperation {
 
   private final Constructor<?> constructor;
 
+  /** Invokes {@link #constructor} without reflection; created by the first execution. */
+  private volatile @Nullable DirectInvoker invoker = null;
+
   // Cached values (for improved performance). Their values
   // are computed upon the first invocation of the respective
   // getter method.
@@ -169,8 +174,13 @@ public final class ConstructorCall extends CallableOperation {
         return new ExceptionalExecution(new NullPointerException(message), 0);
       }
     }
+    DirectInvoker invoker = this.invoker;
+    if (invoker == null) {
+      invoker = DirectInvoker.forConstructor(constructor);
+      this.invoker = invoker;
+    }
     ConstructorReflectionCode code =
-        new ConstructorReflectionCode(this.constructor, statementInput);
+        new ConstructorReflectionCode(this.constructor, invoker, statementInput);
 
     return ReflectionExecutor.executeReflectionCode(code);
   }
@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.StringJoiner;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.util.StringsPlume;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
@@ -14,6 +15,7 @@ import randoop.reflection.ReflectionPredicate;
 import randoop.sequence.Variable;
 import randoop.types.Type;
 import randoop.types.TypeTuple;
+import randoop.util.DirectInvoker;
 import randoop.util.Log;
 import randoop.util.MethodReflectionCode;
 import randoop.util.ReflectionExecutor;
@@ -43,6 +45,9 @@ public final class MethodCall extends CallableOperation {
   /** True if the method is static. */
   private final boolean isStatic;
 
+  /** Invokes {@link #method} without reflection; created by the first execution. */
+  private volatile @Nullable DirectInvoker invoker = null;
+
   /**
    * getMethod returns Method object of this MethodCall.
    *
@@ -180,7 +185,12 @@ public final class MethodCall extends CallableOperation {
       }
     }
 
-    MethodReflectionCode code = new MethodReflectionCode(this.method, receiver, params);
+    DirectInvoker invoker = this.invoker;
+    if (invoker == null) {
+      invoker = DirectInvoker.forMethod(method);
+      this.invoker = invoker;
+    }
+    MethodReflectionCode code = new MethodReflectionCode(this.method, invoker, receiver, params);
 
     return ReflectionExecutor.executeReflectionCode(code);
   }
@@ -9,6 +9,8 @@ import static randoop.reflection.SignatureParser.ID_STRING;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -24,6 +26,7 @@ import org.plumelib.util.StringsPlume;
 import randoop.Globals;
 import randoop.compile.FileCompiler;
 import randoop.execution.TestEnvironment;
+import randoop.execution.TestRunResult;
 import randoop.generation.AbstractGenerator;
 import randoop.main.GenInputsAbstract;
 import randoop.main.GenTests;
@@ -40,12 +43,21 @@ import randoop.main.RandoopUsageError;
  *
  * <ul>
  *   <li>Writes the class.
- *   <li>Compiles and runs the tests in a new JVM to determine whether there are failing assertions.
+ *   <li>Compiles and runs the tests to determine whether there are failing assertions.
  *   <li>Replaces each failing assertion by a comment containing the code for the failing assertion.
  * </ul>
  *
  * Creates a clean temporary directory for each compilation/run of a test class to avoid state
  * effects due to files in the working directory.
+ *
+ * <p>If {@link GenInputsAbstract#flaky_test_jvms} is positive, the tests run in a long-lived JVM
+ * (see {@link TestEnvironment#runTestInRunner}); otherwise, each run starts a new JVM. With a
+ * long-lived JVM, after failing assertions are commented out, only the test methods that failed
+ * are rerun until they pass, and then the whole class is run once more to confirm. If the
+ * long-lived JVM cannot run a class, or reports a failure outside a test method, the run is
+ * repeated in a new JVM.
+ *
+ * <p>Several threads may write classes concurrently.
  */
 public class FailingAssertionCommentWriter implements CodeWriter {
 
@@ -82,7 +94,7 @@ public class FailingAssertionCommentWriter implements CodeWriter {
   private final JavaFileWriter javaFileWriter;
 
   /** Method names for flaky tests (e.g., "test005"). */
-  private final HashSet<String> flakyTestNames = new HashSet<>();
+  private final Set<String> flakyTestNames = Collections.synchronizedSet(new HashSet<>());
 
   /**
    * Create a {@link FailingAssertionCommentWriter}.
@@ -103,7 +115,9 @@ public class FailingAssertionCommentWriter implements CodeWriter {
    * @return the flaky test names
    */
   public Set<String> getFlakyTestNames() {
-    return new TreeSet<>(flakyTestNames);
+    synchronized (flakyTestNames) {
+      return new TreeSet<>(flakyTestNames);
+    }
   }
 
   /**
@@ -123,6 +137,8 @@ public class FailingAssertionCommentWriter implements CodeWriter {
 
     int iteration = 0; // Used to create unique working directory name.
     boolean passing = false; // true if all tests pass
+    // The test methods to run next, or null to run all of them.
+    Set<String> methodsToRun = null;
 
     while (!passing) {
       Path workingDirectory = createWorkingDirectory(classname, iteration);
@@ -145,33 +161,38 @@ public class FailingAssertionCommentWriter implements CodeWriter {
 
         // Run tests
 
-        Status status;
-        try {
-          status = testEnvironment.runTest(qualifiedClassname, workingDirectory);
-        } catch (CommandException e) {
-          throw new RandoopBug("Error filtering regression tests", e);
+        TestRunResult result = null;
+        if (GenInputsAbstract.flaky_test_jvms > 0) {
+          result =
+              testEnvironment.runTestInRunner(qualifiedClassname, workingDirectory, methodsToRun);
+          if (result != null && !isInTestMethods(result)) {
+            // Get the full diagnostics from a run in a new JVM.
+            result = null;
+          }
+        }
+        if (result == null) {
+          result = runTestInNewJvm(packageName, classname, classSource, workingDirectory);
+        }
+        if (result.timedOut) {
+          throw new Error("runTest timed out for class " + qualifiedClassname);
         }
 
-        if (status.exitStatus == 0) {
+        if (!result.failures.isEmpty()) {
+          classSource =
+              commentFailingAssertions(
+                  packageName, classname, classSource, result.failures, flakyTestNames);
+          methodsToRun = null;
+          if (GenInputsAbstract.flaky_test_jvms > 0) {
+            methodsToRun = new TreeSet<>();
+            for (TestRunResult.Failure failure : result.failures) {
+              methodsToRun.add(failure.methodName);
+            }
+          }
+        } else if (result.ranAllMethods) {
           passing = true;
-        } else if (status.timedOut) {
-          throw new Error("runTest timed out for class " + qualifiedClassname + ": " + status);
-        } else if (status.exitStatus == 137) {
-          System.out.printf(
-              "runTest exit status 137 in FailingAssertionCommentWriter.writeClassCode(%s, %s)%n",
-              packageName, classname);
-          System.out.printf("classSource:%n");
-          System.out.println(classSource);
-          throw new Error(
-              "runTest exit status 137 for class "
-                  + qualifiedClassname
-                  + ": "
-                  + status
-                  + "classSource: "
-                  + classSource);
         } else {
-          classSource =
-              commentFailingAssertions(packageName, classname, classSource, status, flakyTestNames);
+          // The methods that failed now pass; check that the others still do.
+          methodsToRun = null;
         }
       } finally {
         FilesPlume.deleteDir(workingDirectory.toFile());
@@ -181,6 +202,65 @@ public class FailingAssertionCommentWriter implements CodeWriter {
     return javaFileWriter.writeClassCode(packageName, classname, classSource);
   }
 
+  /**
+   * Returns true if every failure in the result occurred on a known line of a generated test
+   * method.
+   *
+   * @param result the result of running a test class
+   * @return true if every failure can be attributed to a line of a test method
+   */
+  private static boolean isInTestMethods(TestRunResult result) {
+    for (TestRunResult.Failure failure : result.failures) {
+      if (failure.lineNumber < 1
+          || !failure.methodName.matches(GenTests.TEST_METHOD_NAME_PREFIX + "\\d+")) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Runs a compiled test class in a new JVM, and reads the failures from its output.
+   *
+   * @param packageName the package name of the test class
+   * @param classname the simple (unqualified) name of the test class
+   * @param classSource the source code for the test class
+   * @param workingDirectory the directory that contains the compiled class
+   * @return the result of running the test class
+   */
+  private TestRunResult runTestInNewJvm(
+      String packageName, String classname, String classSource, Path workingDirectory) {
+    String qualifiedClassname = packageName == null ? classname : packageName + "." + classname;
+    Status status;
+    try {
+      status = testEnvironment.runTest(qualifiedClassname, workingDirectory);
+    } catch (CommandException e) {
+      throw new RandoopBug("Error filtering regression tests", e);
+    }
+
+    if (status.exitStatus == 0) {
+      return new TestRunResult(new ArrayList<>(), true, false);
+    } else if (status.timedOut) {
+      throw new Error("runTest timed out for class " + qualifiedClassname + ": " + status);
+    } else if (status.exitStatus == 137) {
+      System.out.printf(
+          "runTest exit status 137 in FailingAssertionCommentWriter.writeClassCode(%s, %s)%n",
+          packageName, classname);
+      System.out.printf("classSource:%n");
+      System.out.println(classSource);
+      throw new Error(
+          "runTest exit status 137 for class "
+              + qualifiedClassname
+              + ": "
+              + status
+              + "classSource: "
+              + classSource);
+    } else {
+      return new TestRunResult(
+          parseFailures(packageName, classname, classSource, status), true, false);
+    }
+  }
+
   @Override
   public Path writeUnmodifiedClassCode(String packageName, String classname, String javaCode)
       throws RandoopOutputException {
@@ -269,25 +349,18 @@ public class FailingAssertionCommentWriter implements CodeWriter {
   }
 
   /**
-   * Comments out lines with failing assertions. Uses the failures in the {@code status} from
-   * running JUnit with {@code javaCode} to identify lines with failing assertions.
+   * Reads the failures from the output of running JUnit on a test class.
    *
    * @param packageName the package name of the test class
    * @param classname the simple (unqualified) name of the test class
-   * @param javaCode the source code for the test class; each assertion must be on its own line
+   * @param javaCode the source code for the test class
    * @param status the result of running the test with JUnit
-   * @param flakyTests names of flaky tests, e.g. "test005". This is an output parameter that is
-   *     augmented by this method.
-   * @return the class source edited so that failing assertions are replaced by comments
+   * @return the failures, each with the line number of the failure within its test method
    * @throws RandoopBug if {@code status} contains output for a failure not involving a
    *     Randoop-generated test method
    */
-  private String commentFailingAssertions(
-      String packageName,
-      String classname,
-      String javaCode,
-      Status status,
-      Set<String> flakyTests) {
+  private List<TestRunResult.Failure> parseFailures(
+      String packageName, String classname, String javaCode, Status status) {
     assert !Objects.equals(packageName, "");
     String qualifiedClassname = packageName == null ? classname : packageName + "." + classname;
 
@@ -299,10 +372,6 @@ public class FailingAssertionCommentWriter implements CodeWriter {
 
     // Then, read the rest of the file to find each failure.
 
-    // Split Java code text so that we can match the line number for the assertion with the code.
-    // Use same line break as used to write test class file.
-    String[] javaCodeLines = javaCode.split(Globals.lineSep);
-
     // TODO: These diagnostics are ugly.  Sometimes they are redundant, but sometimes they are
     // essential for understanding why a test that succeeded reflectively failed after being written
     // to a file.  Figure out how to produce output only when needed.
@@ -312,6 +381,7 @@ public class FailingAssertionCommentWriter implements CodeWriter {
       }
     }
 
+    List<TestRunResult.Failure> failures = new ArrayList<>(totalFailures);
     for (int failureCount = 0; failureCount < totalFailures; failureCount++) {
       // Read until beginning of failure
       Match failureHeaderMatch = readUntilMatch(lineIterator, FAILURE_HEADER_PATTERN);
@@ -321,7 +391,7 @@ public class FailingAssertionCommentWriter implements CodeWriter {
       // Check that the method name in the failure message is a test method.
       if (!methodName.matches(GenTests.TEST_METHOD_NAME_PREFIX + "\\d+")) {
         System.out.println();
-        System.out.printf("Failure in commentFailingAssertions(%s, %s)%n", packageName, classname);
+        System.out.printf("Failure in parseFailures(%s, %s)%n", packageName, classname);
         System.out.printf("javaCode =%n%s%n", javaCode);
         System.out.printf("status =%n%s%n", status);
         System.out.println();
@@ -336,8 +406,6 @@ public class FailingAssertionCommentWriter implements CodeWriter {
         }
       }
 
-      flakyTests.add(methodName);
-
       // Search for the stacktrace entry corresponding to the test method, and capture the line
       // number.
       Pattern linePattern =
@@ -361,11 +429,52 @@ public class FailingAssertionCommentWriter implements CodeWriter {
 
       // lineNumber is 1-based, not 0-based
       int lineNumber = Integer.parseInt(failureLineMatch.group);
+      if (lineNumber < 1) {
+        throw new RandoopBug(
+            String.format(
+                "Line number %d read from JUnit is out of range: %s",
+                lineNumber, failureLineMatch.line));
+      }
+      failures.add(new TestRunResult.Failure(methodName, lineNumber, failureLine));
+    }
+    return failures;
+  }
+
+  /**
+   * Comments out lines with failing assertions.
+   *
+   * @param packageName the package name of the test class
+   * @param classname the simple (unqualified) name of the test class
+   * @param javaCode the source code for the test class; each assertion must be on its own line
+   * @param failures the failures from running the test class, each in a generated test method
+   * @param flakyTests names of flaky tests, e.g. "test005". This is an output parameter that is
+   *     augmented by this method.
+   * @return the class source edited so that failing assertions are replaced by comments
+   */
+  private String commentFailingAssertions(
+      String packageName,
+      String classname,
+      String javaCode,
+      List<TestRunResult.Failure> failures,
+      Set<String> flakyTests) {
+    assert !Objects.equals(packageName, "");
+
+    // Split Java code text so that we can match the line number for the assertion with the code.
+    // Use same line break as used to write test class file.
+    String[] javaCodeLines = javaCode.split(Globals.lineSep);
+
+    for (TestRunResult.Failure failure : failures) {
+      String failureLine = failure.header;
+      String methodName = failure.methodName;
+      int lineNumber = failure.lineNumber;
+
+      flakyTests.add(methodName);
+
       if (lineNumber < 1 || lineNumber > javaCodeLines.length) {
         throw new RandoopBug(
             String.format(
                 "Line number %d read from JUnit is out of range [1,%d]: %s",
-                lineNumber, javaCodeLines.length, failureLineMatch.line));
+                lineNumber, javaCodeLines.length, failure));
       }
 
       if (GenInputsAbstract.flaky_test_behavior == FlakyTestAction.HALT) {
@@ -2,6 +2,7 @@ package randoop.output;
 
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseException;
+import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Modifier;
@@ -36,23 +37,25 @@ import com.github.javaparser.ast.stmt.TryStmt;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.ReferenceType;
 import com.github.javaparser.ast.type.VoidType;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.util.StringsPlume;
 import randoop.Globals;
 import randoop.main.GenTests;
+import randoop.main.RandoopBug;
 import randoop.sequence.ExecutableSequence;
 
 /** Creates Java source as {@code String} for a suite of JUnit4 tests. */
 @SuppressWarnings("deprecation") // TODO: fix. "new ClassOrInterfaceType()" does not handle generics
 public class JUnitCreator {
 
-  /** An instance of a Java parser. */
-  static JavaParser javaParser = new JavaParser();
-
   /** The "public" modifier. */
   private final NodeList<Modifier> PUBLIC = new NodeList<>(Modifier.publicModifier());
 
@@ -60,6 +63,31 @@ public class JUnitCreator {
   private final NodeList<Modifier> PUBLIC_STATIC =
       new NodeList<>(Modifier.publicModifier(), Modifier.staticModifier());
 
+  /**
+   * A Java parser for each thread. A JavaParser must not be used by several threads at once, and
+   * test classes are created concurrently (see {@link #prepareTestClassSource}).
+   */
+  private static final ThreadLocal<JavaParser> threadJavaParser =
+      ThreadLocal.withInitial(JavaParser::new);
+
+  /** The name of the template test method, from which test methods are printed. */
+  private static final String METHOD_NAME_PLACEHOLDER = "randoopTestMethodPlaceholder";
+
+  /** The name of the method that the template test method calls in place of its statements. */
+  private static final String STATEMENTS_PLACEHOLDER = "randoopTestStatementsPlaceholder";
+
+  /** The number of spaces by which JavaParser indents a block, or -1 if not yet computed. */
+  private static volatile int blockIndentation = -1;
+
+  /** The maximum size of {@link #printedStatements}. */
+  private static final int MAX_PRINTED_STATEMENTS = 100_000;
+
+  /**
+   * Map from the code of statements of a sequence to the statements as printed by JavaParser,
+   * without indentation.
+   */
+  private final Map<String, String> printedStatements = new ConcurrentHashMap<>();
+
   /** The package name. May be null, but may not be the empty string. */
   private final String packageName;
 
@@ -213,6 +241,59 @@ public class JUnitCreator {
       String testClassName, NameGenerator methodNameGen, List<ExecutableSequence> sequences) {
     this.classMethodCounts.put(testClassName, sequences.size());
 
+    NodeList<BodyDeclaration<?>> testMethods = new NodeList<>();
+    for (ExecutableSequence eseq : sequences) {
+      testMethods.add(
+          createTestMethod(testClassName, methodNameGen.next(), parseStatements(eseq)));
+    }
+    return createTestClass(testClassName, testMethods);
+  }
+
+  /**
+   * Creates the source code of a test class. The result is the same as {@code
+   * createTestClass(testClassName, methodNameGen, sequences).toString()}, but is produced without
+   * building the syntax tree of the whole class.
+   *
+   * @param testClassName the class name
+   * @param methodNameGen the generator that creates method names
+   * @param sequences the contents of the test methods
+   * @return the source code of the test class
+   */
+  public String createTestClassSource(
+      String testClassName, NameGenerator methodNameGen, List<ExecutableSequence> sequences) {
+    return prepareTestClassSource(testClassName, methodNameGen, sequences).get();
+  }
+
+  /**
+   * Prepares to create the source code of a test class, as {@link #createTestClassSource} does.
+   * This method draws the names of the test methods from {@code methodNameGen}, so calls to it must
+   * be made in the order of the test classes. The returned supplier creates the source code, and
+   * the suppliers of several classes may be run concurrently on different threads.
+   *
+   * @param testClassName the class name
+   * @param methodNameGen the generator that creates method names
+   * @param sequences the contents of the test methods
+   * @return a supplier of the source code of the test class
+   */
+  public Supplier<String> prepareTestClassSource(
+      String testClassName, NameGenerator methodNameGen, List<ExecutableSequence> sequences) {
+    this.classMethodCounts.put(testClassName, sequences.size());
+    List<String> methodNames = new ArrayList<>(sequences.size());
+    for (int i = 0; i < sequences.size(); i++) {
+      methodNames.add(methodNameGen.next());
+    }
+    return () -> renderTestClass(testClassName, methodNames, sequences);
+  }
+
+  /**
+   * Create a test class with the given test methods.
+   *
+   * @param testClassName the class name
+   * @param testMethods the test methods
+   * @return the CompilationUnit for a test class
+   */
+  private CompilationUnit createTestClass(
+      String testClassName, NodeList<BodyDeclaration<?>> testMethods) {
     CompilationUnit compilationUnit = new CompilationUnit();
     if (packageName != null) {
       compilationUnit.setPackageDeclaration(new PackageDeclaration(new Name(packageName)));
@@ -256,7 +337,11 @@ public class JUnitCreator {
     //         new NodeList<AnnotationExpr>(PrimitiveType.forClass(PrimitiveType.booleanType())),
     //         new NodeList<VariableDeclarator>(debugVariable));
     BodyDeclaration<?> debugField =
-        javaParser.parseBodyDeclaration("public static boolean debug=false;").getResult().get();
+        threadJavaParser
+            .get()
+            .parseBodyDeclaration("public static boolean debug=false;")
+            .getResult()
+            .get();
 
     bodyDeclarations.add(debugField);
 
@@ -294,15 +379,14 @@ public class JUnitCreator {
     // This is a backward compatibility feature in case the user is using JUnit 4.11 or below
     // when running the generated tests.
     MethodDeclaration assertBooleanArrayEqualsMethod =
-        javaParser.parseMethodDeclaration(BOOLEAN_ARRAY_EQUALS_METHOD).getResult().get();
+        threadJavaParser
+            .get()
+            .parseMethodDeclaration(BOOLEAN_ARRAY_EQUALS_METHOD)
+            .getResult()
+            .get();
     bodyDeclarations.add(assertBooleanArrayEqualsMethod);
 
-    for (ExecutableSequence eseq : sequences) {
-      MethodDeclaration testMethod = createTestMethod(testClassName, methodNameGen.next(), eseq);
-      if (testMethod != null) {
-        bodyDeclarations.add(testMethod);
-      }
-    }
+    bodyDeclarations.addAll(testMethods);
     classDeclaration.setMembers(bodyDeclarations);
     NodeList<TypeDeclaration<?>> types = new NodeList<>(classDeclaration);
     compilationUnit.setTypes(types);
@@ -311,15 +395,15 @@ public class JUnitCreator {
   }
 
   /**
-   * Creates a test method as a {@code String} for the sequence {@code testSequence}.
+   * Creates a test method.
    *
    * @param className the name of the test class
    * @param methodName the name of the test method
-   * @param testSequence the {@link ExecutableSequence} test sequence
-   * @return the {@code String} for the test method
+   * @param sequenceStatements the statements of the test sequence
+   * @return the test method
    */
   private MethodDeclaration createTestMethod(
-      String className, String methodName, ExecutableSequence testSequence) {
+      String className, String methodName, NodeList<Statement> sequenceStatements) {
     MethodDeclaration method = new MethodDeclaration(PUBLIC, new VoidType(), methodName);
     NodeList<AnnotationExpr> annotations =
         new NodeList<>(new MarkerAnnotationExpr(new Name("Test")));
@@ -339,33 +423,257 @@ public class JUnitCreator {
     arguments.add(new StringLiteralExpr(className + "." + methodName));
     call.setArguments(arguments);
     statements.add(new IfStmt(new NameExpr("debug"), new ExpressionStmt(call), null));
-
-    // TODO make sequence generate list of JavaParser statements
-    String sequenceBlockString = "{ " + testSequence.toCodeString() + " }";
-    // try {
-    BlockStmt sequenceBlock = javaParser.parseBlock(sequenceBlockString).getResult().get();
-    statements.addAll(sequenceBlock.getStatements());
-    // }
-    // catch (ParseException e) {
-    //   System.out.println(
-    //       "Parse error while creating test method " + className + "." + methodName + " for block
-    // ");
-    //   System.out.println(sequenceBlockString);
-    //   throw new RandoopBug("Parse error while creating test method", e);
-    // }
-    // catch (TokenMgrError e) {
-    //   System.out.println(
-    //       "Lexical error while creating test method " + className + "." + methodName);
-    //   System.out.println("Exception: " + e.getMessage());
-    //   System.out.println(sequenceBlockString);
-    //   return null;
-    // }
+    statements.addAll(sequenceStatements);
 
     body.setStatements(statements);
     method.setBody(body);
     return method;
   }
 
+  /**
+   * Parses the code of a test sequence.
+   *
+   * @param testSequence the {@link ExecutableSequence} test sequence
+   * @return the statements of the sequence
+   */
+  private static NodeList<Statement> parseStatements(ExecutableSequence testSequence) {
+    // TODO make sequence generate list of JavaParser statements
+    String sequenceBlockString = "{ " + testSequence.toCodeString() + " }";
+    return threadJavaParser.get().parseBlock(sequenceBlockString).getResult().get().getStatements();
+  }
+
+  /**
+   * Creates the source code of a test class, as JavaParser would print it.
+   *
+   * <p>The class declaration and the fixtures are printed once, together with a template test
+   * method. Each test method is then written by filling in the template with the printed statements
+   * of its sequence. Each statement is printed as JavaParser would print it within the method, but
+   * the statements are parsed and printed one at a time and the result is cached, since many
+   * sequences share statements.
+   *
+   * @param testClassName the class name
+   * @param methodNames the names of the test methods
+   * @param sequences the contents of the test methods
+   * @return the source code of the test class
+   */
+  private String renderTestClass(
+      String testClassName, List<String> methodNames, List<ExecutableSequence> sequences) {
+    String classFrame = createTestClass(testClassName, new NodeList<>()).toString();
+    String methodTemplate =
+        extractMember(
+            classFrame,
+            new NodeList<>(
+                createTestMethod(
+                    testClassName,
+                    METHOD_NAME_PLACEHOLDER,
+                    new NodeList<>(
+                        new ExpressionStmt(new MethodCallExpr(STATEMENTS_PLACEHOLDER))))),
+            testClassName);
+    // The template consists of the text before the placeholder statement, the indentation of
+    // the placeholder statement, and the text after the placeholder statement.
+    int placeholder = methodTemplate.indexOf(STATEMENTS_PLACEHOLDER);
+    int lineStart = methodTemplate.lastIndexOf('\n', placeholder) + 1;
+    int lineEnd = methodTemplate.indexOf('\n', placeholder) + 1;
+    String beforeStatements = methodTemplate.substring(0, lineStart);
+    String indentation = methodTemplate.substring(lineStart, placeholder);
+    String afterStatements = methodTemplate.substring(lineEnd);
+
+    int insertionPoint = getInsertionPoint(classFrame);
+    StringBuilder result = new StringBuilder(classFrame.length() + 1024 * sequences.size());
+    result.append(classFrame, 0, insertionPoint);
+    for (int i = 0; i < sequences.size(); i++) {
+      String methodName = methodNames.get(i);
+      ExecutableSequence eseq = sequences.get(i);
+      int methodStart = result.length();
+      result.append(beforeStatements.replace(METHOD_NAME_PLACEHOLDER, methodName));
+      if (appendStatements(result, indentation, eseq)) {
+        result.append(afterStatements);
+      } else {
+        // Print the method the slow way, by printing a class that contains it.
+        result.setLength(methodStart);
+        NodeList<BodyDeclaration<?>> testMethod =
+            new NodeList<>(createTestMethod(testClassName, methodName, parseStatements(eseq)));
+        result.append(extractMember(classFrame, testMethod, testClassName));
+      }
+    }
+    result.append(classFrame, insertionPoint, classFrame.length());
+    return result.toString();
+  }
+
+  /**
+   * Returns the text that JavaParser prints for a member of a test class, including the line
+   * breaks that separate it from the other members.
+   *
+   * @param classFrame the printed test class, without test methods
+   * @param member the member, in a list of length 1
+   * @param testClassName the name of the test class
+   * @return the text of the member within the printed class
+   */
+  private String extractMember(
+      String classFrame, NodeList<BodyDeclaration<?>> member, String testClassName) {
+    String withMember = createTestClass(testClassName, member).toString();
+    int insertionPoint = getInsertionPoint(classFrame);
+    int end = withMember.length() - (classFrame.length() - insertionPoint);
+    if (end < insertionPoint
+        || !withMember.startsWith(classFrame.substring(0, insertionPoint))
+        || !withMember.endsWith(classFrame.substring(insertionPoint))) {
+      throw new RandoopBug("Cannot find the member in the printed class " + testClassName);
+    }
+    return withMember.substring(insertionPoint, end);
+  }
+
+  /**
+   * Returns the position in a printed test class at which the test methods are inserted: the start
+   * of the line that contains the closing brace of the class.
+   *
+   * @param classFrame the printed test class, without test methods
+   * @return the position at which the test methods are inserted
+   */
+  private static int getInsertionPoint(String classFrame) {
+    int closingBrace = classFrame.lastIndexOf('}');
+    return classFrame.lastIndexOf('\n', closingBrace) + 1;
+  }
+
+  /**
+   * Appends the printed statements of a sequence, if every statement can be printed on its own.
+   *
+   * @param result where to append the statements
+   * @param indentation the indentation of the statements of a test method
+   * @param eseq the sequence
+   * @return true if the statements were appended, false if the sequence must be printed as a whole
+   */
+  private boolean appendStatements(
+      StringBuilder result, String indentation, ExecutableSequence eseq) {
+    StringBuilder statementCode = new StringBuilder();
+    for (String line : eseq.toCodeLines()) {
+      statementCode.append(line).append(Globals.lineSep);
+      if (endsWithLineComment(line)) {
+        // A comment that ends a statement's code belongs to the next statement.
+        continue;
+      }
+      String printed = printStatements(statementCode.toString());
+      if (printed == null) {
+        return false;
+      }
+      appendIndented(result, indentation, printed);
+      statementCode.setLength(0);
+    }
+    if (statementCode.length() > 0) {
+      String printed = printStatements(statementCode.toString());
+      if (printed == null) {
+        return false;
+      }
+      appendIndented(result, indentation, printed);
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if the last line of the given code is a line comment.
+   *
+   * @param code Java code
+   * @return true if the last non-blank line of {@code code} starts with {@code //}
+   */
+  private static boolean endsWithLineComment(String code) {
+    String trimmed = code.trim();
+    int lastLine = Math.max(trimmed.lastIndexOf('\n'), trimmed.lastIndexOf('\r')) + 1;
+    return trimmed.startsWith("//", lastLine);
+  }
+
+  /**
+   * Appends text, indenting each non-empty line.
+   *
+   * @param result where to append the text
+   * @param indentation the indentation to add
+   * @param text the text, in which every line ends with a line terminator
+   */
+  private static void appendIndented(StringBuilder result, String indentation, String text) {
+    int lineStart = 0;
+    while (lineStart < text.length()) {
+      int lineEnd = text.indexOf('\n', lineStart) + 1;
+      if (lineEnd == 0) {
+        lineEnd = text.length();
+      }
+      char first = text.charAt(lineStart);
+      if (first != '\n' && first != '\r') {
+        result.append(indentation);
+      }
+      result.append(text, lineStart, lineEnd);
+      lineStart = lineEnd;
+    }
+  }
+
+  /**
+   * Returns the statements in the given code as JavaParser prints them in a block, without the
+   * indentation of the block.
+   *
+   * @param code the code of one or more statements
+   * @return the printed statements, or null if they cannot be printed separately from the rest of
+   *     the test method
+   */
+  private @Nullable String printStatements(String code) {
+    String result = printedStatements.get(code);
+    if (result != null) {
+      return result;
+    }
+    // The lines of block comments and text blocks are not indented by JavaParser.
+    if (code.contains("/*") || code.contains("\"\"\"")) {
+      return null;
+    }
+    ParseResult<BlockStmt> parseResult = threadJavaParser.get().parseBlock("{ " + code + " }");
+    if (!parseResult.isSuccessful() || !parseResult.getResult().isPresent()) {
+      return null;
+    }
+    String block = parseResult.getResult().get().toString();
+    // Remove the opening line, the closing brace, and the indentation of the block.
+    int blockIndentation = getBlockIndentation();
+    StringBuilder printed = new StringBuilder(block.length());
+    int lineStart = block.indexOf('\n') + 1;
+    int closingBrace = block.lastIndexOf('}');
+    while (lineStart < closingBrace) {
+      int lineEnd = block.indexOf('\n', lineStart) + 1;
+      if (lineEnd == 0 || lineEnd > closingBrace) {
+        return null;
+      }
+      char first = block.charAt(lineStart);
+      if (first != '\n' && first != '\r') {
+        for (int i = 0; i < blockIndentation; i++) {
+          if (block.charAt(lineStart + i) != ' ') {
+            return null;
+          }
+        }
+        lineStart += blockIndentation;
+      }
+      printed.append(block, lineStart, lineEnd);
+      lineStart = lineEnd;
+    }
+    result = printed.toString();
+    if (printedStatements.size() >= MAX_PRINTED_STATEMENTS) {
+      printedStatements.clear();
+    }
+    printedStatements.put(code, result);
+    return result;
+  }
+
+  /**
+   * Returns the number of spaces by which JavaParser indents the statements of a block.
+   *
+   * @return the indentation of the statements of a printed block
+   */
+  private static int getBlockIndentation() {
+    int result = blockIndentation;
+    if (result < 0) {
+      BlockStmt block =
+          new BlockStmt(
+              new NodeList<>(new ExpressionStmt(new MethodCallExpr(STATEMENTS_PLACEHOLDER))));
+      String printed = block.toString();
+      int placeholder = printed.indexOf(STATEMENTS_PLACEHOLDER);
+      result = placeholder - (printed.lastIndexOf('\n', placeholder) + 1);
+      blockIndentation = result;
+    }
+    return result;
+  }
+
   /**
    * Creates the declaration of a single test fixture.
    *
@@ -381,7 +689,9 @@ public class JUnitCreator {
     NodeList<AnnotationExpr> annotations =
         new NodeList<>(new MarkerAnnotationExpr(new Name(annotation)));
     method.setAnnotations(annotations);
-    method.setBody(body);
+    // The body is shared by every test class, and by other JUnitCreators, which may print test
+    // classes concurrently. Setting it as the body of a method would change its parent.
+    method.setBody(body.clone());
     return method;
   }
 
@@ -449,7 +759,11 @@ public class JUnitCreator {
 
     String failureVariableName = "hadFailure";
     Statement hadFailureDecl =
-        javaParser.parseStatement("boolean " + failureVariableName + " = false;").getResult().get();
+        threadJavaParser
+            .get()
+            .parseStatement("boolean " + failureVariableName + " = false;")
+            .getResult()
+            .get();
     bodyStatements.add(hadFailureDecl);
 
     NameGenerator instanceNameGen = new NameGenerator("t");
@@ -569,6 +883,6 @@ public class JUnitCreator {
       blockText.append(line).append(Globals.lineSep);
     }
     blockText.append(Globals.lineSep).append("}");
-    return javaParser.parseBlock(blockText.toString()).getResult().get();
+    return threadJavaParser.get().parseBlock(blockText.toString()).getResult().get();
   }
 }
@@ -2,12 +2,14 @@ package randoop.reflection;
 
 import java.util.ArrayList;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.operation.NonreceiverTerm;
 import randoop.operation.TypedOperation;
 import randoop.sequence.Sequence;
 import randoop.sequence.Variable;
 import randoop.types.ClassOrInterfaceType;
 import randoop.util.ClassFileConstants;
+import randoop.util.ConstantSetCache;
 import randoop.util.MultiMap;
 
 /**
@@ -20,14 +22,25 @@ class ClassLiteralExtractor extends DefaultClassVisitor {
 
   private MultiMap<ClassOrInterfaceType, Sequence> literalMap;
 
-  ClassLiteralExtractor(MultiMap<ClassOrInterfaceType, Sequence> literalMap) {
+  /** The cache of literals read from class files, or null if literals are not cached. */
+  private final @Nullable ConstantSetCache cache;
+
+  /**
+   * Creates a {@link ClassLiteralExtractor} that reads literals through the given cache.
+   *
+   * @param literalMap the map to which the literals are added
+   * @param cache the cache of literals read from class files, or null to not cache them
+   */
+  ClassLiteralExtractor(
+      MultiMap<ClassOrInterfaceType, Sequence> literalMap, @Nullable ConstantSetCache cache) {
     this.literalMap = literalMap;
+    this.cache = cache;
   }
 
   @Override
   public void visitBefore(Class<?> c) {
     ClassOrInterfaceType constantType = ClassOrInterfaceType.forClass(c);
-    Set<NonreceiverTerm> nonreceiverTerms = ClassFileConstants.getNonreceiverTerms(c);
+    Set<NonreceiverTerm> nonreceiverTerms = ClassFileConstants.getNonreceiverTerms(c, cache);
     for (NonreceiverTerm term : nonreceiverTerms) {
       Sequence seq =
           new Sequence()
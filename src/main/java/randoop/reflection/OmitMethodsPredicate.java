@@ -1,8 +1,12 @@
 package randoop.reflection;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import randoop.operation.TypedClassOperation;
 import randoop.types.ClassOrInterfaceType;
 import randoop.util.Log;
@@ -51,6 +55,9 @@ public class OmitMethodsPredicate {
   /** Set to true to produce voluminous debugging regarding omission. */
   private static boolean logOmit = false;
 
+  /** Matches a back reference, such as {@code \1} or {@code \k<name>}, in a regular expression. */
+  private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+
   /** An OmitMethodsPredicate that does no omission. */
   public static final OmitMethodsPredicate NO_OMISSION =
       new OmitMethodsPredicate(new ArrayList<>(0));
@@ -58,6 +65,20 @@ public class OmitMethodsPredicate {
   /** {@code Pattern}s to match operations that should be omitted. Never side-effected. */
   private final List<Pattern> omitPatterns;
 
+  /**
+   * The patterns that {@link #shouldOmitExact} tests. Usually a single pattern that is the
+   * alternation of {@link #omitPatterns}, so that each signature is scanned once; otherwise {@link
+   * #omitPatterns} itself.
+   */
+  private final List<Pattern> matchPatterns;
+
+  /**
+   * The result of {@link #shouldOmitMethod} for each method that has been tested. Testing a method
+   * looks up the method in each of its declaring type's supertypes, which is expensive, and the
+   * same side-effect-free methods are tested over and over when creating regression assertions.
+   */
+  private final Map<TypedClassOperation, Boolean> methodResults = new ConcurrentHashMap<>();
+
   /**
    * Create a new OmitMethodsPredicate.
    *
@@ -65,6 +86,38 @@ public class OmitMethodsPredicate {
    */
   public OmitMethodsPredicate(List<Pattern> omitPatterns) {
     this.omitPatterns = new ArrayList<>(omitPatterns);
+    this.matchPatterns = combinePatterns(this.omitPatterns);
+  }
+
+  /**
+   * Returns patterns that, together, match the same strings as the given patterns. If possible,
+   * returns a single pattern that is their alternation.
+   *
+   * @param patterns the patterns to combine
+   * @return a list containing the combined pattern, or {@code patterns} if they cannot be combined
+   */
+  private static List<Pattern> combinePatterns(List<Pattern> patterns) {
+    if (patterns.size() < 2) {
+      return patterns;
+    }
+    int flags = patterns.get(0).flags();
+    StringBuilder alternation = new StringBuilder();
+    for (Pattern pattern : patterns) {
+      // Flags apply to a whole pattern, and group numbers change when patterns are concatenated.
+      if (pattern.flags() != flags || BACK_REFERENCE.matcher(pattern.pattern()).find()) {
+        return patterns;
+      }
+      if (alternation.length() > 0) {
+        alternation.append('|');
+      }
+      alternation.append("(?:").append(pattern.pattern()).append(')');
+    }
+    try {
+      return Collections.singletonList(Pattern.compile(alternation.toString(), flags));
+    } catch (PatternSyntaxException e) {
+      // For example, two patterns declare a group with the same name.
+      return patterns;
+    }
   }
 
   /**
@@ -89,7 +142,12 @@ public class OmitMethodsPredicate {
     }
 
     if (operation.isMethodCall()) {
-      return shouldOmitMethod(operation);
+      Boolean result = methodResults.get(operation);
+      if (result == null) {
+        result = shouldOmitMethod(operation);
+        methodResults.put(operation, result);
+      }
+      return result;
     }
 
     return false;
@@ -210,7 +268,7 @@ public class OmitMethodsPredicate {
 
     String signature = operation.getRawSignature().toString();
 
-    for (Pattern pattern : omitPatterns) {
+    for (Pattern pattern : matchPatterns) {
       boolean result = pattern.matcher(signature).find();
       if (logOmit) {
         Log.logPrintf(
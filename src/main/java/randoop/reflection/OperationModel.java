@@ -55,6 +55,7 @@ import randoop.sequence.Sequence;
 import randoop.test.ContractSet;
 import randoop.types.ClassOrInterfaceType;
 import randoop.types.Type;
+import randoop.util.ConstantSetCache;
 import randoop.util.Log;
 import randoop.util.MultiMap;
 import randoop.util.Util;
@@ -156,6 +157,8 @@ public class OperationModel {
       SpecificationCollection operationSpecifications)
       throws SignatureParseException, NoSuchMethodException {
 
+    // TODO: Reuse the whole model across runs, keyed by the classpath and the options that affect
+    // it.  Only the literals read from class files are cached, by --literals-cache.
     OperationModel model = new OperationModel();
 
     // for debugging only
@@ -584,7 +587,11 @@ public class OperationModel {
     mgr.add(new TestValueExtractor(this.annotatedTestValues));
     mgr.add(new CheckRepExtractor(this.contracts));
     if (literalsFileList.contains("CLASSES")) {
-      mgr.add(new ClassLiteralExtractor(this.classLiteralMap));
+      ConstantSetCache literalsCache =
+          GenInputsAbstract.literals_cache == null
+              ? null
+              : new ConstantSetCache(GenInputsAbstract.literals_cache);
+      mgr.add(new ClassLiteralExtractor(this.classLiteralMap, literalsCache));
     }
 
     // Collect classes under test
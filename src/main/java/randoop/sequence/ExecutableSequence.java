@@ -5,11 +5,13 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
 import randoop.ExecutionVisitor;
@@ -26,6 +28,8 @@ import randoop.test.TestCheckGenerator;
 import randoop.test.TestChecks;
 import randoop.types.ReferenceType;
 import randoop.types.Type;
+import randoop.util.GenerationMetrics;
+import randoop.util.GenerationMetrics.Phase;
 import randoop.util.IdentityMultiMap;
 import randoop.util.Log;
 import randoop.util.ProgressDisplay;
@@ -33,8 +37,8 @@ import randoop.util.ProgressDisplay;
 /**
  * An ExecutableSequence wraps a {@link Sequence} with functionality for executing the sequence, via
  * methods {@link #execute(ExecutionVisitor, TestCheckGenerator)} and {@link
- * #execute(ExecutionVisitor, TestCheckGenerator, boolean)}. It also lets the client add {@link
- * Check}s that check expected behaviors of the execution.
+ * #execute(ExecutionVisitor, TestCheckGenerator, ExecutionSnapshotCache)}. It also lets the client
+ * add {@link Check}s that check expected behaviors of the execution.
  *
  * <p>An ExecutableSequence augments a sequence with three additional pieces of data:
  *
@@ -103,6 +107,12 @@ public class ExecutableSequence {
   /** The subsequences that were concatenated to create this sequence. */
   public List<Sequence> componentSequences = Collections.emptyList();
 
+  /**
+   * The run-time values that the last execution restored from an {@link ExecutionSnapshotCache},
+   * by object identity.
+   */
+  private Set<Object> restoredValues = Collections.emptySet();
+
   /**
    * Create an executable sequence that executes the given sequence.
    *
@@ -119,6 +129,7 @@ public class ExecutableSequence {
     exectime = -1;
     hasNullInput = false;
     variableMap = new IdentityMultiMap<>();
+    restoredValues = Collections.emptySet();
   }
 
   @Override
@@ -144,16 +155,17 @@ public class ExecutableSequence {
   }
 
   /**
-   * Return this sequence as code. Similar to {@link Sequence#toCodeString()} except includes the
-   * checks.
+   * Return this sequence as code, one element per statement that is not inlined. The element for
+   * the last statement includes the checks. {@link #toCodeString()} is the concatenation of the
+   * elements, each followed by a line separator.
    *
    * <p>If for a given statement there is a check of type {@link randoop.test.ExceptionCheck}, that
    * check's pre-statement code is printed immediately before the statement, and its post-statement
    * code is printed immediately after the statement.
    *
-   * @return the sequence as a string
+   * @return the code of each statement of the sequence
    */
-  private List<String> toCodeLines() {
+  public List<String> toCodeLines() {
     List<String> lines = new ArrayList<>();
     // Note that sequence is side-effected by the loop.
     for (int i = 0; i < sequence.size(); i++) {
@@ -224,7 +236,7 @@ public class ExecutableSequence {
   /**
    * Executes sequence, stopping on exceptions.
    *
-   * @see #execute(ExecutionVisitor, TestCheckGenerator, boolean)
+   * @see #execute(ExecutionVisitor, TestCheckGenerator, boolean, ExecutionSnapshotCache)
    * @param visitor the {@link ExecutionVisitor} that collects checks from results
    * @param gen the check generator for tests
    */
@@ -234,7 +246,24 @@ public class ExecutableSequence {
     // One is innocuous:  java.lang.OutOfMemoryError due to creation of a very large object --
     // repeated executions evenutally exhaust memory.  Two others are odd: failures in
     // sun.reflect.DelegatingMethodAccessorImpl.invoke called by java.lang.reflect.Method.invoke.
-    execute(visitor, gen, true);
+    execute(visitor, gen, true, null);
+  }
+
+  /**
+   * Executes sequence, stopping on exceptions. Statements that belong to a component sequence (see
+   * {@link #componentSequences}) whose outcome is stored in the given cache are restored from the
+   * cache rather than executed.
+   *
+   * @see #execute(ExecutionVisitor, TestCheckGenerator, boolean, ExecutionSnapshotCache)
+   * @param visitor the {@link ExecutionVisitor} that collects checks from results
+   * @param gen the check generator for tests
+   * @param snapshotCache the outcomes of previously-executed component sequences; may be null
+   */
+  public void execute(
+      ExecutionVisitor visitor,
+      TestCheckGenerator gen,
+      @Nullable ExecutionSnapshotCache snapshotCache) {
+    execute(visitor, gen, true, snapshotCache);
   }
 
   /**
@@ -248,7 +277,8 @@ public class ExecutableSequence {
    *   <li>For each statement in the sequence:
    *       <ul>
    *         <li>call {@code visitor.visitBefore(this, i)}
-   *         <li>execute the i-th statement, using reflection
+   *         <li>execute the i-th statement, using reflection, or restore its outcome from {@code
+   *             snapshotCache}
    *         <li>call {@code visitor.visitAfter(this, i)}
    *       </ul>
    *   <li>For the last statement, check its specifications (pre-, post-, and throws-conditions).
@@ -272,21 +302,36 @@ public class ExecutableSequence {
    * @param visitor the {@code ExecutionVisitor}
    * @param gen the initial check generator, which this augments then uses
    * @param ignoreException if true, ignore exceptions thrown before the last statement
+   * @param snapshotCache the outcomes of previously-executed component sequences; may be null
    * @throws Error if execution of the sequence throws an exception and {@code
    *     ignoreException==false}
    */
   @SuppressWarnings("SameParameterValue")
-  private void execute(ExecutionVisitor visitor, TestCheckGenerator gen, boolean ignoreException) {
+  private void execute(
+      ExecutionVisitor visitor,
+      TestCheckGenerator gen,
+      boolean ignoreException,
+      @Nullable ExecutionSnapshotCache snapshotCache) {
 
     long startTime = System.nanoTime();
+    long executionStart = GenerationMetrics.start(Phase.EXECUTION);
     try { // try statement for timing
 
       visitor.initialize(this);
 
       this.reset();
 
+      ExecutionOutcome[] restored = restoreComponentOutcomes(snapshotCache);
+
       for (int i = 0; i < this.sequence.size(); i++) {
 
+        if (restored != null && restored[i] != null) {
+          visitor.visitBeforeStatement(this, i);
+          executionResults.outcomes.set(i, restored[i]);
+          visitor.visitAfterStatement(this, i);
+          continue;
+        }
+
         Object[] inputValues = getRuntimeInputs(executionResults.outcomes, sequence.getInputs(i));
 
         if (i == this.sequence.size() - 1) {
@@ -336,21 +381,83 @@ public class ExecutableSequence {
       }
 
       visitor.visitAfterSequence(this);
+      GenerationMetrics.stop(Phase.EXECUTION, executionStart);
+      executionStart = GenerationMetrics.NOT_STARTED;
 
       // Phase 2 of specification checking: check for expected behavior after the call.
       // This is the only client call to generateTestChecks().
       if (Value.lastValueSizeOk(this)) {
-        checks = gen.generateTestChecks(this);
+        long checkStart = GenerationMetrics.start(Phase.CHECK_GENERATION);
+        try {
+          checks = gen.generateTestChecks(this);
+        } finally {
+          GenerationMetrics.stop(Phase.CHECK_GENERATION, checkStart);
+        }
       } else {
         Log.logPrintf(
             "Excluding from generateTestChecks due to value too large in last statement%n");
       }
 
     } finally {
+      if (snapshotCache != null && !restoredValues.isEmpty()) {
+        snapshotCache.checkRestoredValues(restoredValues);
+      }
+      GenerationMetrics.stop(Phase.EXECUTION, executionStart);
       exectime = System.nanoTime() - startTime;
     }
   }
 
+  /**
+   * Looks up each of the {@link #componentSequences} in the given cache. For every component whose
+   * snapshot can be restored, records its covered classes and null inputs in the current execution
+   * and returns its statement outcomes, at the positions where the component occurs in this
+   * sequence. The restored values are stored in {@link #restoredValues}.
+   *
+   * <p>Nothing is restored unless this sequence is exactly the concatenation of its components
+   * followed by one more statement. (For example, that is not the case after the repeat heuristic
+   * or a cast to the run-time type has extended the sequence.)
+   *
+   * @param snapshotCache the outcomes of previously-executed component sequences; may be null
+   * @return an array with one element per statement, holding the restored outcome or null if the
+   *     statement must be executed; or null if no outcome can be restored
+   */
+  private ExecutionOutcome @Nullable [] restoreComponentOutcomes(
+      @Nullable ExecutionSnapshotCache snapshotCache) {
+    if (snapshotCache == null || componentSequences.isEmpty()) {
+      return null;
+    }
+    int prefixSize = 0;
+    for (Sequence component : componentSequences) {
+      prefixSize += component.size();
+    }
+    if (prefixSize != sequence.size() - 1) {
+      return null;
+    }
+
+    ExecutionOutcome[] result = new ExecutionOutcome[sequence.size()];
+    Set<Object> restored = Collections.newSetFromMap(new IdentityHashMap<>());
+    boolean restoredAny = false;
+    int offset = 0;
+    for (Sequence component : componentSequences) {
+      ExecutionSnapshotCache.Snapshot snapshot = snapshotCache.restore(component, restored);
+      if (snapshot != null) {
+        for (int i = 0; i < snapshot.outcomes.size(); i++) {
+          result[offset + i] = snapshot.outcomes.get(i);
+        }
+        for (Class<?> c : snapshot.coveredClasses) {
+          executionResults.addCoveredClass(c);
+        }
+        if (snapshot.hasNullInput) {
+          this.hasNullInput = true;
+        }
+        restoredAny = true;
+      }
+      offset += component.size();
+    }
+    restoredValues = restored;
+    return restoredAny ? result : null;
+  }
+
   public Object[] getRuntimeInputs(List<Variable> inputs) {
     return getRuntimeInputs(executionResults.outcomes, inputs);
   }
@@ -397,41 +504,52 @@ public class ExecutableSequence {
     Statement statement = s.getStatement(index);
 
     // Capture any output Synchronize with ProgressDisplay so that
-    // we don't capture its output as well.
-    synchronized (ProgressDisplay.print_synchro) {
-      PrintStream orig_out = System.out;
-      PrintStream orig_err = System.err;
-      if (GenInputsAbstract.capture_output) {
-        System.out.flush();
-        System.err.flush();
-        System.setOut(output_buffer_stream);
-        System.setErr(output_buffer_stream);
+    // we don't capture its output as well.  Locking would serialize the worker threads of
+    // --workers, which is incompatible with --capture-output and so has nothing to guard.
+    if (GenInputsAbstract.workers == 1) {
+      synchronized (ProgressDisplay.print_synchro) {
+        executeStatement(statement, outcome, index, inputVariables);
       }
+    } else {
+      executeStatement(statement, outcome, index, inputVariables);
+    }
+  }
 
-      // assert ((statement.isMethodCall() && !statement.isStatic()) ?
-      // inputVariables[0] != null : true);
-
-      ExecutionOutcome r;
-      try {
-        r = statement.execute(inputVariables);
-      } catch (SequenceExecutionException e) {
-        throw new SequenceExecutionException("Problem while executing " + statement, e);
-      } finally {
-        if (GenInputsAbstract.capture_output) {
-          System.setOut(orig_out);
-          System.setErr(orig_err);
-        }
-      }
-      assert r != null;
+  // Execute the given statement, which is the index-th statement in the sequence.
+  private static void executeStatement(
+      Statement statement, List<ExecutionOutcome> outcome, int index, Object[] inputVariables) {
+    PrintStream orig_out = System.out;
+    PrintStream orig_err = System.err;
+    if (GenInputsAbstract.capture_output) {
+      System.out.flush();
+      System.err.flush();
+      System.setOut(output_buffer_stream);
+      System.setErr(output_buffer_stream);
+    }
+
+    // assert ((statement.isMethodCall() && !statement.isStatic()) ?
+    // inputVariables[0] != null : true);
+
+    ExecutionOutcome r;
+    try {
+      r = statement.execute(inputVariables);
+    } catch (SequenceExecutionException e) {
+      throw new SequenceExecutionException("Problem while executing " + statement, e);
+    } finally {
       if (GenInputsAbstract.capture_output) {
-        output_buffer_stream.flush();
-        @SuppressWarnings("DefaultCharset") // JDK 8 version does not accept UTF_8 argument
-        String output_buffer_string = output_buffer.toString();
-        r.set_output(output_buffer_string);
-        output_buffer.reset();
+        System.setOut(orig_out);
+        System.setErr(orig_err);
       }
-      outcome.set(index, r);
     }
+    assert r != null;
+    if (GenInputsAbstract.capture_output) {
+      output_buffer_stream.flush();
+      @SuppressWarnings("DefaultCharset") // JDK 8 version does not accept UTF_8 argument
+      String output_buffer_string = output_buffer.toString();
+      r.set_output(output_buffer_string);
+      output_buffer.reset();
+    }
+    outcome.set(index, r);
   }
 
   /**
@@ -664,6 +782,16 @@ public class ExecutableSequence {
     return hasNullInput;
   }
 
+  /**
+   * Returns the run-time values that the last execution restored from an {@link
+   * ExecutionSnapshotCache}.
+   *
+   * @return the restored values, as a set that compares by object identity
+   */
+  Set<Object> getRestoredValues() {
+    return restoredValues;
+  }
+
   /**
    * Indicate whether checks are failing or passing.
    *
@@ -691,6 +819,15 @@ public class ExecutableSequence {
     executionResults.addCoveredClass(c);
   }
 
+  /**
+   * Returns the classes covered by the most recent execution of this sequence.
+   *
+   * @return the classes covered by the most recent execution of this sequence
+   */
+  Set<Class<?>> getCoveredClasses() {
+    return executionResults.getCoveredClasses();
+  }
+
   /**
    * Indicates whether the given class is covered by the most recent execution of this sequence.
    *
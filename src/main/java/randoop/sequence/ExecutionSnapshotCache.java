@@ -0,0 +1,513 @@
+package randoop.sequence;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.ExecutionOutcome;
+import randoop.NormalExecution;
+import randoop.operation.NonreceiverTerm;
+import randoop.util.Log;
+
+/**
+ * Stores the run-time outcomes of executing component sequences, so that a sequence built by
+ * concatenating components can restore them instead of re-executing every statement. This
+ * implements {@code --prefix-execution-cache}.
+ *
+ * <p>Restoring a snapshot hands the very same run-time objects to a new sequence. That is only safe
+ * while those objects are in the state that the component's execution left them in. So, for every
+ * value that is not null, a boxed primitive, a String, or a Class, the cache records a fingerprint
+ * of its state: the values of its fields, and of the fields of the objects that they reach. A
+ * snapshot is restored only if the fingerprint of each of its values is unchanged, and the
+ * fingerprints are checked again after the new sequence has executed. A value whose state changed
+ * has been mutated, and every snapshot that holds it is discarded, so the sequences that use it are
+ * re-executed from scratch, as they would be without this cache. A snapshot is also not restored
+ * into a sequence that already holds one of its values through another component, because
+ * re-execution would create distinct objects. A sequence is not recorded if the state of one of
+ * its values cannot be read, or if it calls a void method, because such a call is executed only
+ * for its side effects. Like the rest of Randoop, this assumes that the methods under test are
+ * deterministic.
+ *
+ * <p>The cache holds at most a fixed number of statement outcomes. When it is full, the least
+ * recently used snapshots are evicted.
+ */
+public final class ExecutionSnapshotCache {
+
+  /** The outcomes of one successful execution of a component sequence. */
+  static final class Snapshot {
+
+    /** The outcome of each statement of the sequence. */
+    final List<ExecutionOutcome> outcomes;
+
+    /** The classes covered by the execution. */
+    final Set<Class<?>> coveredClasses;
+
+    /** True if some statement of the sequence was passed a null input. */
+    final boolean hasNullInput;
+
+    /** The distinct run-time values of the sequence whose state is fingerprinted. */
+    final List<Object> values;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param outcomes the outcome of each statement of the sequence
+     * @param coveredClasses the classes covered by the execution
+     * @param hasNullInput true if some statement of the sequence was passed a null input
+     * @param values the distinct run-time values of the sequence whose state is fingerprinted
+     */
+    Snapshot(
+        List<ExecutionOutcome> outcomes,
+        Set<Class<?>> coveredClasses,
+        boolean hasNullInput,
+        List<Object> values) {
+      this.outcomes = outcomes;
+      this.coveredClasses = coveredClasses;
+      this.hasNullInput = hasNullInput;
+      this.values = values;
+    }
+  }
+
+  /** The recorded state of a run-time value, and the snapshots that hold the value. */
+  private static final class TrackedValue {
+
+    /** The fingerprint of the value when it was recorded. */
+    final List<Object> fingerprint;
+
+    /** The sequences whose snapshots hold the value. */
+    final Set<Sequence> owners = new HashSet<>();
+
+    /**
+     * Creates a tracked value.
+     *
+     * @param fingerprint the fingerprint of the value
+     */
+    TrackedValue(List<Object> fingerprint) {
+      this.fingerprint = fingerprint;
+    }
+  }
+
+  /**
+   * A reference, within a fingerprint, to an object that the fingerprint reaches. Objects are
+   * numbered in the order that they are reached, so equal fingerprints describe object graphs of
+   * the same shape.
+   */
+  private static final class Reference {
+
+    /** The number of the referenced object. */
+    final int index;
+
+    /**
+     * Creates a reference.
+     *
+     * @param index the number of the referenced object
+     */
+    Reference(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      return o instanceof Reference && ((Reference) o).index == index;
+    }
+
+    @Override
+    public int hashCode() {
+      return index;
+    }
+  }
+
+  /**
+   * The maximum number of elements of a fingerprint. Values that reach more state than this are not
+   * recorded.
+   */
+  private static final int MAX_FINGERPRINT_SIZE = 1000;
+
+  /** The maximum number of statement outcomes stored, summed over all snapshots. */
+  private final int maxStatements;
+
+  /** The snapshots, in least-recently-used order. */
+  private final LinkedHashMap<Sequence, Snapshot> snapshots =
+      new LinkedHashMap<>(16, 0.75f, /* accessOrder= */ true);
+
+  /** The values held by the snapshots whose state is fingerprinted, by object identity. */
+  private final Map<Object, TrackedValue> trackedValues = new IdentityHashMap<>();
+
+  /**
+   * The instance fields of each class and of its superclasses, or null if some of them cannot be
+   * read.
+   */
+  private final Map<Class<?>, @Nullable List<Field>> instanceFields = new HashMap<>();
+
+  /** The number of statement outcomes stored, summed over all snapshots. */
+  private int numStatements = 0;
+
+  /** The number of times a snapshot was restored. */
+  private long hits = 0;
+
+  /** The number of times a component had no reusable snapshot and had to be re-executed. */
+  private long misses = 0;
+
+  /** The number of times a value was found to be mutated, discarding its snapshots. */
+  private long invalidations = 0;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxStatements the maximum number of statement outcomes to store, summed over all
+   *     snapshots
+   */
+  public ExecutionSnapshotCache(int maxStatements) {
+    if (maxStatements <= 0) {
+      throw new IllegalArgumentException("maxStatements must be positive: " + maxStatements);
+    }
+    this.maxStatements = maxStatements;
+  }
+
+  /**
+   * Records the outcome of executing the given sequence, if it can be safely reused. Does nothing
+   * if the execution was not normal, if the state of some value cannot be fingerprinted, or if any
+   * statement is a call to a void method.
+   *
+   * @param eseq a sequence that has been executed
+   */
+  public void add(ExecutableSequence eseq) {
+    Sequence sequence = eseq.sequence;
+    if (sequence.size() > maxStatements || snapshots.containsKey(sequence)) {
+      return;
+    }
+    Set<Object> restoredValues = eseq.getRestoredValues();
+    List<ExecutionOutcome> outcomes = new ArrayList<>(sequence.size());
+    Map<Object, List<Object>> fingerprints = new IdentityHashMap<>();
+    for (int i = 0; i < sequence.size(); i++) {
+      ExecutionOutcome outcome = eseq.getResult(i);
+      if (!(outcome instanceof NormalExecution)) {
+        return;
+      }
+      if (sequence.getStatement(i).getOutputType().isVoid()) {
+        return;
+      }
+      Object value = ((NormalExecution) outcome).getRuntimeValue();
+      if (!isImmutableValue(value) && !fingerprints.containsKey(value)) {
+        TrackedValue tracked = trackedValues.get(value);
+        List<Object> fingerprint;
+        if (tracked != null && restoredValues.contains(value)) {
+          // Checked when the execution finished.
+          fingerprint = tracked.fingerprint;
+        } else {
+          fingerprint = fingerprint(value);
+          if (fingerprint == null) {
+            return;
+          }
+        }
+        fingerprints.put(value, fingerprint);
+      }
+      outcomes.add(outcome);
+    }
+
+    for (Map.Entry<Object, List<Object>> entry : fingerprints.entrySet()) {
+      Object value = entry.getKey();
+      TrackedValue tracked = trackedValues.get(value);
+      if (tracked != null && !tracked.fingerprint.equals(entry.getValue())) {
+        invalidate(value);
+        tracked = null;
+      }
+      if (tracked == null) {
+        tracked = new TrackedValue(entry.getValue());
+        trackedValues.put(value, tracked);
+      }
+      tracked.owners.add(sequence);
+    }
+    Set<Class<?>> coveredClasses =
+        Collections.unmodifiableSet(new LinkedHashSet<>(eseq.getCoveredClasses()));
+    snapshots.put(
+        sequence,
+        new Snapshot(
+            Collections.unmodifiableList(outcomes),
+            coveredClasses,
+            eseq.hasNullInput(),
+            new ArrayList<>(fingerprints.keySet())));
+    numStatements += outcomes.size();
+    evict();
+  }
+
+  /**
+   * Returns the snapshot for the given sequence, or null if there is none or it cannot be restored.
+   * It cannot be restored if one of its values is already in {@code restoredValues}, or if the
+   * state of one of its values has changed, which discards the snapshot. If the snapshot is
+   * returned, its values are added to {@code restoredValues}.
+   *
+   * @param sequence a component sequence
+   * @param restoredValues the values restored so far into the sequence being executed, which this
+   *     method modifies
+   * @return the snapshot for the sequence, or null
+   */
+  @Nullable Snapshot restore(Sequence sequence, Set<Object> restoredValues) {
+    Snapshot result = snapshots.get(sequence);
+    if (result != null && !isRestorable(result, restoredValues)) {
+      result = null;
+    }
+    if (result == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    restoredValues.addAll(result.values);
+    return result;
+  }
+
+  /**
+   * Returns true if the given snapshot can be restored into a sequence that already holds the given
+   * values. Discards the snapshot, and every other snapshot that holds a mutated value, if the
+   * state of one of its values has changed.
+   *
+   * @param snapshot a snapshot
+   * @param restoredValues the values restored so far into the sequence being executed
+   * @return true if the snapshot can be restored
+   */
+  private boolean isRestorable(Snapshot snapshot, Set<Object> restoredValues) {
+    for (Object value : snapshot.values) {
+      if (restoredValues.contains(value)) {
+        return false;
+      }
+    }
+    boolean result = true;
+    for (Object value : snapshot.values) {
+      if (isMutated(value)) {
+        invalidate(value);
+        result = false;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Checks the values that were restored into a sequence, after the sequence has executed.
+   * Discards every snapshot that holds a value whose state has changed.
+   *
+   * @param restoredValues the values that were restored into the sequence
+   */
+  void checkRestoredValues(Set<Object> restoredValues) {
+    for (Object value : restoredValues) {
+      if (isMutated(value)) {
+        invalidate(value);
+      }
+    }
+  }
+
+  /**
+   * Returns true if the given value is tracked and its state differs from its recorded state.
+   *
+   * @param value a value held by a snapshot
+   * @return true if the state of the value has changed
+   */
+  private boolean isMutated(Object value) {
+    TrackedValue tracked = trackedValues.get(value);
+    return tracked != null && !tracked.fingerprint.equals(fingerprint(value));
+  }
+
+  /**
+   * Discards every snapshot that holds the given value.
+   *
+   * @param value a value whose state has changed
+   */
+  private void invalidate(Object value) {
+    TrackedValue tracked = trackedValues.get(value);
+    if (tracked == null) {
+      return;
+    }
+    Log.logPrintf("Discarding execution snapshots of a mutated %s.%n", value.getClass().getName());
+    invalidations++;
+    for (Sequence owner : new ArrayList<>(tracked.owners)) {
+      remove(owner);
+    }
+  }
+
+  /**
+   * Removes the snapshot of the given sequence, and stops tracking the values that no other
+   * snapshot holds.
+   *
+   * @param sequence a sequence that has a snapshot
+   */
+  private void remove(Sequence sequence) {
+    Snapshot snapshot = snapshots.remove(sequence);
+    if (snapshot == null) {
+      return;
+    }
+    numStatements -= snapshot.outcomes.size();
+    for (Object value : snapshot.values) {
+      TrackedValue tracked = trackedValues.get(value);
+      if (tracked != null) {
+        tracked.owners.remove(sequence);
+        if (tracked.owners.isEmpty()) {
+          trackedValues.remove(value);
+        }
+      }
+    }
+  }
+
+  /** Removes all snapshots from this cache. */
+  public void clear() {
+    Log.logPrintf("Clearing execution snapshot cache.%n");
+    snapshots.clear();
+    trackedValues.clear();
+    numStatements = 0;
+  }
+
+  /**
+   * Returns the number of snapshots in this cache.
+   *
+   * @return the number of snapshots in this cache
+   */
+  public int size() {
+    return snapshots.size();
+  }
+
+  /**
+   * Returns the number of times a snapshot was restored instead of re-executing a component.
+   *
+   * @return the number of cache hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of times a component had to be re-executed because it had no snapshot that
+   * could be restored.
+   *
+   * @return the number of cache misses
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of times that a value held by snapshots was found to be mutated, which
+   * discarded the snapshots.
+   *
+   * @return the number of mutated values
+   */
+  public long getInvalidations() {
+    return invalidations;
+  }
+
+  /** Evicts least recently used snapshots until the cache is within its budget. */
+  private void evict() {
+    while (numStatements > maxStatements && !snapshots.isEmpty()) {
+      remove(snapshots.keySet().iterator().next());
+    }
+  }
+
+  /**
+   * Returns the fingerprint of the state of the given value: its class and the values of its
+   * fields or array elements, followed by the same for each object that they reach, in
+   * breadth-first order. Null, boxed primitives, Strings, and Classes appear as themselves, and
+   * other objects as {@link Reference}s.
+   *
+   * @param value a value that is not immutable
+   * @return the fingerprint of the value, or null if its state cannot be read or is too large
+   */
+  private @Nullable List<Object> fingerprint(Object value) {
+    List<Object> result = new ArrayList<>();
+    Map<Object, Integer> indices = new IdentityHashMap<>();
+    Queue<Object> queue = new ArrayDeque<>();
+    indices.put(value, 0);
+    queue.add(value);
+    while (!queue.isEmpty()) {
+      Object object = queue.remove();
+      Class<?> c = object.getClass();
+      result.add(c);
+      List<Object> elements = new ArrayList<>();
+      if (c.isArray()) {
+        int length = Array.getLength(object);
+        result.add(length);
+        for (int i = 0; i < length; i++) {
+          elements.add(Array.get(object, i));
+        }
+      } else {
+        List<Field> fields = getInstanceFields(c);
+        if (fields == null) {
+          return null;
+        }
+        for (Field field : fields) {
+          try {
+            elements.add(field.get(object));
+          } catch (IllegalAccessException e) {
+            return null;
+          }
+        }
+      }
+      for (Object element : elements) {
+        if (isImmutableValue(element)) {
+          result.add(element);
+        } else {
+          Integer index = indices.get(element);
+          if (index == null) {
+            index = indices.size();
+            indices.put(element, index);
+            queue.add(element);
+          }
+          result.add(new Reference(index));
+        }
+      }
+      if (result.size() > MAX_FINGERPRINT_SIZE) {
+        return null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the instance fields of the given class and of its superclasses, made accessible.
+   *
+   * @param c a class
+   * @return the instance fields of {@code c}, or null if some of them cannot be made accessible
+   */
+  private @Nullable List<Field> getInstanceFields(Class<?> c) {
+    if (instanceFields.containsKey(c)) {
+      return instanceFields.get(c);
+    }
+    List<Field> result = new ArrayList<>();
+    try {
+      for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+        for (Field field : k.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            field.setAccessible(true);
+            result.add(field);
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      // The module system or a security manager forbids reading the fields.
+      result = null;
+    }
+    instanceFields.put(c, result);
+    return result;
+  }
+
+  /**
+   * Returns true if the given run-time value cannot be changed by any statement that uses it.
+   *
+   * @param value a run-time value
+   * @return true if the value is null or of an immutable type
+   */
+  private static boolean isImmutableValue(@Nullable Object value) {
+    if (value == null) {
+      return true;
+    }
+    return NonreceiverTerm.isNonreceiverType(value.getClass());
+  }
+}
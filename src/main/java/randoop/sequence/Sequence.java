@@ -35,6 +35,12 @@ import randoop.util.SimpleList;
  * <p>This class represents only the structure of a well-formed sequence of statements, and does not
  * contain any information about the runtime behavior of the sequence. The class
  * randoop.ExecutableSequence adds functionality that executes the sequence.
+ *
+ * <p>Sequences are stored compactly, because the component pool holds many of them. A sequence
+ * shares its statements with the sequences that it was built from (see {@link #extend} and {@link
+ * #concatenate}), so each statement is stored only once however many sequences are built from it.
+ * Equal statements are not interned: {@link TypedOperation#equals} ignores the specification of an
+ * operation, so an equal statement may not check the same conditions.
  */
 public final class Sequence {
 
@@ -161,9 +167,11 @@ public final class Sequence {
   public final Sequence extend(TypedOperation operation, List<Variable> inputVariables) {
     checkInputs(operation, inputVariables);
     int size = size();
-    List<RelativeNegativeIndex> indexList =
-        CollectionsPlume.mapList(v -> getRelativeIndexForVariable(size, v), inputVariables);
-    Statement statement = new Statement(operation, indexList);
+    int[] inputs = new int[inputVariables.size()];
+    for (int i = 0; i < inputs.length; i++) {
+      inputs[i] = getRelativeIndexForVariable(size, inputVariables.get(i));
+    }
+    Statement statement = new Statement(operation, inputs);
     int newNetSize = operation.isNonreceivingValue() ? this.savedNetSize : this.savedNetSize + 1;
     return new Sequence(
         new OneMoreElementList<>(this.statements, statement),
@@ -209,9 +217,14 @@ public final class Sequence {
     for (Sequence c : sequences) {
       newHashCode += c.savedHashCode;
       newNetSize += c.savedNetSize;
-      statements1.add(c.statements);
+      if (!c.statements.isEmpty()) {
+        statements1.add(c.statements);
+      }
     }
-    return new Sequence(new ListOfLists<>(statements1), newHashCode, newNetSize);
+    // Share the statements of a single non-empty sequence rather than wrapping them.
+    SimpleList<Statement> newStatements =
+        statements1.size() == 1 ? statements1.get(0) : new ListOfLists<>(statements1);
+    return new Sequence(newStatements, newHashCode, newNetSize);
   }
 
   /**
@@ -309,9 +322,12 @@ public final class Sequence {
    * @return the list of variables for the statement at the given index
    */
   public List<Variable> getInputs(int statementIndex) {
-    return CollectionsPlume.mapList(
-        (RelativeNegativeIndex relIndex) -> getVariableForInput(statementIndex, relIndex),
-        this.statements.get(statementIndex).inputs);
+    int[] inputs = this.statements.get(statementIndex).inputs;
+    List<Variable> result = new ArrayList<>(inputs.length);
+    for (int input : inputs) {
+      result.add(getVariableForInput(statementIndex, input));
+    }
+    return result;
   }
 
   /**
@@ -399,10 +415,9 @@ public final class Sequence {
    * @param v the variable
    * @return the relative negative index computed from the position and variable
    */
-  private static RelativeNegativeIndex getRelativeIndexForVariable(
-      int statementPosition, Variable v) {
+  private static int getRelativeIndexForVariable(int statementPosition, Variable v) {
     if (v.index >= statementPosition) throw new IllegalArgumentException();
-    return new RelativeNegativeIndex(-(statementPosition - v.index));
+    return -(statementPosition - v.index);
   }
 
   /**
@@ -413,8 +428,8 @@ public final class Sequence {
    * @param input relative index of the input variable
    * @return the variable at the relative index from the given statement position
    */
-  private Variable getVariableForInput(int statementPosition, RelativeNegativeIndex input) {
-    int absoluteIndex = statementPosition + input.index;
+  private Variable getVariableForInput(int statementPosition, int input) {
+    int absoluteIndex = statementPosition + input;
     if (absoluteIndex < 0) {
       throw new IllegalArgumentException("index should be non-negative: " + absoluteIndex);
     }
@@ -471,9 +486,9 @@ public final class Sequence {
       }
 
       // Process input arguments.
-      if (lastStatement.inputs.size() != lastStatement.getInputTypes().size()) {
+      if (lastStatement.inputs.length != lastStatement.getInputTypes().size()) {
         throw new RuntimeException(
-            lastStatement.inputs
+            Arrays.toString(lastStatement.inputs)
                 + ", "
                 + lastStatement.getInputTypes()
                 + ", "
@@ -521,22 +536,21 @@ public final class Sequence {
       // The inputs to the statement are valid: there's the right number
       // of them,
       // and they refer to appropriate input values.
-      if (statementWithInputs.getInputTypes().size() != statementWithInputs.inputs.size()) {
+      if (statementWithInputs.getInputTypes().size() != statementWithInputs.inputs.length) {
         throw new IllegalArgumentException(
             "statement.getInputConstraints().size()="
                 + statementWithInputs.getInputTypes().size()
                 + " is different from inputIndices.length="
-                + statementWithInputs.inputs.size()
+                + statementWithInputs.inputs.length
                 + ", sequence: "
                 + this.toString());
       }
-      for (int i = 0; i < statementWithInputs.inputs.size(); i++) {
-        int index = statementWithInputs.inputs.get(i).index;
+      for (int i = 0; i < statementWithInputs.inputs.length; i++) {
+        int index = statementWithInputs.inputs[i];
         if (index >= 0) {
           throw new IllegalStateException();
         }
-        Type newRefConstraint =
-            statements.get(si + statementWithInputs.inputs.get(i).index).getOutputType();
+        Type newRefConstraint = statements.get(si + index).getOutputType();
         if (newRefConstraint == null) {
           throw new IllegalStateException();
         }
@@ -888,9 +902,12 @@ public final class Sequence {
    * @return the absolute indices for the input variables in the given statement
    */
   public List<Integer> getInputsAsAbsoluteIndices(int i) {
-    return CollectionsPlume.mapList(
-        (RelativeNegativeIndex relIndex) -> getVariableForInput(i, relIndex).index,
-        this.statements.get(i).inputs);
+    int[] inputs = this.statements.get(i).inputs;
+    List<Integer> result = new ArrayList<>(inputs.length);
+    for (int input : inputs) {
+      result.add(getVariableForInput(i, input).index);
+    }
+    return result;
   }
 
   /**
@@ -1302,6 +1319,10 @@ public final class Sequence {
    *
    * <p>Now concatenation is easier: to concatenate two sequences, concatenate their statements.
    * Also, we do not need to create any new statements.
+   *
+   * <p>Because a statement's relative indices do not depend on where it appears, a statement can be
+   * shared by every sequence that is built from a sequence that contains it. {@link Statement}
+   * stores the indices in an {@code int[]}.
    */
   static final class RelativeNegativeIndex {
 
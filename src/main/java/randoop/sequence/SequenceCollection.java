@@ -8,10 +8,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.plumelib.util.StringsPlume;
 import randoop.Globals;
 import randoop.SubTypeSet;
 import randoop.generation.DemandDrivenInputCreator;
+import randoop.generation.ProducerGraph;
 import randoop.generation.UninstantiableTypeTracker;
 import randoop.main.GenInputsAbstract;
 import randoop.main.RandoopBug;
@@ -54,6 +56,12 @@ public class SequenceCollection {
   /** Number of sequences in the collection: sum of sizes of all values in sequenceMap. */
   private int sequenceCount = 0;
 
+  /**
+   * The constructors and methods that demand-driven input creation calls. Unless set by {@link
+   * #setProducerGraph}, it is created from the user-specified classes on first use.
+   */
+  private @Nullable ProducerGraph producerGraph = null;
+
   /** Checks the representation invariant. */
   private void checkRep() {
     if (!GenInputsAbstract.debug_checks) {
@@ -128,6 +136,43 @@ public class SequenceCollection {
     }
   }
 
+  /**
+   * Removes the given sequences from this collection.
+   *
+   * @param sequences the sequences to remove
+   * @return for each type, the number of sequences that were removed from those that produce it.
+   *     Types with no removed sequences are omitted.
+   */
+  public Map<Type, Integer> removeAll(Set<Sequence> sequences) {
+    Map<Type, Integer> removedPerType = new LinkedHashMap<>();
+    if (sequences.isEmpty()) {
+      return removedPerType;
+    }
+    Map<Type, SimpleArrayList<Sequence>> newSequenceMap = new LinkedHashMap<>();
+    SubTypeSet newTypeSet = new SubTypeSet(false);
+    for (Map.Entry<Type, SimpleArrayList<Sequence>> entry : sequenceMap.entrySet()) {
+      SimpleArrayList<Sequence> kept = new SimpleArrayList<>(entry.getValue().size());
+      for (Sequence sequence : entry.getValue()) {
+        if (!sequences.contains(sequence)) {
+          kept.add(sequence);
+        }
+      }
+      int removed = entry.getValue().size() - kept.size();
+      if (removed > 0) {
+        removedPerType.put(entry.getKey(), removed);
+        sequenceCount -= removed;
+      }
+      if (!kept.isEmpty()) {
+        newSequenceMap.put(entry.getKey(), kept);
+        newTypeSet.add(entry.getKey());
+      }
+    }
+    this.sequenceMap = newSequenceMap;
+    this.typeSet = newTypeSet;
+    checkRep();
+    return removedPerType;
+  }
+
   /**
    * Add a sequence to this collection. This method takes into account the active indices in the
    * sequence. If sequence[i] creates a values of type T, and sequence[i].isActive==true, then the
@@ -244,8 +289,11 @@ public class SequenceCollection {
     if (resultList.isEmpty() && GenInputsAbstract.demand_driven && useDemandDriven) {
       Log.logPrintf("DemandDrivenInputCreator will try to find a sequence for type %s%n", type);
       SimpleList<Sequence> sequencesForType;
+      if (producerGraph == null) {
+        producerGraph = ProducerGraph.forSpecifiedClasses();
+      }
       DemandDrivenInputCreator demandDrivenInputCreator =
-          new DemandDrivenInputCreator(this, exactMatch, onlyReceivers);
+          new DemandDrivenInputCreator(this, producerGraph, exactMatch, onlyReceivers);
       try {
         sequencesForType = demandDrivenInputCreator.createInputForType(type);
       } catch (Exception e) {
@@ -304,6 +352,15 @@ public class SequenceCollection {
     return result;
   }
 
+  /**
+   * Sets the producer graph that demand-driven input creation uses.
+   *
+   * @param producerGraph the constructors and methods that can create values of each type
+   */
+  public void setProducerGraph(ProducerGraph producerGraph) {
+    this.producerGraph = producerGraph;
+  }
+
   public TypeInstantiator getTypeInstantiator() {
     return new TypeInstantiator(typesAndSupertypes);
   }
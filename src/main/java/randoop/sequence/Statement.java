@@ -1,7 +1,8 @@
 package randoop.sequence;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import randoop.ExecutionOutcome;
 import randoop.Globals;
 import randoop.operation.CallableOperation;
@@ -23,12 +24,30 @@ public final class Statement {
   /** The operation (method call, constructor call, primitive values declaration, etc.). */
   private final TypedOperation operation;
 
-  // The list of values used as input to the statement.
+  // The values used as input to the statement.
   //
-  // NOTE that the inputs to a statement are not a list
-  // of Variables, but a list of RelativeNegativeIndex objects.
-  // See that class for an explanation.
-  final List<RelativeNegativeIndex> inputs;
+  // NOTE that the inputs to a statement are not a list of Variables, but
+  // relative negative indices. See RelativeNegativeIndex for an explanation.
+  // They are stored unboxed, and arrays of length 0 or 1 are shared.
+  final int[] inputs;
+
+  /** The hash code of this statement, which is computed whenever a sequence is extended. */
+  private final int hashCode;
+
+  /** The inputs of a statement that has no inputs. */
+  private static final int[] NO_INPUTS = new int[0];
+
+  /** The number of distinct single-input arrays that are shared. */
+  private static final int SHARED_SINGLE_INPUTS = 64;
+
+  /** {@code SINGLE_INPUTS[i]} is the input array {@code [-(i+1)]}. */
+  private static final int[][] SINGLE_INPUTS = new int[SHARED_SINGLE_INPUTS][];
+
+  static {
+    for (int i = 0; i < SHARED_SINGLE_INPUTS; i++) {
+      SINGLE_INPUTS[i] = new int[] {-(i + 1)};
+    }
+  }
 
   /**
    * Create a new statement of type statement that takes as input the given values.
@@ -37,8 +56,20 @@ public final class Statement {
    * @param inputVariables the variable that are used in this statement
    */
   public Statement(TypedOperation operation, List<RelativeNegativeIndex> inputVariables) {
+    this(operation, toIndexArray(inputVariables));
+  }
+
+  /**
+   * Creates a new statement that applies the given operation to the given inputs.
+   *
+   * @param operation the operation of this statement
+   * @param inputs the relative negative indices of the inputs; not modified or retained if it has
+   *     length 0 or 1
+   */
+  Statement(TypedOperation operation, int[] inputs) {
     this.operation = operation;
-    this.inputs = new ArrayList<>(inputVariables);
+    this.inputs = share(inputs);
+    this.hashCode = Objects.hash(operation, Arrays.hashCode(this.inputs));
   }
 
   /**
@@ -47,7 +78,37 @@ public final class Statement {
    * @param operation the operation for action of this statement
    */
   public Statement(TypedOperation operation) {
-    this(operation, new ArrayList<RelativeNegativeIndex>(0));
+    this(operation, NO_INPUTS);
+  }
+
+  /**
+   * Returns the relative negative indices of the given inputs.
+   *
+   * @param inputVariables the inputs of a statement
+   * @return the indices of the inputs
+   */
+  private static int[] toIndexArray(List<RelativeNegativeIndex> inputVariables) {
+    int[] result = new int[inputVariables.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = inputVariables.get(i).index;
+    }
+    return result;
+  }
+
+  /**
+   * Returns a shared array equal to the given one, if there is one.
+   *
+   * @param inputs the relative negative indices of the inputs of a statement
+   * @return an array equal to {@code inputs}
+   */
+  private static int[] share(int[] inputs) {
+    if (inputs.length == 0) {
+      return NO_INPUTS;
+    }
+    if (inputs.length == 1 && inputs[0] < 0 && -inputs[0] <= SHARED_SINGLE_INPUTS) {
+      return SINGLE_INPUTS[-inputs[0] - 1];
+    }
+    return inputs;
   }
 
   /**
@@ -64,23 +125,14 @@ public final class Statement {
       return false;
     }
     Statement s = (Statement) obj;
-    if (!operation.equals(s.operation)) {
-      return false;
-    }
-    if (inputs.size() != s.inputs.size()) {
-      return false;
-    }
-    for (int j = 0; j < inputs.size(); j++) {
-      if (!inputs.get(j).equals(s.inputs.get(j))) {
-        return false;
-      }
-    }
-    return true;
+    return hashCode == s.hashCode
+        && Arrays.equals(inputs, s.inputs)
+        && operation.equals(s.operation);
   }
 
   @Override
   public int hashCode() {
-    return java.util.Objects.hash(operation, inputs);
+    return hashCode;
   }
 
   public Type getOutputType() {
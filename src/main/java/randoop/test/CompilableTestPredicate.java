@@ -7,8 +7,17 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
 import org.checkerframework.checker.calledmethods.qual.EnsuresCalledMethods;
 import org.checkerframework.checker.mustcall.qual.MustCall;
 import org.checkerframework.checker.mustcall.qual.Owning;
@@ -17,15 +26,36 @@ import randoop.main.GenTests;
 import randoop.output.JUnitCreator;
 import randoop.output.NameGenerator;
 import randoop.sequence.ExecutableSequence;
+import randoop.util.GenerationMetrics;
+import randoop.util.GenerationMetrics.Phase;
 import randoop.util.Log;
 
 /**
  * {@code TestPredicate} that returns true if the given {@link ExecutableSequence} is compilable.
+ *
+ * <p>{@link #filterCompilable} checks many sequences with one run of the compiler.
  */
 @MustCall("close") public class CompilableTestPredicate implements Closeable, Predicate<ExecutableSequence> {
+
+  /** The prefix of the names of test methods in a batch; followed by the index in the batch. */
+  private static final String BATCH_METHOD_PREFIX = "theBatchSequence";
+
+  /** Matches the declaration of a test method in a batch. Group 1 is the index in the batch. */
+  private static final Pattern BATCH_METHOD_DECLARATION =
+      Pattern.compile("\\bvoid " + BATCH_METHOD_PREFIX + "(\\d+)\\(\\)");
+
   /** The compiler for sequence code. */
   private final @Owning SequenceCompiler compiler;
 
+  /**
+   * The compiler for batches of sequences. Unlike {@link #compiler}, it reports many errors, so
+   * that several failing sequences can be identified by one compilation.
+   */
+  private final @Owning SequenceCompiler batchCompiler;
+
+  /** The maximum number of sequences that {@link #filterCompilable} compiles together. */
+  private final int batchSize;
+
   /**
    * The {@link randoop.output.JUnitCreator} to generate a class from a {@link
    * randoop.sequence.ExecutableSequence}
@@ -49,10 +79,43 @@ import randoop.util.Log;
    * @param genTests the {@link GenTests} instance to report compilation failures
    */
   public CompilableTestPredicate(JUnitCreator junitCreator, GenTests genTests) {
-    List<String> compilerOptions = new ArrayList<>(6);
+    this(junitCreator, genTests, 1);
+  }
+
+  /**
+   * Creates a predicate using the given {@link JUnitCreator} to construct the test class for each
+   * sequence or batch of sequences.
+   *
+   * @param junitCreator the {@link JUnitCreator} for this Randoop run
+   * @param genTests the {@link GenTests} instance to report compilation failures
+   * @param batchSize the maximum number of sequences that {@link #filterCompilable} compiles
+   *     together; must be positive
+   */
+  public CompilableTestPredicate(JUnitCreator junitCreator, GenTests genTests, int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+    }
     // only need to know an error exists:
+    this.compiler = new SequenceCompiler(compilerOptions(1));
+    // need to know every method that has an error:
+    this.batchCompiler = new SequenceCompiler(compilerOptions(batchSize));
+    this.batchSize = batchSize;
+    this.junitCreator = junitCreator;
+    this.classNameGenerator = new NameGenerator("RandoopTemporarySeqTest");
+    this.methodNameGenerator = new NameGenerator("theSequence");
+    this.genTests = genTests;
+  }
+
+  /**
+   * Returns the options for a compiler that only checks for errors.
+   *
+   * @param maxErrors the maximum number of errors to report
+   * @return the compiler options
+   */
+  private static List<String> compilerOptions(int maxErrors) {
+    List<String> compilerOptions = new ArrayList<>(6);
     compilerOptions.add("-Xmaxerrs");
-    compilerOptions.add("1");
+    compilerOptions.add(Integer.toString(maxErrors));
     // no class generation:
     compilerOptions.add("-implicit:none");
     // no annotation processing: (note that -proc:only does not produce correct results)
@@ -61,18 +124,18 @@ import randoop.util.Log;
     compilerOptions.add("-g:none");
     // no warnings:
     compilerOptions.add("-Xlint:none");
-    this.compiler = new SequenceCompiler(compilerOptions);
-    this.junitCreator = junitCreator;
-    this.classNameGenerator = new NameGenerator("RandoopTemporarySeqTest");
-    this.methodNameGenerator = new NameGenerator("theSequence");
-    this.genTests = genTests;
+    return compilerOptions;
   }
 
   /** Releases resources held by this. */
   @Override
-  @EnsuresCalledMethods(value = "compiler", methods = "close")
+  @EnsuresCalledMethods(value = {"compiler", "batchCompiler"}, methods = "close")
   public void close() throws IOException {
-    compiler.close();
+    try {
+      compiler.close();
+    } finally {
+      batchCompiler.close();
+    }
   }
 
   /**
@@ -84,6 +147,22 @@ import randoop.util.Log;
    */
   @Override
   public boolean test(ExecutableSequence eseq) {
+    long metricsStart = GenerationMetrics.start(Phase.COMPILABLE_CHECK);
+    try {
+      return testCompilable(eseq);
+    } finally {
+      GenerationMetrics.stop(Phase.COMPILABLE_CHECK, metricsStart);
+    }
+  }
+
+  /**
+   * Implements {@link #test}, without measuring its time. {@link #testBatch} calls it directly,
+   * because {@link #filterCompilable} measures the time of each batch.
+   *
+   * @param eseq the sequence to check
+   * @return true if the sequence can be compiled, false otherwise
+   */
+  private boolean testCompilable(ExecutableSequence eseq) {
     String testClassName = classNameGenerator.next();
     List<ExecutableSequence> sequences = Collections.singletonList(eseq);
     CompilationUnit source =
@@ -113,4 +192,125 @@ import randoop.util.Log;
     String sourceText = source.toString();
     return compiler.isCompilable(packageName, testClassName, sourceText);
   }
+
+  /**
+   * Returns the compilable sequences among the given ones, in order. The result is the same as
+   * filtering with {@link #test}, but many sequences are compiled together.
+   *
+   * @param sequences the sequences to check
+   * @return the sequences that are compilable
+   */
+  public List<ExecutableSequence> filterCompilable(List<ExecutableSequence> sequences) {
+    boolean[] compilable = new boolean[sequences.size()];
+    for (int from = 0; from < sequences.size(); from += batchSize) {
+      int to = Math.min(sequences.size(), from + batchSize);
+      List<Integer> indices = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        indices.add(i);
+      }
+      long metricsStart = GenerationMetrics.start(Phase.COMPILABLE_CHECK);
+      try {
+        testBatch(sequences, indices, compilable);
+      } finally {
+        GenerationMetrics.stop(Phase.COMPILABLE_CHECK, metricsStart);
+      }
+    }
+    List<ExecutableSequence> result = new ArrayList<>(sequences.size());
+    for (int i = 0; i < sequences.size(); i++) {
+      if (compilable[i]) {
+        result.add(sequences.get(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compiles the given sequences together and records which of them are compilable.
+   *
+   * <p>If the batch does not compile, each sequence in which the compiler reported an error is
+   * checked by itself, and the remaining sequences are compiled together again. If no error can be
+   * attributed to a sequence, the batch is split in half.
+   *
+   * @param sequences all the sequences being checked
+   * @param indices the indices of the sequences in the batch
+   * @param compilable set to true at the index of each compilable sequence of the batch
+   */
+  private void testBatch(
+      List<ExecutableSequence> sequences, List<Integer> indices, boolean[] compilable) {
+    if (indices.size() == 1) {
+      int index = indices.get(0);
+      compilable[index] = testCompilable(sequences.get(index));
+      return;
+    }
+
+    List<ExecutableSequence> batch = new ArrayList<>(indices.size());
+    for (int index : indices) {
+      batch.add(sequences.get(index));
+    }
+    String testClassName = classNameGenerator.next();
+    CompilationUnit source =
+        junitCreator.createTestClass(testClassName, new NameGenerator(BATCH_METHOD_PREFIX), batch);
+    Optional<PackageDeclaration> oPkg = source.getPackageDeclaration();
+    String packageName = oPkg.isPresent() ? oPkg.get().getName().toString() : null;
+    String sourceText = source.toString();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    if (batchCompiler.isCompilable(packageName, testClassName, sourceText, diagnostics)) {
+      for (int index : indices) {
+        compilable[index] = true;
+      }
+      return;
+    }
+
+    Set<Integer> failing = failingMethods(sourceText, diagnostics);
+    if (failing.isEmpty()) {
+      int half = indices.size() / 2;
+      testBatch(sequences, indices.subList(0, half), compilable);
+      testBatch(sequences, indices.subList(half, indices.size()), compilable);
+      return;
+    }
+    List<Integer> rest = new ArrayList<>(indices.size() - failing.size());
+    for (int i = 0; i < indices.size(); i++) {
+      int index = indices.get(i);
+      if (failing.contains(i)) {
+        compilable[index] = testCompilable(sequences.get(index));
+      } else {
+        rest.add(index);
+      }
+    }
+    if (!rest.isEmpty()) {
+      testBatch(sequences, rest, compilable);
+    }
+  }
+
+  /**
+   * Returns the test methods of a batch in which the compiler reported an error.
+   *
+   * @param sourceText the source text of the batch
+   * @param diagnostics the compiler's diagnostics for the batch
+   * @return the indices within the batch of the methods with an error
+   */
+  private static Set<Integer> failingMethods(
+      String sourceText, DiagnosticCollector<JavaFileObject> diagnostics) {
+    // Maps the line number of each method declaration to the method's index in the batch.
+    TreeMap<Long, Integer> methodLines = new TreeMap<>();
+    String[] lines = sourceText.split("\\R", -1);
+    for (int i = 0; i < lines.length; i++) {
+      Matcher m = BATCH_METHOD_DECLARATION.matcher(lines[i]);
+      if (m.find()) {
+        methodLines.put((long) i + 1, Integer.parseInt(m.group(1)));
+      }
+    }
+
+    Set<Integer> result = new TreeSet<>();
+    for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+      if (d.getKind() != Diagnostic.Kind.ERROR || d.getLineNumber() == Diagnostic.NOPOS) {
+        continue;
+      }
+      Map.Entry<Long, Integer> method = methodLines.floorEntry(d.getLineNumber());
+      if (method != null) {
+        result.add(method.getValue());
+      }
+    }
+    return result;
+  }
 }
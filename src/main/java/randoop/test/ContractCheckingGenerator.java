@@ -189,7 +189,8 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
       return false;
     }
 
-    Substitution substitution = new Substitution();
+    // Created only when a generic input type is encountered, since most contracts have none.
+    Substitution substitution = null;
     int i = 0;
     while (i < inputTypes.size()) {
       Type inputType = inputTypes.get(i);
@@ -203,10 +204,13 @@ public final class ContractCheckingGenerator extends TestCheckGenerator {
             return false;
           }
           Substitution subst = superType.getTypeSubstitution();
-          if (!substitution.isConsistentWith(subst)) {
+          if (substitution == null) {
+            substitution = subst;
+          } else if (!substitution.isConsistentWith(subst)) {
             return false;
+          } else {
+            substitution = substitution.extend(subst);
           }
-          substitution = substitution.extend(subst);
         } else { // have generic input type, and non-class value
           return false;
         }
@@ -7,8 +7,13 @@ import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.plumelib.util.StringsPlume;
 import randoop.ExceptionalExecution;
 import randoop.ExecutionOutcome;
@@ -61,6 +66,14 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
   /** The user-supplied predicate for methods that should not be called. */
   private OmitMethodsPredicate omitMethodsPredicate;
 
+  /**
+   * The side-effect-free methods of each type that satisfy {@link #isAssertableMethod}. An entry
+   * is computed the first time that a value of the type is observed, so the omit and accessibility
+   * predicates are evaluated once per method rather than once per value.
+   */
+  private final Map<Type, List<TypedClassOperation>> assertableMethodsByType =
+      new ConcurrentHashMap<>();
+
   /**
    * Whether to include regression assertions. If false, no assertions are added for sequences whose
    * execution is NormalExecution.
@@ -186,36 +199,28 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
 
             // Put out any side-effect-free methods that exist for this type.
             Variable var0 = eseq.sequence.getVariable(i);
-            Set<TypedClassOperation> sideEffectFreeMethods =
-                sideEffectFreeMethodsByType.getValues(var0.getType());
-            if (sideEffectFreeMethods != null) {
-              for (TypedClassOperation m : sideEffectFreeMethods) {
-                if (!isAssertableMethod(m, omitMethodsPredicate, isAccessible)) {
-                  continue;
-                }
-
-                // Avoid making a call that will fail looksLikeObjectToString.
-                if (isObjectToString(m) && runtimeValue.getClass() == Object.class) {
-                  continue;
-                }
-
-                ExecutionOutcome outcome = m.execute(new Object[] {runtimeValue});
-                if (outcome instanceof ExceptionalExecution) {
-                  // The program under test threw an exception.  Don't call this method in the test.
-                  continue;
-                }
-
-                Object value = ((NormalExecution) outcome).getRuntimeValue();
-
-                if (Value.isUnassertableString(value)) {
-                  continue;
-                }
-
-                ObjectContract observerEqValue = new ObserverEqValue(m, value);
-                ObjectCheck observerCheck = new ObjectCheck(observerEqValue, var);
-                Log.logPrintf("Adding observer check %s%n", observerCheck);
-                checks.add(observerCheck);
+            for (TypedClassOperation m : getAssertableMethods(var0.getType())) {
+              // Avoid making a call that will fail looksLikeObjectToString.
+              if (isObjectToString(m) && runtimeValue.getClass() == Object.class) {
+                continue;
+              }
+
+              ExecutionOutcome outcome = m.execute(new Object[] {runtimeValue});
+              if (outcome instanceof ExceptionalExecution) {
+                // The program under test threw an exception.  Don't call this method in the test.
+                continue;
               }
+
+              Object value = ((NormalExecution) outcome).getRuntimeValue();
+
+              if (Value.isUnassertableString(value)) {
+                continue;
+              }
+
+              ObjectContract observerEqValue = new ObserverEqValue(m, value);
+              ObjectCheck observerCheck = new ObjectCheck(observerEqValue, var);
+              Log.logPrintf("Adding observer check %s%n", observerCheck);
+              checks.add(observerCheck);
             }
           }
         }
@@ -238,6 +243,32 @@ public final class RegressionCaptureGenerator extends TestCheckGenerator {
     return checks;
   }
 
+  /**
+   * Returns the side-effect-free methods of the given type that can be used in an assertion.
+   *
+   * @param type the type of a value
+   * @return the methods in {@link #sideEffectFreeMethodsByType} for the type that satisfy {@link
+   *     #isAssertableMethod}
+   */
+  private List<TypedClassOperation> getAssertableMethods(Type type) {
+    List<TypedClassOperation> result = assertableMethodsByType.get(type);
+    if (result == null) {
+      Set<TypedClassOperation> sideEffectFreeMethods = sideEffectFreeMethodsByType.getValues(type);
+      if (sideEffectFreeMethods == null) {
+        result = Collections.emptyList();
+      } else {
+        result = new ArrayList<>(sideEffectFreeMethods.size());
+        for (TypedClassOperation m : sideEffectFreeMethods) {
+          if (isAssertableMethod(m, omitMethodsPredicate, isAccessible)) {
+            result.add(m);
+          }
+        }
+      }
+      assertableMethodsByType.put(type, result);
+    }
+    return result;
+  }
+
   /**
    * Return true if the method is Object.toString (which is nondeterministic for classes that have
    * not overridden it).
@@ -6,8 +6,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import org.plumelib.util.StringsPlume;
 
 /**
@@ -37,6 +40,25 @@ public abstract class ClassOrInterfaceType extends ReferenceType {
    */
   protected ClassOrInterfaceType enclosingType = null;
 
+  /**
+   * The supertypes of this type, without duplicates, as returned by {@link #getSuperTypes()}.
+   * Computed on first use. This type is immutable once constructed, so the closure never changes.
+   */
+  private volatile List<ClassOrInterfaceType> superTypes = null;
+
+  /**
+   * Memoized results of {@link #isSubtypeOf(Type)}, for the arguments that satisfy {@link
+   * #isMemoizable}. Created on first use.
+   */
+  private volatile Map<ClassOrInterfaceType, Boolean> subtypeResults = null;
+
+  /**
+   * Memoized results of {@link #getMatchingSupertype(GenericClassType)}, where an empty value means
+   * there is no matching supertype. Used only if this type satisfies {@link #isMemoizable}. Created
+   * on first use.
+   */
+  private volatile Map<GenericClassType, Optional<InstantiatedType>> matchingSupertypes = null;
+
   /**
    * Translates a {@code Class} object that represents a class or interface into a {@code
    * ClassOrInterfaceType} object. If the object has parameters, then delegates to {@link
@@ -263,10 +285,38 @@ public abstract class ClassOrInterfaceType extends ReferenceType {
    * <p>Performs a depth-first search of the supertype relation for this type. If the goal type is
    * an interface, then searches the interfaces of this type first.
    *
+   * <p>The result is computed once per type object and goal type, unless this type contains a
+   * {@link CaptureTypeVariable}.
+   *
    * @param goalType the generic class type
    * @return the instantiated type matching the goal type, or null
    */
-  public InstantiatedType getMatchingSupertype(GenericClassType goalType) {
+  public final InstantiatedType getMatchingSupertype(GenericClassType goalType) {
+    if (!isMemoizable(this)) {
+      return computeMatchingSupertype(goalType);
+    }
+    Map<GenericClassType, Optional<InstantiatedType>> results = matchingSupertypes;
+    if (results == null) {
+      results = new ConcurrentHashMap<>();
+      matchingSupertypes = results;
+    }
+    Optional<InstantiatedType> result = results.get(goalType);
+    if (result == null) {
+      result = Optional.ofNullable(computeMatchingSupertype(goalType));
+      results.put(goalType, result);
+    }
+    return result.orElse(null);
+  }
+
+  /**
+   * Computes {@link #getMatchingSupertype(GenericClassType)}, without memoization. Subclasses that
+   * refine the search override this method rather than {@link
+   * #getMatchingSupertype(GenericClassType)}.
+   *
+   * @param goalType the generic class type
+   * @return the instantiated type matching the goal type, or null
+   */
+  protected InstantiatedType computeMatchingSupertype(GenericClassType goalType) {
     if (goalType.isInterface()) {
       for (ClassOrInterfaceType interfaceType : this.getInterfaces()) {
         if (goalType.getRuntimeClass().isAssignableFrom(interfaceType.getRuntimeClass())) {
@@ -342,23 +392,29 @@ public abstract class ClassOrInterfaceType extends ReferenceType {
   /**
    * Return the set of all of the supertypes of this type.
    *
+   * <p>The result is computed once per type object, and is unmodifiable.
+   *
    * @return the set of all supertypes of this type
    */
   public Collection<ClassOrInterfaceType> getSuperTypes() {
-    Collection<ClassOrInterfaceType> supertypes = new ArrayList<>();
-    if (this.isObject()) {
-      return supertypes;
-    }
-    ClassOrInterfaceType superclass = this.getSuperclass();
-    if (superclass != null) {
-      supertypes.add(superclass);
-      supertypes.addAll(superclass.getSuperTypes());
-    }
-    for (ClassOrInterfaceType interfaceType : this.getInterfaces()) {
-      supertypes.add(interfaceType);
-      supertypes.addAll(interfaceType.getSuperTypes());
+    List<ClassOrInterfaceType> result = superTypes;
+    if (result == null) {
+      LinkedHashSet<ClassOrInterfaceType> supertypes = new LinkedHashSet<>();
+      if (!this.isObject()) {
+        ClassOrInterfaceType superclass = this.getSuperclass();
+        if (superclass != null) {
+          supertypes.add(superclass);
+          supertypes.addAll(superclass.getSuperTypes());
+        }
+        for (ClassOrInterfaceType interfaceType : this.getInterfaces()) {
+          supertypes.add(interfaceType);
+          supertypes.addAll(interfaceType.getSuperTypes());
+        }
+      }
+      result = Collections.unmodifiableList(new ArrayList<>(supertypes));
+      superTypes = result;
     }
-    return supertypes;
+    return result;
   }
 
   /**
@@ -477,7 +533,44 @@ public abstract class ClassOrInterfaceType extends ReferenceType {
    * @see ParameterizedType#isSubtypeOf(Type)
    */
   @Override
-  public boolean isSubtypeOf(Type otherType) {
+  public final boolean isSubtypeOf(Type otherType) {
+    if (!isMemoizable(this) || !isMemoizable(otherType)) {
+      return computeIsSubtypeOf(otherType);
+    }
+    Map<ClassOrInterfaceType, Boolean> results = subtypeResults;
+    if (results == null) {
+      results = new ConcurrentHashMap<>();
+      subtypeResults = results;
+    }
+    Boolean result = results.get((ClassOrInterfaceType) otherType);
+    if (result == null) {
+      result = computeIsSubtypeOf(otherType);
+      results.put((ClassOrInterfaceType) otherType, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if the result of {@link #isSubtypeOf(Type)} may be memoized for the given type,
+   * either as receiver or as argument. The subtype relation for a class or interface type is fixed
+   * once the type is constructed, unless the type contains a {@link CaptureTypeVariable}, whose
+   * bounds are set after it is created and which is equal only to itself.
+   *
+   * @param type a type
+   * @return true if {@code type} is a class or interface type without capture variables
+   */
+  private static boolean isMemoizable(Type type) {
+    return type instanceof ClassOrInterfaceType && !type.hasCaptureVariable();
+  }
+
+  /**
+   * Computes {@link #isSubtypeOf(Type)}, without memoization. Subclasses that refine the subtype
+   * relation override this method rather than {@link #isSubtypeOf(Type)}.
+   *
+   * @param otherType the possible supertype
+   * @return true if this type is a subtype of the given type, false otherwise
+   */
+  protected boolean computeIsSubtypeOf(Type otherType) {
     if (debug) {
       System.out.printf(
           "isSubtypeOf(%s, %s) [%s, %s]%n", this, otherType, this.getClass(), otherType.getClass());
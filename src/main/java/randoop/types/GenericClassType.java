@@ -66,8 +66,10 @@ public class GenericClassType extends ParameterizedType {
             (TypeVariable variable) ->
                 TypeArgument.forType(substitution.getOrDefault(variable, variable)),
             parameters);
-    return (InstantiatedType)
-        substitute(substitution, new InstantiatedType(new GenericClassType(rawType), argumentList));
+    return InstantiatedType.intern(
+        (InstantiatedType)
+            substitute(
+                substitution, new InstantiatedType(new GenericClassType(rawType), argumentList)));
   }
 
   @Override
@@ -258,12 +260,12 @@ public class GenericClassType extends ParameterizedType {
    * </ol>
    */
   @Override
-  public boolean isSubtypeOf(Type otherType) {
+  protected boolean computeIsSubtypeOf(Type otherType) {
     if (otherType == null) {
       throw new IllegalArgumentException("type must be non-null");
     }
 
-    if (super.isSubtypeOf(otherType)) {
+    if (super.computeIsSubtypeOf(otherType)) {
       return true;
     }
     return otherType.isRawtype() && otherType.runtimeClassIs(this.getRuntimeClass());
@@ -3,8 +3,10 @@ package randoop.types;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.plumelib.util.CollectionsPlume;
 
 /**
@@ -23,6 +25,22 @@ public class InstantiatedType extends ParameterizedType {
   /** The type arguments for this class. */
   private final List<TypeArgument> argumentList;
 
+  /**
+   * The canonical instance of each type returned by {@link #intern}. Like the caches of {@link
+   * NonParameterizedType} and {@link GenericClassType} objects, this is never cleared.
+   */
+  private static final Map<InstantiatedType, InstantiatedType> internedTypes =
+      new ConcurrentHashMap<>();
+
+  /**
+   * The type substitution returned by {@link #getTypeSubstitution()}, or null if it has not been
+   * computed or there is none. This type is immutable once constructed, so it never changes.
+   */
+  private volatile Substitution typeSubstitution = null;
+
+  /** True if {@link #typeSubstitution} has been computed. */
+  private volatile boolean typeSubstitutionComputed = false;
+
   /**
    * Create a parameterized type from the generic class type.
    *
@@ -63,13 +81,34 @@ public class InstantiatedType extends ParameterizedType {
     return Objects.hash(genericType, argumentList);
   }
 
+  /**
+   * Returns the canonical instance of the given type, so that the types that substitution and
+   * reflection create share their memoized supertypes and subtype results. Generic types and types
+   * with capture variables are returned as is. So is a type whose enclosing type differs from that
+   * of the canonical instance, since {@link #equals} does not compare enclosing types.
+   *
+   * @param type a type that is fully constructed, including its enclosing type
+   * @return a type equal to {@code type}, with the same enclosing type
+   */
+  static InstantiatedType intern(InstantiatedType type) {
+    if (type.isGeneric() || type.hasCaptureVariable()) {
+      return type;
+    }
+    InstantiatedType canonical = internedTypes.putIfAbsent(type, type);
+    if (canonical == null || !Objects.equals(canonical.enclosingType, type.enclosingType)) {
+      return type;
+    }
+    return canonical;
+  }
+
   @Override
   public InstantiatedType substitute(Substitution substitution) {
     List<TypeArgument> argumentList =
         CollectionsPlume.mapList(
             (TypeArgument argument) -> argument.substitute(substitution), this.argumentList);
-    return (InstantiatedType)
-        substitute(substitution, new InstantiatedType(genericType, argumentList));
+    return intern(
+        (InstantiatedType)
+            substitute(substitution, new InstantiatedType(genericType, argumentList)));
   }
 
   /**
@@ -149,7 +188,7 @@ public class InstantiatedType extends ParameterizedType {
    * doing supertype search.
    */
   @Override
-  public InstantiatedType getMatchingSupertype(GenericClassType goalType) {
+  protected InstantiatedType computeMatchingSupertype(GenericClassType goalType) {
     /*
     if (this.hasWildcard()) {
       return this.applyCaptureConversion().getMatchingSupertype(goalType);
@@ -158,7 +197,7 @@ public class InstantiatedType extends ParameterizedType {
     if (this.isInstantiationOf(goalType)) {
       return this;
     }
-    return super.getMatchingSupertype(goalType);
+    return super.computeMatchingSupertype(goalType);
   }
 
   /**
@@ -223,10 +262,26 @@ public class InstantiatedType extends ParameterizedType {
    * instantiated class, if the type arguments are reference types. If any type argument is a
    * wildcard, then null is returned.
    *
+   * <p>The result is computed once per type object.
+   *
    * @return the type substitution of the type arguments of this class for the type variables of the
    *     instantiated type
    */
   public Substitution getTypeSubstitution() {
+    if (!typeSubstitutionComputed) {
+      typeSubstitution = computeTypeSubstitution();
+      typeSubstitutionComputed = true;
+    }
+    return typeSubstitution;
+  }
+
+  /**
+   * Computes {@link #getTypeSubstitution()}.
+   *
+   * @return the type substitution of the type arguments of this class for the type variables of the
+   *     instantiated type, or null if any type argument is a wildcard
+   */
+  private Substitution computeTypeSubstitution() {
     List<TypeArgument> typeArgs = this.getTypeArguments();
     List<ReferenceType> arguments = new ArrayList<>(typeArgs.size());
     for (TypeArgument arg : typeArgs) {
@@ -422,7 +477,7 @@ public class InstantiatedType extends ParameterizedType {
    * </ol>
    */
   @Override
-  public boolean isSubtypeOf(Type otherType) {
+  protected boolean computeIsSubtypeOf(Type otherType) {
     if (otherType.isParameterized()) {
 
       // second clause: rawtype same and parameters S_i of otherType contains T_i of this
@@ -450,7 +505,7 @@ public class InstantiatedType extends ParameterizedType {
       }
     }
 
-    if (super.isSubtypeOf(otherType)) {
+    if (super.computeIsSubtypeOf(otherType)) {
       return true;
     }
 
@@ -1,10 +1,10 @@
 package randoop.types;
 
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import org.plumelib.util.CollectionsPlume;
 
 /**
@@ -17,8 +17,11 @@ public class NonParameterizedType extends ClassOrInterfaceType {
   /** The runtime class of this simple type. */
   private final Class<?> runtimeType;
 
-  /** A cache of all NonParameterizedTypes that have been created. */
-  private static final Map<Class<?>, NonParameterizedType> cache = new HashMap<>();
+  /**
+   * A cache of all NonParameterizedTypes that have been created. It is concurrent because worker
+   * threads of {@code --workers} create types.
+   */
+  private static final Map<Class<?>, NonParameterizedType> cache = new ConcurrentHashMap<>();
 
   /**
    * Create a {@link NonParameterizedType} object for the runtime class.
@@ -31,11 +34,15 @@ public class NonParameterizedType extends ClassOrInterfaceType {
     //   return cache.computeIfAbsent(runtimeType, NonParameterizedType::new);
     // because NonParameterizedType::new side-effects `cache`.  It does so by calling
     // ClassOrInterfaceType.forClass which may call back into NonParameterizedType.
+    // If two threads race, the type that was stored first wins.
 
     NonParameterizedType cached = cache.get(runtimeType);
     if (cached == null) {
       cached = new NonParameterizedType(runtimeType);
-      cache.put(runtimeType, cached);
+      NonParameterizedType previous = cache.putIfAbsent(runtimeType, cached);
+      if (previous != null) {
+        cached = previous;
+      }
     }
     return cached;
   }
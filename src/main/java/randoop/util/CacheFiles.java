@@ -0,0 +1,86 @@
+package randoop.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Helpers for on-disk caches whose entries are named by a hash of their contents' key, and whose
+ * directory several runs may use at once.
+ */
+public final class CacheFiles {
+
+  /** Do not instantiate. */
+  private CacheFiles() {
+    throw new Error("Do not instantiate");
+  }
+
+  /**
+   * Returns the SHA-256 hash of the given bytes, in hexadecimal.
+   *
+   * @param bytes the bytes to hash
+   * @return the hash of {@code bytes}, as 64 hexadecimal digits
+   */
+  public static String sha256Hex(byte[] bytes) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new Error("SHA-256 is not available", e);
+    }
+    byte[] hash = digest.digest(bytes);
+    StringBuilder result = new StringBuilder(2 * hash.length);
+    for (byte b : hash) {
+      result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return result.toString();
+  }
+
+  /**
+   * Returns the SHA-256 hash of the UTF-8 encoding of the given text, in hexadecimal.
+   *
+   * @param text the text to hash
+   * @return the hash of {@code text}, as 64 hexadecimal digits
+   */
+  public static String sha256Hex(String text) {
+    return sha256Hex(text.getBytes(UTF_8));
+  }
+
+  /**
+   * Writes a cache entry, creating its directory if necessary. The entry is written under a
+   * temporary name and then renamed, so that a concurrent reader never sees a partially-written
+   * entry. Failures to write are ignored, since a cache only saves work.
+   *
+   * @param file the cache entry
+   * @param contents the contents of the entry
+   */
+  public static void writeAtomically(Path file, byte[] contents) {
+    Path directory = file.toAbsolutePath().getParent();
+    Path temp = null;
+    try {
+      Files.createDirectories(directory);
+      temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      Files.write(temp, contents);
+      try {
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e2) {
+          // ignore
+        }
+      }
+    }
+  }
+}
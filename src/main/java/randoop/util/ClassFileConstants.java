@@ -1,5 +1,7 @@
 package randoop.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
@@ -34,6 +36,7 @@ import org.apache.bcel.generic.Instruction;
 import org.apache.bcel.generic.InstructionList;
 import org.apache.bcel.generic.MethodGen;
 import org.apache.bcel.util.ClassPath;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.ClassGetName;
 import randoop.main.RandoopBug;
 import randoop.operation.NonreceiverTerm;
@@ -164,11 +167,44 @@ public class ClassFileConstants {
    * @see #getConstants(String)
    */
   public static ConstantSet getConstants(String classname, ConstantSet result) {
+    return getConstants(classname, readClassfile(classname), result);
+  }
 
+  /**
+   * Returns the bytes of the class file of the given class.
+   *
+   * @param classname the name of the type
+   * @return the contents of the class file
+   */
+  private static byte[] readClassfile(String classname) {
     String classfileBase = classname.replace('.', '/');
+    try (InputStream is = ClassPath.SYSTEM_CLASS_PATH.getInputStream(classfileBase, ".class")) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int n;
+      while ((n = is.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    } catch (java.io.IOException e) {
+      throw new Error("IOException while reading '" + classname + "': " + e.getMessage());
+    }
+  }
+
+  /**
+   * Adds all the constants found in the given class file into the given ConstantSet, and returns
+   * it.
+   *
+   * @param classname the name of the type
+   * @param classfile the contents of the class file of the type
+   * @param result the set of constants to which constants are added
+   * @return the set of constants with new constants of given type added
+   */
+  private static ConstantSet getConstants(String classname, byte[] classfile, ConstantSet result) {
+
     ClassParser cp;
     JavaClass jc;
-    try (InputStream is = ClassPath.SYSTEM_CLASS_PATH.getInputStream(classfileBase, ".class")) {
+    try (InputStream is = new ByteArrayInputStream(classfile)) {
       cp = new ClassParser(is, classname);
       jc = cp.parse();
     } catch (java.io.IOException e) {
@@ -664,6 +700,28 @@ public class ClassFileConstants {
     return constantSetToNonreceiverTerms(cs);
   }
 
+  /**
+   * Return the set of NonreceiverTerms converted from constants for the given class, reading the
+   * constants from the given cache if it contains the class file of the class.
+   *
+   * @param c the class
+   * @param cache the cache of constants, or null to always read the class file
+   * @return a set of Nonreceiver terms for the given class
+   */
+  public static Set<NonreceiverTerm> getNonreceiverTerms(
+      Class<?> c, @Nullable ConstantSetCache cache) {
+    if (cache == null) {
+      return getNonreceiverTerms(c);
+    }
+    byte[] classfile = readClassfile(c.getName());
+    ConstantSet cs = cache.lookup(classfile);
+    if (cs == null) {
+      cs = getConstants(c.getName(), classfile, new ConstantSet());
+      cache.store(classfile, cs);
+    }
+    return constantSetToNonreceiverTerms(cs);
+  }
+
   /**
    * Convert a collection of ConstantSets to the format expected by GenTest.addClassLiterals.
    *
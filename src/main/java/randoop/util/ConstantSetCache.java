@@ -0,0 +1,134 @@
+package randoop.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.signature.qual.ClassGetName;
+import randoop.main.RandoopBug;
+import randoop.util.ClassFileConstants.ConstantSet;
+
+/**
+ * A directory of the literals that {@link ClassFileConstants} has already read from class files,
+ * so that later runs on the same classes do not parse their class files again.
+ *
+ * <p>An entry is named by a hash of the bytes of the class file, so a class that changes gets a new
+ * entry and the entries of other classes remain valid. Several runs may use the directory at once,
+ * because entries are written by {@link CacheFiles#writeAtomically}.
+ */
+public final class ConstantSetCache {
+
+  /** The version of the format of the entries. Change it whenever the format changes. */
+  private static final int FORMAT_VERSION = 1;
+
+  /** The directory that contains the cached constant sets. */
+  private final Path directory;
+
+  /**
+   * Creates a cache that stores its entries in the given directory. The directory is created when
+   * the first entry is stored.
+   *
+   * @param directory the directory for the cached constant sets
+   */
+  public ConstantSetCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the cached constants of the given class file.
+   *
+   * @param classfile the bytes of a class file
+   * @return the constants of the class, or null if the class is not in the cache
+   */
+  public @Nullable ConstantSet lookup(byte[] classfile) {
+    byte[] contents;
+    try {
+      contents = Files.readAllBytes(entryPath(classfile));
+    } catch (IOException e) {
+      // The class is not in the cache, or its entry is unreadable; read the class file again.
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(contents))) {
+      if (in.readInt() != FORMAT_VERSION) {
+        return null;
+      }
+      ConstantSet result = new ConstantSet();
+      @SuppressWarnings("signature") // the name was written from a ConstantSet
+      @ClassGetName String classname = in.readUTF();
+      result.classname = classname;
+      for (int i = in.readInt(); i > 0; i--) {
+        result.ints.add(in.readInt());
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        result.longs.add(in.readLong());
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        result.floats.add(in.readFloat());
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        result.doubles.add(in.readDouble());
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        result.strings.add(in.readUTF());
+      }
+      return result;
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Records the constants of the given class file. Failures to write are ignored, since the cache
+   * only saves work.
+   *
+   * @param classfile the bytes of a class file
+   * @param constants the constants of the class. Its {@code classes} are not recorded, because
+   *     {@link ClassFileConstants} does not collect class literals.
+   */
+  public void store(byte[] classfile, ConstantSet constants) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(constants.classname);
+      out.writeInt(constants.ints.size());
+      for (int x : constants.ints) {
+        out.writeInt(x);
+      }
+      out.writeInt(constants.longs.size());
+      for (long x : constants.longs) {
+        out.writeLong(x);
+      }
+      out.writeInt(constants.floats.size());
+      for (float x : constants.floats) {
+        out.writeFloat(x);
+      }
+      out.writeInt(constants.doubles.size());
+      for (double x : constants.doubles) {
+        out.writeDouble(x);
+      }
+      out.writeInt(constants.strings.size());
+      for (String x : constants.strings) {
+        // A string constant fits in a class file's constant pool, so it is short enough for
+        // writeUTF, which uses the same encoding.
+        out.writeUTF(x);
+      }
+    } catch (IOException e) {
+      throw new RandoopBug(e);
+    }
+    CacheFiles.writeAtomically(entryPath(classfile), bytes.toByteArray());
+  }
+
+  /**
+   * Returns the path of the cache entry for the given class file.
+   *
+   * @param classfile the bytes of a class file
+   * @return the path of the file that holds the constants of the class
+   */
+  private Path entryPath(byte[] classfile) {
+    return directory.resolve(CacheFiles.sha256Hex(classfile) + ".bin");
+  }
+}
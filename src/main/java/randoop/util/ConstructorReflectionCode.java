@@ -3,6 +3,7 @@ package randoop.util;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /** Wraps a constructor together with its arguments, ready for execution. Can be run only once. */
 public final class ConstructorReflectionCode extends ReflectionCode {
@@ -16,6 +17,9 @@ public final class ConstructorReflectionCode extends ReflectionCode {
    */
   private final Object[] inputs;
 
+  /** Invokes the constructor without reflection when possible, or null to always use reflection. */
+  private final @Nullable DirectInvoker invoker;
+
   /**
    * Create a new ConstructorReflectionCode to represent a constructor invocation.
    *
@@ -23,8 +27,22 @@ public final class ConstructorReflectionCode extends ReflectionCode {
    * @param inputs the arguments that the constructor is applied to. If an inner class constructor
    *     has a receiver, it is the first element of this array.
    */
-  @SuppressWarnings("deprecation") // AccessibleObject.isAccessible() has no replacement in Java 8.
   public ConstructorReflectionCode(Constructor<?> constructor, Object[] inputs) {
+    this(constructor, null, inputs);
+  }
+
+  /**
+   * Create a new ConstructorReflectionCode to represent a constructor invocation.
+   *
+   * @param constructor the constructor to be called
+   * @param invoker invokes {@code constructor} without reflection when possible, or null to always
+   *     use reflection
+   * @param inputs the arguments that the constructor is applied to. If an inner class constructor
+   *     has a receiver, it is the first element of this array.
+   */
+  @SuppressWarnings("deprecation") // AccessibleObject.isAccessible() has no replacement in Java 8.
+  public ConstructorReflectionCode(
+      Constructor<?> constructor, @Nullable DirectInvoker invoker, Object[] inputs) {
     if (constructor == null) {
       throw new IllegalArgumentException("constructor is null");
     }
@@ -32,6 +50,7 @@ public final class ConstructorReflectionCode extends ReflectionCode {
       throw new IllegalArgumentException("inputs is null");
     }
     this.constructor = constructor;
+    this.invoker = invoker;
     this.inputs = inputs;
 
     if (!this.constructor.isAccessible()) {
@@ -51,11 +70,26 @@ public final class ConstructorReflectionCode extends ReflectionCode {
   })
   @Override
   public void runReflectionCodeRaw() {
+    if (invoker != null && invoker.accepts(null, inputs)) {
+      try {
+        this.retval = invoker.invoke(null, inputs);
+      } catch (Throwable e) {
+        // The underlying constructor threw an exception
+        this.exceptionThrown = e;
+      }
+      return;
+    }
     try {
       this.retval = this.constructor.newInstance(this.inputs);
+      if (invoker != null) {
+        invoker.classInitialized();
+      }
     } catch (InvocationTargetException e) {
       // The underlying constructor threw an exception
       this.exceptionThrown = e.getCause();
+      if (invoker != null) {
+        invoker.classInitialized();
+      }
       // new Error(
       //     String.format(
       //         "Failure in newInstance: constructor=%s, args=%s%n",
@@ -0,0 +1,235 @@
+package randoop.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.types.PrimitiveTypes;
+
+/**
+ * Invokes a method, constructor, or field access through a {@link MethodHandle}, which the JIT can
+ * inline and which does no access checks at run time, instead of through {@link Method#invoke} and
+ * its relatives.
+ *
+ * <p>Every invoker has the shape {@code (Object receiver, Object[] arguments) -> Object}. The
+ * receiver is ignored by static members and constructors; a field getter takes no arguments and a
+ * field setter takes the new value as its only argument and returns null.
+ *
+ * <p>Reflection reports some misuses, such as an argument of the wrong type, as {@link
+ * IllegalArgumentException}, but a method handle would report them as an exception thrown by the
+ * called code. Clients must therefore call {@link #invoke} only if {@link #accepts} returns true,
+ * and otherwise fall back to reflection. Then the outcome of a call is the same as with
+ * reflection, except that an exception thrown by the called code is not wrapped in an {@link
+ * java.lang.reflect.InvocationTargetException}.
+ *
+ * <p>Reflection throws an error in initializing the declaring class of a static method or of a
+ * constructor, such as {@link ExceptionInInitializerError} or {@link NoClassDefFoundError}, itself
+ * rather than as the called code's exception, but a method handle throws it just like an exception
+ * thrown by the called code. So an invoker for such a member does not accept any call until {@link
+ * #classInitialized} records that a call through reflection has initialized the class.
+ */
+public final class DirectInvoker {
+
+  /** The arguments of a field getter. */
+  public static final Object[] NO_ARGUMENTS = new Object[0];
+
+  /** The handle, of type {@code (Object, Object[])Object}, or null if none could be created. */
+  private final @Nullable MethodHandle handle;
+
+  /** The types of the arguments, not including the receiver. */
+  private final Class<?>[] parameterTypes;
+
+  /** The type of the receiver, or null if the member does not have one. */
+  private final @Nullable Class<?> receiverType;
+
+  /**
+   * The class that a call through reflection must initialize before {@link #invoke} may be called,
+   * or null if there is none.
+   */
+  private volatile @Nullable Class<?> uninitializedClass;
+
+  /**
+   * Creates an invoker.
+   *
+   * @param handle the handle, of type {@code (Object, Object[])Object}, or null if none could be
+   *     created
+   * @param parameterTypes the types of the arguments, not including the receiver
+   * @param receiverType the type of the receiver, or null if the member does not have one
+   * @param uninitializedClass the class that a call through reflection must initialize before
+   *     {@link #invoke} may be called, or null if there is none
+   */
+  private DirectInvoker(
+      @Nullable MethodHandle handle,
+      Class<?>[] parameterTypes,
+      @Nullable Class<?> receiverType,
+      @Nullable Class<?> uninitializedClass) {
+    this.handle = handle;
+    this.parameterTypes = parameterTypes;
+    this.receiverType = receiverType;
+    this.uninitializedClass = uninitializedClass;
+  }
+
+  /**
+   * Returns an invoker for the given method, which must have been made accessible.
+   *
+   * @param method the method
+   * @return an invoker for the method
+   */
+  public static DirectInvoker forMethod(Method method) {
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    boolean isStatic = Modifier.isStatic(method.getModifiers());
+    MethodHandle handle;
+    try {
+      handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+      if (isStatic) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      handle =
+          handle
+              .asType(MethodType.genericMethodType(parameterTypes.length + 1))
+              .asSpreader(Object[].class, parameterTypes.length);
+    } catch (IllegalAccessException | RuntimeException | LinkageError e) {
+      handle = null;
+    }
+    Class<?> declaringClass = method.getDeclaringClass();
+    return new DirectInvoker(
+        handle,
+        parameterTypes,
+        isStatic ? null : declaringClass,
+        isStatic ? declaringClass : null);
+  }
+
+  /**
+   * Returns an invoker for the given constructor, which must have been made accessible. As with
+   * {@link Constructor#newInstance}, the outer instance of an inner class is the first argument.
+   *
+   * @param constructor the constructor
+   * @return an invoker for the constructor
+   */
+  public static DirectInvoker forConstructor(Constructor<?> constructor) {
+    Class<?>[] parameterTypes = constructor.getParameterTypes();
+    MethodHandle handle;
+    try {
+      if (Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) {
+        // Reflection throws InstantiationException, which is not the constructor's exception.
+        throw new IllegalArgumentException("abstract class");
+      }
+      handle =
+          MethodHandles.lookup()
+              .unreflectConstructor(constructor)
+              .asFixedArity()
+              .asType(MethodType.genericMethodType(parameterTypes.length))
+              .asSpreader(Object[].class, parameterTypes.length);
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    } catch (IllegalAccessException | RuntimeException | LinkageError e) {
+      handle = null;
+    }
+    return new DirectInvoker(handle, parameterTypes, null, constructor.getDeclaringClass());
+  }
+
+  /**
+   * Returns an invoker that reads the given field, which must have been made accessible.
+   *
+   * @param field the field
+   * @return an invoker that reads the field
+   */
+  public static DirectInvoker forGetter(Field field) {
+    boolean isStatic = Modifier.isStatic(field.getModifiers());
+    MethodHandle handle;
+    try {
+      handle = MethodHandles.lookup().unreflectGetter(field);
+      if (isStatic) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      handle =
+          MethodHandles.dropArguments(
+              handle.asType(MethodType.genericMethodType(1)), 1, Object[].class);
+    } catch (IllegalAccessException | RuntimeException | LinkageError e) {
+      handle = null;
+    }
+    return new DirectInvoker(
+        handle, new Class<?>[0], isStatic ? null : field.getDeclaringClass(), null);
+  }
+
+  /**
+   * Returns an invoker that writes the given field, which must have been made accessible.
+   *
+   * @param field the field
+   * @return an invoker that writes the field
+   */
+  public static DirectInvoker forSetter(Field field) {
+    boolean isStatic = Modifier.isStatic(field.getModifiers());
+    MethodHandle handle;
+    try {
+      handle = MethodHandles.lookup().unreflectSetter(field);
+      if (isStatic) {
+        handle = MethodHandles.dropArguments(handle, 0, Object.class);
+      }
+      handle = handle.asType(MethodType.genericMethodType(2)).asSpreader(Object[].class, 1);
+    } catch (IllegalAccessException | RuntimeException | LinkageError e) {
+      handle = null;
+    }
+    return new DirectInvoker(
+        handle,
+        new Class<?>[] {field.getType()},
+        isStatic ? null : field.getDeclaringClass(),
+        null);
+  }
+
+  /**
+   * Returns true if {@link #invoke} can be called with the given receiver and arguments: that is,
+   * if a handle is available, the class that declares the member is known to be initialized, and
+   * every non-null value has exactly the type that reflection would accept without conversion.
+   *
+   * @param receiver the receiver, or null
+   * @param arguments the arguments
+   * @return true if {@link #invoke} behaves like reflection for the given receiver and arguments
+   */
+  public boolean accepts(@Nullable Object receiver, Object[] arguments) {
+    if (handle == null || uninitializedClass != null || arguments.length != parameterTypes.length) {
+      return false;
+    }
+    if (receiverType != null && receiver != null && !receiverType.isInstance(receiver)) {
+      return false;
+    }
+    for (int i = 0; i < arguments.length; i++) {
+      Class<?> type = parameterTypes[i];
+      Object argument = arguments[i];
+      if (type.isPrimitive()) {
+        if (argument == null || argument.getClass() != PrimitiveTypes.toBoxedType(type)) {
+          return false;
+        }
+      } else if (argument != null && !type.isInstance(argument)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Records that a call through reflection reached the member, which initialized the class that
+   * declares it. Until this is called for a static method or a constructor, {@link #accepts}
+   * returns false.
+   */
+  public void classInitialized() {
+    uninitializedClass = null;
+  }
+
+  /**
+   * Invokes the member. Requires that {@link #accepts} returned true for the same receiver and
+   * arguments.
+   *
+   * @param receiver the receiver, or null if the member is static or a constructor
+   * @param arguments the arguments
+   * @return the result of the invocation: the value returned by a method, the new object created by
+   *     a constructor, the value of a field, or null for a void method or a field write
+   * @throws Throwable any exception thrown by the invoked code
+   */
+  public @Nullable Object invoke(@Nullable Object receiver, Object[] arguments) throws Throwable {
+    return (Object) handle.invokeExact(receiver, arguments);
+  }
+}
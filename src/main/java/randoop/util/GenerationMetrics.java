@@ -0,0 +1,368 @@
+package randoop.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import randoop.main.RandoopBug;
+
+/**
+ * A registry of timing and allocation metrics for the phases of test generation. This implements
+ * {@code --metrics-file}.
+ *
+ * <p>Each phase is measured by a pair of calls:
+ *
+ * <pre>
+ * long start = GenerationMetrics.start(Phase.EXECUTION);
+ * ... // the work of the phase
+ * GenerationMetrics.stop(Phase.EXECUTION, start);
+ * </pre>
+ *
+ * For each phase, the registry counts the measurements and records their total, maximum, and
+ * distribution of durations, and the number of bytes that the measuring thread allocated during
+ * them. Collection is off until {@link #enable} is called; while it is off, {@link #start} and
+ * {@link #stop} do almost nothing. The registry is thread-safe.
+ */
+public final class GenerationMetrics {
+
+  /** Do not instantiate. */
+  private GenerationMetrics() {
+    throw new Error("Do not instantiate");
+  }
+
+  /** A phase of test generation. */
+  public enum Phase {
+    /** Choosing the next operation to call. */
+    OPERATION_SELECTION,
+    /** Instantiating the type parameters of a generic operation. */
+    TYPE_INSTANTIATION,
+    /** Choosing input sequences and variables for an operation. */
+    INPUT_SELECTION,
+    /** Executing a sequence, not including check generation. */
+    EXECUTION,
+    /** Generating the checks (such as regression assertions) of an executed sequence. */
+    CHECK_GENERATION,
+    /** Deciding whether to output a sequence as a test. */
+    OUTPUT_PREDICATE,
+    /** Checking that a test compiles. */
+    COMPILABLE_CHECK,
+  }
+
+  /** The value of {@link #start} when metrics are not being collected. */
+  public static final long NOT_STARTED = Long.MIN_VALUE;
+
+  /** The number of histogram buckets: one for each possible bit length of a duration. */
+  private static final int NUM_BUCKETS = 64;
+
+  /** The statistics for one phase. */
+  private static final class PhaseStats {
+    /** The number of measurements. */
+    final LongAdder count = new LongAdder();
+
+    /** The sum of the durations, in nanoseconds. */
+    final LongAdder totalNanos = new LongAdder();
+
+    /** The longest duration, in nanoseconds. */
+    final AtomicLong maxNanos = new AtomicLong();
+
+    /** The number of bytes allocated, or 0 if the JVM cannot measure allocation. */
+    final LongAdder allocatedBytes = new LongAdder();
+
+    /**
+     * Bucket i counts the durations d, in nanoseconds, with {@code 2^(i-1) <= d < 2^i} (bucket 0
+     * counts zero durations).
+     */
+    final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+  }
+
+  /** True if metrics are being collected. */
+  private static volatile boolean enabled = false;
+
+  /** The file to which metrics are written. */
+  private static @Nullable Path outputFile = null;
+
+  /** Write the metrics every this many generation steps; 0 means only when Randoop exits. */
+  private static long intervalSteps = 0;
+
+  /** The number of generation steps, over all generators. */
+  private static final AtomicLong steps = new AtomicLong();
+
+  /** When metrics collection was enabled, from {@link System#nanoTime}. */
+  private static long enabledNanos = 0;
+
+  /** The statistics for each phase, indexed by ordinal. */
+  private static PhaseStats[] stats = newStats();
+
+  /** Measures per-thread allocation, or null if the JVM cannot do so. */
+  private static final com.sun.management.@Nullable ThreadMXBean allocationBean = allocationBean();
+
+  /**
+   * For each thread, the number of bytes that the thread had allocated when each phase started,
+   * indexed by the phase's ordinal.
+   */
+  private static final ThreadLocal<long[]> startBytes =
+      ThreadLocal.withInitial(() -> new long[Phase.values().length]);
+
+  /**
+   * Returns a fresh array of statistics, one per phase.
+   *
+   * @return new statistics for each phase
+   */
+  private static PhaseStats[] newStats() {
+    PhaseStats[] result = new PhaseStats[Phase.values().length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new PhaseStats();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the MX bean that measures per-thread allocation, or null if the JVM cannot do so.
+   *
+   * @return the MX bean that measures per-thread allocation, or null
+   */
+  private static com.sun.management.@Nullable ThreadMXBean allocationBean() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+      if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+        return sunBean;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Starts collecting metrics, discarding any that were collected before.
+   *
+   * @param file the file to which {@link #write} writes the metrics. If its name ends in {@code
+   *     .csv}, the format is CSV; otherwise it is JSON.
+   * @param intervalSteps if positive, write the metrics every this many generation steps
+   */
+  public static synchronized void enable(Path file, long intervalSteps) {
+    GenerationMetrics.outputFile = file;
+    GenerationMetrics.intervalSteps = intervalSteps;
+    GenerationMetrics.stats = newStats();
+    GenerationMetrics.steps.set(0);
+    GenerationMetrics.enabledNanos = System.nanoTime();
+    GenerationMetrics.enabled = true;
+  }
+
+  /** Stops collecting metrics. */
+  public static synchronized void disable() {
+    enabled = false;
+  }
+
+  /**
+   * Returns true if metrics are being collected.
+   *
+   * @return true if metrics are being collected
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts measuring a phase on the current thread.
+   *
+   * @param phase the phase
+   * @return the value to pass to {@link #stop}
+   */
+  public static long start(Phase phase) {
+    if (!enabled) {
+      return NOT_STARTED;
+    }
+    if (allocationBean != null) {
+      startBytes.get()[phase.ordinal()] = allocatedBytes(allocationBean);
+    }
+    return System.nanoTime();
+  }
+
+  /**
+   * Finishes measuring a phase on the current thread. Does nothing if {@code startNanos} is {@link
+   * #NOT_STARTED}.
+   *
+   * @param phase the phase; the same as was passed to {@link #start}
+   * @param startNanos the result of {@link #start}
+   */
+  public static void stop(Phase phase, long startNanos) {
+    if (startNanos == NOT_STARTED || !enabled) {
+      return;
+    }
+    long durationNanos = Math.max(0, System.nanoTime() - startNanos);
+    PhaseStats phaseStats = stats[phase.ordinal()];
+    phaseStats.count.increment();
+    phaseStats.totalNanos.add(durationNanos);
+    phaseStats.maxNanos.accumulateAndGet(durationNanos, Math::max);
+    phaseStats.buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(durationNanos));
+    if (allocationBean != null) {
+      phaseStats.allocatedBytes.add(
+          allocatedBytes(allocationBean) - startBytes.get()[phase.ordinal()]);
+    }
+  }
+
+  /**
+   * Returns the number of bytes that the current thread has allocated.
+   *
+   * @param bean the MX bean that measures per-thread allocation
+   * @return the number of bytes that the current thread has allocated
+   */
+  @SuppressWarnings("deprecation") // Thread.threadId() was introduced in Java 19
+  private static long allocatedBytes(com.sun.management.ThreadMXBean bean) {
+    return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Notes that a generator took a step. Writes the metrics if a multiple of the interval given to
+   * {@link #enable} has been reached.
+   */
+  public static void step() {
+    if (!enabled) {
+      return;
+    }
+    long numSteps = steps.incrementAndGet();
+    if (intervalSteps > 0 && numSteps % intervalSteps == 0) {
+      write();
+    }
+  }
+
+  /**
+   * Returns the metrics collected so far, as nested maps of strings and numbers.
+   *
+   * @return the metrics collected so far
+   */
+  public static synchronized Map<String, Object> snapshot() {
+    Map<String, Object> counters = new LinkedHashMap<>();
+    counters.put("elapsed_millis", (System.nanoTime() - enabledNanos) / 1000000);
+    counters.put("steps", steps.get());
+    counters.put("normal_method_executions", ReflectionExecutor.normalExecs());
+    counters.put("exceptional_method_executions", ReflectionExecutor.excepExecs());
+    counters.put("normal_method_execution_avg_millis", ReflectionExecutor.normalExecAvgMillis());
+    counters.put(
+        "exceptional_method_execution_avg_millis", ReflectionExecutor.excepExecAvgMillis());
+    counters.put("runner_threads_started", ReflectionExecutor.runnerThreadsStarted());
+    counters.put("runner_threads_killed", ReflectionExecutor.runnerThreadsKilled());
+
+    Map<String, Object> phases = new LinkedHashMap<>();
+    for (Phase phase : Phase.values()) {
+      PhaseStats phaseStats = stats[phase.ordinal()];
+      long count = phaseStats.count.sum();
+      long totalNanos = phaseStats.totalNanos.sum();
+      long[] buckets = new long[NUM_BUCKETS];
+      Map<String, Long> histogram = new LinkedHashMap<>();
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+        buckets[i] = phaseStats.buckets.get(i);
+        if (buckets[i] != 0) {
+          histogram.put("<" + bucketLimit(i), buckets[i]);
+        }
+      }
+      Map<String, Object> phaseMap = new LinkedHashMap<>();
+      phaseMap.put("count", count);
+      phaseMap.put("total_nanos", totalNanos);
+      phaseMap.put("mean_nanos", count == 0 ? 0 : totalNanos / count);
+      phaseMap.put("p50_nanos", percentile(buckets, count, 0.50));
+      phaseMap.put("p90_nanos", percentile(buckets, count, 0.90));
+      phaseMap.put("p99_nanos", percentile(buckets, count, 0.99));
+      phaseMap.put("max_nanos", phaseStats.maxNanos.get());
+      phaseMap.put("allocated_bytes", phaseStats.allocatedBytes.sum());
+      phaseMap.put("histogram_nanos", histogram);
+      phases.put(phase.name().toLowerCase(Locale.ROOT), phaseMap);
+    }
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("counters", counters);
+    result.put("phases", phases);
+    return result;
+  }
+
+  /**
+   * Returns the exclusive upper limit of the durations in the given histogram bucket.
+   *
+   * @param bucket the index of a histogram bucket
+   * @return the exclusive upper limit of the bucket, in nanoseconds
+   */
+  private static long bucketLimit(int bucket) {
+    return bucket == NUM_BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+  }
+
+  /**
+   * Estimates a percentile of a histogram, as the upper limit of the bucket that contains it.
+   *
+   * @param buckets the histogram
+   * @param count the sum of the buckets
+   * @param fraction the percentile, in (0, 1]
+   * @return an upper bound on the percentile, in nanoseconds; 0 if the histogram is empty
+   */
+  private static long percentile(long[] buckets, long count, double fraction) {
+    long rank = (long) Math.ceil(count * fraction);
+    long seen = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank && seen > 0) {
+        return bucketLimit(i);
+      }
+    }
+    return 0;
+  }
+
+  /** Writes the metrics collected so far to the file given to {@link #enable}, replacing it. */
+  public static synchronized void write() {
+    if (!enabled || outputFile == null) {
+      return;
+    }
+    Map<String, Object> snapshot = snapshot();
+    boolean csv = outputFile.toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+    try (BufferedWriter writer = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+      if (csv) {
+        writeCsv(snapshot, writer);
+      } else {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        gson.toJson(snapshot, writer);
+        writer.newLine();
+      }
+    } catch (IOException e) {
+      throw new RandoopBug("Error writing metrics to " + outputFile, e);
+    }
+  }
+
+  /**
+   * Writes a snapshot in CSV format: one row per counter and one row per phase statistic, each
+   * with the columns {@code metric} and {@code value}.
+   *
+   * @param snapshot the result of {@link #snapshot}
+   * @param writer where to write the CSV
+   * @throws IOException if writing fails
+   */
+  @SuppressWarnings("unchecked") // the structure of the snapshot is known
+  private static void writeCsv(Map<String, Object> snapshot, BufferedWriter writer)
+      throws IOException {
+    writer.write("metric,value");
+    writer.newLine();
+    for (Map.Entry<String, Object> counter :
+        ((Map<String, Object>) snapshot.get("counters")).entrySet()) {
+      writer.write(counter.getKey() + "," + counter.getValue());
+      writer.newLine();
+    }
+    for (Map.Entry<String, Object> phase :
+        ((Map<String, Object>) snapshot.get("phases")).entrySet()) {
+      for (Map.Entry<String, Object> stat : ((Map<String, Object>) phase.getValue()).entrySet()) {
+        if (stat.getValue() instanceof Number) {
+          writer.write(phase.getKey() + "." + stat.getKey() + "," + stat.getValue());
+          writer.newLine();
+        }
+      }
+    }
+  }
+}
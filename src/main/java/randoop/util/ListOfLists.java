@@ -76,14 +76,8 @@ public class ListOfLists<E> implements SimpleList<E>, Serializable {
     if (index < 0 || index > this.totalelements - 1) {
       throw new IllegalArgumentException("index must be between 0 and size()-1");
     }
-    int previousListSize = 0;
-    for (int i = 0; i < this.cumulativeSize.length; i++) {
-      if (index < this.cumulativeSize[i]) {
-        return this.lists.get(i).get(index - previousListSize);
-      }
-      previousListSize = this.cumulativeSize[i];
-    }
-    throw new RandoopBug("Indexing error in ListOfLists");
+    int i = listIndex(index);
+    return this.lists.get(i).get(index - (i == 0 ? 0 : this.cumulativeSize[i - 1]));
   }
 
   @Override
@@ -91,23 +85,46 @@ public class ListOfLists<E> implements SimpleList<E>, Serializable {
     if (index < 0 || index > this.totalelements - 1) {
       throw new IllegalArgumentException("index must be between 0 and size()-1");
     }
-    int previousListSize = 0;
-    for (int i = 0; i < this.cumulativeSize.length; i++) {
-      if (index < this.cumulativeSize[i]) {
-        // Recurse.
-        return lists.get(i).getSublist(index - previousListSize);
+    int i = listIndex(index);
+    // Recurse.
+    return lists.get(i).getSublist(index - (i == 0 ? 0 : this.cumulativeSize[i - 1]));
+  }
+
+  /**
+   * Returns the index of the sublist that contains the element at the given index: the smallest i
+   * such that {@code index < cumulativeSize[i]}. Uses binary search.
+   *
+   * @param index an index into this list, between 0 and size()-1
+   * @return the index of the sublist that contains the element
+   */
+  private int listIndex(int index) {
+    int low = 0;
+    int high = this.cumulativeSize.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (index < this.cumulativeSize[mid]) {
+        high = mid;
+      } else {
+        low = mid + 1;
       }
-      previousListSize = cumulativeSize[i];
     }
-    throw new RandoopBug("indexing error in ListOfLists");
+    if (index >= this.cumulativeSize[low]) {
+      throw new RandoopBug("Indexing error in ListOfLists");
+    }
+    return low;
   }
 
   @Override
-  public List<E> toJDKList() {
-    List<E> result = new ArrayList<>();
+  public void appendTo(List<? super E> result) {
     for (SimpleList<E> l : lists) {
-      result.addAll(l.toJDKList());
+      l.appendTo(result);
     }
+  }
+
+  @Override
+  public List<E> toJDKList() {
+    List<E> result = new ArrayList<>(totalelements);
+    appendTo(result);
     return result;
   }
 
@@ -6,6 +6,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /** Wraps a method together with its arguments, ready for execution. Can be run only once. */
 public final class MethodReflectionCode extends ReflectionCode {
@@ -19,6 +20,9 @@ public final class MethodReflectionCode extends ReflectionCode {
   /** The arguments that the method is applied to. */
   private final Object[] inputs;
 
+  /** Invokes the method without reflection when possible, or null to always use reflection. */
+  private final @Nullable DirectInvoker invoker;
+
   /**
    * Create a new MethodReflectionCode to represent a method invocation.
    *
@@ -26,10 +30,25 @@ public final class MethodReflectionCode extends ReflectionCode {
    * @param receiver the receiver, or null for a static method
    * @param inputs the arguments that the method is applied to
    */
-  @SuppressWarnings("deprecation") // AccessibleObject.isAccessible() has no replacement in Java 8.
   public MethodReflectionCode(Method method, Object receiver, Object[] inputs) {
+    this(method, null, receiver, inputs);
+  }
+
+  /**
+   * Create a new MethodReflectionCode to represent a method invocation.
+   *
+   * @param method the method to be called
+   * @param invoker invokes {@code method} without reflection when possible, or null to always use
+   *     reflection
+   * @param receiver the receiver, or null for a static method
+   * @param inputs the arguments that the method is applied to
+   */
+  @SuppressWarnings("deprecation") // AccessibleObject.isAccessible() has no replacement in Java 8.
+  public MethodReflectionCode(
+      Method method, @Nullable DirectInvoker invoker, Object receiver, Object[] inputs) {
     this.receiver = receiver;
     this.method = method;
+    this.invoker = invoker;
     this.inputs = inputs;
 
     if (!this.method.isAccessible()) {
@@ -52,7 +71,20 @@ public final class MethodReflectionCode extends ReflectionCode {
   public void runReflectionCodeRaw() {
     Log.logPrintf("runReflectionCodeRaw: %s%n", method);
     try {
-      this.retval = this.method.invoke(this.receiver, this.inputs);
+      if (invoker != null && invoker.accepts(receiver, inputs)) {
+        try {
+          this.retval = invoker.invoke(receiver, inputs);
+        } catch (Throwable e) {
+          // The underlying method threw an exception
+          this.exceptionThrown = e;
+          return;
+        }
+      } else {
+        this.retval = this.method.invoke(this.receiver, this.inputs);
+        if (invoker != null) {
+          invoker.classInitialized();
+        }
+      }
       try {
         Log.logPrintf("runReflectionCodeRaw(%s) => %s%n", method, status());
       } catch (OutOfMemoryError e) {
@@ -67,6 +99,9 @@ public final class MethodReflectionCode extends ReflectionCode {
     } catch (InvocationTargetException e) {
       // The underlying method threw an exception
       this.exceptionThrown = e.getCause();
+      if (invoker != null) {
+        invoker.classInitialized();
+      }
     } catch (Throwable e) {
       // Any other exception indicates Randoop should not have called the method
       String message =
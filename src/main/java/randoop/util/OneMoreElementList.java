@@ -2,8 +2,22 @@ package randoop.util;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+/**
+ * A list that consists of another list plus one more element at the end. Creating one takes
+ * constant time and space.
+ *
+ * <p>A chain of extensions {@code new OneMoreElementList<>(new OneMoreElementList<>(...), e)} would
+ * make {@link #get} take time proportional to the length of the chain. Therefore, the first call to
+ * {@link #get} materializes the elements into an array, and later calls index into it. The lists of
+ * a chain share one array: a list that extends {@link #list} stores its last element in the slot
+ * after the elements of {@link #list}, if that slot is free. Only the first of several lists that
+ * extend the same list can take the slot; the others copy the elements into a new array.
+ */
 public final class OneMoreElementList<E> implements SimpleList<E>, Serializable {
 
   private static final long serialVersionUID = 1332963552183905833L;
@@ -19,6 +33,12 @@ public final class OneMoreElementList<E> implements SimpleList<E>, Serializable
   /** The size of this. */
   public final int size;
 
+  /**
+   * The array whose first {@link #size} slots hold the elements of this, in order; null until the
+   * first call to {@link #get}.
+   */
+  private transient volatile @Nullable Elements elements = null;
+
   public OneMoreElementList(SimpleList<E> list, E extraElement) {
     this.list = list;
     this.lastElement = extraElement;
@@ -36,14 +56,105 @@ public final class OneMoreElementList<E> implements SimpleList<E>, Serializable
   }
 
   @Override
+  @SuppressWarnings("unchecked") // the array contains only elements of this list
   public E get(int index) {
-    if (index < size - 1) {
-      return list.get(index);
-    }
     if (index == size - 1) {
       return lastElement;
     }
-    throw new IndexOutOfBoundsException("No such element: " + index);
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("No such element: " + index);
+    }
+    return (E) elements().array[index];
+  }
+
+  /**
+   * Returns the elements of this, materializing them on first use. Also materializes the lists
+   * that this extends, so that they can share the array.
+   *
+   * @return the elements of this, in order
+   */
+  private Elements elements() {
+    Elements result = elements;
+    if (result != null) {
+      return result;
+    }
+    // Iterate down the chain rather than recursing, which could overflow the stack.
+    List<OneMoreElementList<E>> chain = new ArrayList<>();
+    SimpleList<E> prefix = this;
+    while (prefix instanceof OneMoreElementList
+        && ((OneMoreElementList<E>) prefix).elements == null) {
+      chain.add((OneMoreElementList<E>) prefix);
+      prefix = ((OneMoreElementList<E>) prefix).list;
+    }
+    if (prefix instanceof OneMoreElementList) {
+      result = ((OneMoreElementList<E>) prefix).elements;
+    } else {
+      List<E> prefixList = new ArrayList<>(prefix.size());
+      prefix.appendTo(prefixList);
+      result = new Elements(Arrays.copyOf(prefixList.toArray(), capacity(size)), prefix.size());
+    }
+    for (int i = chain.size() - 1; i >= 0; i--) {
+      result = chain.get(i).materialize(result);
+    }
+    return result;
+  }
+
+  /**
+   * Sets {@link #elements} from the elements of {@link #list}. Uses the same array if its slot for
+   * {@link #lastElement} is free, and otherwise copies it.
+   *
+   * @param prefix the elements of {@link #list}
+   * @return the elements of this
+   */
+  private Elements materialize(Elements prefix) {
+    int index = size - 1;
+    Elements result;
+    if (index < prefix.array.length && prefix.length.compareAndSet(index, size)) {
+      result = prefix;
+    } else {
+      Object[] array = new Object[capacity(size)];
+      System.arraycopy(prefix.array, 0, array, 0, index);
+      result = new Elements(array, size);
+    }
+    // This slot is written once, before any list that reads it can see the array.
+    result.array[index] = lastElement;
+    elements = result;
+    return result;
+  }
+
+  /**
+   * Returns the length of a new array for the elements of a list, leaving room for the lists that
+   * extend it.
+   *
+   * @param size the size of the list
+   * @return the length of the array for its elements
+   */
+  private static int capacity(int size) {
+    return size + (size >> 1) + 1;
+  }
+
+  /** An array that holds the elements of the lists of a chain. */
+  private static final class Elements {
+
+    /** The elements; the slots at and after {@link #length} are free. */
+    final Object[] array;
+
+    /**
+     * The number of slots of {@link #array} that a list has taken. A list of this size takes the
+     * next slot by incrementing it.
+     */
+    final AtomicInteger length;
+
+    /**
+     * Creates an array of elements.
+     *
+     * @param array the elements
+     * @param length the number of slots of {@code array} that are taken
+     */
+    Elements(Object[] array, int length) {
+      this.array = array;
+      this.length = new AtomicInteger(length);
+    }
   }
 
   @Override
@@ -58,11 +169,35 @@ public final class OneMoreElementList<E> implements SimpleList<E>, Serializable
     throw new IndexOutOfBoundsException("No such index: " + index);
   }
 
+  @Override
+  @SuppressWarnings("unchecked") // the array contains only elements of this list
+  public void appendTo(List<? super E> result) {
+    Elements materialized = elements;
+    if (materialized != null) {
+      for (int i = 0; i < size; i++) {
+        result.add((E) materialized.array[i]);
+      }
+      return;
+    }
+    // Iterate down the chain rather than recursing, which could overflow the stack.
+    List<E> lastElements = new ArrayList<>();
+    SimpleList<E> prefix = this;
+    while (prefix instanceof OneMoreElementList
+        && ((OneMoreElementList<E>) prefix).elements == null) {
+      OneMoreElementList<E> oneMore = (OneMoreElementList<E>) prefix;
+      lastElements.add(oneMore.lastElement);
+      prefix = oneMore.list;
+    }
+    prefix.appendTo(result);
+    for (int i = lastElements.size() - 1; i >= 0; i--) {
+      result.add(lastElements.get(i));
+    }
+  }
+
   @Override
   public List<E> toJDKList() {
-    List<E> result = new ArrayList<>();
-    result.addAll(list.toJDKList());
-    result.add(lastElement);
+    List<E> result = new ArrayList<>(size);
+    appendTo(result);
     return result;
   }
 
@@ -27,36 +27,50 @@ public final class Randomness {
   // Public so it can be accessed by GenInputsAbstract.java
   public static final long DEFAULT_SEED = 0;
 
+  /** The random generator of one thread, and the number of calls to it. */
+  private static final class RandomState {
+    /** The random generator that makes random choices. */
+    final Random random = new Random(DEFAULT_SEED);
+
+    /** Number of calls to {@link #random}. */
+    int totalCallsToRandom = 0;
+  }
+
   /**
    * The random generator that makes random choices. (Developer note: do not declare new Random
    * objects; use this one instead).
+   *
+   * <p>Each thread has its own generator, so that the worker threads of {@code --workers} make the
+   * same choices no matter how they are scheduled. A thread's generator starts out with the default
+   * seed.
    */
-  private static Random random = new Random(DEFAULT_SEED);
+  private static final ThreadLocal<RandomState> state = ThreadLocal.withInitial(RandomState::new);
 
   /**
-   * Sets the seed of this random number generator.
+   * Sets the seed of the current thread's random number generator.
    *
    * @param seed the initial seed
    */
   public static void setSeed(long seed) {
-    random.setSeed(seed);
-    totalCallsToRandom = 0;
+    RandomState s = state.get();
+    s.random.setSeed(seed);
+    s.totalCallsToRandom = 0;
     logSelection("[Random object]", "setSeed", seed);
   }
 
-  /** Number of calls to the underlying Random instance that this wraps. */
-  private static int totalCallsToRandom = 0;
-
   /**
-   * Call this before every use of Randomness.random.
+   * Call this before every use of the current thread's random generator.
    *
-   * @param caller the name of the method that called Randomness.random
+   * @param caller the name of the method that called the random generator
+   * @return the current thread's random generator
    */
-  private static void incrementCallsToRandom(String caller) {
-    totalCallsToRandom++;
+  private static Random incrementCallsToRandom(String caller) {
+    RandomState s = state.get();
+    s.totalCallsToRandom++;
     Log.logPrintf(
         "randoop.util.Randomness called by %s: %d calls to Random so far%n",
-        caller, totalCallsToRandom);
+        caller, s.totalCallsToRandom);
+    return s.random;
   }
 
   /**
@@ -66,12 +80,23 @@ public final class Randomness {
    * @return a value selected from range [0, i)
    */
   public static int nextRandomInt(int i) {
-    incrementCallsToRandom("nextRandomInt");
-    int value = Randomness.random.nextInt(i);
+    int value = incrementCallsToRandom("nextRandomInt").nextInt(i);
     logSelection(value, "nextRandomInt", i);
     return value;
   }
 
+  /**
+   * Uniformly random double from [0, bound).
+   *
+   * @param bound upper bound on range for generated values
+   * @return a value selected from range [0, bound)
+   */
+  public static double nextRandomDouble(double bound) {
+    double value = incrementCallsToRandom("nextRandomDouble").nextDouble() * bound;
+    logSelection(value, "nextRandomDouble", bound);
+    return value;
+  }
+
   /**
    * Returns a randomly-chosen member of the list.
    *
@@ -88,6 +113,22 @@ public final class Randomness {
     return list.get(position);
   }
 
+  /**
+   * Returns a randomly-chosen position of the index, with the probability of each position
+   * proportional to its weight. Takes time logarithmic in the size of the index.
+   *
+   * @param index the weights of the positions
+   * @return a randomly-chosen position of the index
+   */
+  public static int randomPositionWeighted(WeightedIndex index) {
+    if (index.size() == 0) {
+      throw new IllegalArgumentException("Empty index");
+    }
+    int position = index.find(nextRandomDouble(index.total()));
+    logSelection(position, "randomPositionWeighted", index.size());
+    return position;
+  }
+
   /**
    * Returns a randomly-chosen member of the collection.
    *
@@ -170,8 +211,8 @@ public final class Randomness {
     }
 
     // Select a random point in interval and find its corresponding element.
-    incrementCallsToRandom("randomMemberWeighted(SimpleList)");
-    double chosenPoint = Randomness.random.nextDouble() * totalWeight;
+    double chosenPoint =
+        incrementCallsToRandom("randomMemberWeighted(SimpleList)").nextDouble() * totalWeight;
     if (GenInputsAbstract.selection_log != null) {
       try {
         GenInputsAbstract.selection_log.write(String.format("chosenPoint = %s%n", chosenPoint));
@@ -223,8 +264,7 @@ public final class Randomness {
       throw new IllegalArgumentException("arg must be between 0 and 1.");
     }
     double falseProb = 1 - trueProb;
-    incrementCallsToRandom("weightedCoinFlip");
-    boolean result = Randomness.random.nextDouble() >= falseProb;
+    boolean result = incrementCallsToRandom("weightedCoinFlip").nextDouble() >= falseProb;
     logSelection(result, "weightedCoinFlip", trueProb);
     return result;
   }
@@ -248,8 +288,8 @@ public final class Randomness {
       throw new IllegalArgumentException("falseProb and trueProb are both 0");
     }
     double falseProbNormalized = falseProb / totalProb;
-    incrementCallsToRandom("randomBoolFromDistribution");
-    boolean result = Randomness.random.nextDouble() >= falseProbNormalized;
+    boolean result =
+        incrementCallsToRandom("randomBoolFromDistribution").nextDouble() >= falseProbNormalized;
     logSelection(result, "randomBoolFromDistribution", falseProb + ", " + trueProb);
     return result;
   }
@@ -268,6 +308,7 @@ public final class Randomness {
       if (argument != null) {
         methodWithArg += "(" + toString(argument) + ")";
       }
+      int totalCallsToRandom = state.get().totalCallsToRandom;
       try {
         String msg =
             String.format(
@@ -2,6 +2,7 @@ package randoop.util;
 
 import java.io.IOException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import org.plumelib.options.Option;
 import org.plumelib.options.OptionGroup;
 import org.plumelib.util.FileWriterWithName;
@@ -13,9 +14,10 @@ import randoop.main.RandoopBug;
 /**
  * Static methods that executes the code of a ReflectionCode object.
  *
- * <p>This class maintains an "executor" thread. Code is executed on that thread. If the code takes
+ * <p>With {@code --usethreads}, code is executed on a separate "runner" thread. If the code takes
  * longer than the specified timeout, the thread is killed and a TimeoutException exception is
- * reported.
+ * reported. Runner threads are reused from call to call (see {@link RunnerThreadPool}) unless
+ * {@code --reuse-runner-threads=false} is given.
  */
 public final class ReflectionExecutor {
 
@@ -58,43 +60,53 @@ public final class ReflectionExecutor {
   @Option("Maximum number of milliseconds a test may run. Only meaningful with --usethreads")
   public static int call_timeout = CALL_TIMEOUT_MILLIS_DEFAULT;
 
-  // Execution statistics.
+  /**
+   * If true, {@code --usethreads} runs calls on a pool of threads that are reused from call to
+   * call; only a thread that is killed because its call timed out is replaced. If false, every call
+   * runs on a new thread, which is much slower but ensures that no thread-local state set by one
+   * call is visible to a later call. Only meaningful if {@code --usethreads} is also specified.
+   */
+  @Option("Reuse threads from call to call. Only meaningful with --usethreads")
+  public static boolean reuse_runner_threads = true;
+
+  // Execution statistics. They are adders, because the worker threads of --workers execute code
+  // concurrently.
   /** The sum of durations for normal executions, in nanoseconds. */
-  private static long normal_exec_duration_nanos = 0;
+  private static final LongAdder normal_exec_duration_nanos = new LongAdder();
 
   /** The number of normal executions. */
-  private static int normal_exec_count = 0;
+  private static final LongAdder normal_exec_count = new LongAdder();
 
   /** The sum of durations for exceptional executions, in nanoseconds. */
-  private static long excep_exec_duration_nanos = 0;
+  private static final LongAdder excep_exec_duration_nanos = new LongAdder();
 
   /** The number of exceptional executions. */
-  private static int excep_exec_count = 0;
+  private static final LongAdder excep_exec_count = new LongAdder();
 
   /** Set statistics about normal and exceptional executions to zero. */
   public static void resetStatistics() {
-    normal_exec_duration_nanos = 0;
-    normal_exec_count = 0;
-    excep_exec_duration_nanos = 0;
-    excep_exec_count = 0;
+    normal_exec_duration_nanos.reset();
+    normal_exec_count.reset();
+    excep_exec_duration_nanos.reset();
+    excep_exec_count.reset();
   }
 
   public static int normalExecs() {
-    return normal_exec_count;
+    return normal_exec_count.intValue();
   }
 
   public static int excepExecs() {
-    return excep_exec_count;
+    return excep_exec_count.intValue();
   }
 
   /** The average normal execution time, in milliseconds. */
   public static double normalExecAvgMillis() {
-    return ((normal_exec_duration_nanos / (double) normal_exec_count) / Math.pow(10, 6));
+    return ((normal_exec_duration_nanos.sum() / normal_exec_count.doubleValue()) / Math.pow(10, 6));
   }
 
   /** The average exceptional execution time, in milliseconds. */
   public static double excepExecAvgMillis() {
-    return ((excep_exec_duration_nanos / (double) excep_exec_count) / Math.pow(10, 6));
+    return ((excep_exec_duration_nanos.sum() / excep_exec_count.doubleValue()) / Math.pow(10, 6));
   }
 
   /**
@@ -130,30 +142,74 @@ public final class ReflectionExecutor {
     long durationNanos = System.nanoTime() - startTimeNanos;
 
     if (code.getExceptionThrown() != null) {
-      // Add durationNanos to running sum for exceptional execution.
-      excep_exec_duration_nanos += durationNanos;
-      assert excep_exec_duration_nanos > 0; // check no overflow.
-      excep_exec_count++;
+      recordExecution(false, durationNanos);
       // System.out.println("exceptional execution: " + code);
       return new ExceptionalExecution(code.getExceptionThrown(), durationNanos);
     } else {
-      // Add durationNanos to running sum for normal execution.
-      normal_exec_duration_nanos += durationNanos;
-      assert normal_exec_duration_nanos > 0; // check no overflow.
-      normal_exec_count++;
+      recordExecution(true, durationNanos);
       // System.out.println("normal execution: " + code);
       return new NormalExecution(code.getReturnValue(), durationNanos);
     }
   }
 
   /**
-   * Executes code.runReflectionCode() in its own thread.
+   * Adds an execution to the execution statistics.
+   *
+   * @param normal true if the execution terminated normally, false if it threw an exception
+   * @param durationNanos the duration of the execution, in nanoseconds
+   */
+  private static void recordExecution(boolean normal, long durationNanos) {
+    if (normal) {
+      // Add durationNanos to running sum for normal execution.
+      normal_exec_duration_nanos.add(durationNanos);
+      normal_exec_count.increment();
+    } else {
+      // Add durationNanos to running sum for exceptional execution.
+      excep_exec_duration_nanos.add(durationNanos);
+      excep_exec_count.increment();
+    }
+  }
+
+  /**
+   * Returns the number of runner threads that {@code --usethreads} has started.
+   *
+   * @return the number of runner threads that have been started
+   */
+  public static int runnerThreadsStarted() {
+    return RunnerThreadPool.runnersStarted();
+  }
+
+  /**
+   * Returns the number of runner threads that {@code --usethreads} killed because a call timed out.
+   *
+   * @return the number of runner threads that were killed
+   */
+  public static int runnerThreadsKilled() {
+    return RunnerThreadPool.runnersKilled();
+  }
+
+  /**
+   * Executes code.runReflectionCode() in a separate thread.
    *
    * @param code the {@link ReflectionCode} to be executed
    * @throws TimeoutException if execution times out
    */
-  @SuppressWarnings({"deprecation", "removal", "DeprecatedThreadMethods"})
   private static void executeReflectionCodeThreaded(ReflectionCode code) throws TimeoutException {
+    if (reuse_runner_threads) {
+      RunnerThreadPool.execute(code, call_timeout);
+    } else {
+      executeReflectionCodeNewThread(code);
+    }
+  }
+
+  /**
+   * Executes code.runReflectionCode() in its own, new thread.
+   *
+   * @param code the {@link ReflectionCode} to be executed
+   * @throws TimeoutException if execution times out
+   */
+  @SuppressWarnings({"deprecation", "removal", "DeprecatedThreadMethods"})
+  private static void executeReflectionCodeNewThread(ReflectionCode code) throws TimeoutException {
 
     RunnerThread runnerThread = new RunnerThread(null);
     runnerThread.setup(code);
@@ -0,0 +1,189 @@
+package randoop.util;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A pool of reusable threads that execute {@link ReflectionCode} with a timeout. This implements
+ * {@code --usethreads} when {@link ReflectionExecutor#reuse_runner_threads} is true.
+ *
+ * <p>A caller takes an idle runner from the pool (or starts a new one), hands it the code, and
+ * waits at most the timeout for it to finish. A runner that finishes in time goes back to the pool.
+ * A runner that does not finish in time is stopped and discarded, so only the threads that had to
+ * be killed are ever replaced. Several callers (such as the workers of {@code --workers}) may use
+ * the pool at once; each call occupies its own runner.
+ *
+ * <p>Runners are daemon threads, so idle runners do not keep the JVM alive. They are platform
+ * threads rather than virtual threads, because a virtual thread cannot be stopped.
+ */
+final class RunnerThreadPool {
+
+  /** Do not instantiate. */
+  private RunnerThreadPool() {
+    throw new Error("Do not instantiate");
+  }
+
+  /** The idle runners. The most recently used runner is first. */
+  private static final ConcurrentLinkedDeque<Runner> idle = new ConcurrentLinkedDeque<>();
+
+  /** The number of runners that have been started. */
+  private static final AtomicInteger runnersStarted = new AtomicInteger();
+
+  /** The number of runners that were stopped because they exceeded the timeout. */
+  private static final AtomicInteger runnersKilled = new AtomicInteger();
+
+  /**
+   * Returns the number of runner threads that have been started.
+   *
+   * @return the number of runner threads that have been started
+   */
+  static int runnersStarted() {
+    return runnersStarted.get();
+  }
+
+  /**
+   * Returns the number of runner threads that were stopped because a call exceeded the timeout.
+   *
+   * @return the number of runner threads that were killed
+   */
+  static int runnersKilled() {
+    return runnersKilled.get();
+  }
+
+  /**
+   * Executes {@code code.runReflectionCode()} on a pooled thread.
+   *
+   * @param code the {@link ReflectionCode} to be executed
+   * @param timeoutMillis the maximum time that the execution may take, in milliseconds
+   * @throws TimeoutException if execution times out, or if it terminated its thread by throwing an
+   *     exception that {@link ReflectionCode#runReflectionCode} does not catch
+   */
+  static void execute(ReflectionCode code, long timeoutMillis) throws TimeoutException {
+    Runner runner = idle.pollFirst();
+    if (runner == null) {
+      runner = new Runner(runnersStarted.incrementAndGet());
+      runner.start();
+    }
+    if (runner.runWithTimeout(code, timeoutMillis)) {
+      idle.addFirst(runner);
+    }
+  }
+
+  /** A thread that repeatedly waits for code to run and runs it. */
+  private static final class Runner extends Thread {
+
+    /** Guards the fields below, and is notified when any of them changes. */
+    private final Object lock = new Object();
+
+    /** The code to run next, or null if the runner is waiting for code. */
+    private @Nullable ReflectionCode pending = null;
+
+    /** True if the most recently assigned code has finished, normally or not. */
+    private boolean done = true;
+
+    /** True if the most recently assigned code finished without throwing. */
+    private boolean normal = false;
+
+    /** True if the runner has been stopped and must not run any more code. */
+    private boolean abandoned = false;
+
+    /**
+     * Creates a new runner. Its caller must start it.
+     *
+     * @param number a number that identifies the runner in its name
+     */
+    Runner(int number) {
+      super("randoop.util.RunnerThread-" + number);
+      setDaemon(true);
+      setUncaughtExceptionHandler(RandoopUncaughtRunnerThreadExceptionHandler.getHandler());
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        ReflectionCode code;
+        synchronized (lock) {
+          while (pending == null && !abandoned) {
+            try {
+              lock.wait();
+            } catch (InterruptedException e) {
+              // Only the pool assigns work to a runner; keep waiting.
+            }
+          }
+          if (abandoned) {
+            return;
+          }
+          code = pending;
+        }
+        boolean finishedNormally = false;
+        try {
+          code.runReflectionCode();
+          finishedNormally = true;
+        } finally {
+          synchronized (lock) {
+            pending = null;
+            done = true;
+            normal = finishedNormally;
+            lock.notifyAll();
+          }
+        }
+      }
+    }
+
+    /**
+     * Runs the given code on this runner and waits for it to finish.
+     *
+     * @param code the code to run
+     * @param timeoutMillis the maximum time that the execution may take, in milliseconds
+     * @return true if this runner can be reused
+     * @throws TimeoutException if the code did not finish normally within the timeout
+     */
+    @SuppressWarnings({"deprecation", "removal", "DeprecatedThreadMethods"})
+    boolean runWithTimeout(ReflectionCode code, long timeoutMillis) throws TimeoutException {
+      synchronized (lock) {
+        pending = code;
+        done = false;
+        normal = false;
+        lock.notifyAll();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+          while (!done) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+              break;
+            }
+            TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+          }
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(
+              "A thread waiting for a RunnerThread shouldn't be interrupted by anyone! (This may be"
+                  + " a bug in Randoop; please report it at"
+                  + " https://github.com/randoop/randoop/issues , providing the information"
+                  + " requested at"
+                  + " https://randoop.github.io/randoop/manual/index.html#bug-reporting .)");
+        }
+
+        if (done) {
+          if (normal) {
+            return true;
+          }
+          // The code threw an exception that terminated the runner.
+          abandoned = true;
+          throw new TimeoutException();
+        }
+        abandoned = true;
+      }
+
+      Log.logPrintf("Exceeded timeout: aborting execution of call: %s%n", code);
+      runnersKilled.incrementAndGet();
+      // We use this deprecated method because it's the only way to
+      // stop a thread no matter what it's doing.
+      this.stop();
+      throw new TimeoutException();
+    }
+  }
+}
@@ -27,6 +27,11 @@ public class SimpleArrayList<E> extends ArrayList<E> implements SimpleList<E>, S
     return this;
   }
 
+  @Override
+  public void appendTo(List<? super E> result) {
+    result.addAll(this);
+  }
+
   @Override
   public List<E> toJDKList() {
     return new ArrayList<>(this);
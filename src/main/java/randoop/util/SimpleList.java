@@ -28,7 +28,9 @@ import java.util.List;
  *
  * <p>When extending a Sequence with a new statement, we store the old sequence's statements plus
  * the new statement in a {@code OneMoreElementList}, which takes up only 2 references in memory
- * (and constant creation time).
+ * (and constant creation time). The first call to {@code get} on a {@code OneMoreElementList}
+ * materializes its elements into an array, so that later calls take constant time no matter how
+ * long the chain of extensions is.
  */
 public interface SimpleList<E> {
 
@@ -66,6 +68,14 @@ public interface SimpleList<E> {
    */
   public SimpleList<E> getSublist(int index);
 
+  /**
+   * Adds the elements of this list, in order, to the end of the given list. Takes time linear in
+   * the size of this list.
+   *
+   * @param result the list to add the elements to
+   */
+  public void appendTo(List<? super E> result);
+
   // TODO: Replace some uses of this, such as direct implementations of toString.
   /**
    * Returns a java.util.List version of this list. Caution: this operation can be expensive.
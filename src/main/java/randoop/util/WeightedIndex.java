@@ -0,0 +1,172 @@
+package randoop.util;
+
+import randoop.main.RandoopBug;
+
+/**
+ * A list of non-negative weights that supports weighted random selection in time logarithmic in
+ * the number of weights. It is a Fenwick tree (binary indexed tree): appending a weight, changing
+ * a weight, and finding the position that corresponds to a point in {@code [0, total())} each take
+ * O(log n) time.
+ *
+ * <p>Changing weights by adding deltas to the tree accumulates floating-point round-off error, so
+ * the tree is periodically rebuilt from the weights themselves.
+ */
+public final class WeightedIndex {
+
+  /** The weights; only the first {@link #size} are meaningful. */
+  private double[] weights;
+
+  /**
+   * The Fenwick tree, 1-based: {@code tree[j]} is the sum of the weights at positions {@code
+   * j - lowbit(j)} through {@code j - 1}. Its length is {@code weights.length + 1}, and {@code
+   * weights.length} is a power of two.
+   */
+  private double[] tree;
+
+  /** The number of weights. */
+  private int size = 0;
+
+  /** The number of times a weight was changed since the tree was last rebuilt. */
+  private int changesSinceRebuild = 0;
+
+  /** Creates an empty index. */
+  public WeightedIndex() {
+    this.weights = new double[16];
+    this.tree = new double[17];
+  }
+
+  /**
+   * Returns the number of weights.
+   *
+   * @return the number of weights
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the weight at the given position.
+   *
+   * @param position a position, less than {@link #size()}
+   * @return the weight at the position
+   */
+  public double get(int position) {
+    if (position < 0 || position >= size) {
+      throw new IndexOutOfBoundsException("No such position: " + position);
+    }
+    return weights[position];
+  }
+
+  /**
+   * Appends a weight.
+   *
+   * @param weight the weight, which must be non-negative
+   * @return the position of the new weight
+   */
+  public int add(double weight) {
+    checkWeight(weight);
+    if (size == weights.length) {
+      double[] newWeights = new double[weights.length * 2];
+      System.arraycopy(weights, 0, newWeights, 0, size);
+      weights = newWeights;
+      tree = new double[weights.length + 1];
+      rebuild();
+    }
+    int position = size++;
+    weights[position] = weight;
+    addToTree(position, weight);
+    return position;
+  }
+
+  /**
+   * Changes the weight at the given position.
+   *
+   * @param position a position, less than {@link #size()}
+   * @param weight the new weight, which must be non-negative
+   */
+  public void set(int position, double weight) {
+    checkWeight(weight);
+    double delta = weight - get(position);
+    weights[position] = weight;
+    if (++changesSinceRebuild > size) {
+      rebuild();
+    } else {
+      addToTree(position, delta);
+    }
+  }
+
+  /**
+   * Returns the sum of the weights.
+   *
+   * @return the sum of the weights
+   */
+  public double total() {
+    return tree[weights.length];
+  }
+
+  /**
+   * Returns the position whose weight covers the given point, when the weights are laid end to end
+   * starting at 0: the smallest position p such that the sum of the weights at positions 0 through
+   * p exceeds {@code point}. If round-off error puts the point past the last weight, returns the
+   * last position that has a positive weight.
+   *
+   * @param point a number in {@code [0, total())}
+   * @return the position whose weight covers the point
+   */
+  public int find(double point) {
+    int position = 0; // the number of weights known to lie wholly before the point
+    double remaining = point;
+    for (int step = weights.length; step > 0; step >>= 1) {
+      int next = position + step;
+      if (next <= weights.length && tree[next] <= remaining) {
+        position = next;
+        remaining -= tree[next];
+      }
+    }
+    if (position < size && weights[position] > 0) {
+      return position;
+    }
+    for (int i = Math.min(position, size - 1); i >= 0; i--) {
+      if (weights[i] > 0) {
+        return i;
+      }
+    }
+    throw new RandoopBug("No positive weight in index of size " + size);
+  }
+
+  /**
+   * Adds {@code delta} to the tree nodes that cover the given position.
+   *
+   * @param position a position
+   * @param delta the amount by which the weight at the position changed
+   */
+  private void addToTree(int position, double delta) {
+    for (int j = position + 1; j <= weights.length; j += j & -j) {
+      tree[j] += delta;
+    }
+  }
+
+  /** Recomputes the tree from {@link #weights}, in linear time. */
+  private void rebuild() {
+    tree[0] = 0;
+    System.arraycopy(weights, 0, tree, 1, weights.length);
+    for (int j = 1; j <= weights.length; j++) {
+      int parent = j + (j & -j);
+      if (parent <= weights.length) {
+        tree[parent] += tree[j];
+      }
+    }
+    changesSinceRebuild = 0;
+  }
+
+  /**
+   * Throws an exception if the given weight is negative or not a number.
+   *
+   * @param weight a weight
+   */
+  private static void checkWeight(double weight) {
+    if (!(weight >= 0)) {
+      throw new RandoopBug("Weight should be non-negative: " + weight);
+    }
+  }
+}
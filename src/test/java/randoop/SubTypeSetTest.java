@@ -0,0 +1,137 @@
+package randoop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import org.junit.Test;
+import randoop.types.ArrayType;
+import randoop.types.JDKTypes;
+import randoop.types.JavaTypes;
+import randoop.types.NonParameterizedType;
+import randoop.types.Type;
+
+public class SubTypeSetTest {
+
+  private static final List<Type> TYPES =
+      Arrays.<Type>asList(
+          JavaTypes.OBJECT_TYPE,
+          JavaTypes.STRING_TYPE,
+          JavaTypes.INT_TYPE,
+          JavaTypes.LONG_TYPE,
+          JavaTypes.CLONEABLE_TYPE,
+          JavaTypes.SERIALIZABLE_TYPE);
+
+  /**
+   * Types of every kind: primitives, boxed primitives, non-generic classes and interfaces, an
+   * enum, raw, generic, and parameterized types, and arrays.
+   */
+  private static final List<Type> MORE_TYPES =
+      Arrays.<Type>asList(
+          JavaTypes.BOOLEAN_TYPE,
+          JavaTypes.DOUBLE_TYPE,
+          Type.forClass(Integer.class),
+          Type.forClass(Number.class),
+          Type.forClass(CharSequence.class),
+          Type.forClass(RandomAccess.class),
+          Type.forClass(Thread.State.class),
+          new NonParameterizedType(List.class),
+          JavaTypes.COMPARABLE_TYPE,
+          JavaTypes.COMPARABLE_TYPE.instantiate(JavaTypes.STRING_TYPE),
+          JDKTypes.LIST_TYPE.instantiate(JavaTypes.STRING_TYPE),
+          JDKTypes.ARRAY_LIST_TYPE.instantiate(JavaTypes.STRING_TYPE),
+          ArrayType.ofComponentType(JavaTypes.STRING_TYPE),
+          ArrayType.ofComponentType(JavaTypes.OBJECT_TYPE),
+          ArrayType.ofComponentType(JavaTypes.INT_TYPE));
+
+  /** Returns the members that can be used as the query type, in insertion order. */
+  private static List<Type> expectedMatches(List<Type> members, Type query) {
+    List<Type> result = new ArrayList<>();
+    for (Type type : members) {
+      if (query.isAssignableFrom(type)) {
+        result.add(type);
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testMatchesAfterAdd() {
+    SubTypeSet set = new SubTypeSet(false);
+    List<Type> members = new ArrayList<>();
+    for (Type type : TYPES) {
+      set.add(type);
+      members.add(type);
+      // Query every type, so that later additions must update the known queries.
+      for (Type query : TYPES) {
+        assertEquals(expectedMatches(members, query), new ArrayList<>(set.getMatches(query)));
+      }
+    }
+  }
+
+  @Test
+  public void testMatchesOfEveryKindOfType() {
+    List<Type> types = new ArrayList<>(TYPES);
+    types.addAll(MORE_TYPES);
+    // Queries made before the additions are updated by them, and queries made after the additions
+    // are computed from the members.
+    SubTypeSet set = new SubTypeSet(false);
+    for (Type query : types.subList(0, types.size() / 2)) {
+      assertTrue(set.getMatches(query).isEmpty());
+    }
+    for (Type type : types) {
+      set.add(type);
+    }
+    for (Type query : types) {
+      List<Type> expected = expectedMatches(types, query);
+      Set<Type> matches = set.getMatches(query);
+      assertEquals(query.toString(), expected, new ArrayList<>(matches));
+      assertEquals(expected.size(), matches.size());
+      for (Type type : types) {
+        assertEquals(expected.contains(type), matches.contains(type));
+      }
+    }
+  }
+
+  @Test
+  public void testUndoLastStep() {
+    List<Type> types = new ArrayList<>(TYPES);
+    types.addAll(MORE_TYPES);
+    List<Type> before = types.subList(0, types.size() / 2);
+    List<Type> after = types.subList(types.size() / 2, types.size());
+
+    SubTypeSet set = new SubTypeSet(true);
+    for (Type type : before) {
+      set.add(type);
+    }
+    set.mark();
+    for (Type type : after) {
+      set.add(type);
+    }
+    for (Type query : types) {
+      assertEquals(expectedMatches(types, query), new ArrayList<>(set.getMatches(query)));
+    }
+
+    set.undoLastStep();
+    assertEquals(before.size(), set.size());
+    for (Type query : types) {
+      assertEquals(expectedMatches(before, query), new ArrayList<>(set.getMatches(query)));
+    }
+    for (Type type : after) {
+      assertFalse(set.getMatches(JavaTypes.OBJECT_TYPE).contains(type));
+    }
+
+    // The removed types can be added again, with new ids.
+    for (Type type : after) {
+      set.add(type);
+    }
+    for (Type query : types) {
+      assertEquals(expectedMatches(types, query), new ArrayList<>(set.getMatches(query)));
+    }
+  }
+}
@@ -108,6 +108,24 @@ public class ConditionMethodTest {
     }
   }
 
+  @Test
+  public void testWrongArgumentType() {
+    RawSignature signature =
+        new RawSignature(null, "WrongArgumentCondition", "test", new Class<?>[] {String.class});
+    ExecutableBooleanExpression simple =
+        createCondition(signature, "(String s)", "s.length() > 2", "// has two characters");
+
+    boolean old_ignore_condition_exception = GenInputsAbstract.ignore_condition_exception;
+    GenInputsAbstract.ignore_condition_exception = true;
+    try {
+      // The expression is not at fault, so the failure is not ignored.
+      thrown.expect(ClassCastException.class);
+      simple.check(new Object[] {42});
+    } finally {
+      GenInputsAbstract.ignore_condition_exception = old_ignore_condition_exception;
+    }
+  }
+
   private ExecutableBooleanExpression createCondition(
       RawSignature signature, String declarations, String conditionText, String comment) {
     Method method =
@@ -0,0 +1,147 @@
+package randoop.condition;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.stream.Stream;
+import org.junit.Test;
+import randoop.main.GenInputsAbstract;
+import randoop.test.DummyCheckGenerator;
+import randoop.test.ExpectedExceptionGenerator;
+import randoop.test.TestCheckGenerator;
+
+public class SpecificationCollectionTest {
+
+  /**
+   * Returns the bundled specification file of {@code java.util.Date}, whose conditions compile.
+   *
+   * @return the specification file of {@code java.util.Date}
+   * @throws URISyntaxException if the resource cannot be found
+   */
+  private static Path dateSpecificationFile() throws URISyntaxException {
+    return Paths.get(
+        SpecificationCollectionTest.class
+            .getResource("/specifications/jdk/java-util-Date.json")
+            .toURI());
+  }
+
+  @Test
+  public void testCachesCompiledConditions()
+      throws IOException, URISyntaxException, NoSuchMethodException {
+    Path cache = Files.createTempDirectory("specification-cache");
+    Path oldCache = GenInputsAbstract.specification_cache;
+    GenInputsAbstract.specification_cache = cache;
+    try {
+      Method before = Date.class.getMethod("before", Date.class);
+      for (int run = 0; run < 2; run++) {
+        try (SpecificationCollection collection =
+            SpecificationCollection.create(Collections.singletonList(dateSpecificationFile()))) {
+          ExecutableSpecification execSpec = collection.getExecutableSpecification(before);
+          TestCheckGenerator gen =
+              execSpec
+                  .checkPrestate(new Object[] {new Date(), null})
+                  .addPostCheckGenerator(new DummyCheckGenerator());
+          assertTrue(gen.hasGenerator(ExpectedExceptionGenerator.class));
+          gen =
+              execSpec
+                  .checkPrestate(new Object[] {new Date(), new Date()})
+                  .addPostCheckGenerator(new DummyCheckGenerator());
+          assertFalse(gen.hasGenerator(ExpectedExceptionGenerator.class));
+        }
+        // The conditions of java.util.Date are compiled together, and the second run reuses them.
+        try (Stream<Path> entries = Files.list(cache)) {
+          assertEquals(1, entries.count());
+        }
+      }
+    } finally {
+      GenInputsAbstract.specification_cache = oldCache;
+      try (Stream<Path> entries = Files.list(cache)) {
+        for (Path entry : (Iterable<Path>) entries::iterator) {
+          Files.delete(entry);
+        }
+      }
+      Files.delete(cache);
+    }
+  }
+
+  @Test
+  public void testUncompilableBatchTranslatesOnlyRequestedOperation()
+      throws IOException, NoSuchMethodException {
+    Path directory = Files.createTempDirectory("specifications");
+    Path file = directory.resolve("date.json");
+    Files.write(
+        file,
+        Arrays.asList(
+            "[",
+            dateSpecification("before", "when==null") + ",",
+            dateSpecification("after", "no_such_variable==null"),
+            "]"),
+        UTF_8);
+    try (SpecificationCollection collection =
+        SpecificationCollection.create(Collections.singletonList(file))) {
+      // The conditions of java.util.Date do not compile together, but those of before() do.
+      ExecutableSpecification execSpec =
+          collection.getExecutableSpecification(Date.class.getMethod("before", Date.class));
+      TestCheckGenerator gen =
+          execSpec
+              .checkPrestate(new Object[] {new Date(), null})
+              .addPostCheckGenerator(new DummyCheckGenerator());
+      assertTrue(gen.hasGenerator(ExpectedExceptionGenerator.class));
+      try {
+        collection.getExecutableSpecification(Date.class.getMethod("after", Date.class));
+        fail("uncompilable condition was not reported");
+      } catch (RandoopSpecificationError e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("no_such_variable"));
+      }
+    } finally {
+      Files.delete(file);
+      Files.delete(directory);
+    }
+  }
+
+  /**
+   * Returns the JSON specification of a method of {@code java.util.Date} that takes a date, and
+   * that throws NullPointerException under the given guard.
+   *
+   * @param methodName the name of the method
+   * @param guard the condition under which the method throws
+   * @return the JSON specification of the method
+   */
+  private static String dateSpecification(String methodName, String guard) {
+    return String.join(
+        System.lineSeparator(),
+        "  {",
+        "    \"operation\": {",
+        "      \"classname\": \"java.util.Date\",",
+        "      \"name\": \"" + methodName + "\",",
+        "      \"parameterTypes\": [\"java.util.Date\"]",
+        "    },",
+        "    \"identifiers\": {",
+        "      \"parameters\": [\"when\"],",
+        "      \"receiverName\": \"target\",",
+        "      \"returnName\": \"result\"",
+        "    },",
+        "    \"throws\": [",
+        "      {",
+        "        \"exception\": \"java.lang.NullPointerException\",",
+        "        \"description\": \"throws NullPointerException\",",
+        "        \"guard\": {\"condition\": \"" + guard + "\", \"description\": \"\"}",
+        "      }",
+        "    ],",
+        "    \"post\": [],",
+        "    \"pre\": []",
+        "  }");
+  }
+}
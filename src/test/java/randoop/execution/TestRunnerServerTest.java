@@ -0,0 +1,231 @@
+package randoop.execution;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.plumelib.util.FilesPlume;
+import randoop.compile.FileCompiler;
+
+public class TestRunnerServerTest {
+
+  /** The line of {@code SampleTest} at which {@code test2} fails. */
+  private static final int FAILING_LINE = 9;
+
+  /** The directory that contains the compiled class under test. */
+  private static Path classesUnderTest;
+
+  /** The directory that contains the compiled test classes. */
+  private static Path testClasses;
+
+  @BeforeClass
+  public static void compileClasses() throws IOException, FileCompiler.FileCompilerException {
+    Path sources = Files.createTempDirectory("runner-sources");
+    classesUnderTest = Files.createTempDirectory("runner-cut");
+    testClasses = Files.createTempDirectory("runner-tests");
+
+    Path counter =
+        write(
+            sources,
+            "Counter.java",
+            "package runnertest;",
+            "public class Counter {",
+            "  public static int count = 0;",
+            "}");
+    new FileCompiler().compile(counter, classesUnderTest);
+
+    Path sampleTest =
+        write(
+            sources,
+            "SampleTest.java",
+            "package runnertest;",
+            "import org.junit.Assert;",
+            "import org.junit.Test;",
+            "public class SampleTest {",
+            "  @Test public void test1() {",
+            "    Assert.assertEquals(1, ++Counter.count);",
+            "  }",
+            "  @Test public void test2() {",
+            "    Assert.fail(\"always fails\");",
+            "  }",
+            "}");
+    Path hangingTest =
+        write(
+            sources,
+            "HangingTest.java",
+            "package runnertest;",
+            "import org.junit.Test;",
+            "public class HangingTest {",
+            "  @Test public void test1() {",
+            "    while (true) {",
+            "      Thread.yield();",
+            "    }",
+            "  }",
+            "}");
+    new FileCompiler(Arrays.asList("-classpath", classpathWithClassesUnderTest()))
+        .compile(Arrays.asList(sampleTest.toFile(), hangingTest.toFile()), testClasses);
+  }
+
+  @AfterClass
+  public static void deleteClasses() {
+    for (Path directory : Arrays.asList(classesUnderTest, testClasses)) {
+      FilesPlume.deleteDir(directory.toFile());
+    }
+  }
+
+  @Test
+  public void testEscapeRoundTrip() {
+    String[] values = {"", "plain", "a\tb", "line1\nline2\r\n", "back\\slash", "\\t is not a tab"};
+    for (String value : values) {
+      String escaped = TestRunnerServer.escape(value);
+      assertFalse(escaped.contains("\t"));
+      assertFalse(escaped.contains("\n"));
+      assertEquals(value, TestRunnerServer.unescape(escaped));
+    }
+  }
+
+  @Test
+  public void testReportsFailingMethods() throws IOException {
+    try (TestRunnerProcess runner = startRunner()) {
+      TestRunResult result = runner.run("runnertest.SampleTest", testClasses, null, 60_000);
+      assertNotNull(result);
+      assertTrue(result.ranAllMethods);
+      assertFalse(result.timedOut);
+      assertEquals(1, result.failures.size());
+      TestRunResult.Failure failure = result.failures.get(0);
+      assertEquals("test2", failure.methodName);
+      assertEquals(FAILING_LINE, failure.lineNumber);
+      assertTrue(failure.header, failure.header.startsWith("1) test2(runnertest.SampleTest)"));
+      assertTrue(runner.hasAnswered());
+    }
+  }
+
+  @Test
+  public void testRunsOnlyGivenMethods() throws IOException {
+    try (TestRunnerProcess runner = startRunner()) {
+      TestRunResult result =
+          runner.run(
+              "runnertest.SampleTest", testClasses, Collections.singletonList("test1"), 60_000);
+      assertNotNull(result);
+      assertFalse(result.ranAllMethods);
+      assertTrue(result.failures.isEmpty());
+
+      result =
+          runner.run(
+              "runnertest.SampleTest", testClasses, Collections.singletonList("test2"), 60_000);
+      assertNotNull(result);
+      assertEquals(1, result.failures.size());
+      assertEquals("test2", result.failures.get(0).methodName);
+    }
+  }
+
+  @Test
+  public void testReloadsClassesUnderTest() throws IOException {
+    // test1 passes only if Counter.count starts at 0, as it does in a new JVM.
+    try (TestRunnerProcess runner = startRunner()) {
+      for (int i = 0; i < 3; i++) {
+        TestRunResult result =
+            runner.run(
+                "runnertest.SampleTest", testClasses, Collections.singletonList("test1"), 60_000);
+        assertNotNull(result);
+        assertTrue("run " + i + ": " + result.failures, result.failures.isEmpty());
+      }
+    }
+  }
+
+  @Test
+  public void testUnknownClass() throws IOException {
+    try (TestRunnerProcess runner = startRunner()) {
+      assertNull(runner.run("runnertest.NoSuchTest", testClasses, null, 60_000));
+      // The runner can still run other classes.
+      TestRunResult result = runner.run("runnertest.SampleTest", testClasses, null, 60_000);
+      assertNotNull(result);
+      assertEquals(1, result.failures.size());
+    }
+  }
+
+  @Test
+  public void testTimeoutKillsRunner() throws IOException {
+    try (TestRunnerProcess runner = startRunner()) {
+      TestRunResult result = runner.run("runnertest.HangingTest", testClasses, null, 2_000);
+      assertNotNull(result);
+      assertTrue(result.timedOut);
+      assertTrue(result.failures.isEmpty());
+    }
+  }
+
+  @Test
+  public void testEnvironmentFallsBackWithoutRunner() {
+    // Without Randoop on the classpath, the long-lived JVM cannot start its server.
+    Path emptyDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+    try (TestEnvironment environment = new TestEnvironment(emptyDirectory.toString())) {
+      assertNull(environment.runTestInRunner("runnertest.SampleTest", testClasses, null));
+      // Later runs do not try to start another long-lived JVM.
+      assertNull(environment.runTestInRunner("runnertest.SampleTest", testClasses, null));
+    }
+  }
+
+  @Test
+  public void testEnvironmentReusesRunner() {
+    try (TestEnvironment environment = new TestEnvironment(classpathWithClassesUnderTest())) {
+      for (int i = 0; i < 2; i++) {
+        TestRunResult result =
+            environment.runTestInRunner("runnertest.SampleTest", testClasses, null);
+        assertNotNull(result);
+        assertEquals(1, result.failures.size());
+      }
+    }
+  }
+
+  /**
+   * Starts a long-lived JVM whose classpath contains the class under test.
+   *
+   * @return the runner
+   * @throws IOException if the runner cannot be started
+   */
+  private static TestRunnerProcess startRunner() throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add("java");
+    command.add("-classpath");
+    command.add(classpathWithClassesUnderTest());
+    command.add(TestRunnerServer.class.getName());
+    return new TestRunnerProcess(command);
+  }
+
+  /**
+   * Returns the classpath of this JVM, preceded by the directory of the class under test.
+   *
+   * @return the classpath for compiling and running the test classes
+   */
+  private static String classpathWithClassesUnderTest() {
+    return classesUnderTest + File.pathSeparator + System.getProperty("java.class.path");
+  }
+
+  /**
+   * Writes a source file.
+   *
+   * @param directory the directory in which to write the file
+   * @param fileName the name of the file
+   * @param lines the lines of the file
+   * @return the path of the file
+   * @throws IOException if the file cannot be written
+   */
+  private static Path write(Path directory, String fileName, String... lines) throws IOException {
+    return Files.write(directory.resolve(fileName), Arrays.asList(lines), UTF_8);
+  }
+}
@@ -0,0 +1,156 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.IOUtils;
+import org.jacoco.agent.rt.RT;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.junit.Test;
+import randoop.types.ClassOrInterfaceType;
+
+/**
+ * Tests for {@link CoverageTracker}. They need the Jacoco agent, which the build attaches to the
+ * tests; without it, they are skipped.
+ */
+public class CoverageTrackerTest {
+
+  /** The class under test, which no other test uses. */
+  public static class Branches {
+    public static int sign(int x) {
+      if (x > 0) {
+        return 1;
+      } else if (x < 0) {
+        return -1;
+      }
+      return 0;
+    }
+
+    public static int parity(int x) {
+      return x % 2 == 0 ? 0 : 1;
+    }
+  }
+
+  @Test
+  public void testIncrementalCoverageEqualsFullAnalysis() throws IOException {
+    assumeTrue("needs the Jacoco agent", isInstrumented(Branches.class));
+    CoverageTracker tracker =
+        new CoverageTracker(Collections.singleton(ClassOrInterfaceType.forClass(Branches.class)));
+
+    tracker.updateBranchCoverageMap();
+    Map<String, Double> initial = assertCoverageEqualsFullAnalysis(tracker);
+
+    // Changing the probes of the class is detected, and the class is analyzed again.
+    Branches.sign(1);
+    tracker.updateBranchCoverageMap();
+    Map<String, Double> afterSign = assertCoverageEqualsFullAnalysis(tracker);
+    String sign = methodName("sign");
+    assertNotEquals(initial.get(sign), afterSign.get(sign));
+
+    Branches.sign(-1);
+    Branches.parity(2);
+    tracker.updateBranchCoverageMap();
+    assertCoverageEqualsFullAnalysis(tracker);
+
+    // An update after which no probe changed leaves the coverage as it was.
+    tracker.updateBranchCoverageMap();
+    assertCoverageEqualsFullAnalysis(tracker);
+  }
+
+  /**
+   * Returns true if Jacoco instrumented the given class, adding the method that returns its
+   * probes.
+   *
+   * @param c a class
+   * @return true if {@code c} has a {@code $jacocoInit} method
+   */
+  private static boolean isInstrumented(Class<?> c) {
+    for (Method method : c.getDeclaredMethods()) {
+      if (method.getName().equals("$jacocoInit")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Asserts that the tracker's coverage of {@link Branches} equals the coverage computed from
+   * scratch from the Jacoco agent's execution data.
+   *
+   * @param tracker the tracker
+   * @return the coverage of each method of {@link Branches}, computed from scratch
+   */
+  private static Map<String, Double> assertCoverageEqualsFullAnalysis(CoverageTracker tracker)
+      throws IOException {
+    Map<String, Double> expected = fullAnalysis();
+    assertTrue(expected.toString(), expected.containsKey(methodName("parity")));
+    for (Map.Entry<String, Double> entry : expected.entrySet()) {
+      assertEquals(
+          entry.getKey(), entry.getValue(), tracker.getBranchCoverageForMethod(entry.getKey()));
+    }
+    return expected;
+  }
+
+  /**
+   * Returns the uncovered branch ratio of each method of {@link Branches}, computed by reading all
+   * of the Jacoco agent's execution data and analyzing the class, as {@link CoverageTracker} did
+   * on every update before it read probes directly.
+   *
+   * @return the uncovered branch ratio of each method of {@link Branches}
+   */
+  private static Map<String, Double> fullAnalysis() throws IOException {
+    ExecutionDataStore executionData = new ExecutionDataStore();
+    ExecutionDataReader reader =
+        new ExecutionDataReader(new ByteArrayInputStream(RT.getAgent().getExecutionData(false)));
+    reader.setSessionInfoVisitor(info -> {});
+    reader.setExecutionDataVisitor(executionData::put);
+    reader.read();
+
+    String className = Branches.class.getName();
+    byte[] classfile;
+    try (InputStream original =
+        Branches.class.getResourceAsStream('/' + className.replace('.', '/') + ".class")) {
+      classfile = IOUtils.toByteArray(original);
+    }
+    CoverageBuilder coverageBuilder = new CoverageBuilder();
+    new Analyzer(executionData, coverageBuilder).analyzeClass(classfile, className);
+
+    Map<String, Double> result = new HashMap<>();
+    for (IClassCoverage cc : coverageBuilder.getClasses()) {
+      List<IMethodCoverage> methods = new ArrayList<>(cc.getMethods());
+      methods.sort(Comparator.comparing(IMethodCoverage::toString));
+      for (IMethodCoverage cm : methods) {
+        double uncovRatio = cm.getBranchCounter().getMissedRatio();
+        result.put(methodName(cm.getName()), Double.isNaN(uncovRatio) ? 0 : uncovRatio);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the name that {@link CoverageTracker} uses for a method of {@link Branches}.
+   *
+   * @param simpleName the simple name of the method
+   * @return the fully-qualified name of the method
+   */
+  private static String methodName(String simpleName) {
+    return Branches.class.getCanonicalName() + "." + simpleName;
+  }
+}
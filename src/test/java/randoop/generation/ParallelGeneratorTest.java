@@ -0,0 +1,143 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenTests;
+import randoop.main.OptionsCache;
+import randoop.operation.TypedOperation;
+import randoop.reflection.DefaultReflectionPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.reflection.OperationExtractor;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.ContractSet;
+import randoop.types.ClassOrInterfaceType;
+import randoop.util.MultiMap;
+
+public class ParallelGeneratorTest {
+
+  private static OptionsCache optionsCache;
+
+  @BeforeClass
+  public static void setup() {
+    optionsCache = new OptionsCache();
+    optionsCache.saveState();
+  }
+
+  @AfterClass
+  public static void restore() {
+    optionsCache.restoreState();
+  }
+
+  @Test
+  public void testWorkerLimits() {
+    GenInputsAbstract.Limits limits = new GenInputsAbstract.Limits(7, 10, 11, 3);
+    int attempted = 0;
+    int generated = 0;
+    int output = 0;
+    for (int i = 0; i < 4; i++) {
+      GenInputsAbstract.Limits workerLimits = ParallelGenerator.workerLimits(limits, i, 4);
+      assertEquals(7000, workerLimits.time_limit_millis);
+      attempted += workerLimits.attempted_limit;
+      generated += workerLimits.generated_limit;
+      output += workerLimits.output_limit;
+    }
+    assertEquals(10, attempted);
+    assertEquals(11, generated);
+    assertEquals(3, output);
+    assertEquals(0, ParallelGenerator.workerLimits(limits, 3, 4).output_limit);
+  }
+
+  @Test
+  public void testMergedOutputIsReproducible() {
+    GenInputsAbstract.generated_limit = 400;
+    GenInputsAbstract.output_limit = 400;
+    GenInputsAbstract.progressdisplay = false;
+
+    List<Sequence> first = regressionSequences(buildAndRunGenerator(Flaky.class, 3));
+    List<Sequence> second = regressionSequences(buildAndRunGenerator(Flaky.class, 3));
+
+    assertFalse(first.isEmpty());
+    assertEquals(first, second);
+    assertEquals(first.size(), new HashSet<>(first).size());
+  }
+
+  private static List<Sequence> regressionSequences(AbstractGenerator gen) {
+    List<Sequence> result = new ArrayList<>();
+    for (ExecutableSequence eseq : gen.getRegressionSequences()) {
+      result.add(eseq.sequence);
+    }
+    return result;
+  }
+
+  @Test
+  public void testStepGoesToWorkersInTurn() {
+    ParallelGenerator gen = buildGenerator(Flaky.class, 2);
+    List<AbstractGenerator> workers = gen.getWorkers();
+    for (int i = 0; i < 20; i++) {
+      AbstractGenerator worker = workers.get(i % 2);
+      AbstractGenerator other = workers.get((i + 1) % 2);
+      int workerSequences = worker.getAllSequences().size();
+      int otherSequences = other.getAllSequences().size();
+      ExecutableSequence eseq = gen.step();
+      assertEquals(otherSequences, other.getAllSequences().size());
+      if (eseq != null) {
+        assertEquals(workerSequences + 1, worker.getAllSequences().size());
+      }
+    }
+  }
+
+  private static ParallelGenerator buildAndRunGenerator(Class<?> c, int numWorkers) {
+    ParallelGenerator gen = buildGenerator(c, numWorkers);
+    gen.createAndClassifySequences();
+    return gen;
+  }
+
+  private static ParallelGenerator buildGenerator(Class<?> c, int numWorkers) {
+    ClassOrInterfaceType classType = ClassOrInterfaceType.forClass(c);
+    Set<ClassOrInterfaceType> classesUnderTest = Collections.singleton(classType);
+    Collection<TypedOperation> operations =
+        OperationExtractor.operations(
+            classType,
+            new DefaultReflectionPredicate(new HashSet<>()),
+            new OmitMethodsPredicate(GenInputsAbstract.omit_methods),
+            IS_PUBLIC);
+
+    GenInputsAbstract.Limits limits = new GenInputsAbstract.Limits();
+    GenTests genTests = new GenTests();
+    List<ForwardGenerator> workers = new ArrayList<>();
+    for (int i = 0; i < numWorkers; i++) {
+      ForwardGenerator worker =
+          new ForwardGenerator(
+              new ArrayList<>(operations),
+              new LinkedHashSet<TypedOperation>(),
+              ParallelGenerator.workerLimits(limits, i, numWorkers),
+              new ComponentManager(SeedSequences.defaultSeeds()),
+              /* stopper= */ null,
+              classesUnderTest);
+      worker.setTestPredicate(
+          genTests.createTestOutputPredicate(
+              new HashSet<Sequence>(), new HashSet<Class<?>>(), null));
+      worker.setTestCheckGenerator(
+          GenTests.createTestCheckGenerator(
+              IS_PUBLIC, new ContractSet(), new MultiMap<>(), OmitMethodsPredicate.NO_OMISSION));
+      worker.setExecutionVisitor(new DummyVisitor());
+      workers.add(worker);
+    }
+    return new ParallelGenerator(new ArrayList<>(operations), limits, workers, /* randomseed= */ 0);
+  }
+}
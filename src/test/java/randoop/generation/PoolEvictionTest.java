@@ -0,0 +1,180 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.main.GenInputsAbstract;
+import randoop.main.OptionsCache;
+import randoop.operation.TypedOperation;
+import randoop.reflection.DefaultReflectionPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.reflection.OperationExtractor;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.DummyCheckGenerator;
+import randoop.types.ClassOrInterfaceType;
+import randoop.types.JavaTypes;
+import randoop.util.Randomness;
+
+public class PoolEvictionTest {
+
+  private static OptionsCache optionsCache;
+
+  @BeforeClass
+  public static void setup() {
+    optionsCache = new OptionsCache();
+    optionsCache.saveState();
+  }
+
+  @AfterClass
+  public static void restore() {
+    optionsCache.restoreState();
+  }
+
+  private static Sequence intSequence(int i) {
+    return new Sequence()
+        .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, i));
+  }
+
+  private static Sequence stringSequence(String s) {
+    return new Sequence()
+        .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, s));
+  }
+
+  @Test
+  public void testLruKeepsRecentlySelected() {
+    Sequence seed = intSequence(-1);
+    ComponentManager manager = new ComponentManager(Collections.singleton(seed));
+    manager.setEvictionPolicy(new LruPoolEviction());
+    List<Sequence> generated = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      generated.add(intSequence(i));
+      manager.addGeneratedSequence(generated.get(i));
+    }
+    manager.recordSelection(generated.get(0));
+    manager.recordSelection(seed);
+
+    manager.evictGeneratedSequences(0.5);
+
+    Set<Sequence> remaining = manager.getAllGeneratedSequences();
+    assertEquals(3, remaining.size());
+    assertTrue(remaining.containsAll(Arrays.asList(seed, generated.get(0), generated.get(3))));
+    assertEquals(Integer.valueOf(2), manager.getEvictionsPerType().get(JavaTypes.INT_TYPE));
+  }
+
+  @Test
+  public void testTypeQuotaFavorsRareTypes() {
+    ComponentManager manager = new ComponentManager(Collections.<Sequence>emptySet());
+    manager.setEvictionPolicy(new TypeQuotaPoolEviction());
+    for (int i = 0; i < 6; i++) {
+      manager.addGeneratedSequence(intSequence(i));
+    }
+    Sequence string = stringSequence("s");
+    manager.addGeneratedSequence(string);
+    manager.addGeneratedSequence(intSequence(6));
+
+    manager.evictGeneratedSequences(0.25);
+
+    Set<Sequence> remaining = manager.getAllGeneratedSequences();
+    assertEquals(2, remaining.size());
+    assertTrue(remaining.contains(string));
+    assertTrue(remaining.contains(intSequence(6)));
+    assertFalse(manager.getEvictionsPerType().containsKey(JavaTypes.STRING_TYPE));
+    assertEquals(Integer.valueOf(6), manager.getEvictionsPerType().get(JavaTypes.INT_TYPE));
+  }
+
+  @Test
+  public void testSelectorForgetsClearedSequences() {
+    Sequence seed = intSequence(-1);
+    ComponentManager manager = new ComponentManager(Collections.singleton(seed));
+    OrienteeringSelection selector = new OrienteeringSelection(Collections.singleton(seed));
+    manager.setInputSequenceSelector(selector);
+    Sequence generated = intSequence(0);
+    manager.addGeneratedSequence(generated);
+    selector.createdExecutableSequence(new ExecutableSequence(generated));
+    assertTrue(selector.getWeight(generated) > 0);
+
+    manager.clearGeneratedSequences();
+
+    assertEquals(0.0, selector.getWeight(generated), 0.0);
+    assertTrue(selector.getWeight(seed) > 0);
+  }
+
+  @Test
+  public void testSelectorForgetsEvictedSequences() {
+    ComponentManager manager = new ComponentManager(Collections.<Sequence>emptySet());
+    OrienteeringSelection selector = new OrienteeringSelection(Collections.<Sequence>emptySet());
+    manager.setInputSequenceSelector(selector);
+    manager.setEvictionPolicy(new LruPoolEviction());
+    List<Sequence> generated = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      generated.add(intSequence(i));
+      manager.addGeneratedSequence(generated.get(i));
+      selector.createdExecutableSequence(new ExecutableSequence(generated.get(i)));
+    }
+
+    manager.evictGeneratedSequences(0.5);
+
+    Set<Sequence> remaining = manager.getAllGeneratedSequences();
+    assertEquals(2, remaining.size());
+    for (Sequence sequence : generated) {
+      assertEquals(remaining.contains(sequence), selector.getWeight(sequence) > 0);
+    }
+  }
+
+  @Test
+  public void testMemoryEvictionWaitsForPoolToRegrow() {
+    GenInputsAbstract.clear_memory = 0;
+    GenInputsAbstract.clear_policy = GenInputsAbstract.ClearPolicy.LRU;
+    GenInputsAbstract.clear_retain = 0.5;
+    Randomness.setSeed(0);
+    ClassOrInterfaceType classType = ClassOrInterfaceType.forClass(StringBuilder.class);
+    List<TypedOperation> operations =
+        new ArrayList<>(
+            OperationExtractor.operations(
+                classType,
+                new DefaultReflectionPredicate(new HashSet<>()),
+                new OmitMethodsPredicate(GenInputsAbstract.omit_methods),
+                IS_PUBLIC));
+    ComponentManager manager = new ComponentManager(SeedSequences.defaultSeeds());
+    ForwardGenerator generator =
+        new ForwardGenerator(
+            operations,
+            new LinkedHashSet<TypedOperation>(),
+            new GenInputsAbstract.Limits(),
+            manager,
+            /* stopper= */ null,
+            Collections.singleton(classType));
+    generator.setTestCheckGenerator(new DummyCheckGenerator());
+    generator.setExecutionVisitor(new DummyVisitor());
+
+    // Memory use is always above the limit, so the pool is shrunk whenever it may be.
+    List<Integer> sizesBeforeEviction = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int before = manager.numGeneratedSequences();
+      generator.step();
+      if (manager.numGeneratedSequences() < before) {
+        sizesBeforeEviction.add(before);
+      }
+    }
+    assertTrue(sizesBeforeEviction.toString(), sizesBeforeEviction.size() >= 2);
+    for (int i = 1; i < sizesBeforeEviction.size(); i++) {
+      assertTrue(
+          sizesBeforeEviction.toString(),
+          sizesBeforeEviction.get(i) > sizesBeforeEviction.get(i - 1));
+    }
+  }
+}
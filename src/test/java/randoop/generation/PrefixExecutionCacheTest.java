@@ -0,0 +1,144 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.main.GenInputsAbstract;
+import randoop.main.GenTests;
+import randoop.main.OptionsCache;
+import randoop.operation.TypedOperation;
+import randoop.reflection.DefaultReflectionPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.reflection.OperationExtractor;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.ContractSet;
+import randoop.types.ClassOrInterfaceType;
+import randoop.util.MultiMap;
+import randoop.util.Randomness;
+
+/** Tests that {@link GenInputsAbstract#prefix_execution_cache} does not change the output. */
+public class PrefixExecutionCacheTest {
+
+  private static OptionsCache optionsCache;
+
+  @BeforeClass
+  public static void setup() {
+    optionsCache = new OptionsCache();
+    optionsCache.saveState();
+  }
+
+  @AfterClass
+  public static void restore() {
+    optionsCache.restoreState();
+  }
+
+  /**
+   * A mutable class. Sequences that create a counter stay in the pool, so later calls restore the
+   * counters from the cache, and some of those calls mutate them.
+   */
+  public static class Counter {
+    private int count;
+
+    public Counter(int start) {
+      this.count = start;
+    }
+
+    public Counter plus(int n) {
+      return new Counter(count + n);
+    }
+
+    public Counter max(Counter other) {
+      return count >= other.count ? this : other;
+    }
+
+    public int increment() {
+      return ++count;
+    }
+
+    public int get() {
+      return count;
+    }
+
+    public int inverse() {
+      return 100 / count;
+    }
+  }
+
+  @Test
+  public void testCachedOutputEqualsUncachedOutput() {
+    GenInputsAbstract.generated_limit = 500;
+    GenInputsAbstract.output_limit = 500;
+    GenInputsAbstract.progressdisplay = false;
+
+    GenInputsAbstract.prefix_execution_cache = false;
+    ForwardGenerator uncached = runGenerator();
+    assertNull(uncached.getExecutionSnapshotCache());
+
+    GenInputsAbstract.prefix_execution_cache = true;
+    ForwardGenerator cached = runGenerator();
+    assertTrue(cached.getExecutionSnapshotCache().getHits() > 0);
+    assertTrue(cached.getExecutionSnapshotCache().getInvalidations() > 0);
+
+    List<String> uncachedTests = testCode(uncached.getRegressionSequences());
+    assertFalse(uncachedTests.isEmpty());
+    assertEquals(uncachedTests, testCode(cached.getRegressionSequences()));
+    assertEquals(
+        testCode(uncached.getErrorTestSequences()), testCode(cached.getErrorTestSequences()));
+  }
+
+  /**
+   * Returns the code of the given tests, including their assertions.
+   *
+   * @param tests the tests
+   * @return the code of each test
+   */
+  private static List<String> testCode(List<ExecutableSequence> tests) {
+    List<String> result = new ArrayList<>(tests.size());
+    for (ExecutableSequence eseq : tests) {
+      result.add(eseq.toCodeString());
+    }
+    return result;
+  }
+
+  private static ForwardGenerator runGenerator() {
+    Randomness.setSeed(0);
+    ClassOrInterfaceType classType = ClassOrInterfaceType.forClass(Counter.class);
+    Collection<TypedOperation> operations =
+        OperationExtractor.operations(
+            classType,
+            new DefaultReflectionPredicate(new HashSet<>()),
+            new OmitMethodsPredicate(GenInputsAbstract.omit_methods),
+            IS_PUBLIC);
+    ForwardGenerator gen =
+        new ForwardGenerator(
+            new ArrayList<>(operations),
+            new LinkedHashSet<TypedOperation>(),
+            new GenInputsAbstract.Limits(),
+            new ComponentManager(SeedSequences.defaultSeeds()),
+            /* stopper= */ null,
+            Collections.singleton(classType));
+    gen.setTestPredicate(
+        new GenTests()
+            .createTestOutputPredicate(new HashSet<Sequence>(), new HashSet<Class<?>>(), null));
+    gen.setTestCheckGenerator(
+        GenTests.createTestCheckGenerator(
+            IS_PUBLIC, new ContractSet(), new MultiMap<>(), OmitMethodsPredicate.NO_OMISSION));
+    gen.setExecutionVisitor(new DummyVisitor());
+    gen.createAndClassifySequences();
+    return gen;
+  }
+}
@@ -0,0 +1,176 @@
+package randoop.generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import org.junit.Test;
+import randoop.operation.CallableOperation;
+import randoop.operation.ConstructorCall;
+import randoop.operation.MethodCall;
+import randoop.operation.TypedClassOperation;
+import randoop.operation.TypedOperation;
+import randoop.types.NonParameterizedType;
+import randoop.types.Type;
+import randoop.types.TypeTuple;
+
+/** Tests for {@link ProducerGraph}. */
+public class ProducerGraphTest {
+
+  /** A class whose values are created from a {@link Leaf}. */
+  public static class Node {
+    public Node(Leaf leaf) {}
+
+    public static Node copy(Node node) {
+      return node;
+    }
+
+    public Leaf getLeaf() {
+      return Leaf.of("leaf");
+    }
+  }
+
+  /** A class whose values are created by a static factory method. */
+  public static class Leaf {
+    private Leaf() {}
+
+    public static Leaf of(String name) {
+      return new Leaf();
+    }
+  }
+
+  /** A class that has no producers. */
+  public static class Unreachable {
+    private Unreachable() {}
+  }
+
+  @Test
+  public void testProducersAreComputedOnce() {
+    ProducerGraph graph = new ProducerGraph(Collections.<Type>emptySet());
+    Type dayType = new NonParameterizedType(Day.class);
+    Set<TypedOperation> producers = graph.getProducers(dayType);
+    assertFalse(producers.isEmpty());
+    boolean hasValueOf = false;
+    for (TypedOperation producer : producers) {
+      if (producer.getName().endsWith(".valueOf") && producer.getOutputType().equals(dayType)) {
+        hasValueOf = true;
+      }
+    }
+    assertTrue("Day.valueOf should produce a Day", hasValueOf);
+    assertSame(producers, graph.getProducers(new NonParameterizedType(Day.class)));
+
+    // Another graph has its own cache.
+    ProducerGraph otherGraph = new ProducerGraph(Collections.<Type>emptySet());
+    assertNotSame(producers, otherGraph.getProducers(dayType));
+    assertEquals(producers, otherGraph.getProducers(dayType));
+  }
+
+  @Test
+  public void testCachedProducersEqualUncachedProducers() {
+    List<Type> types =
+        Arrays.asList(
+            new NonParameterizedType(Leaf.class),
+            new NonParameterizedType(Node.class),
+            new NonParameterizedType(Unreachable.class),
+            new NonParameterizedType(Day.class));
+    List<List<Type>> specifiedTypesList =
+        Arrays.asList(
+            Collections.<Type>emptyList(),
+            Collections.<Type>singletonList(new NonParameterizedType(Node.class)));
+    for (List<Type> specifiedTypes : specifiedTypesList) {
+      ProducerGraph graph = new ProducerGraph(specifiedTypes);
+      // The first demand of Node reuses the classes and operations that the demand of Leaf
+      // cached, and the second round of demands is answered from the cache.
+      for (int round = 0; round < 2; round++) {
+        for (Type type : types) {
+          assertEquals(
+              type.toString(),
+              uncachedProducers(specifiedTypes, type),
+              new ArrayList<>(graph.getProducers(type)));
+        }
+      }
+    }
+    // A type is unreachable unless the search starts from a class that can produce it.
+    Type unreachableType = new NonParameterizedType(Unreachable.class);
+    assertTrue(
+        new ProducerGraph(specifiedTypesList.get(0)).getProducers(unreachableType).isEmpty());
+    assertFalse(
+        new ProducerGraph(specifiedTypesList.get(1)).getProducers(unreachableType).isEmpty());
+  }
+
+  /**
+   * Returns the producers of the given type, computed without {@link ProducerGraph}'s caches in
+   * the way that {@link DemandDrivenInputCreator} computed them before the caches existed.
+   *
+   * @param specifiedTypes the types where the search starts, as well as the target type
+   * @param targetType the type to produce
+   * @return the producers of {@code targetType}, in the order that they are found
+   */
+  private static List<TypedOperation> uncachedProducers(
+      List<Type> specifiedTypes, Type targetType) {
+    List<TypedOperation> result = new ArrayList<>();
+    Set<Type> processed = new HashSet<>();
+    Queue<Type> workList = new ArrayDeque<>(specifiedTypes);
+    workList.add(targetType);
+
+    while (!workList.isEmpty()) {
+      Type currentType = workList.remove();
+      if (processed.contains(currentType) || currentType.isNonreceiverType()) {
+        continue;
+      }
+      processed.add(currentType);
+
+      Class<?> currentClass = currentType.getRuntimeClass();
+      NonParameterizedType declaringType = new NonParameterizedType(currentClass);
+      List<Executable> executables = new ArrayList<>();
+      Collections.addAll(executables, currentClass.getConstructors());
+      Collections.addAll(executables, currentClass.getMethods());
+      for (Executable executable : executables) {
+        Type returnType;
+        TypeTuple inputTypes;
+        CallableOperation callableOperation;
+        if (executable instanceof Constructor) {
+          Constructor<?> constructor = (Constructor<?>) executable;
+          returnType = declaringType;
+          inputTypes = TypedOperation.forConstructor(constructor).getInputTypes();
+          callableOperation = new ConstructorCall(constructor);
+        } else {
+          Method method = (Method) executable;
+          returnType = Type.forClass(method.getReturnType());
+          boolean isStaticAndReturnsCurrentClass =
+              returnType.equals(declaringType) && Modifier.isStatic(method.getModifiers());
+          if (!(targetType.isAssignableFrom(returnType) || isStaticAndReturnsCurrentClass)) {
+            continue;
+          }
+          inputTypes = TypedOperation.forMethod(method).getInputTypes();
+          callableOperation = new MethodCall(method);
+        }
+        TypedOperation operation =
+            new TypedClassOperation(callableOperation, declaringType, inputTypes, returnType);
+        if (!result.contains(operation)) {
+          result.add(operation);
+        }
+        for (Type paramType : inputTypes) {
+          if (!paramType.isPrimitive() && !processed.contains(paramType)) {
+            workList.add(paramType);
+          }
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -1,5 +1,6 @@
 package randoop.generation;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
@@ -13,6 +14,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -244,7 +246,60 @@ public class TestFilteringTest {
     assertFalse(eTests.isEmpty());
   }
 
+  /**
+   * A check that is applied to batches of output sequences during generation keeps the same
+   * sequences as the same check in the test predicate, and the sequences that it discards do not
+   * count toward the output limit.
+   */
+  @Test
+  public void outputBatchFilterTest() {
+    GenInputsAbstract.dont_output_tests = false;
+    GenInputsAbstract.require_classname_in_test = null;
+    GenInputsAbstract.no_error_revealing_tests = false;
+    GenInputsAbstract.no_regression_tests = false;
+    GenInputsAbstract.check_compilable = false;
+    GenInputsAbstract.generated_limit = 1000;
+    GenInputsAbstract.output_limit = 50;
+    GenInputsAbstract.progressdisplay = false;
+
+    // Stands for the compilability check of --check-compilable-batch-size.
+    Predicate<ExecutableSequence> check = eseq -> eseq.sequence.size() % 3 != 0;
+
+    randoop.util.Randomness.setSeed(0);
+    ForwardGenerator expected = buildGenerator(Flaky.class);
+    expected.setTestPredicate(expected.outputTest.and(check));
+    expected.createAndClassifySequences();
+    assertEquals(GenInputsAbstract.output_limit, expected.numOutputSequences());
+
+    for (int batchSize : new int[] {1, 7, 1000}) {
+      randoop.util.Randomness.setSeed(0);
+      ForwardGenerator batched = buildGenerator(Flaky.class);
+      batched.setOutputBatchFilter(
+          batchSize, seqs -> seqs.stream().filter(check).collect(Collectors.toList()));
+      batched.createAndClassifySequences();
+      assertEquals(sequences(expected.outRegressionSeqs), sequences(batched.outRegressionSeqs));
+      assertEquals(sequences(expected.outErrorSeqs), sequences(batched.outErrorSeqs));
+      assertEquals(expected.num_failed_output_test, batched.num_failed_output_test);
+    }
+  }
+
+  private static List<Sequence> sequences(List<ExecutableSequence> eseqs) {
+    List<Sequence> result = new ArrayList<>(eseqs.size());
+    for (ExecutableSequence eseq : eseqs) {
+      result.add(eseq.sequence);
+    }
+    return result;
+  }
+
   private ForwardGenerator buildAndRunGenerator(Class<?> c) {
+    ForwardGenerator gen = buildGenerator(c);
+    TestUtils.setAllLogs(gen);
+    gen.createAndClassifySequences();
+    gen.getOperationHistory().outputTable();
+    return gen;
+  }
+
+  private ForwardGenerator buildGenerator(Class<?> c) {
     Set<String> omitfields = new HashSet<>();
     AccessibilityPredicate accessibility = IS_PUBLIC;
     ReflectionPredicate reflectionPredicate = new DefaultReflectionPredicate(omitfields);
@@ -279,9 +334,6 @@ public class TestFilteringTest {
             accessibility, new ContractSet(), new MultiMap<>(), OmitMethodsPredicate.NO_OMISSION);
     gen.setTestCheckGenerator(checkGenerator);
     gen.setExecutionVisitor(new DummyVisitor());
-    TestUtils.setAllLogs(gen);
-    gen.createAndClassifySequences();
-    gen.getOperationHistory().outputTable();
     return gen;
   }
 }
@@ -0,0 +1,34 @@
+package randoop.instrument;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** Tests for {@link CoveredClassFlags}. */
+public class CoveredClassFlagsTest {
+
+  @Test
+  public void testSetAndReset() {
+    int first = CoveredClassFlags.register();
+    int second = CoveredClassFlags.register();
+    assertNotEquals(first, second);
+    assertFalse(CoveredClassFlags.checkAndReset(first));
+
+    CoveredClassFlags.set(first);
+    assertTrue(CoveredClassFlags.checkAndReset(first));
+    assertFalse(CoveredClassFlags.checkAndReset(first));
+    assertFalse(CoveredClassFlags.checkAndReset(second));
+  }
+
+  @Test
+  public void testFlagsSurviveGrowth() {
+    int index = CoveredClassFlags.register();
+    CoveredClassFlags.set(index);
+    for (int i = 0; i < 5000; i++) {
+      CoveredClassFlags.register();
+    }
+    assertTrue(CoveredClassFlags.checkAndReset(index));
+  }
+}
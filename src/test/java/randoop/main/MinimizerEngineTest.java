@@ -0,0 +1,176 @@
+package randoop.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.Statement;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Test;
+
+/** Tests for {@link MinimizerEngine} and for {@link Minimize#removeStatementChunks}. */
+public class MinimizerEngineTest {
+
+  @Test
+  public void testRemoveStatementChunks() throws IOException {
+    CompilationUnit compilationUnit = parse(printingTest(40));
+    BlockStmt body = testMethod(compilationUnit, "test1").getBody().get();
+    int[] calls = new int[1];
+    Minimize.removeStatementChunks(
+        body,
+        compilationUnit,
+        cu -> {
+          calls[0]++;
+          String source = cu.toString();
+          return source.contains("println(2)") && source.contains("println(7)");
+        },
+        new HashMap<>(),
+        new HashSet<>());
+    assertEquals(Arrays.asList("System.out.println(2);", "System.out.println(7);"), text(body));
+    // Removing the statements one at a time would take 40 runs.
+    assertTrue("calls: " + calls[0], calls[0] < 40);
+  }
+
+  @Test
+  public void testRemoveStatementChunksKeepsNeededStatements() throws IOException {
+    CompilationUnit compilationUnit = parse(printingTest(5));
+    BlockStmt body = testMethod(compilationUnit, "test1").getBody().get();
+    List<String> original = text(body);
+    Minimize.removeStatementChunks(
+        body,
+        compilationUnit,
+        cu -> text(body).equals(original),
+        new HashMap<>(),
+        new HashSet<>());
+    assertEquals(original, text(body));
+  }
+
+  @Test
+  public void testMinimizesInMemory() throws IOException {
+    CompilationUnit compilationUnit =
+        parse(
+            "import org.junit.Assert;",
+            "import org.junit.Test;",
+            "public class SampleTest {",
+            "  @Test public void test1() {",
+            "    int x = 1;",
+            "    StringBuilder sb = new StringBuilder();",
+            "    sb.append(\"unused\");",
+            "    int y = x + 1;",
+            "    Assert.assertEquals(3, y);",
+            "  }",
+            "  @Test public void test2() {",
+            "    int z = 5;",
+            "    Assert.assertEquals(5, z);",
+            "  }",
+            "}");
+    try (MinimizerEngine engine = engine(30)) {
+      CompilationUnit result = engine.minimizeTestSuite(compilationUnit);
+      assertNotNull(result);
+      String test1 = testMethod(result, "test1").toString();
+      assertFalse(test1, test1.contains("StringBuilder"));
+      assertTrue(test1, test1.contains("Assert.assertEquals(3, y);"));
+      assertTrue(engine.failsAsExpected(result));
+
+      // A candidate whose test passes does not fail as expected.
+      CompilationUnit passing = result.clone();
+      testMethod(passing, "test1").setBody(new BlockStmt());
+      assertFalse(engine.failsAsExpected(passing));
+    }
+  }
+
+  @Test
+  public void testSystemExitStopsRunning() throws IOException {
+    CompilationUnit compilationUnit =
+        parse(
+            "import org.junit.Test;",
+            "public class SampleTest {",
+            "  @Test public void test1() {",
+            "    int x = 1;",
+            "    System.exit(x);",
+            "  }",
+            "}");
+    try (MinimizerEngine engine = engine(30)) {
+      assertNull(engine.minimizeTestSuite(compilationUnit));
+    }
+  }
+
+  @Test
+  public void testTimeoutStopsRunning() throws IOException {
+    CompilationUnit compilationUnit =
+        parse(
+            "import org.junit.Test;",
+            "public class SampleTest {",
+            "  @Test public void test1() {",
+            "    int x = 1;",
+            "    while (x > 0) {",
+            "      Thread.yield();",
+            "    }",
+            "  }",
+            "}");
+    try (MinimizerEngine engine = engine(1)) {
+      assertNull(engine.minimizeTestSuite(compilationUnit));
+    }
+  }
+
+  /**
+   * Creates an engine for the class {@code SampleTest} in the default package.
+   *
+   * @param timeoutLimit number of seconds allowed for a test method to run
+   * @return the engine
+   * @throws IOException if a temporary directory cannot be created
+   */
+  private static MinimizerEngine engine(int timeoutLimit) throws IOException {
+    Path sourceRoot = Files.createTempDirectory("minimizer-engine");
+    return new MinimizerEngine(
+        null, "SampleTest", sourceRoot, System.getProperty("java.class.path"), timeoutLimit, 2);
+  }
+
+  /**
+   * Returns the source of a test class whose method {@code test1} prints the numbers from 0 to
+   * {@code n - 1}.
+   *
+   * @param n the number of statements of {@code test1}
+   * @return the lines of the test class
+   */
+  private static String[] printingTest(int n) {
+    List<String> lines = new ArrayList<>();
+    lines.add("public class SampleTest {");
+    lines.add("  @Test public void test1() {");
+    for (int i = 0; i < n; i++) {
+      lines.add("    System.out.println(" + i + ");");
+    }
+    lines.add("  }");
+    lines.add("}");
+    return lines.toArray(new String[0]);
+  }
+
+  private static CompilationUnit parse(String... lines) {
+    return new JavaParser().parse(String.join("\n", lines)).getResult().get();
+  }
+
+  private static MethodDeclaration testMethod(CompilationUnit compilationUnit, String name) {
+    return compilationUnit.getType(0).getMethodsByName(name).get(0);
+  }
+
+  private static List<String> text(BlockStmt body) {
+    List<String> result = new ArrayList<>();
+    for (Statement statement : body.getStatements()) {
+      result.add(statement.toString());
+    }
+    return result;
+  }
+}
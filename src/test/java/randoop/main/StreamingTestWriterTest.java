@@ -0,0 +1,329 @@
+package randoop.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.execution.TestEnvironment;
+import randoop.generation.OperationHistoryLogInterface;
+import randoop.generation.OperationOutcome;
+import randoop.operation.TypedOperation;
+import randoop.output.CodeWriter;
+import randoop.output.FailingAssertionCommentWriter;
+import randoop.output.JUnitCreator;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.test.DummyCheckGenerator;
+import randoop.types.JavaTypes;
+
+/** Tests for {@link StreamingTestWriter}. */
+public class StreamingTestWriterTest {
+
+  private static OptionsCache optionsCache;
+
+  /** Matches the name of a test method. */
+  private static final Pattern TEST_METHOD = Pattern.compile("public void (test\\d+)\\(\\)");
+
+  /** Matches the argument of {@code String.valueOf}, which identifies each test sequence. */
+  private static final Pattern VALUE_OF = Pattern.compile("valueOf\\((\\d+)\\)");
+
+  @BeforeClass
+  public static void setup() {
+    optionsCache = new OptionsCache();
+    optionsCache.saveState();
+  }
+
+  @AfterClass
+  public static void restore() {
+    optionsCache.restoreState();
+  }
+
+  @Before
+  public void setOptions() {
+    GenInputsAbstract.testsperfile = 2;
+    GenInputsAbstract.progressdisplay = false;
+    GenInputsAbstract.junit_package_name = null;
+    GenInputsAbstract.junit_reflection_allowed = true;
+  }
+
+  @Test
+  public void testSubsumptionWindow() throws NoSuchMethodException {
+    List<ExecutableSequence> seqs = sequences(7);
+    // Sequence 1 is subsumed while it is in the window.
+    seqs.get(2).componentSequences = Collections.singletonList(seqs.get(1).sequence);
+    // Sequence 2 has been written by the time that sequence 6 arrives, so it is kept.
+    seqs.get(6).componentSequences = Collections.singletonList(seqs.get(2).sequence);
+    RecordingHistory history = new RecordingHistory();
+    try (TestEnvironment environment = new TestEnvironment("")) {
+      RecordingWriter regressionWriter = new RecordingWriter(environment, Collections.emptySet());
+      StreamingTestWriter writer =
+          new StreamingTestWriter(
+              JUnitCreator.getTestCreator(null, null, null, null, null),
+              null,
+              regressionWriter,
+              100,
+              history,
+              UnaryOperator.identity(),
+              classSeqs -> {});
+      for (int i = 1; i <= 5; i++) {
+        writer.addRegressionSequence(seqs.get(i));
+      }
+      // The window held sequences 2 to 5; the oldest two were output.
+      assertEquals(
+          Arrays.asList(seqs.get(2).getOperation(), seqs.get(3).getOperation()),
+          history.regression);
+      writer.addRegressionSequence(seqs.get(6));
+      writer.finish();
+
+      assertEquals(
+          Arrays.asList(Arrays.asList(2, 3), Arrays.asList(4, 5), Collections.singletonList(6)),
+          regressionWriter.values());
+      assertEquals(Collections.singletonList(seqs.get(1).getOperation()), history.subsumed);
+      assertEquals(5, history.regression.size());
+      assertEquals(Collections.singletonList("RegressionTest"), regressionWriter.suites);
+    }
+  }
+
+  @Test
+  public void testFlakySequencesAfterFilter() throws NoSuchMethodException {
+    List<ExecutableSequence> seqs = sequences(7);
+    try (TestEnvironment environment = new TestEnvironment("")) {
+      RecordingWriter regressionWriter =
+          new RecordingWriter(environment, new HashSet<>(Arrays.asList(1, 4, 6)));
+      StreamingTestWriter writer =
+          new StreamingTestWriter(
+              JUnitCreator.getTestCreator(null, null, null, null, null),
+              null,
+              regressionWriter,
+              100,
+              new RecordingHistory(),
+              // Dropping sequence 3 shifts the numbers of the later test methods.
+              classSeqs ->
+                  classSeqs.stream().filter(s -> s != seqs.get(3)).collect(Collectors.toList()),
+              classSeqs -> {});
+      for (int i = 1; i <= 6; i++) {
+        writer.addRegressionSequence(seqs.get(i));
+      }
+      writer.finish();
+
+      assertEquals(
+          Arrays.asList(Arrays.asList(1, 2), Collections.singletonList(4), Arrays.asList(5, 6)),
+          regressionWriter.values());
+      assertEquals(
+          Arrays.asList(seqs.get(1), seqs.get(4), seqs.get(6)), writer.getFlakySequences());
+    }
+  }
+
+  @Test
+  public void testGenerationWaitsForWrites() throws Exception {
+    List<ExecutableSequence> seqs = sequences(10);
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingCodeWriter errorWriter = new RecordingCodeWriter(writing, release);
+    StreamingTestWriter writer =
+        new StreamingTestWriter(
+            JUnitCreator.getTestCreator(null, null, null, null, null),
+            errorWriter,
+            null,
+            100,
+            new RecordingHistory(),
+            UnaryOperator.identity(),
+            classSeqs -> {});
+
+    // Four classes: the first is being written, the second is queued, and the third waits.
+    Thread generator =
+        new Thread(
+            () -> {
+              for (int i = 1; i <= 8; i++) {
+                writer.addErrorSequence(seqs.get(i));
+              }
+            });
+    generator.start();
+    assertTrue(writing.await(60, TimeUnit.SECONDS));
+    generator.join(500);
+    assertTrue(generator.isAlive());
+    assertEquals(0, errorWriter.classes.size());
+
+    release.countDown();
+    generator.join(60_000);
+    writer.addErrorSequence(seqs.get(9));
+    writer.finish();
+
+    assertEquals(
+        Arrays.asList("ErrorTest0", "ErrorTest1", "ErrorTest2", "ErrorTest3", "ErrorTest4"),
+        errorWriter.classes);
+    // The suite is written after every class.
+    assertEquals(Collections.singletonList("ErrorTest"), errorWriter.suites);
+    assertEquals(errorWriter.classes.size() + 1, errorWriter.events.size());
+    assertEquals("ErrorTest", errorWriter.events.get(errorWriter.events.size() - 1));
+  }
+
+  /**
+   * Returns executed sequences that each call {@code String.valueOf} on a distinct number.
+   *
+   * @param n the number of sequences
+   * @return a list whose element {@code i} calls {@code String.valueOf(i)}
+   */
+  private static List<ExecutableSequence> sequences(int n) throws NoSuchMethodException {
+    TypedOperation valueOf =
+        TypedOperation.forMethod(String.class.getMethod("valueOf", int.class));
+    List<ExecutableSequence> result = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      Sequence sequence =
+          new Sequence()
+              .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, i));
+      sequence = sequence.extend(valueOf, sequence.getLastVariable());
+      ExecutableSequence eseq = new ExecutableSequence(sequence);
+      eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+      result.add(eseq);
+    }
+    return result;
+  }
+
+  /** Records the outcomes of operations. */
+  private static class RecordingHistory implements OperationHistoryLogInterface {
+
+    /** The operations of the subsumed sequences, in order. */
+    final List<TypedOperation> subsumed = new ArrayList<>();
+
+    /** The operations of the sequences output as regression tests, in order. */
+    final List<TypedOperation> regression = new ArrayList<>();
+
+    @Override
+    public void add(TypedOperation operation, OperationOutcome outcome) {
+      if (outcome == OperationOutcome.SUBSUMED) {
+        subsumed.add(operation);
+      } else if (outcome == OperationOutcome.REGRESSION_SEQUENCE) {
+        regression.add(operation);
+      }
+    }
+
+    @Override
+    public void outputTable() {}
+  }
+
+  /**
+   * A regression test writer that records the classes instead of writing them, and that reports
+   * as flaky the test methods of chosen sequences. Like {@link FailingAssertionCommentWriter}, it
+   * accumulates the flaky test names of all classes.
+   */
+  private static class RecordingWriter extends FailingAssertionCommentWriter {
+
+    /** The numbers of the sequences whose test methods are flaky. */
+    private final Set<Integer> flakyValues;
+
+    /** For each class, in the order written, the numbers of the sequences of its test methods. */
+    private final List<List<Integer>> classValues = Collections.synchronizedList(new ArrayList<>());
+
+    /** The names of the test suites. */
+    final List<String> suites = Collections.synchronizedList(new ArrayList<>());
+
+    /** The test methods of the written classes that are flaky. */
+    private final Set<String> flakyTestNames = Collections.synchronizedSet(new HashSet<>());
+
+    RecordingWriter(TestEnvironment environment, Set<Integer> flakyValues) {
+      super(environment, null);
+      this.flakyValues = flakyValues;
+    }
+
+    @Override
+    public Path writeClassCode(String packageName, String classname, String classSource) {
+      List<Integer> values = new ArrayList<>();
+      // Each chunk after the first is one test method.
+      for (String method : classSource.split("@Test")) {
+        Matcher name = TEST_METHOD.matcher(method);
+        Matcher value = VALUE_OF.matcher(method);
+        if (name.find() && value.find()) {
+          int v = Integer.parseInt(value.group(1));
+          values.add(v);
+          if (flakyValues.contains(v)) {
+            flakyTestNames.add(name.group(1));
+          }
+        }
+      }
+      classValues.add(values);
+      return Paths.get(classname + ".java");
+    }
+
+    @Override
+    public Path writeUnmodifiedClassCode(String packageName, String classname, String classCode) {
+      suites.add(classname);
+      return Paths.get(classname + ".java");
+    }
+
+    @Override
+    public Set<String> getFlakyTestNames() {
+      synchronized (flakyTestNames) {
+        return new HashSet<>(flakyTestNames);
+      }
+    }
+
+    List<List<Integer>> values() {
+      synchronized (classValues) {
+        return new ArrayList<>(classValues);
+      }
+    }
+  }
+
+  /** A writer that records the classes, and whose first write waits until it is released. */
+  private static class RecordingCodeWriter implements CodeWriter {
+
+    /** Counted down when the first write starts. */
+    private final CountDownLatch writing;
+
+    /** Awaited by the first write. */
+    private final CountDownLatch release;
+
+    /** The names of the test classes, in the order written. */
+    final List<String> classes = Collections.synchronizedList(new ArrayList<>());
+
+    /** The names of the test suites. */
+    final List<String> suites = Collections.synchronizedList(new ArrayList<>());
+
+    /** The names of the test classes and suites, in the order that their writes finished. */
+    final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    RecordingCodeWriter(CountDownLatch writing, CountDownLatch release) {
+      this.writing = writing;
+      this.release = release;
+    }
+
+    @Override
+    public Path writeClassCode(String packageName, String classname, String classCode) {
+      writing.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new AssertionError(e);
+      }
+      classes.add(classname);
+      events.add(classname);
+      return Paths.get(classname + ".java");
+    }
+
+    @Override
+    public Path writeUnmodifiedClassCode(String packageName, String classname, String classCode) {
+      suites.add(classname);
+      events.add(classname);
+      return Paths.get(classname + ".java");
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package randoop.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.operation.TypedOperation;
+import randoop.reflection.AccessibilityPredicate;
+import randoop.reflection.OmitMethodsPredicate;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.sequence.Variable;
+import randoop.test.DummyCheckGenerator;
+import randoop.test.ExpectedExceptionCheckGen;
+import randoop.test.RegressionCaptureGenerator;
+import randoop.test.TestCheckGenerator;
+import randoop.types.JavaTypes;
+import randoop.util.MultiMap;
+
+/** Tests that {@link JUnitCreator#createTestClassSource} prints test classes as JavaParser does. */
+public class TestClassSourceTest {
+
+  /** Generates regression assertions and expected-exception checks. */
+  private static final TestCheckGenerator REGRESSION_CHECKS =
+      new RegressionCaptureGenerator(
+          new ExpectedExceptionCheckGen(AccessibilityPredicate.IS_PUBLIC),
+          new MultiMap<>(),
+          AccessibilityPredicate.IS_PUBLIC,
+          OmitMethodsPredicate.NO_OMISSION,
+          true);
+
+  private static ExecutableSequence executed(Sequence sequence, TestCheckGenerator checks) {
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.execute(new DummyVisitor(), checks);
+    return eseq;
+  }
+
+  private static Sequence intToString(int i) throws NoSuchMethodException {
+    Sequence sequence =
+        new Sequence().extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, i));
+    return sequence.extend(
+        TypedOperation.forMethod(String.class.getMethod("valueOf", int.class)),
+        sequence.getLastVariable());
+  }
+
+  private static Sequence newList() throws NoSuchMethodException {
+    Sequence list =
+        new Sequence()
+            .extend(
+                TypedOperation.forConstructor(ArrayList.class.getConstructor()),
+                new ArrayList<Variable>());
+    return list.extend(
+        TypedOperation.forMethod(ArrayList.class.getMethod("isEmpty")), list.getLastVariable());
+  }
+
+  /** A sequence that throws an exception, which is expected in a regression test. */
+  private static Sequence parseBadInt() throws NoSuchMethodException {
+    Sequence sequence =
+        new Sequence()
+            .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.STRING_TYPE, "xyz"));
+    return sequence.extend(
+        TypedOperation.forMethod(Integer.class.getMethod("parseInt", String.class)),
+        sequence.getLastVariable());
+  }
+
+  /** A sequence whose code contains "/*", which cannot be printed statement by statement. */
+  private static Sequence blockCommentInString() throws NoSuchMethodException {
+    Sequence sequence =
+        new Sequence()
+            .extend(
+                TypedOperation.createPrimitiveInitialization(
+                    JavaTypes.STRING_TYPE, "/* not a comment */ \"quoted\"\t"));
+    return sequence.extend(
+        TypedOperation.forMethod(Boolean.class.getMethod("parseBoolean", String.class)),
+        sequence.getLastVariable());
+  }
+
+  private static List<ExecutableSequence> sequences() throws NoSuchMethodException {
+    List<ExecutableSequence> result = new ArrayList<>();
+    for (int i : Arrays.asList(-1, 0, 100)) {
+      result.add(executed(intToString(i), new DummyCheckGenerator()));
+    }
+    result.add(executed(newList(), new DummyCheckGenerator()));
+    return result;
+  }
+
+  private static List<ExecutableSequence> regressionSequences() throws NoSuchMethodException {
+    List<ExecutableSequence> result = new ArrayList<>();
+    for (int i : Arrays.asList(-1, 0, Integer.MIN_VALUE)) {
+      result.add(executed(intToString(i), REGRESSION_CHECKS));
+    }
+    result.add(executed(newList(), REGRESSION_CHECKS));
+    result.add(executed(parseBadInt(), REGRESSION_CHECKS));
+    result.add(executed(blockCommentInString(), REGRESSION_CHECKS));
+    return result;
+  }
+
+  private static void assertSameSource(JUnitCreator creator, List<ExecutableSequence> sequences) {
+    for (int size = 0; size <= sequences.size(); size++) {
+      List<ExecutableSequence> partition = sequences.subList(0, size);
+      String expected =
+          creator
+              .createTestClass("TestClass", new NameGenerator("test", 1, size), partition)
+              .toString();
+      String actual =
+          creator.createTestClassSource("TestClass", new NameGenerator("test", 1, size), partition);
+      assertEquals(expected, actual);
+    }
+  }
+
+  private static BlockStmt fixture() {
+    return new JavaParser()
+        .parseBlock("{ int x = 1; /* a comment */ System.out.println(x); // another\n }")
+        .getResult()
+        .get();
+  }
+
+  @Test
+  public void testDefaultPackage() throws NoSuchMethodException {
+    assertSameSource(JUnitCreator.getTestCreator(null, null, null, null, null), sequences());
+  }
+
+  @Test
+  public void testFixtures() throws NoSuchMethodException {
+    BlockStmt fixture = fixture();
+    assertSameSource(
+        JUnitCreator.getTestCreator("foo.bar", fixture, fixture, fixture, fixture), sequences());
+  }
+
+  @Test
+  public void testRegressionChecks() throws NoSuchMethodException {
+    List<ExecutableSequence> sequences = regressionSequences();
+    String source =
+        JUnitCreator.getTestCreator(null, null, null, null, null)
+            .createTestClassSource(
+                "TestClass", new NameGenerator("test", 1, sequences.size()), sequences);
+    // Check that the sequences exercise what they are meant to.
+    assertTrue(source, source.contains("org.junit.Assert.assertEquals("));
+    assertTrue(source, source.contains("} catch (java.lang.NumberFormatException e) {"));
+    assertTrue(source, source.contains("// Expected exception."));
+    assertTrue(source, source.contains("/* not a comment */"));
+
+    assertSameSource(JUnitCreator.getTestCreator(null, null, null, null, null), sequences);
+    BlockStmt fixture = fixture();
+    assertSameSource(
+        JUnitCreator.getTestCreator("foo.bar", fixture, null, fixture, null), sequences);
+  }
+
+  @Test
+  public void testConcurrentClasses() throws Exception {
+    List<ExecutableSequence> sequences = regressionSequences();
+    BlockStmt fixture = fixture();
+    // Creators that share fixtures, as those of GenTests do.
+    JUnitCreator first = JUnitCreator.getTestCreator("foo", fixture, fixture, null, null);
+    JUnitCreator second = JUnitCreator.getTestCreator("foo", fixture, fixture, null, null);
+    List<String> expected = new ArrayList<>();
+    List<Supplier<String>> suppliers = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      JUnitCreator creator = (i % 2 == 0) ? first : second;
+      String className = "TestClass" + i;
+      NameGenerator names = new NameGenerator("test", 1, sequences.size());
+      expected.add(creator.createTestClass(className, names, sequences).toString());
+      suppliers.add(
+          creator.prepareTestClassSource(
+              className, new NameGenerator("test", 1, sequences.size()), sequences));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> sources = new ArrayList<>();
+      for (Supplier<String> supplier : suppliers) {
+        sources.add(executor.submit(supplier::get));
+      }
+      for (int i = 0; i < sources.size(); i++) {
+        assertEquals(expected.get(i), getSource(sources.get(i)));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static String getSource(Future<String> source) throws InterruptedException {
+    try {
+      return source.get();
+    } catch (ExecutionException e) {
+      throw new AssertionError(e.getCause());
+    }
+  }
+}
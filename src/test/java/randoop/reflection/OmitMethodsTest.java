@@ -3,6 +3,7 @@ package randoop.reflection;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -150,6 +151,32 @@ public class OmitMethodsTest {
     assertTrue(hasMethodNamed(operations, "m1"));
   }
 
+  @Test
+  public void testSeveralPatterns() {
+    Set<TypedOperation> operations;
+    List<Pattern> omitpatterns =
+        Arrays.asList(Pattern.compile("G\\.m1\\(\\)"), Pattern.compile("G\\.m2\\(\\)"));
+    operations = getOperations(gType, omitpatterns);
+    assertFalse(hasMethodNamed(operations, "m1"));
+    assertFalse(hasMethodNamed(operations, "m2"));
+
+    // Patterns with different flags are not combined into one.
+    omitpatterns =
+        Arrays.asList(
+            Pattern.compile("G\\.M1\\(\\)", Pattern.CASE_INSENSITIVE),
+            Pattern.compile("G\\.M2\\(\\)"));
+    operations = getOperations(gType, omitpatterns);
+    assertFalse(hasMethodNamed(operations, "m1"));
+    assertTrue(hasMethodNamed(operations, "m2"));
+
+    // A back reference still refers to a group of its own pattern.
+    omitpatterns =
+        Arrays.asList(Pattern.compile("(m)2"), Pattern.compile("(G)\\.(m)\\2?1\\(\\)"));
+    operations = getOperations(gType, omitpatterns);
+    assertFalse(hasMethodNamed(operations, "m1"));
+    assertFalse(hasMethodNamed(operations, "m2"));
+  }
+
   private boolean hasMethodNamed(Set<TypedOperation> operations, String name) {
     for (TypedOperation operation : operations) {
       if (operation.getName().endsWith("." + name)) {
@@ -160,7 +187,10 @@ public class OmitMethodsTest {
   }
 
   private Set<TypedOperation> getOperations(ClassOrInterfaceType type, Pattern omitpattern) {
-    List<Pattern> omitList = Collections.singletonList(omitpattern);
+    return getOperations(type, Collections.singletonList(omitpattern));
+  }
+
+  private Set<TypedOperation> getOperations(ClassOrInterfaceType type, List<Pattern> omitList) {
     OmitMethodsPredicate omitMethodsPredicate = new OmitMethodsPredicate(omitList);
     AccessibilityPredicate accessibility =
         new AccessibilityPredicate.PackageAccessibilityPredicate("randoop.reflection");
@@ -0,0 +1,213 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.NormalExecution;
+import randoop.operation.TypedOperation;
+import randoop.test.DummyCheckGenerator;
+import randoop.types.JavaTypes;
+
+public class ExecutionSnapshotCacheTest {
+
+  private static ExecutableSequence execute(Sequence sequence, ExecutionSnapshotCache cache) {
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator(), cache);
+    return eseq;
+  }
+
+  @Test
+  public void testRestoresImmutableComponents() throws NoSuchMethodException {
+    ExecutionSnapshotCache cache = new ExecutionSnapshotCache(100);
+
+    Sequence component =
+        new Sequence()
+            .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, 42));
+    component =
+        component.extend(
+            TypedOperation.forMethod(String.class.getMethod("valueOf", int.class)),
+            component.getLastVariable());
+    cache.add(execute(component, cache));
+    assertEquals(1, cache.size());
+
+    Sequence prefix = Sequence.concatenate(Collections.singletonList(component));
+    Sequence sequence =
+        prefix.extend(
+            TypedOperation.forMethod(String.class.getMethod("length")), prefix.getVariable(1));
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.componentSequences = Collections.singletonList(component);
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator(), cache);
+
+    assertEquals(1, cache.getHits());
+    assertTrue(eseq.isNormalExecution());
+    assertEquals(2, ((NormalExecution) eseq.getResult(2)).getRuntimeValue());
+  }
+
+  /** A mutable class. */
+  public static class Counter {
+    private int count;
+
+    public int increment() {
+      return ++count;
+    }
+
+    public int get() {
+      return count;
+    }
+
+    public static boolean same(Counter a, Counter b) {
+      return a == b;
+    }
+  }
+
+  /** A class whose state is too large to fingerprint. */
+  public static class Big {
+    private final int[] data = new int[2000];
+  }
+
+  /**
+   * Returns a sequence that creates a {@link Counter}.
+   *
+   * @return a sequence that creates a {@link Counter}
+   */
+  private static Sequence newCounter() throws NoSuchMethodException {
+    return new Sequence()
+        .extend(
+            TypedOperation.forConstructor(Counter.class.getConstructor()),
+            new ArrayList<Variable>());
+  }
+
+  /**
+   * Executes the given component, extended by a call to the given method of {@link Counter} on the
+   * object it creates.
+   *
+   * @param component a sequence that creates a {@link Counter}
+   * @param methodName the name of a method of {@link Counter} that takes no arguments
+   * @param cache the cache
+   * @return the executed sequence
+   */
+  private static ExecutableSequence executeCall(
+      Sequence component, String methodName, ExecutionSnapshotCache cache)
+      throws NoSuchMethodException {
+    Sequence prefix = Sequence.concatenate(Collections.singletonList(component));
+    Sequence sequence =
+        prefix.extend(
+            TypedOperation.forMethod(Counter.class.getMethod(methodName)),
+            prefix.getLastVariable());
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.componentSequences = Collections.singletonList(component);
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator(), cache);
+    return eseq;
+  }
+
+  @Test
+  public void testRestoresUnmutatedObjects() throws NoSuchMethodException {
+    ExecutionSnapshotCache cache = new ExecutionSnapshotCache(100);
+    Sequence component = newCounter();
+    ExecutableSequence executed = execute(component, cache);
+    cache.add(executed);
+    assertEquals(1, cache.size());
+
+    ExecutableSequence eseq = executeCall(component, "get", cache);
+    assertEquals(1, cache.getHits());
+    assertEquals(0, ((NormalExecution) eseq.getResult(1)).getRuntimeValue());
+    assertSame(
+        ((NormalExecution) executed.getResult(0)).getRuntimeValue(),
+        ((NormalExecution) eseq.getResult(0)).getRuntimeValue());
+    assertEquals(1, cache.size());
+    assertEquals(0, cache.getInvalidations());
+  }
+
+  @Test
+  public void testDiscardsMutatedObjects() throws NoSuchMethodException {
+    ExecutionSnapshotCache cache = new ExecutionSnapshotCache(100);
+    Sequence component = newCounter();
+    cache.add(execute(component, cache));
+
+    // The restored counter is incremented, so the component's snapshot is discarded.
+    ExecutableSequence incremented = executeCall(component, "increment", cache);
+    assertEquals(1, ((NormalExecution) incremented.getResult(1)).getRuntimeValue());
+    assertEquals(1, cache.getInvalidations());
+    assertEquals(0, cache.size());
+
+    // The component is executed again, creating a new counter.
+    ExecutableSequence eseq = executeCall(component, "get", cache);
+    assertEquals(1, cache.getHits());
+    assertEquals(0, ((NormalExecution) eseq.getResult(1)).getRuntimeValue());
+
+    // The sequence that mutated the counter is recorded in the counter's new state.
+    cache.add(incremented);
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testDiscardsObjectsMutatedElsewhere() throws NoSuchMethodException {
+    ExecutionSnapshotCache cache = new ExecutionSnapshotCache(100);
+    Sequence component = newCounter();
+    ExecutableSequence executed = execute(component, cache);
+    cache.add(executed);
+
+    ((Counter) ((NormalExecution) executed.getResult(0)).getRuntimeValue()).increment();
+    ExecutableSequence eseq = executeCall(component, "get", cache);
+    assertEquals(0, cache.getHits());
+    assertEquals(1, cache.getInvalidations());
+    assertEquals(0, ((NormalExecution) eseq.getResult(1)).getRuntimeValue());
+  }
+
+  @Test
+  public void testDoesNotRestoreSharedObjects() throws NoSuchMethodException {
+    ExecutionSnapshotCache cache = new ExecutionSnapshotCache(100);
+    Sequence component = newCounter();
+    cache.add(execute(component, cache));
+
+    // The same component is used twice. Executing it gives two counters, so restoring it twice
+    // would not.
+    List<Sequence> components = Arrays.asList(component, component);
+    Sequence prefix = Sequence.concatenate(components);
+    Sequence sequence =
+        prefix.extend(
+            TypedOperation.forMethod(
+                Counter.class.getMethod("same", Counter.class, Counter.class)),
+            prefix.getVariable(0),
+            prefix.getVariable(1));
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.componentSequences = components;
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator(), cache);
+
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(false, ((NormalExecution) eseq.getResult(2)).getRuntimeValue());
+  }
+
+  @Test
+  public void testDoesNotRecordLargeObjects() throws NoSuchMethodException {
+    ExecutionSnapshotCache cache = new ExecutionSnapshotCache(100);
+
+    Sequence component =
+        new Sequence()
+            .extend(
+                TypedOperation.forConstructor(Big.class.getConstructor()),
+                new ArrayList<Variable>());
+    cache.add(execute(component, cache));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    ExecutionSnapshotCache cache = new ExecutionSnapshotCache(2);
+    for (int i : Arrays.asList(1, 2, 3)) {
+      Sequence component =
+          new Sequence()
+              .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, i));
+      cache.add(execute(component, cache));
+    }
+    assertEquals(2, cache.size());
+  }
+}
@@ -0,0 +1,55 @@
+package randoop.sequence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import randoop.condition.ExecutableSpecification;
+import randoop.operation.TypedOperation;
+import randoop.types.JavaTypes;
+
+public class SequenceStorageTest {
+
+  private static Sequence intToString(int i) throws NoSuchMethodException {
+    Sequence sequence =
+        new Sequence().extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, i));
+    return sequence.extend(
+        TypedOperation.forMethod(String.class.getMethod("valueOf", int.class)),
+        sequence.getLastVariable());
+  }
+
+  @Test
+  public void testStatementsKeepTheirOperation() throws NoSuchMethodException {
+    // Equal operations can differ in their specifications, which equals() does not compare.
+    Method valueOf = String.class.getMethod("valueOf", int.class);
+    TypedOperation plain = TypedOperation.forMethod(valueOf);
+    TypedOperation specified = TypedOperation.forMethod(valueOf);
+    specified.setExecutableSpecification(new ExecutableSpecification());
+    assertEquals(plain, specified);
+
+    Sequence input =
+        new Sequence().extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, 7));
+    Sequence first = input.extend(plain, input.getLastVariable());
+    Sequence second = input.extend(specified, input.getLastVariable());
+    assertEquals(first, second);
+    assertSame(plain, first.getStatement(1).getOperation());
+    assertSame(specified, second.getStatement(1).getOperation());
+    assertSame(first.getStatement(0), second.getStatement(0));
+  }
+
+  @Test
+  public void testConcatenationSharesStatements() throws NoSuchMethodException {
+    Sequence component = intToString(3);
+    assertSame(
+        component.statements,
+        Sequence.concatenate(Arrays.asList(new Sequence(), component)).statements);
+
+    Sequence twice = Sequence.concatenate(Arrays.asList(component, component));
+    assertEquals(4, twice.size());
+    assertEquals(Collections.singletonList(2), twice.getInputsAsAbsoluteIndices(3));
+    assertSame(twice.getStatement(1), twice.getStatement(3));
+  }
+}
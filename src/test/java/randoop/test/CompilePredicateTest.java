@@ -1,6 +1,7 @@
 package randoop.test;
 
 import static org.apache.commons.codec.CharEncoding.UTF_8;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -9,9 +10,23 @@ import com.github.javaparser.ParseException;
 import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import org.junit.Test;
+import randoop.DummyVisitor;
+import randoop.main.GenTests;
+import randoop.operation.TypedOperation;
 import randoop.output.JUnitCreator;
+import randoop.sequence.ExecutableSequence;
+import randoop.sequence.Sequence;
+import randoop.types.JavaTypes;
+import randoop.util.GenerationMetrics;
 
 /** Test for compilation predicate. */
 public class CompilePredicateTest {
@@ -182,4 +197,101 @@ public class CompilePredicateTest {
     assertTrue(
         pred.testSource("CompilablePredicateTestClass", parseCU.getResult().get(), "foo.bar"));
   }
+
+  /** Called by an uncompilable sequence, because the generated test cannot access it. */
+  @SuppressWarnings("UnusedMethod") // called reflectively by the sequence under test
+  private static int inaccessible() {
+    return 0;
+  }
+
+  private static ExecutableSequence executed(Sequence sequence) {
+    ExecutableSequence eseq = new ExecutableSequence(sequence);
+    eseq.execute(new DummyVisitor(), new DummyCheckGenerator());
+    return eseq;
+  }
+
+  @Test
+  public void filterCompilableTest() throws IOException, NoSuchMethodException {
+    List<ExecutableSequence> sequences = filterCompilableInput();
+    ExecutableSequence bad = sequences.get(1);
+    JUnitCreator jUnitCreator = JUnitCreator.getTestCreator(null, null, null, null, null);
+    try (CompilableTestPredicate pred =
+        new CompilableTestPredicate(jUnitCreator, new GenTests(), 3)) {
+      assertFalse(pred.test(bad));
+      List<ExecutableSequence> compilable = pred.filterCompilable(sequences);
+      assertEquals(
+          Arrays.asList(sequences.get(0), sequences.get(2), sequences.get(3)), compilable);
+    }
+  }
+
+  @Test
+  public void filterCompilableEqualsTestTest() throws IOException, NoSuchMethodException {
+    // Uncompilable sequences first, last, and next to each other.
+    List<ExecutableSequence> sequences = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      sequences.add(i % 4 == 0 || i == 5 ? inaccessibleSequence() : intSequence(i));
+    }
+    JUnitCreator jUnitCreator = JUnitCreator.getTestCreator(null, null, null, null, null);
+    List<ExecutableSequence> expected = new ArrayList<>();
+    try (CompilableTestPredicate pred = new CompilableTestPredicate(jUnitCreator, new GenTests())) {
+      for (ExecutableSequence eseq : sequences) {
+        if (pred.test(eseq)) {
+          expected.add(eseq);
+        }
+      }
+    }
+    assertEquals(5, expected.size());
+    for (int batchSize : new int[] {1, 2, 3, 4, 9}) {
+      try (CompilableTestPredicate pred =
+          new CompilableTestPredicate(jUnitCreator, new GenTests(), batchSize)) {
+        assertEquals("batch size " + batchSize, expected, pred.filterCompilable(sequences));
+      }
+    }
+  }
+
+  @Test
+  public void filterCompilableMetricsTest() throws IOException, NoSuchMethodException {
+    Path metricsFile = Files.createTempFile("metrics", ".json");
+    GenerationMetrics.enable(metricsFile, 0);
+    JUnitCreator jUnitCreator = JUnitCreator.getTestCreator(null, null, null, null, null);
+    try (CompilableTestPredicate pred =
+        new CompilableTestPredicate(jUnitCreator, new GenTests(), 3)) {
+      pred.filterCompilable(filterCompilableInput());
+      // One measurement per batch, even though the sequence that does not compile, and the batch
+      // of one sequence, are checked by themselves.
+      assertEquals(2L, compilableCheckCount());
+    } finally {
+      GenerationMetrics.disable();
+      Files.delete(metricsFile);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static long compilableCheckCount() {
+    Map<String, Object> phases = (Map<String, Object>) GenerationMetrics.snapshot().get("phases");
+    return (Long) ((Map<String, Object>) phases.get("compilable_check")).get("count");
+  }
+
+  /**
+   * Returns four sequences, of which the second does not compile.
+   *
+   * @return the sequences
+   */
+  private static List<ExecutableSequence> filterCompilableInput() throws NoSuchMethodException {
+    return Arrays.asList(intSequence(1), inaccessibleSequence(), intSequence(2), intSequence(3));
+  }
+
+  private static ExecutableSequence intSequence(int value) {
+    return executed(
+        new Sequence()
+            .extend(TypedOperation.createPrimitiveInitialization(JavaTypes.INT_TYPE, value)));
+  }
+
+  private static ExecutableSequence inaccessibleSequence() throws NoSuchMethodException {
+    return executed(
+        new Sequence()
+            .extend(
+                TypedOperation.forMethod(
+                    CompilePredicateTest.class.getDeclaredMethod("inaccessible"))));
+  }
 }
@@ -1,13 +1,16 @@
 package randoop.test;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static randoop.main.GenInputsAbstract.require_classname_in_test;
 import static randoop.reflection.AccessibilityPredicate.IS_PUBLIC;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import org.junit.AfterClass;
@@ -174,6 +177,42 @@ public class ForwardExplorerTests {
     assertTrue(tree);
   }
 
+  @Test
+  public void testInstantiatedOperationsAreShared() {
+    randoop.util.Randomness.setSeed(0);
+    ReflectionExecutor.resetStatistics();
+
+    List<Class<?>> classes = new ArrayList<>();
+    classes.add(java.util.ArrayList.class);
+    ComponentManager mgr = new ComponentManager(SeedSequences.defaultSeeds());
+    final List<TypedOperation> model = getConcreteOperations(classes);
+    assertFalse(model.isEmpty());
+    ForwardGenerator explorer =
+        new ForwardGenerator(
+            model,
+            new LinkedHashSet<TypedOperation>(),
+            new GenInputsAbstract.Limits(0, 200, 200, 200),
+            mgr,
+            null,
+            null);
+    explorer.setTestCheckGenerator(createChecker(new ContractSet()));
+    explorer.setTestPredicate(createOutputTest());
+    TestUtils.setAllLogs(explorer);
+    explorer.createAndClassifySequences();
+
+    // Each instantiation of a generic operation that the generator selects is one object in all
+    // of the sequences that end with it.
+    Map<TypedOperation, TypedOperation> instantiations = new HashMap<>();
+    for (Sequence s : explorer.getAllSequences()) {
+      TypedOperation operation = s.getStatement(s.size() - 1).getOperation();
+      if (operation.isConstructorCall() || operation.isMethodCall()) {
+        instantiations.putIfAbsent(operation, operation);
+        assertSame(instantiations.get(operation), operation);
+      }
+    }
+    assertFalse(instantiations.isEmpty());
+  }
+
   private static TestCheckGenerator createChecker(ContractSet contracts) {
     return GenTests.createTestCheckGenerator(
         IS_PUBLIC, contracts, new MultiMap<>(), OmitMethodsPredicate.NO_OMISSION);
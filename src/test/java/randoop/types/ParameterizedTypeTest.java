@@ -3,6 +3,8 @@ package randoop.types;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static randoop.types.ExampleClassesForTests.A;
@@ -19,6 +21,8 @@ import static randoop.types.ExampleClassesForTests.H;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import org.junit.Test;
 import randoop.types.test.ParameterInput;
@@ -118,6 +122,88 @@ public class ParameterizedTypeTest {
     assertFalse(strIntEType.isAssignableFrom(strIntFType));
   }
 
+  @Test
+  public void testMemoizedSupertypeQueries() throws NoSuchFieldException {
+    InstantiatedType strALType =
+        GenericClassType.forClass(ArrayList.class)
+            .instantiate(NonParameterizedType.forClass(String.class));
+    Collection<ClassOrInterfaceType> supertypes = strALType.getSuperTypes();
+    assertSame(supertypes, strALType.getSuperTypes());
+    assertEquals(new HashSet<>(supertypes).size(), supertypes.size());
+    InstantiatedType strListType =
+        GenericClassType.forClass(List.class)
+            .instantiate(NonParameterizedType.forClass(String.class));
+    assertTrue(supertypes.contains(strListType));
+
+    InstantiatedType intListType =
+        GenericClassType.forClass(List.class)
+            .instantiate(NonParameterizedType.forClass(Integer.class));
+    for (int i = 0; i < 2; i++) {
+      assertTrue(strALType.isSubtypeOf(strListType));
+      assertFalse(strALType.isSubtypeOf(intListType));
+      assertTrue(strListType.isAssignableFrom(strALType));
+    }
+
+    // Subtype queries on a capture-converted type are not memoized, but give the same answers.
+    InstantiatedType wildcardListType =
+        (InstantiatedType)
+            ClassOrInterfaceType.forType(
+                ParameterizedTypeTest.class.getDeclaredField("wildcardList").getGenericType());
+    assertTrue(wildcardListType.hasWildcard());
+    InstantiatedType capturedType = wildcardListType.applyCaptureConversion();
+    assertTrue(capturedType.hasCaptureVariable());
+    ClassOrInterfaceType collectionType = NonParameterizedType.forClass(Collection.class);
+    for (int i = 0; i < 2; i++) {
+      assertTrue(wildcardListType.isSubtypeOf(collectionType));
+      assertTrue(capturedType.isSubtypeOf(collectionType));
+    }
+  }
+
+  @Test
+  public void testInternedInstantiations() throws NoSuchFieldException {
+    // Instantiation and reflection return the same object for equal types.
+    InstantiatedType strListType =
+        GenericClassType.forClass(List.class)
+            .instantiate(NonParameterizedType.forClass(String.class));
+    assertSame(
+        strListType,
+        GenericClassType.forClass(List.class)
+            .instantiate(NonParameterizedType.forClass(String.class)));
+    assertSame(
+        strListType,
+        ClassOrInterfaceType.forType(
+            ParameterizedTypeTest.class.getDeclaredField("stringList").getGenericType()));
+
+    // The matching supertype and its substitution are computed once per type object.
+    ClassOrInterfaceType strALType =
+        GenericClassType.forClass(ArrayList.class)
+            .instantiate(NonParameterizedType.forClass(String.class));
+    GenericClassType listType = GenericClassType.forClass(List.class);
+    InstantiatedType matchingType = strALType.getMatchingSupertype(listType);
+    assertEquals(strListType, matchingType);
+    assertSame(matchingType, strALType.getMatchingSupertype(listType));
+    assertSame(matchingType.getTypeSubstitution(), matchingType.getTypeSubstitution());
+    ClassOrInterfaceType stringType = NonParameterizedType.forClass(String.class);
+    assertEquals(null, stringType.getMatchingSupertype(listType));
+    assertEquals(null, stringType.getMatchingSupertype(listType));
+
+    // Capture conversion creates a new type each time.
+    InstantiatedType wildcardListType =
+        (InstantiatedType)
+            ClassOrInterfaceType.forType(
+                ParameterizedTypeTest.class.getDeclaredField("wildcardList").getGenericType());
+    assertNotSame(
+        wildcardListType.applyCaptureConversion(), wildcardListType.applyCaptureConversion());
+  }
+
+  /** A field whose declared type is parameterized, for {@link #testInternedInstantiations}. */
+  @SuppressWarnings("unused")
+  private static List<String> stringList;
+
+  /** A field whose declared type has a wildcard, for {@link #testMemoizedSupertypeQueries}. */
+  @SuppressWarnings("unused")
+  private static List<? extends Number> wildcardList;
+
   @Test
   public void testNames() {
     Type strALType =
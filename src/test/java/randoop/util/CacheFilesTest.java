@@ -0,0 +1,38 @@
+package randoop.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/** Tests for {@link CacheFiles}. */
+public class CacheFilesTest {
+
+  @Test
+  public void testSha256Hex() {
+    assertEquals(
+        "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+        CacheFiles.sha256Hex("abc"));
+    assertEquals(CacheFiles.sha256Hex("abc"), CacheFiles.sha256Hex("abc".getBytes(UTF_8)));
+  }
+
+  @Test
+  public void testWriteAtomically() throws IOException {
+    Path directory = Files.createTempDirectory("cache").resolve("entries");
+    Path entry = directory.resolve("entry.bin");
+    CacheFiles.writeAtomically(entry, new byte[] {1, 2, 3});
+    assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(entry));
+
+    // An existing entry is replaced, and no temporary file is left behind.
+    CacheFiles.writeAtomically(entry, new byte[] {4});
+    assertArrayEquals(new byte[] {4}, Files.readAllBytes(entry));
+    try (Stream<Path> entries = Files.list(directory)) {
+      assertEquals(1, entries.count());
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package randoop.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.Test;
+import randoop.util.ClassFileConstants.ConstantSet;
+
+/** Tests for {@link ConstantSetCache}. */
+public class ConstantSetCacheTest {
+
+  @Test
+  public void testStoreAndLookup() throws IOException {
+    Path directory = Files.createTempDirectory("literals").resolve("cache");
+    ConstantSetCache cache = new ConstantSetCache(directory);
+    byte[] classfile = "contents of a class file".getBytes(UTF_8);
+    assertNull(cache.lookup(classfile));
+
+    ConstantSet constants = constantSet();
+    cache.store(classfile, constants);
+    ConstantSet cached = cache.lookup(classfile);
+    assertNotNull(cached);
+    assertEquals(constants.toString(), cached.toString());
+
+    // A class whose class file changed does not reuse the entry.
+    assertNull(cache.lookup("contents of a changed class file".getBytes(UTF_8)));
+  }
+
+  @Test
+  public void testUnreadableEntry() throws IOException {
+    Path directory = Files.createTempDirectory("literals");
+    ConstantSetCache cache = new ConstantSetCache(directory);
+    byte[] classfile = "contents of a class file".getBytes(UTF_8);
+    cache.store(classfile, constantSet());
+    Path entry;
+    try (Stream<Path> entries = Files.list(directory)) {
+      entry = entries.findFirst().get();
+    }
+    Files.write(entry, new byte[] {0, 0, 0, 1, 0});
+    assertNull(cache.lookup(classfile));
+  }
+
+  /**
+   * Returns a constant set with constants of each kind.
+   *
+   * @return a constant set
+   */
+  private static ConstantSet constantSet() {
+    ConstantSet result = new ConstantSet();
+    result.classname = "randoop.util.ConstantSetCacheTest";
+    result.ints.add(-3);
+    result.ints.add(65536);
+    result.longs.add(200000L);
+    result.floats.add(Float.NaN);
+    result.floats.add(-0.0f);
+    result.doubles.add(35.3);
+    result.strings.add("");
+    result.strings.add("a \u00e9 \u0000 string");
+    return result;
+  }
+}
@@ -0,0 +1,158 @@
+package randoop.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class DirectInvokerTest {
+
+  public static class Target {
+    public static int counter = 0;
+    public String name;
+
+    public Target(String name) {
+      this.name = name;
+    }
+
+    public static long add(int x, long y) {
+      return x + y;
+    }
+
+    public String greet(String... others) {
+      return name + others.length;
+    }
+
+    public void fail() {
+      throw new IllegalStateException("fail");
+    }
+  }
+
+  /** A class whose static initializer throws. */
+  public static class FailsToInitialize {
+    static {
+      initialize();
+    }
+
+    private static void initialize() {
+      throw new IllegalStateException("static initializer");
+    }
+
+    public FailsToInitialize() {}
+
+    public static int value() {
+      return 1;
+    }
+  }
+
+  /** Another class whose static initializer throws. */
+  public static class AlsoFailsToInitialize {
+    static {
+      initialize();
+    }
+
+    private static void initialize() {
+      throw new IllegalStateException("static initializer");
+    }
+
+    public AlsoFailsToInitialize() {}
+  }
+
+  @Test
+  public void testStaticMethod() throws Throwable {
+    Method add = Target.class.getMethod("add", int.class, long.class);
+    DirectInvoker invoker = DirectInvoker.forMethod(add);
+    Object[] args = {1, 2L};
+    // The handle is not used until a call through reflection has initialized the class.
+    assertFalse(invoker.accepts(null, args));
+    new MethodReflectionCode(add, invoker, null, args).runReflectionCode();
+    assertTrue(invoker.accepts(null, args));
+    assertEquals(3L, invoker.invoke(null, args));
+    // Reflection would widen or reject these; the invoker leaves them to reflection.
+    assertFalse(invoker.accepts(null, new Object[] {1, 2}));
+    assertFalse(invoker.accepts(null, new Object[] {1, null}));
+    assertFalse(invoker.accepts(null, new Object[] {1}));
+  }
+
+  @Test
+  public void testInstanceMethod() throws Throwable {
+    Method greet = Target.class.getMethod("greet", String[].class);
+    DirectInvoker invoker = DirectInvoker.forMethod(greet);
+    Object[] args = {new String[] {"a", "b"}};
+    assertTrue(invoker.accepts(new Target("t"), args));
+    assertEquals("t2", invoker.invoke(new Target("t"), args));
+    assertFalse(invoker.accepts("not a Target", args));
+
+    DirectInvoker failing = DirectInvoker.forMethod(Target.class.getMethod("fail"));
+    try {
+      failing.invoke(new Target("t"), new Object[0]);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals("fail", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testConstructor() throws Throwable {
+    Constructor<?> constructor = Target.class.getConstructor(String.class);
+    DirectInvoker invoker = DirectInvoker.forConstructor(constructor);
+    Object[] args = {"new"};
+    assertFalse(invoker.accepts(null, args));
+    new ConstructorReflectionCode(constructor, invoker, args).runReflectionCode();
+    assertTrue(invoker.accepts(null, args));
+    assertEquals("new", ((Target) invoker.invoke(null, args)).name);
+  }
+
+  @Test
+  public void testFields() throws Throwable {
+    Field name = Target.class.getField("name");
+    Target target = new Target("before");
+    DirectInvoker.forSetter(name).invoke(target, new Object[] {"after"});
+    assertEquals("after", DirectInvoker.forGetter(name).invoke(target, new Object[0]));
+
+    Field counter = Target.class.getField("counter");
+    DirectInvoker setter = DirectInvoker.forSetter(counter);
+    assertFalse(setter.accepts(null, new Object[] {null}));
+    assertNull(setter.invoke(null, new Object[] {7}));
+    assertEquals(7, DirectInvoker.forGetter(counter).invoke(null, new Object[0]));
+  }
+
+  @Test
+  public void testStaticInitializerErrorsAreClassifiedAsWithReflection() throws Exception {
+    Method value = FailsToInitialize.class.getMethod("value");
+    DirectInvoker invoker = DirectInvoker.forMethod(value);
+    // Reflection throws the initialization error itself the first time, and NoClassDefFoundError
+    // afterward. Neither is the method's exception.
+    for (Class<?> expected :
+        Arrays.asList(ExceptionInInitializerError.class, NoClassDefFoundError.class)) {
+      assertFalse(invoker.accepts(null, new Object[0]));
+      try {
+        new MethodReflectionCode(value, invoker, null, new Object[0]).runReflectionCode();
+        fail("initialization error was not reported");
+      } catch (ReflectionCode.ReflectionCodeException e) {
+        assertEquals(expected, e.getCause().getClass());
+      }
+    }
+
+    Constructor<?> constructor = AlsoFailsToInitialize.class.getConstructor();
+    DirectInvoker constructorInvoker = DirectInvoker.forConstructor(constructor);
+    for (Class<?> expected :
+        Arrays.asList(ExceptionInInitializerError.class, NoClassDefFoundError.class)) {
+      assertFalse(constructorInvoker.accepts(null, new Object[0]));
+      try {
+        new ConstructorReflectionCode(constructor, constructorInvoker, new Object[0])
+            .runReflectionCode();
+        fail("initialization error was not reported");
+      } catch (ReflectionCode.ReflectionCodeException e) {
+        assertEquals(expected, e.getCause().getClass());
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package randoop.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+import randoop.util.GenerationMetrics.Phase;
+
+public class GenerationMetricsTest {
+
+  @After
+  public void disable() {
+    GenerationMetrics.disable();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> phase(String name) {
+    Map<String, Object> phases = (Map<String, Object>) GenerationMetrics.snapshot().get("phases");
+    return (Map<String, Object>) phases.get(name);
+  }
+
+  @Test
+  public void testDisabledRecordsNothing() {
+    long start = GenerationMetrics.start(Phase.EXECUTION);
+    assertEquals(GenerationMetrics.NOT_STARTED, start);
+    GenerationMetrics.stop(Phase.EXECUTION, start);
+  }
+
+  @Test
+  public void testPhasesAreCounted() throws IOException {
+    Path file = Files.createTempFile("metrics", ".json");
+    GenerationMetrics.enable(file, 0);
+    for (int i = 0; i < 3; i++) {
+      long start = GenerationMetrics.start(Phase.INPUT_SELECTION);
+      GenerationMetrics.stop(Phase.INPUT_SELECTION, start);
+    }
+    Map<String, Object> inputSelection = phase("input_selection");
+    assertEquals(3L, inputSelection.get("count"));
+    assertTrue((Long) inputSelection.get("p99_nanos") >= (Long) inputSelection.get("max_nanos"));
+    assertEquals(0L, phase("execution").get("count"));
+
+    GenerationMetrics.write();
+    String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    assertTrue(json.contains("\"input_selection\""));
+    Files.delete(file);
+  }
+
+  @Test
+  public void testCsvIsWrittenEveryInterval() throws IOException {
+    Path file = Files.createTempFile("metrics", ".csv");
+    Files.delete(file);
+    GenerationMetrics.enable(file, 2);
+    GenerationMetrics.step();
+    assertTrue(!Files.exists(file));
+    GenerationMetrics.step();
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    assertEquals("metric,value", lines.get(0));
+    assertTrue(lines.contains("steps,2"));
+    Files.delete(file);
+  }
+}
@@ -0,0 +1,154 @@
+package randoop.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import randoop.ExceptionalExecution;
+import randoop.ExecutionOutcome;
+import randoop.NormalExecution;
+import randoop.main.OptionsCache;
+
+public class RunnerThreadPoolTest {
+
+  private static OptionsCache optionsCache;
+
+  @BeforeClass
+  public static void setup() {
+    optionsCache = new OptionsCache();
+    optionsCache.saveState();
+  }
+
+  @AfterClass
+  public static void restore() {
+    optionsCache.restoreState();
+  }
+
+  /** Reflection code that returns the name of the thread that runs it. */
+  private static class ThreadName extends ReflectionCode {
+    @Override
+    protected void runReflectionCodeRaw() {
+      retval = Thread.currentThread().getName();
+    }
+  }
+
+  /** Reflection code that never returns. */
+  private static class Loop extends ReflectionCode {
+    @Override
+    protected void runReflectionCodeRaw() {
+      while (true) {
+        // loop.
+      }
+    }
+  }
+
+  /** Reflection code that returns the square of a number. */
+  private static class Square extends ReflectionCode {
+    private final int x;
+
+    Square(int x) {
+      this.x = x;
+    }
+
+    @Override
+    protected void runReflectionCodeRaw() {
+      retval = x * x;
+    }
+  }
+
+  /** Reflection code that throws an exception. */
+  private static class Throw extends ReflectionCode {
+    @Override
+    protected void runReflectionCodeRaw() {
+      exceptionThrown = new IllegalStateException("thrown by the code under test");
+    }
+  }
+
+  private static Object runOnPool() throws TimeoutException {
+    ReflectionCode code = new ThreadName();
+    RunnerThreadPool.execute(code, 5000);
+    return code.getReturnValue();
+  }
+
+  @Test
+  public void testRunnerIsReused() throws TimeoutException {
+    Object first = runOnPool();
+    int started = RunnerThreadPool.runnersStarted();
+    assertEquals(first, runOnPool());
+    assertEquals(first, runOnPool());
+    assertEquals(started, RunnerThreadPool.runnersStarted());
+  }
+
+  @Test
+  public void testOnlyKilledRunnerIsReplaced() throws TimeoutException {
+    Object before = runOnPool();
+    int killed = RunnerThreadPool.runnersKilled();
+    ReflectionCode loop = new Loop();
+    try {
+      RunnerThreadPool.execute(loop, 200);
+      fail("expected a timeout");
+    } catch (TimeoutException e) {
+      // expected
+    }
+    assertEquals(killed + 1, RunnerThreadPool.runnersKilled());
+    assertTrue(loop.hasStarted());
+
+    int started = RunnerThreadPool.runnersStarted();
+    Object after = runOnPool();
+    assertEquals(started + 1, RunnerThreadPool.runnersStarted());
+    assertTrue(!before.equals(after));
+    assertEquals(after, runOnPool());
+  }
+
+  @Test
+  public void testReuseDoesNotChangeOutcomes() {
+    ReflectionExecutor.usethreads = true;
+    ReflectionExecutor.call_timeout = 200;
+    ReflectionExecutor.reuse_runner_threads = false;
+    List<String> newThreads = outcomes();
+    assertEquals(
+        Arrays.asList(
+            "normal: 49",
+            "exception: java.lang.IllegalStateException: thrown by the code under test",
+            "exception: java.util.concurrent.TimeoutException",
+            "normal: 64"),
+        newThreads);
+
+    ReflectionExecutor.reuse_runner_threads = true;
+    assertEquals(newThreads, outcomes());
+    // The pool replaces the runner that timed out.
+    assertEquals(newThreads, outcomes());
+  }
+
+  /**
+   * Executes code that returns normally, code that throws, code that times out, and code that
+   * returns normally after the timeout.
+   *
+   * @return a description of each outcome
+   */
+  private static List<String> outcomes() {
+    List<String> result = new ArrayList<>();
+    List<ReflectionCode> codes =
+        Arrays.asList(new Square(7), new Throw(), new Loop(), new Square(8));
+    for (ReflectionCode code : codes) {
+      ExecutionOutcome outcome = ReflectionExecutor.executeReflectionCode(code);
+      if (outcome instanceof NormalExecution) {
+        result.add("normal: " + ((NormalExecution) outcome).getRuntimeValue());
+      } else {
+        Throwable e = ((ExceptionalExecution) outcome).getException();
+        result.add(
+            "exception: "
+                + e.getClass().getName()
+                + (e instanceof TimeoutException ? "" : ": " + e.getMessage()));
+      }
+    }
+    return result;
+  }
+}
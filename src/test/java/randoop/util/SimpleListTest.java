@@ -1,8 +1,10 @@
 package randoop.util;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -112,4 +114,74 @@ public class SimpleListTest {
 
     assertTrue(sl.isEmpty());
   }
+
+  @Test
+  public void longChainOfExtensions() {
+    List<Integer> expected = new ArrayList<>();
+    SimpleList<Integer> chain = new SimpleArrayList<>();
+    for (int i = 0; i < 100000; i++) {
+      chain = new OneMoreElementList<>(chain, i);
+      expected.add(i);
+      if (i == 50000) {
+        // Materialize a prefix of the chain, which the longer list then copies.
+        assertEquals(Integer.valueOf(7), chain.get(7));
+      }
+    }
+    assertEquals(expected, chain.toJDKList());
+    for (int i = 0; i < chain.size(); i++) {
+      assertEquals(Integer.valueOf(i), chain.get(i));
+    }
+    assertEquals(expected, chain.toJDKList());
+  }
+
+  @Test
+  public void extensionsOfTheSameList() {
+    SimpleList<Integer> base = new SimpleArrayList<>(Arrays.asList(0, 1));
+    for (int i = 2; i < 10; i++) {
+      base = new OneMoreElementList<>(base, i);
+    }
+    assertEquals(Integer.valueOf(3), base.get(3));
+
+    // The first extension to be materialized takes the slot after the elements of base, and the
+    // others copy them.
+    List<SimpleList<Integer>> extensions = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      SimpleList<Integer> extension = new OneMoreElementList<>(base, 100 + i);
+      for (int j = 0; j < 5; j++) {
+        extension = new OneMoreElementList<>(extension, 1000 * i + j);
+      }
+      extensions.add(extension);
+    }
+    for (int i = 2; i >= 0; i--) {
+      SimpleList<Integer> extension = extensions.get(i);
+      assertEquals(Integer.valueOf(100 + i), extension.get(10));
+      for (int j = 0; j < 10; j++) {
+        assertEquals(Integer.valueOf(j), extension.get(j));
+      }
+      for (int j = 0; j < 5; j++) {
+        assertEquals(Integer.valueOf(1000 * i + j), extension.get(11 + j));
+      }
+      assertEquals(Integer.valueOf(100 + i), extension.getSublist(10).get(10));
+    }
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), base.toJDKList());
+  }
+
+  @Test
+  public void listOfListsWithEmptySublists() {
+    List<SimpleList<String>> lists = new ArrayList<>();
+    lists.add(new SimpleArrayList<>());
+    lists.add(new SimpleArrayList<>(Arrays.asList("a", "b")));
+    lists.add(new SimpleArrayList<>());
+    lists.add(new SimpleArrayList<>());
+    lists.add(new SimpleArrayList<>(Arrays.asList("c")));
+    lists.add(new SimpleArrayList<>());
+    SimpleList<String> sl = new ListOfLists<>(lists);
+
+    assertEquals(3, sl.size());
+    assertEquals("a", sl.get(0));
+    assertEquals("b", sl.get(1));
+    assertEquals("c", sl.get(2));
+    assertEquals(Arrays.asList("c"), sl.getSublist(2).toJDKList());
+    assertEquals(Arrays.asList("a", "b", "c"), sl.toJDKList());
+  }
 }
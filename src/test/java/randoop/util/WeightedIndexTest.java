@@ -0,0 +1,83 @@
+package randoop.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import randoop.main.RandoopBug;
+
+public class WeightedIndexTest {
+
+  private static WeightedIndex indexOf(double... weights) {
+    WeightedIndex index = new WeightedIndex();
+    for (double weight : weights) {
+      index.add(weight);
+    }
+    return index;
+  }
+
+  @Test
+  public void testFind() {
+    WeightedIndex index = indexOf(1, 2, 0, 3);
+    assertEquals(6, index.total(), 0);
+    assertEquals(0, index.find(0));
+    assertEquals(0, index.find(0.99));
+    assertEquals(1, index.find(1));
+    assertEquals(1, index.find(2.99));
+    // Position 2 has weight zero and is never found.
+    assertEquals(3, index.find(3));
+    assertEquals(3, index.find(5.99));
+    // A point at or past the total, as round-off error may produce, finds the last positive weight.
+    assertEquals(3, index.find(6));
+  }
+
+  @Test
+  public void testSet() {
+    WeightedIndex index = indexOf(1, 2, 3);
+    index.set(1, 0);
+    assertEquals(4, index.total(), 0);
+    assertEquals(0, index.get(1), 0);
+    assertEquals(2, index.find(1));
+    index.set(0, 0);
+    index.set(2, 0);
+    index.set(1, 5);
+    assertEquals(5, index.total(), 0);
+    assertEquals(1, index.find(0));
+    assertEquals(1, index.find(4.5));
+  }
+
+  @Test
+  public void testGrowth() {
+    WeightedIndex index = new WeightedIndex();
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, index.add(i % 7));
+    }
+    assertEquals(1000, index.size());
+    double prefix = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (i % 7 != 0) {
+        assertEquals(i, index.find(prefix));
+        assertEquals(i, index.find(prefix + (i % 7) - 0.5));
+      }
+      prefix += i % 7;
+    }
+    assertEquals(prefix, index.total(), 0);
+  }
+
+  @Test
+  public void testManyUpdates() {
+    WeightedIndex index = indexOf(0.1, 0.2, 0.3, 0.4);
+    for (int i = 0; i < 10000; i++) {
+      index.set(i % 4, 1.0 / (i + 1));
+    }
+    double total = 0;
+    for (int i = 0; i < 4; i++) {
+      total += index.get(i);
+    }
+    assertEquals(total, index.total(), 1e-12);
+  }
+
+  @Test(expected = RandoopBug.class)
+  public void testNegativeWeight() {
+    indexOf(1).set(0, -1);
+  }
+}
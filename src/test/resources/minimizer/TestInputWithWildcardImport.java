@@ -17,7 +17,7 @@ public class TestInputWithWildcardImport {
     org.junit.Assert.assertTrue(list.size() == 2);
 
     list.add(3);
-    // False, should be 3.
+    // Fails: the list does not have 2 elements.
     org.junit.Assert.assertTrue(list.size() == 2);
   }
 }